@@ -42,6 +42,7 @@ import static org.fcrepo.kernel.api.FedoraTypes.LDP_DIRECT_CONTAINER;
 import static org.fcrepo.kernel.api.FedoraTypes.LDP_INDIRECT_CONTAINER;
 import static org.fcrepo.kernel.api.RdfLexicon.BASIC_CONTAINER;
 import static org.fcrepo.kernel.api.RdfLexicon.CONTAINER;
+import static org.fcrepo.kernel.api.RdfLexicon.CONTAINS;
 import static org.fcrepo.kernel.api.RdfLexicon.DIRECT_CONTAINER;
 import static org.fcrepo.kernel.api.RdfLexicon.INDIRECT_CONTAINER;
 import static org.fcrepo.kernel.api.RdfLexicon.LDP_NAMESPACE;
@@ -57,6 +58,7 @@ import static org.fcrepo.kernel.api.RequiredRdfContext.PROPERTIES;
 import static org.fcrepo.kernel.api.RequiredRdfContext.SERVER_MANAGED;
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -68,12 +70,16 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.inject.Inject;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.BadRequestException;
 import javax.ws.rs.BeanParam;
@@ -84,13 +90,19 @@ import javax.ws.rs.core.Link;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriBuilder;
 
+import org.fcrepo.http.api.responses.CacheableRdfStream;
+import org.fcrepo.http.api.responses.RdfResponseCache;
 import org.fcrepo.http.commons.api.HttpHeaderInjector;
+import org.fcrepo.http.commons.api.rdf.HttpResourceConverter;
 import org.fcrepo.http.commons.api.rdf.HttpTripleUtil;
 import org.fcrepo.http.commons.domain.MultiPrefer;
 import org.fcrepo.http.commons.domain.PreferTag;
 import org.fcrepo.http.commons.domain.Range;
 import org.fcrepo.http.commons.domain.ldp.LdpPreferTag;
+import org.fcrepo.http.commons.responses.ByteRangesStreamingOutput;
+import org.fcrepo.http.commons.responses.FileRangeStreamingOutput;
 import org.fcrepo.http.commons.responses.RangeRequestInputStream;
 import org.fcrepo.http.commons.responses.RdfNamespacedStream;
 import org.fcrepo.http.commons.session.HttpSession;
@@ -101,17 +113,21 @@ import org.fcrepo.kernel.api.exception.MalformedRdfException;
 import org.fcrepo.kernel.api.exception.PreconditionException;
 import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
 import org.fcrepo.kernel.api.exception.ServerManagedPropertyException;
+import org.fcrepo.kernel.api.identifiers.IdentifierConverter;
 import org.fcrepo.kernel.api.models.Container;
 import org.fcrepo.kernel.api.models.FedoraBinary;
 import org.fcrepo.kernel.api.models.FedoraResource;
 import org.fcrepo.kernel.api.models.NonRdfSourceDescription;
+import org.fcrepo.kernel.api.models.StagedContent;
 import org.fcrepo.kernel.api.rdf.DefaultRdfStream;
 import org.fcrepo.kernel.api.services.policy.StoragePolicyDecisionPoint;
 
 import org.apache.jena.atlas.RuntimeIOException;
+import org.apache.jena.graph.Node;
 import org.apache.jena.graph.Triple;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.Statement;
 import org.apache.jena.riot.Lang;
 import org.apache.jena.riot.RiotException;
@@ -137,6 +153,7 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
 
     @Context protected Request request;
     @Context protected HttpServletResponse servletResponse;
+    @Context private HttpServletRequest servletRequest;
 
     @Inject
     @Optional
@@ -158,6 +175,16 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
     @Inject
     protected  PathLockManager lockManager;
 
+    @Inject
+    @Optional
+    private RdfResponseCache responseCache;
+
+    @Inject
+    @Optional
+    private TripleStreamExecutor tripleStreamExecutor;
+
+    private ResourceHeaderView headerView;
+
     private static final Predicate<Triple> IS_MANAGED_TYPE = t -> t.getPredicate().equals(type.asNode()) &&
             isManagedNamespace.test(t.getObject().getNameSpace());
     private static final Predicate<Triple> IS_MANAGED_TRIPLE = IS_MANAGED_TYPE
@@ -182,32 +209,84 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
     protected Response getContent(final String rangeValue,
                                   final int limit,
                                   final RdfStream rdfStream) throws IOException {
+        return getContent(rangeValue, limit, null, rdfStream);
+    }
+
+    /**
+     * This method returns an HTTP response with content body appropriate to the following arguments.
+     *
+     * @param rangeValue starting and ending byte offsets, see {@link Range}
+     * @param limit is the number of child resources returned in the response, -1 for all
+     * @param page the page of child resources returned in the response, or null to return them up to the limit
+     * @param rdfStream to which response RDF will be concatenated
+     * @return HTTP response
+     * @throws IOException in case of error extracting content
+     */
+    protected Response getContent(final String rangeValue,
+                                  final int limit,
+                                  final PageCursor page,
+                                  final RdfStream rdfStream) throws IOException {
 
         final RdfNamespacedStream outputStream;
 
         if (resource() instanceof FedoraBinary) {
-
-            final MediaType mediaType = MediaType.valueOf(((FedoraBinary) resource()).getMimeType());
-
-            if (isExternalBody(mediaType)) {
-                return temporaryRedirect(URI.create(mediaType.getParameters().get("URL"))).build();
-            }
-
-            return getBinaryContent(rangeValue);
+            return getBinaryResponse(rangeValue);
         } else {
-            outputStream = new RdfNamespacedStream(
-                    new DefaultRdfStream(rdfStream.topic(), concat(rdfStream,
-                        getResourceTriples(limit))),
-                    session.getFedoraSession().getNamespaces());
+            // the key and path must be taken before a description is exchanged for the resource it describes
+            final String cacheKey = getResponseCacheKey(limit, page);
+            final String path = resource().getPath();
+            final RdfStream triples = new DefaultRdfStream(rdfStream.topic(), concat(rdfStream,
+                        getResourceTriples(limit, page)));
+            final Map<String, String> namespaces = session.getFedoraSession().getNamespaces();
+            outputStream = cacheKey == null ? new RdfNamespacedStream(triples, namespaces) :
+                    new CacheableRdfStream(triples, namespaces, responseCache, cacheKey, path);
             if (prefer != null) {
                 prefer.getReturn().addResponseHeaders(servletResponse);
             }
         }
-        servletResponse.addHeader("Vary", "Accept, Range, Accept-Encoding, Accept-Language");
+        // the Limit header selects a page of children, which must not be served for another
+        servletResponse.addHeader("Vary", "Accept, Range, Accept-Encoding, Accept-Language, Limit");
 
         return ok(outputStream).build();
     }
 
+    /**
+     * Produce the key under which the serialized RDF for this request may be cached, or null if it may not be.
+     * Responses within a transaction, pages of a container and responses that include inbound references, which
+     * change without any event for this resource, are never cached.
+     *
+     * @param limit the limit on containment triples
+     * @param page the page of children requested, if any
+     * @return the key, without the media type of the response
+     */
+    private String getResponseCacheKey(final int limit, final PageCursor page) {
+        if (responseCache == null || !responseCache.isEnabled() || page != null || session().isBatchSession()
+                || new LdpPreferTag(getReturnPreference()).prefersReferences()) {
+            return null;
+        }
+        final List<String> preferHeaders = headers.getRequestHeader("Prefer");
+        return String.join("\n", resource().getPath(), headerView(resource()).getEtagValue(),
+                String.valueOf(limit), uriInfo.getBaseUri().toString(), String.valueOf(getUserPrincipal()),
+                preferHeaders == null ? "" : String.join(",", preferHeaders));
+    }
+
+    /**
+     * Produce the response for a binary, which needs none of the RDF machinery of other resources
+     *
+     * @param rangeValue the range value
+     * @return HTTP response
+     * @throws IOException in case of error extracting content
+     */
+    protected Response getBinaryResponse(final String rangeValue) throws IOException {
+        final MediaType mediaType = MediaType.valueOf(headerView(resource()).getMimeType());
+
+        if (isExternalBody(mediaType)) {
+            return temporaryRedirect(URI.create(mediaType.getParameters().get("URL"))).build();
+        }
+
+        return getBinaryContent(rangeValue);
+    }
+
     protected boolean isExternalBody(final MediaType mediaType) {
         return MESSAGE_EXTERNAL_BODY.isCompatible(mediaType) &&
                 mediaType.getParameters().containsKey("access-type") &&
@@ -226,69 +305,79 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
      * @return {@link RdfStream}
      */
     protected RdfStream getResourceTriples(final int limit) {
+        return getResourceTriples(limit, null);
+    }
+
+    /**
+     * This method returns a stream of RDF triples associated with this target resource
+     *
+     * @param limit is the number of child resources returned in the response, -1 for all
+     * @param page the page of child resources returned in the response, or null to return them up to the limit
+     * @return {@link RdfStream}
+     */
+    protected RdfStream getResourceTriples(final int limit, final PageCursor page) {
         // use the thing described, not the description, for the subject of descriptive triples
         if (resource() instanceof NonRdfSourceDescription) {
             resource = resource().getDescribedResource();
         }
-        final PreferTag returnPreference;
-
-        if (prefer != null && prefer.hasReturn()) {
-            returnPreference = prefer.getReturn();
-        } else if (prefer != null && prefer.hasHandling()) {
-            returnPreference = prefer.getHandling();
-        } else {
-            returnPreference = PreferTag.emptyTag();
-        }
+        final PreferTag returnPreference = getReturnPreference();
 
         final LdpPreferTag ldpPreferences = new LdpPreferTag(returnPreference);
 
         final Predicate<Triple> tripleFilter = ldpPreferences.prefersServerManaged() ? x -> true :
             IS_MANAGED_TRIPLE.negate();
 
-        final List<Stream<Triple>> streams = new ArrayList<>();
+        final List<Function<HttpSession, Stream<Triple>>> contexts = new ArrayList<>();
 
 
         if (returnPreference.getValue().equals("minimal")) {
-            streams.add(getTriples(of(PROPERTIES, MINIMAL)).filter(tripleFilter));
+            contexts.add(context(of(PROPERTIES, MINIMAL)).andThen(triples -> triples.filter(tripleFilter)));
 
             if (ldpPreferences.prefersServerManaged()) {
-                streams.add(getTriples(of(SERVER_MANAGED, MINIMAL)));
+                contexts.add(context(of(SERVER_MANAGED, MINIMAL)));
             }
         } else {
-            streams.add(getTriples(PROPERTIES).filter(tripleFilter));
+            contexts.add(context(PROPERTIES).andThen(triples -> triples.filter(tripleFilter)));
 
             // Additional server-managed triples about this resource
             if (ldpPreferences.prefersServerManaged()) {
-                streams.add(getTriples(SERVER_MANAGED));
+                contexts.add(context(SERVER_MANAGED));
             }
 
             // containment triples about this resource
             if (ldpPreferences.prefersContainment()) {
-                if (limit == -1) {
-                    streams.add(getTriples(LDP_CONTAINMENT));
+                if (page != null) {
+                    // the page sets the paging headers of the response, so it is read before the response is written
+                    final List<Triple> containment = getContainmentPage(page).collect(Collectors.toList());
+                    contexts.add(x -> containment.stream());
+                } else if (limit == -1) {
+                    contexts.add(context(LDP_CONTAINMENT));
                 } else {
-                    streams.add(getTriples(LDP_CONTAINMENT).limit(limit));
+                    contexts.add(context(LDP_CONTAINMENT).andThen(triples -> triples.limit(limit)));
                 }
             }
 
             // LDP container membership triples for this resource
             if (ldpPreferences.prefersMembership()) {
-                streams.add(getTriples(LDP_MEMBERSHIP));
+                contexts.add(context(LDP_MEMBERSHIP));
             }
 
             // Include inbound references to this object
             if (ldpPreferences.prefersReferences()) {
-                streams.add(getTriples(INBOUND_REFERENCES));
+                contexts.add(context(INBOUND_REFERENCES));
             }
 
             // Embed the children of this object
             if (ldpPreferences.prefersEmbed()) {
-                streams.add(getTriples(EMBED_RESOURCES));
+                contexts.add(context(EMBED_RESOURCES));
             }
         }
 
-        final RdfStream rdfStream = new DefaultRdfStream(
-                asNode(resource()), streams.stream().reduce(empty(), Stream::concat));
+        // the contexts may only be read through other sessions where the session has no pending changes
+        final Stream<Triple> triples = tripleStreamExecutor == null || session().isBatchSession() ?
+                contexts.stream().map(context -> context.apply(session())).reduce(empty(), Stream::concat) :
+                tripleStreamExecutor.concatenate(contexts, session(), () -> sessions.getSession(servletRequest));
+        final RdfStream rdfStream = new DefaultRdfStream(asNode(resource()), triples);
 
         if (httpTripleUtil != null && ldpPreferences.prefersServerManaged()) {
             return httpTripleUtil.addHttpComponentModelsForResourceToStream(rdfStream, resource(), uriInfo,
@@ -298,6 +387,70 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
         return rdfStream;
     }
 
+    private Function<HttpSession, Stream<Triple>> context(final TripleCategory category) {
+        return context((resource, idTranslator) -> resource.getTriples(idTranslator, category));
+    }
+
+    private Function<HttpSession, Stream<Triple>> context(final Set<? extends TripleCategory> categories) {
+        return context((resource, idTranslator) -> resource.getTriples(idTranslator, categories));
+    }
+
+    /**
+     * Build a context of this resource against a session, either that of the request or one in which the context is
+     * read on another thread, where this resource and its translator are looked up afresh.
+     *
+     * @param triples produces the triples of the context from this resource and a translator
+     * @return the context
+     */
+    private Function<HttpSession, Stream<Triple>> context(final BiFunction<FedoraResource,
+            IdentifierConverter<Resource, FedoraResource>, Stream<Triple>> triples) {
+        final HttpSession requestSession = session();
+        final FedoraResource requestResource = resource();
+        final Resource subject = translator().reverse().convert(requestResource);
+        final UriBuilder baseUri = uriInfo.getBaseUriBuilder().clone().path(FedoraLdp.class);
+        return readSession -> {
+            if (readSession == requestSession) {
+                return triples.apply(requestResource, translator());
+            }
+            final IdentifierConverter<Resource, FedoraResource> idTranslator =
+                    new HttpResourceConverter(readSession, baseUri);
+            return triples.apply(idTranslator.convert(subject), idTranslator);
+        };
+    }
+
+    private PreferTag getReturnPreference() {
+        if (prefer != null && prefer.hasReturn()) {
+            return prefer.getReturn();
+        } else if (prefer != null && prefer.hasHandling()) {
+            return prefer.getHandling();
+        }
+        return PreferTag.emptyTag();
+    }
+
+    /**
+     * Produce the containment triples for a page of the children of this resource, and the LDP Paging headers
+     * that describe the page, including a link to the next page if there is one.
+     *
+     * @param page the page of children
+     * @return the containment triples
+     */
+    private Stream<Triple> getContainmentPage(final PageCursor page) {
+        // one child more than the page holds tells us whether there is a next page
+        final List<FedoraResource> children = resource().getChildren(page.getAfter(), page.getPosition())
+                .limit(page.getPageSize() + 1L).collect(Collectors.toList());
+
+        servletResponse.addHeader(LINK, "<" + LDP_NAMESPACE + "Page>;rel=\"type\"");
+        if (children.size() > page.getPageSize()) {
+            final PageCursor next = page.next(children.get(page.getPageSize() - 1).getPath());
+            final URI nextUri = uriInfo.getRequestUriBuilder().replaceQueryParam("page", next.encode()).build();
+            servletResponse.addHeader(LINK, Link.fromUri(nextUri).rel("next").build().toString());
+        }
+
+        final Node subject = asNode(resource());
+        return children.stream().limit(page.getPageSize())
+                .map(child -> Triple.create(subject, CONTAINS.asNode(), asNode(child.getDescribedResource())));
+    }
+
     /**
      * Get the binary content of a datastream
      *
@@ -319,53 +472,68 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
             cc.setMustRevalidate(true);
             Response.ResponseBuilder builder;
 
-            if (rangeValue != null && rangeValue.startsWith("bytes")) {
-
-                final Range range = Range.convert(rangeValue);
-
-                final long contentSize = binary.getContentSize();
+            final ResourceHeaderView view = headerView(binary);
+            final long contentSize = view.getContentSize();
+            final List<Range> ranges = rangeValue == null || contentSize < 0 ? null :
+                    Range.parse(rangeValue, contentSize);
+            String type = view.getMimeType();
 
-                final String endAsString;
+            if (ranges == null) {
+                builder = ok(getBinaryRange(binary, 0, -1));
 
-                if (range.end() == -1) {
-                    endAsString = Long.toString(contentSize - 1);
-                } else {
-                    endAsString = Long.toString(range.end());
-                }
+            } else if (ranges.isEmpty()) {
+                servletResponse.setHeader(CONTENT_LENGTH, "0");
+                builder = status(REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header("Content-Range", "bytes */" + contentSize);
 
-                final String contentRangeValue =
-                        String.format("bytes %s-%s/%s", range.start(),
-                                endAsString, contentSize);
-
-                if (range.end() > contentSize ||
-                        (range.end() == -1 && range.start() > contentSize)) {
-
-                    builder = status(REQUESTED_RANGE_NOT_SATISFIABLE)
-                            .header("Content-Range", contentRangeValue);
-                } else {
-                    @SuppressWarnings("resource")
-                    final RangeRequestInputStream rangeInputStream =
-                            new RangeRequestInputStream(binary.getContent(), range.start(), range.size());
-
-                    builder = status(PARTIAL_CONTENT).entity(rangeInputStream)
-                            .header("Content-Range", contentRangeValue)
-                            .header(CONTENT_LENGTH, range.size());
-                }
+            } else if (ranges.size() == 1) {
+                final Range range = ranges.get(0);
+                builder = status(PARTIAL_CONTENT).entity(getBinaryRange(binary, range.start(), range.size()))
+                        .header("Content-Range",
+                                String.format("bytes %s-%s/%s", range.start(), range.end(), contentSize))
+                        .header(CONTENT_LENGTH, range.size());
 
             } else {
-                @SuppressWarnings("resource")
-                final InputStream content = binary.getContent();
-                builder = ok(content);
+                final File file = binary.getContentFile();
+                final ByteRangesStreamingOutput parts = file != null ?
+                        new ByteRangesStreamingOutput(file, ranges, contentSize, view.getMimeType()) :
+                        new ByteRangesStreamingOutput(binary::getContent, ranges, contentSize, view.getMimeType());
+                type = parts.getMediaType().toString();
+                // replace the headers describing the whole binary
+                servletResponse.setHeader(CONTENT_TYPE, type);
+                servletResponse.setHeader(CONTENT_LENGTH, String.valueOf(parts.getContentLength()));
+                builder = status(PARTIAL_CONTENT).entity(parts);
             }
 
 
             // we set the content-type explicitly to avoid content-negotiation from getting in the way
-            return builder.type(binary.getMimeType())
+            return builder.type(type)
                     .cacheControl(cc)
                     .build();
 
         }
 
+    /**
+     * Get a range of the content of a binary. Content held in a local file is read directly from the start of the
+     * range; other content is read from its beginning, discarding the bytes before the range.
+     *
+     * @param binary the binary
+     * @param start the offset of the first byte of the range
+     * @param length the number of bytes in the range, or -1 for every byte to the end of the content
+     * @return an entity for the range
+     * @throws IOException if io exception occurred
+     */
+    @SuppressWarnings("resource")
+    private static Object getBinaryRange(final FedoraBinary binary, final long start, final long length)
+            throws IOException {
+        final File file = binary.getContentFile();
+        if (file != null) {
+            return new FileRangeStreamingOutput(file, start, length);
+        }
+        return start == 0 && length < 0 ? binary.getContent() :
+                new RangeRequestInputStream(binary.getContent(), start, length);
+    }
+
     protected RdfStream getTriples(final Set<? extends TripleCategory> x) {
         return getTriples(resource(), x);
     }
@@ -404,11 +572,11 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
 
     protected void addResourceLinkHeaders(final FedoraResource resource, final boolean includeAnchor) {
         if (resource instanceof NonRdfSourceDescription) {
-            final URI uri = getUri(resource.getDescribedResource());
+            final URI uri = getUri(headerView(resource).getValidatingResource());
             final Link link = Link.fromUri(uri).rel("describes").build();
             servletResponse.addHeader(LINK, link.toString());
         } else if (resource instanceof FedoraBinary) {
-            final URI uri = getUri(resource.getDescription());
+            final URI uri = getUri(headerView(resource).getValidatingResource());
             final Link.Builder builder = Link.fromUri(uri).rel("describedby");
 
             if (includeAnchor) {
@@ -423,6 +591,7 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
      * @param resource the resource
      */
     protected void addResourceHttpHeaders(final FedoraResource resource) {
+        final ResourceHeaderView view = headerView(resource);
         if (resource instanceof FedoraBinary) {
             final FedoraBinary binary = (FedoraBinary)resource;
             final Date createdDate = binary.getCreatedDate() != null ? Date.from(binary.getCreatedDate()) : null;
@@ -432,11 +601,11 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
                     .fileName(binary.getFilename())
                     .creationDate(createdDate)
                     .modificationDate(modDate)
-                    .size(binary.getContentSize())
+                    .size(view.getContentSize())
                     .build();
 
-            servletResponse.addHeader(CONTENT_TYPE, binary.getMimeType());
-            servletResponse.addHeader(CONTENT_LENGTH, String.valueOf(binary.getContentSize()));
+            servletResponse.addHeader(CONTENT_TYPE, view.getMimeType());
+            servletResponse.addHeader(CONTENT_LENGTH, String.valueOf(view.getContentSize()));
             servletResponse.addHeader("Accept-Ranges", "bytes");
             servletResponse.addHeader(CONTENT_DISPOSITION, contentDisposition.toString());
         }
@@ -447,11 +616,11 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
             servletResponse.addHeader(LINK, "<" + LDP_NAMESPACE + "NonRDFSource>;rel=\"type\"");
         } else if (resource instanceof Container) {
             servletResponse.addHeader(LINK, "<" + CONTAINER.getURI() + ">;rel=\"type\"");
-            if (resource.hasType(LDP_BASIC_CONTAINER)) {
+            if (view.hasType(LDP_BASIC_CONTAINER)) {
                 servletResponse.addHeader(LINK, "<" + BASIC_CONTAINER.getURI() + ">;rel=\"type\"");
-            } else if (resource.hasType(LDP_DIRECT_CONTAINER)) {
+            } else if (view.hasType(LDP_DIRECT_CONTAINER)) {
                 servletResponse.addHeader(LINK, "<" + DIRECT_CONTAINER.getURI() + ">;rel=\"type\"");
-            } else if (resource.hasType(LDP_INDIRECT_CONTAINER)) {
+            } else if (view.hasType(LDP_INDIRECT_CONTAINER)) {
                 servletResponse.addHeader(LINK, "<" + INDIRECT_CONTAINER.getURI() + ">;rel=\"type\"");
             } else {
                 servletResponse.addHeader(LINK, "<" + BASIC_CONTAINER.getURI() + ">;rel=\"type\"");
@@ -465,9 +634,24 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
 
     }
 
+    /**
+     * Produce the view of a resource shared by the headers of a request that reads it, so that its validators,
+     * size and types are read from the repository only once.
+     *
+     * @param resource the resource
+     * @return the view of the resource
+     */
+    protected ResourceHeaderView headerView(final FedoraResource resource) {
+        if (headerView == null || headerView.getResource() != resource) {
+            headerView = new ResourceHeaderView(resource);
+        }
+        return headerView;
+    }
+
     /**
      * Evaluate the cache control headers for the request to see if it can be served from
-     * the cache.
+     * the cache.  This is only used by requests that read the resource, so the validators are read once and shared
+     * with the other headers of the response.
      *
      * @param request the request
      * @param servletResponse the servlet response
@@ -478,8 +662,9 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
                                                    final HttpServletResponse servletResponse,
                                                    final FedoraResource resource,
                                                    final HttpSession session) {
-        evaluateRequestPreconditions(request, servletResponse, resource, session, true);
-        addCacheControlHeaders(servletResponse, resource, session);
+        final ResourceHeaderView view = headerView(resource);
+        evaluateRequestPreconditions(request, servletResponse, view, session, true);
+        addCacheControlHeaders(servletResponse, view, session);
     }
 
     /**
@@ -501,6 +686,12 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
     protected void addCacheControlHeaders(final HttpServletResponse servletResponse,
                                                  final FedoraResource resource,
                                                  final HttpSession session) {
+        addCacheControlHeaders(servletResponse, new ResourceHeaderView(resource), session);
+    }
+
+    private void addCacheControlHeaders(final HttpServletResponse servletResponse,
+                                        final ResourceHeaderView view,
+                                        final HttpSession session) {
 
         if (session.isBatchSession()) {
             // Do not add caching headers if in a transaction
@@ -511,15 +702,9 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
         final Instant date;
 
         // See note about this code in the javadoc above.
-        if (resource instanceof FedoraBinary) {
-            // Use a strong ETag for LDP-NR
-            etag = new EntityTag(resource.getDescription().getEtagValue());
-            date = resource.getDescription().getLastModifiedDate();
-        } else {
-            // Use a weak ETag for the LDP-RS
-            etag = new EntityTag(resource.getDescribedResource().getEtagValue(), true);
-            date = resource.getDescribedResource().getLastModifiedDate();
-        }
+        // Use a strong ETag for LDP-NR, and a weak ETag for the LDP-RS
+        etag = new EntityTag(view.getEtagValue(), !(view.getResource() instanceof FedoraBinary));
+        date = view.getLastModifiedDate();
 
         if (!etag.getValue().isEmpty()) {
             servletResponse.addHeader("ETag", etag.toString());
@@ -550,6 +735,15 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
                                                      final FedoraResource resource,
                                                      final HttpSession session,
                                                      final boolean cacheControl) {
+        evaluateRequestPreconditions(request, servletResponse, new ResourceHeaderView(resource), session,
+                cacheControl);
+    }
+
+    private void evaluateRequestPreconditions(final Request request,
+                                              final HttpServletResponse servletResponse,
+                                              final ResourceHeaderView view,
+                                              final HttpSession session,
+                                              final boolean cacheControl) {
 
         if (session.isBatchSession()) {
             // Force cache revalidation if in a transaction
@@ -564,15 +758,9 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
 
         // See the related note about the next block of code in the
         // ContentExposingResource::addCacheControlHeaders method
-        if (resource instanceof FedoraBinary) {
-            // Use a strong ETag for the LDP-NR
-            etag = new EntityTag(resource.getDescription().getEtagValue());
-            date = resource.getDescription().getLastModifiedDate();
-        } else {
-            // Use a strong ETag for the LDP-RS when validating If-(None)-Match headers
-            etag = new EntityTag(resource.getDescribedResource().getEtagValue());
-            date = resource.getDescribedResource().getLastModifiedDate();
-        }
+        // Use a strong ETag for both the LDP-NR and the LDP-RS when validating If-(None)-Match headers
+        etag = new EntityTag(view.getEtagValue());
+        date = view.getLastModifiedDate();
 
         if (date != null) {
             roundedDate = date.minusMillis(date.toEpochMilli() % 1000);
@@ -627,6 +815,23 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
                 storagePolicyDecisionPoint);
     }
 
+    protected void replaceResourceBinaryWithStagedContent(final FedoraBinary result,
+                                                          final StagedContent stagedContent,
+                                                          final ContentDisposition contentDisposition,
+                                                          final MediaType contentType,
+                                                          final Collection<String> checksums)
+            throws InvalidChecksumException {
+        final Collection<URI> checksumURIs = checksums == null ?
+                new HashSet<>() : checksums.stream().map(checksum -> checksumURI(checksum)).collect(Collectors.toSet());
+        final String originalFileName = contentDisposition != null ? contentDisposition.getFileName() : "";
+        final String originalContentType = contentType != null ? contentType.toString() : "";
+
+        result.setContent(stagedContent,
+                originalContentType,
+                checksumURIs,
+                originalFileName);
+    }
+
     protected void replaceResourceWithStream(final FedoraResource resource,
                                              final InputStream requestBodyStream,
                                              final MediaType contentType,
@@ -18,12 +18,11 @@
 
 package org.fcrepo.http.api;
 
+import static com.codahale.metrics.MetricRegistry.name;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -31,9 +30,11 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.fcrepo.kernel.api.FedoraSession;
 import org.fcrepo.kernel.api.exception.InterruptedRuntimeException;
 import org.fcrepo.kernel.api.services.NodeService;
+import org.fcrepo.metrics.RegistryService;
 import org.slf4j.Logger;
-import org.springframework.stereotype.Component;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
 import com.google.common.annotations.VisibleForTesting;
 
 /**
@@ -46,34 +47,49 @@ import com.google.common.annotations.VisibleForTesting;
  * Because this is very complex code, extensive logging is produced at
  * the TRACE level.
  *
+ * Every lock request in this implementation is coordinated through a single
+ * monitor; see {@link HierarchicalPathLockManager} for the implementation
+ * that is used by default.
+ *
  * @author Mike Durbin
  */
-
-@Component
 public class DefaultPathLockManager implements PathLockManager {
 
     private static final Logger LOGGER = getLogger(DefaultPathLockManager.class);
 
     /**
-     * A map of all the paths for which requests to lock are underway.  This
+     * The number of paths currently held in memory by all instances of this class.
+     */
+    static final Counter activePathCounter = RegistryService.getInstance().getMetrics().counter(
+            name(DefaultPathLockManager.class, "active-paths"));
+
+    /**
+     * The time spent acquiring all of the locks required by a request.
+     */
+    static final Timer lockWaitTimer = RegistryService.getInstance().getMetrics().timer(
+            name(DefaultPathLockManager.class, "lock-wait-time"));
+
+    /**
+     * An index of all the paths for which requests to lock are underway.  This
      * is an exhaustive set of all paths that may be accessed at this time.
-     * Changes to the contents of this map must be synchronized on the instance
+     * Changes to the contents of this index must be synchronized on the instance
      * of this class, though blocking acquisition of locks against those paths
      * must NOT be, lest we degrade to an essentially single-threaded
      * application.
      */
     @VisibleForTesting
-    Map<String, ActivePath> activePaths = new HashMap<>();
+    PathIndex<ActivePath> activePaths = new PathIndex<>();
 
     /**
-     * A list of paths for which delete operations are underway.  Attempts to
-     * acquire locks on resources that would be deleted with those paths will
+     * An index of paths for which delete operations are underway, with the
+     * number of delete operations underway for each.  Attempts to acquire
+     * locks on resources that would be deleted with those paths will
      * block until the delete lock is released.  This is a handy shortcut that
      * allows this class to meet the locking requirements for delete operations
      * without actually discovering (and locking) all the descendant nodes.
      */
     @VisibleForTesting
-    List<String> activeDeletePaths = new ArrayList<>();
+    PathIndex<Integer> activeDeletePaths = new PathIndex<>();
 
     /**
      * A class that represents a path that can be locked for reading or writing
@@ -131,12 +147,10 @@ public class DefaultPathLockManager implements PathLockManager {
             }
 
             public boolean tryLock() {
-                for (final String deletePath : activeDeletePaths) {
-                    if (isOrIsDescendantOf(path, deletePath)) {
-                        LOGGER.trace("Thread {} could not be granted lock on {} because that path is being deleted.",
-                                Thread.currentThread().getId(), path);
-                        return false;
-                    }
+                if (activeDeletePaths.containsPathOrAncestor(path)) {
+                    LOGGER.trace("Thread {} could not be granted lock on {} because that path is being deleted.",
+                            Thread.currentThread().getId(), path);
+                    return false;
                 }
                 return lock.tryLock();
             }
@@ -176,6 +190,7 @@ public class DefaultPathLockManager implements PathLockManager {
         private AcquiredMultiPathLock(final List<ActivePath.PathScopedLock> locks) throws InterruptedException {
             this.locks = locks;
 
+            final Timer.Context context = lockWaitTimer.time();
             boolean success = false;
             while (!success) {
                 synchronized (DefaultPathLockManager.this) {
@@ -188,6 +203,7 @@ public class DefaultPathLockManager implements PathLockManager {
                 }
 
             }
+            context.stop();
             LOGGER.debug("Acquired all necessary path locks  (Thread {})", Thread.currentThread().getId());
 
         }
@@ -205,17 +221,14 @@ public class DefaultPathLockManager implements PathLockManager {
         private AcquiredMultiPathLock(final String deletePath) throws InterruptedException {
             this.deletePath = deletePath;
 
+            final Timer.Context context = lockWaitTimer.time();
             boolean success = false;
             while (!success) {
                 synchronized (DefaultPathLockManager.this) {
                     this.locks = new ArrayList<>();
 
                     // find all paths to lock
-                    activePaths.forEach((path, lock) -> {
-                        if (isOrIsDescendantOf(path, deletePath)) {
-                            locks.add(lock.getWriteLock());
-                        }
-                        });
+                    activePaths.forEachPathOrDescendant(deletePath, lock -> locks.add(lock.getWriteLock()));
 
                     success = tryAcquireAll();
                     if (!success) {
@@ -232,11 +245,12 @@ public class DefaultPathLockManager implements PathLockManager {
                         // path, those locks fail to acquire.
                         LOGGER.trace("Thread {} acquired delete lock on path {}.",
                                 Thread.currentThread().getId(), deletePath);
-                        activeDeletePaths.add(deletePath);
+                        activeDeletePaths.put(deletePath, activeDeleteCount(deletePath) + 1);
                     }
                 }
 
             }
+            context.stop();
             LOGGER.debug("Acquired all necessary path locks  (Thread {})", Thread.currentThread().getId());
 
         }
@@ -265,14 +279,19 @@ public class DefaultPathLockManager implements PathLockManager {
                 for (final ActivePath.PathScopedLock lock : locks) {
                     lock.unlock();
                     lock.getPath().threads.remove(Thread.currentThread());
-                    if (lock.getPath().threads.isEmpty()) {
-                        activePaths.remove(lock.getPath().path);
+                    if (lock.getPath().threads.isEmpty() && activePaths.remove(lock.getPath().path) != null) {
+                        activePathCounter.dec();
                     }
                 }
                 if (deletePath != null) {
                     LOGGER.trace("Thread {} releasing delete lock on path {}.",
                             Thread.currentThread().getId(), deletePath);
-                    activeDeletePaths.remove(deletePath);
+                    final int count = activeDeleteCount(deletePath);
+                    if (count > 1) {
+                        activeDeletePaths.put(deletePath, count - 1);
+                    } else {
+                        activeDeletePaths.remove(deletePath);
+                    }
                 }
                 LOGGER.trace("Thread {} released locks.", Thread.currentThread().getId());
                 DefaultPathLockManager.this.notify();
@@ -290,12 +309,14 @@ public class DefaultPathLockManager implements PathLockManager {
         if (activePath == null) {
             activePath = new ActivePath(path);
             activePaths.put(path, activePath);
+            activePathCounter.inc();
         }
         return activePath;
     }
 
-    private boolean isOrIsDescendantOf(final String possibleDescendant, final String path) {
-        return path.equals(possibleDescendant) || possibleDescendant.startsWith(path + "/");
+    private int activeDeleteCount(final String path) {
+        final Integer count = activeDeletePaths.get(path);
+        return count == null ? 0 : count;
     }
 
     private String getParentPath(final String path) {
@@ -18,6 +18,7 @@
 package org.fcrepo.http.api;
 
 import static javax.ws.rs.core.HttpHeaders.LINK;
+import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
 import static org.fcrepo.http.commons.domain.RDFMediaType.JSON_LD;
 import static org.fcrepo.http.commons.domain.RDFMediaType.N3_WITH_CHARSET;
 import static org.fcrepo.http.commons.domain.RDFMediaType.N3_ALT2_WITH_CHARSET;
@@ -30,17 +31,24 @@ import static org.fcrepo.http.commons.domain.RDFMediaType.TURTLE_X;
 import static org.fcrepo.kernel.api.RdfLexicon.LDP_NAMESPACE;
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.ws.rs.ClientErrorException;
 import javax.ws.rs.GET;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Link;
 import com.google.common.annotations.VisibleForTesting;
 import org.fcrepo.http.commons.responses.HtmlTemplate;
 import org.fcrepo.http.commons.responses.RdfNamespacedStream;
 import org.fcrepo.kernel.api.models.FedoraBinary;
 import org.fcrepo.kernel.api.rdf.DefaultRdfStream;
+import org.fcrepo.kernel.api.utils.ContentDigest.DIGEST_ALGORITHM;
 import org.slf4j.Logger;
 import org.springframework.context.annotation.Scope;
 
@@ -60,6 +68,8 @@ public class FedoraFixity extends ContentExposingResource {
 
     @PathParam("path") protected String externalPath;
 
+    @QueryParam("algorithm") protected List<String> algorithms;
+
 
     /**
      * Default JAX-RS entry point
@@ -78,7 +88,9 @@ public class FedoraFixity extends ContentExposingResource {
     }
 
     /**
-     * Get the results of a fixity check for a path
+     * Get the results of a fixity check for a path.  By default the binary is checked against its stored digest
+     * for the configured algorithm; one or more algorithm query parameters (e.g. ?algorithm=sha1&amp;algorithm=md5)
+     * instead check it with each of those algorithms, reading it only once.
      *
      * GET /path/to/some/datastream/fcr:fixity
      *
@@ -100,10 +112,26 @@ public class FedoraFixity extends ContentExposingResource {
         final Link.Builder rdfSourceLink = Link.fromUri(LDP_NAMESPACE + "RDFSource").rel("type");
         servletResponse.addHeader(LINK, rdfSourceLink.build().toString());
 
-        LOGGER.info("Get fixity for '{}'", externalPath);
+        final FedoraBinary binary = (FedoraBinary) resource();
+        if (algorithms == null || algorithms.isEmpty()) {
+            LOGGER.info("Get fixity for '{}'", externalPath);
+            return new RdfNamespacedStream(
+                    new DefaultRdfStream(asNode(resource()), binary.getFixity(translator())),
+                    session().getFedoraSession().getNamespaces());
+        }
+
+        final Set<String> requested = new LinkedHashSet<>();
+        for (final String algorithm : algorithms) {
+            final DIGEST_ALGORITHM digest = DIGEST_ALGORITHM.fromAlgorithm(algorithm);
+            if (digest == DIGEST_ALGORITHM.MISSING) {
+                throw new ClientErrorException("Unsupported digest algorithm: " + algorithm + "\n", BAD_REQUEST);
+            }
+            requested.add(digest.algorithm);
+        }
+
+        LOGGER.info("Get fixity for '{}' with {}", externalPath, requested);
         return new RdfNamespacedStream(
-                new DefaultRdfStream(asNode(resource()),
-                    ((FedoraBinary)resource()).getFixity(translator())),
+                new DefaultRdfStream(asNode(resource()), binary.getFixity(translator(), requested)),
                 session().getFedoraSession().getNamespaces());
     }
 
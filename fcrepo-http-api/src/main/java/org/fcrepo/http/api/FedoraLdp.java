@@ -89,6 +89,7 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Link;
 import javax.ws.rs.core.MediaType;
@@ -115,6 +116,7 @@ import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
 import org.fcrepo.kernel.api.models.Container;
 import org.fcrepo.kernel.api.models.FedoraBinary;
 import org.fcrepo.kernel.api.models.FedoraResource;
+import org.fcrepo.kernel.api.models.StagedContent;
 import org.fcrepo.kernel.api.models.NonRdfSourceDescription;
 import org.fcrepo.kernel.api.rdf.DefaultRdfStream;
 import org.fcrepo.kernel.api.utils.ContentDigest;
@@ -149,6 +151,8 @@ public class FedoraLdp extends ContentExposingResource {
 
     @PathParam("path") protected String externalPath;
 
+    @QueryParam("page") protected String page;
+
     @Inject private FedoraHttpConfiguration httpConfiguration;
 
     /**
@@ -176,7 +180,8 @@ public class FedoraLdp extends ContentExposingResource {
     }
 
     /**
-     * Retrieve the node headers
+     * Retrieve the node headers.  These are drawn from the types, validators and size of the resource alone, without
+     * producing any of its triples.
      * 
      * @return response
      */
@@ -195,7 +200,7 @@ public class FedoraLdp extends ContentExposingResource {
         Response.ResponseBuilder builder = ok();
 
         if (resource() instanceof FedoraBinary) {
-            final MediaType mediaType = MediaType.valueOf(((FedoraBinary) resource()).getMimeType());
+            final MediaType mediaType = MediaType.valueOf(headerView(resource()).getMimeType());
 
             if (isExternalBody(mediaType)) {
                 builder = temporaryRedirect(URI.create(mediaType.getParameters().get("URL")));
@@ -242,38 +247,73 @@ public class FedoraLdp extends ContentExposingResource {
 
         LOGGER.info("GET resource '{}'", externalPath);
         final AcquiredLock readLock = lockManager.lockForRead(resource().getPath());
-        try (final RdfStream rdfStream = new DefaultRdfStream(asNode(resource()))) {
-
-            // If requesting a binary, check the mime-type if "Accept:" header is present.
-            // (This needs to be done before setting up response headers, as getContent
-            // returns a response - so changing headers after that won't work so nicely.)
-            final ImmutableList<MediaType> acceptableMediaTypes = ImmutableList.copyOf(headers
-                    .getAcceptableMediaTypes());
-
-            if (resource() instanceof FedoraBinary && acceptableMediaTypes.size() > 0) {
-                final MediaType mediaType = MediaType.valueOf(((FedoraBinary) resource()).getMimeType());
-
-                if (!acceptableMediaTypes.stream().anyMatch(t -> t.isCompatible(mediaType))) {
-                    return notAcceptable(VariantListBuilder.newInstance().mediaTypes(mediaType).build()).build();
+        try {
+            if (resource() instanceof FedoraBinary) {
+                // If requesting a binary, check the mime-type if "Accept:" header is present.
+                // (This needs to be done before setting up response headers, as getContent
+                // returns a response - so changing headers after that won't work so nicely.)
+                final ImmutableList<MediaType> acceptableMediaTypes = ImmutableList.copyOf(headers
+                        .getAcceptableMediaTypes());
+
+                if (acceptableMediaTypes.size() > 0) {
+                    final MediaType mediaType = MediaType.valueOf(headerView(resource()).getMimeType());
+
+                    if (!acceptableMediaTypes.stream().anyMatch(t -> t.isCompatible(mediaType))) {
+                        return notAcceptable(VariantListBuilder.newInstance().mediaTypes(mediaType).build()).build();
+                    }
                 }
+
+                addResourceHttpHeaders(resource());
+                // a binary needs none of the triples of an RDF response
+                return getBinaryResponse(rangeValue);
             }
 
-            addResourceHttpHeaders(resource());
-            return getContent(rangeValue, getChildrenLimit(), rdfStream);
+            try (final RdfStream rdfStream = new DefaultRdfStream(asNode(resource()))) {
+                addResourceHttpHeaders(resource());
+                final int limit = getChildrenLimit();
+                return getContent(rangeValue, limit, getChildrenPage(limit), rdfStream);
+            }
         } finally {
             readLock.release();
         }
     }
 
-    private int getChildrenLimit() {
+    private boolean acceptsHtml() {
         final List<String> acceptHeaders = headers.getRequestHeader(ACCEPT);
         if (acceptHeaders != null && acceptHeaders.size() > 0) {
             final List<String> accept = Arrays.asList(acceptHeaders.get(0).split(","));
-            if (accept.contains(TEXT_HTML)) {
-                // Magic number '100' is tied to common-metadata.vsl display of ellipses
-                return 100;
+            return accept.contains(TEXT_HTML);
+        }
+        return false;
+    }
+
+    /**
+     * A page of children is returned when a client asks for a page by its cursor, or asks for a limited number
+     * of children with the Limit header; following the next-page links then returns the rest of them.
+     *
+     * @param limit the limit on the number of children
+     * @return the page of children to return, or null to return children up to the limit
+     */
+    private PageCursor getChildrenPage(final int limit) {
+        if (page != null) {
+            try {
+                return PageCursor.decode(page);
+            } catch (final IllegalArgumentException e) {
+                LOGGER.warn("Invalid 'page' parameter value: {}", page);
+                throw new ClientErrorException("Invalid 'page' parameter value: " + page, SC_BAD_REQUEST, e);
             }
         }
+        if (limit > 0 && !acceptsHtml() && headers.getRequestHeader("Limit") != null) {
+            return PageCursor.first(limit);
+        }
+        return null;
+    }
+
+    private int getChildrenLimit() {
+        if (acceptsHtml()) {
+            // Magic number '100' is tied to common-metadata.vsl display of ellipses
+            return 100;
+        }
 
         final List<String> limits = headers.getRequestHeader("Limit");
         if (null != limits && limits.size() > 0) {
@@ -342,38 +382,58 @@ public class FedoraLdp extends ContentExposingResource {
 
         final String path = toPath(translator(), externalPath);
 
-        final AcquiredLock lock = lockManager.lockForWrite(path, session.getFedoraSession(), nodeService);
+        final Collection<String> checksums = parseDigestHeader(digest);
 
-        try {
+        final MediaType contentType = getSimpleContentType(requestContentType);
 
-            final Collection<String> checksums = parseDigestHeader(digest);
+        final MediaType effectiveContentType
+                = requestBodyStream == null || requestContentType == null ? null : contentType;
+
+        // the content of a binary is received before the path is locked, but only once the preconditions of the
+        // request are met; they are evaluated again under the lock, since the binary may change meanwhile
+        final StagedContent stagedContent;
+        if (nodeService.exists(session.getFedoraSession(), path)) {
+            if (resource() instanceof FedoraBinary) {
+                // within a transaction, evaluating them only adds cache headers, which is left to the lock
+                if (!session.isBatchSession()) {
+                    evaluatePutPreconditions(resource(), ifMatch);
+                }
+                stagedContent = stageContent(requestBodyStream);
+            } else {
+                stagedContent = null;
+            }
+        } else {
+            stagedContent = getRequestedObjectType(effectiveContentType, contentDisposition).equals(FEDORA_BINARY) ?
+                    stageContent(requestBodyStream) : null;
+        }
 
-            final MediaType contentType = getSimpleContentType(requestContentType);
+        final AcquiredLock lock = lockManager.lockForWrite(path, session.getFedoraSession(), nodeService);
 
+        try {
 
             if (nodeService.exists(session.getFedoraSession(), path)) {
+                // read the resource afresh, as it may have been replaced while any content was received
+                this.resource = null;
                 resource = resource();
             } else {
-                final MediaType effectiveContentType
-                        = requestBodyStream == null || requestContentType == null ? null : contentType;
                 resource = createFedoraResource(path, effectiveContentType, contentDisposition);
             }
 
-
-            if (httpConfiguration.putRequiresIfMatch() && StringUtils.isBlank(ifMatch) && !resource.isNew()) {
-                throw new ClientErrorException("An If-Match header is required", 428);
-            }
-
-            evaluateRequestPreconditions(request, servletResponse, resource, session);
+            evaluatePutPreconditions(resource, ifMatch);
             final boolean created = resource.isNew();
 
             try (final RdfStream resourceTriples =
                     created ? new DefaultRdfStream(asNode(resource())) : getResourceTriples()) {
 
                 LOGGER.info("PUT resource '{}'", externalPath);
-                if (resource instanceof FedoraBinary) {
+                if (resource instanceof FedoraBinary && stagedContent != null) {
+                    replaceResourceBinaryWithStagedContent((FedoraBinary) resource,
+                            stagedContent, contentDisposition, requestContentType, checksums);
+                } else if (resource instanceof FedoraBinary) {
                     replaceResourceBinaryWithStream((FedoraBinary) resource,
                             requestBodyStream, contentDisposition, requestContentType, checksums);
+                } else if (stagedContent != null) {
+                    throw new ClientErrorException("Resource changed while its content was received", CONFLICT);
                 } else if (isRdfContentType(contentType.toString())) {
                     replaceResourceWithStream(resource, requestBodyStream, contentType, resourceTriples);
                 } else if (!created) {
@@ -402,6 +462,20 @@ public class FedoraLdp extends ContentExposingResource {
         }
     }
 
+    /**
+     * Evaluate the preconditions of a PUT request against the resource it replaces or creates.
+     *
+     * @param resource the resource
+     * @param ifMatch the if-match value
+     */
+    private void evaluatePutPreconditions(final FedoraResource resource, final String ifMatch) {
+        if (httpConfiguration.putRequiresIfMatch() && StringUtils.isBlank(ifMatch) && !resource.isNew()) {
+            throw new ClientErrorException("An If-Match header is required", 428);
+        }
+
+        evaluateRequestPreconditions(request, servletResponse, resource, session);
+    }
+
     /**
      * Update an object using SPARQL-UPDATE
      *
@@ -508,16 +582,22 @@ public class FedoraLdp extends ContentExposingResource {
 
         final String newObjectPath = mintNewPid(slug);
 
+        final Collection<String> checksum = parseDigestHeader(digest);
+
+        final MediaType effectiveContentType
+                = requestBodyStream == null || requestContentType == null ? null : contentType;
+
+        // the content of a binary is received before the path is locked
+        final StagedContent stagedContent = !nodeService.exists(session.getFedoraSession(), newObjectPath) &&
+                getRequestedObjectType(effectiveContentType, contentDisposition).equals(FEDORA_BINARY) ?
+                stageContent(requestBodyStream) : null;
+
         final AcquiredLock lock = lockManager.lockForWrite(newObjectPath, session.getFedoraSession(), nodeService);
 
         try {
 
-            final Collection<String> checksum = parseDigestHeader(digest);
-
             LOGGER.info("Ingest with path: {}", newObjectPath);
 
-            final MediaType effectiveContentType
-                    = requestBodyStream == null || requestContentType == null ? null : contentType;
             resource = createFedoraResource(newObjectPath, effectiveContentType, contentDisposition);
 
             try (final RdfStream resourceTriples =
@@ -529,7 +609,13 @@ public class FedoraLdp extends ContentExposingResource {
                     LOGGER.trace("Received createObject with a request body and content type \"{}\"",
                             contentTypeString);
 
-                    if ((resource instanceof Container) && isRdfContentType(contentTypeString)) {
+                    if (resource instanceof FedoraBinary && stagedContent != null) {
+                        LOGGER.trace("Created a datastream and have staged its content.");
+                        replaceResourceBinaryWithStagedContent((FedoraBinary) resource,
+                                stagedContent, contentDisposition, requestContentType, checksum);
+                    } else if (stagedContent != null) {
+                        throw new ClientErrorException("Resource changed while its content was received", CONFLICT);
+                    } else if ((resource instanceof Container) && isRdfContentType(contentTypeString)) {
                         replaceResourceWithStream(resource, requestBodyStream, contentType, resourceTriples);
                     } else if (resource instanceof FedoraBinary) {
                         LOGGER.trace("Created a datastream and have a binary payload.");
@@ -558,6 +644,27 @@ public class FedoraLdp extends ContentExposingResource {
         }
     }
 
+    /**
+     * Write the body of a request to the binary store, so that a binary may be set to it once the path is locked.
+     * The lock is then held only while the staged content is attached, however long the body takes to receive.
+     * Content to be stored according to a storage policy is not staged, as the policy is decided by the binary.
+     *
+     * @param requestBodyStream the request body stream
+     * @return the staged content, or null if the body is to be read only once the path is locked
+     * @throws InvalidChecksumException if invalid checksum exception occurred
+     */
+    private StagedContent stageContent(final InputStream requestBodyStream) throws InvalidChecksumException {
+        if (requestBodyStream == null || storagePolicyDecisionPoint != null) {
+            return null;
+        }
+        try {
+            return binaryService.stage(session.getFedoraSession(), requestBodyStream);
+        } catch (final RuntimeException e) {
+            checkForInsufficientStorageException(e, e);
+            throw e;
+        }
+    }
+
     /**
      * @param rootThrowable The original throwable
      * @param throwable The throwable under direct scrutiny.
@@ -792,7 +899,7 @@ public class FedoraLdp extends ContentExposingResource {
      * @return the sha1 checksum value
      * @throws InvalidChecksumException if an unsupported digest is used
      */
-    private static Collection<String> parseDigestHeader(final String digest) throws InvalidChecksumException {
+    static Collection<String> parseDigestHeader(final String digest) throws InvalidChecksumException {
         try {
             final Map<String,String> digestPairs = RFC3230_SPLITTER.split(nullToEmpty(digest));
             final boolean allSupportedAlgorithms = digestPairs.keySet().stream().allMatch(
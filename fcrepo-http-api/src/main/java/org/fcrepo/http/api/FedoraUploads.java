@@ -0,0 +1,144 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.api;
+
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
+import static javax.ws.rs.core.Response.created;
+import static javax.ws.rs.core.Response.noContent;
+import static javax.ws.rs.core.Response.ok;
+import static org.fcrepo.kernel.api.FedoraTypes.FCR_UPLOADS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Collection;
+
+import javax.inject.Inject;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.POST;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Response;
+
+import org.fcrepo.kernel.api.exception.InvalidChecksumException;
+import org.fcrepo.kernel.api.services.UploadService;
+import org.slf4j.Logger;
+import org.springframework.context.annotation.Scope;
+
+import com.codahale.metrics.annotation.Timed;
+
+/**
+ * Resumable uploads of large binaries. An upload is created, its content sent in numbered chunks, each of which may
+ * be sent again should it fail, and the binary then created or replaced by a PUT or POST of the usual kind with an
+ * empty body and a Content-Location naming the upload. The chunks are read in ascending order of their numbers, and
+ * must be numbered from 0 without gaps.
+ *
+ * @author agent
+ */
+@Scope("prototype")
+@Path("/" + FCR_UPLOADS)
+public class FedoraUploads extends FedoraBaseResource {
+
+    private static final Logger LOGGER = getLogger(FedoraUploads.class);
+
+    @Inject
+    protected UploadService uploadService;
+
+    /**
+     * Create a new upload
+     *
+     * POST /fcr:uploads
+     *
+     * @return 201 with the location of the upload
+     */
+    @POST
+    @Timed
+    public Response createUpload() {
+        final String id = uploadService.create(getUserPrincipal());
+        LOGGER.info("Created upload '{}'", id);
+        return created(uploadLocation(id)).build();
+    }
+
+    /**
+     * Stage a chunk of an upload, replacing any chunk of the same number
+     *
+     * PUT /fcr:uploads/{id}/{chunk}
+     *
+     * @param uploadId the id of the upload
+     * @param chunk the number of the chunk
+     * @param content the content of the chunk
+     * @param digest the Digest header, whose checksums the chunk must match
+     * @return 204
+     * @throws InvalidChecksumException if the chunk does not match its checksums
+     */
+    @PUT
+    @Timed
+    @Path("{id}/{chunk: \\d+}")
+    public Response putChunk(@PathParam("id") final String uploadId, @PathParam("chunk") final int chunk,
+            final InputStream content, @HeaderParam("Digest") final String digest) throws InvalidChecksumException {
+        final Collection<URI> checksums = FedoraLdp.parseDigestHeader(digest).stream().map(URI::create)
+                .collect(toList());
+        final long size = uploadService.putChunk(uploadId, getUserPrincipal(), chunk, content, checksums);
+        LOGGER.debug("Staged chunk {} of upload '{}', of {} bytes", chunk, uploadId, size);
+        return noContent().build();
+    }
+
+    /**
+     * List the chunks staged for an upload, so that an interrupted upload may be resumed
+     *
+     * GET /fcr:uploads/{id}
+     *
+     * @param uploadId the id of the upload
+     * @return one chunk to a line, in ascending order, each number followed by the size of the chunk
+     */
+    @GET
+    @Timed
+    @Path("{id}")
+    @Produces(TEXT_PLAIN)
+    public Response getChunks(@PathParam("id") final String uploadId) {
+        return ok(uploadService.getChunks(uploadId, getUserPrincipal()).entrySet().stream()
+                .map(e -> e.getKey() + " " + e.getValue()).collect(joining("\n"))).build();
+    }
+
+    /**
+     * Abandon an upload, or remove one whose content has been stored
+     *
+     * DELETE /fcr:uploads/{id}
+     *
+     * @param uploadId the id of the upload
+     * @return 204
+     */
+    @DELETE
+    @Timed
+    @Path("{id}")
+    public Response deleteUpload(@PathParam("id") final String uploadId) {
+        uploadService.delete(uploadId, getUserPrincipal());
+        LOGGER.info("Deleted upload '{}'", uploadId);
+        return noContent().build();
+    }
+
+    private URI uploadLocation(final String uploadId) {
+        return uriInfo.getBaseUriBuilder().path(FedoraUploads.class).path(uploadId).build();
+    }
+}
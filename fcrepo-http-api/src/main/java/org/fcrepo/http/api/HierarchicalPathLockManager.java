@@ -0,0 +1,351 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.api;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.fcrepo.kernel.api.FedoraSession;
+import org.fcrepo.kernel.api.exception.InterruptedRuntimeException;
+import org.fcrepo.kernel.api.services.NodeService;
+import org.fcrepo.metrics.RegistryService;
+import org.slf4j.Logger;
+import org.springframework.stereotype.Component;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * A PathLockManager that keeps its locks in a trie of path segments and
+ * uses hierarchical intent locking, so that requests against unrelated
+ * subtrees never wait on one another.
+ *
+ * Every node in the trie carries its own small lock state (readers, a writer,
+ * a delete lock on the whole subtree and a count of "intents", which are
+ * locks held somewhere beneath that node) guarded by that node's own monitor.
+ * To lock a path, an intent is registered on each ancestor, top-down, and
+ * then the requested mode is taken on the node itself.  Intents are compatible
+ * with everything except a delete lock, which is how a delete on a path waits
+ * for (and then fences out) all activity beneath it without ever scanning the
+ * set of active paths.
+ *
+ * Because every caller acquires trie nodes strictly from the root towards the
+ * leaves, a thread only ever waits for a node deeper than any node it already
+ * holds, and so no deadlock is possible.
+ *
+ * Nodes are pinned while in use and pruned from the trie as soon as nothing
+ * references them, so memory use is proportional to the number of in-flight
+ * requests rather than to the size of the repository.
+ *
+ * @author agent
+ */
+@Component
+public class HierarchicalPathLockManager implements PathLockManager {
+
+    private static final Logger LOGGER = getLogger(HierarchicalPathLockManager.class);
+
+    /**
+     * The number of paths currently held in memory by all instances of this class.
+     */
+    static final Counter activePathCounter = RegistryService.getInstance().getMetrics().counter(
+            name(HierarchicalPathLockManager.class, "active-paths"));
+
+    /**
+     * The time spent acquiring all of the locks required by a request.
+     */
+    static final Timer lockWaitTimer = RegistryService.getInstance().getMetrics().timer(
+            name(HierarchicalPathLockManager.class, "lock-wait-time"));
+
+    /**
+     * The modes in which a node of the trie may be locked.
+     */
+    private enum Mode {
+        INTENT, READ, WRITE, DELETE
+    }
+
+    /**
+     * The root of the trie, which corresponds to the empty path.  It is never
+     * pruned.
+     */
+    @VisibleForTesting
+    final PathNode root = new PathNode(null, null);
+
+    /**
+     * A single path segment in the trie.  The fields describing granted locks
+     * are guarded by the monitor of this node; the children map is concurrent,
+     * and the pin count of a child is only ever modified atomically through
+     * its parent's map, which is what allows an unused node to be pruned
+     * without racing a thread that is about to use it.
+     */
+    @VisibleForTesting
+    static class PathNode {
+
+        private final PathNode parent;
+
+        private final String segment;
+
+        @VisibleForTesting
+        final ConcurrentMap<String, PathNode> children = new ConcurrentHashMap<>();
+
+        /**
+         * The number of outstanding lock requests that traverse this node.
+         * Only modified inside a compute method of the parent's children map.
+         */
+        private int pins;
+
+        private int readers;
+
+        private boolean writer;
+
+        private boolean deleter;
+
+        private int intents;
+
+        private PathNode(final PathNode parent, final String segment) {
+            this.parent = parent;
+            this.segment = segment;
+        }
+
+        private boolean isGrantable(final Mode mode) {
+            switch (mode) {
+                case INTENT:
+                    return !deleter;
+                case READ:
+                    return !deleter && !writer;
+                case WRITE:
+                    return !deleter && !writer && readers == 0;
+                default:
+                    return !deleter && !writer && readers == 0 && intents == 0;
+            }
+        }
+
+        private synchronized void acquire(final Mode mode) throws InterruptedException {
+            while (!isGrantable(mode)) {
+                LOGGER.trace("Thread {} waiting for {} lock on {}.", Thread.currentThread().getId(), mode, this);
+                wait();
+            }
+            switch (mode) {
+                case INTENT:
+                    intents++;
+                    break;
+                case READ:
+                    readers++;
+                    break;
+                case WRITE:
+                    writer = true;
+                    break;
+                default:
+                    deleter = true;
+            }
+            LOGGER.trace("Thread {} acquired {} lock on {}.", Thread.currentThread().getId(), mode, this);
+        }
+
+        private synchronized void release(final Mode mode) {
+            switch (mode) {
+                case INTENT:
+                    intents--;
+                    break;
+                case READ:
+                    readers--;
+                    break;
+                case WRITE:
+                    writer = false;
+                    break;
+                default:
+                    deleter = false;
+            }
+            LOGGER.trace("Thread {} released {} lock on {}.", Thread.currentThread().getId(), mode, this);
+            notifyAll();
+        }
+
+        @Override
+        public String toString() {
+            if (parent == null) {
+                return "";
+            }
+            final String parentPath = parent.toString();
+            return parentPath.isEmpty() ? segment : parentPath + "/" + segment;
+        }
+    }
+
+    /**
+     * A lock granted on a single node of the trie.
+     */
+    private static class NodeLock {
+
+        private final PathNode node;
+
+        private final Mode mode;
+
+        private NodeLock(final PathNode node, final Mode mode) {
+            this.node = node;
+            this.mode = mode;
+        }
+    }
+
+    /**
+     * The AcquiredLock implementation that's returned by this class.  It
+     * holds every node it has pinned (so that they may be unpinned on
+     * release) and every node lock it has been granted, in the order they
+     * were granted.
+     */
+    private class AcquiredHierarchicalLock implements AcquiredLock {
+
+        private final List<PathNode> pinned = new ArrayList<>();
+
+        private final List<NodeLock> granted = new ArrayList<>();
+
+        /**
+         * Acquires the given mode on each of the given paths.  Paths must be
+         * ordered such that no path precedes one of its ancestors.
+         * @param paths the paths to lock
+         * @param mode the mode in which to lock each path
+         */
+        private AcquiredHierarchicalLock(final List<String> paths, final Mode mode) {
+            try (final Timer.Context context = lockWaitTimer.time()) {
+                for (final String path : paths) {
+                    PathNode node = root;
+                    for (final String segment : segments(path)) {
+                        grant(node, Mode.INTENT);
+                        node = pin(node, segment);
+                        pinned.add(node);
+                    }
+                    grant(node, mode);
+                }
+            } catch (final InterruptedException e) {
+                release();
+                throw new InterruptedRuntimeException(e);
+            }
+            LOGGER.debug("Acquired all necessary path locks  (Thread {})", Thread.currentThread().getId());
+        }
+
+        private void grant(final PathNode node, final Mode mode) throws InterruptedException {
+            node.acquire(mode);
+            granted.add(new NodeLock(node, mode));
+        }
+
+        @Override
+        public void release() {
+            for (int i = granted.size() - 1; i >= 0; i--) {
+                final NodeLock lock = granted.get(i);
+                lock.node.release(lock.mode);
+            }
+            granted.clear();
+            for (int i = pinned.size() - 1; i >= 0; i--) {
+                unpin(pinned.get(i));
+            }
+            pinned.clear();
+            LOGGER.trace("Thread {} released locks.", Thread.currentThread().getId());
+        }
+    }
+
+    /*
+     * This is the only method that adds nodes to the trie.
+     */
+    private static PathNode pin(final PathNode parent, final String segment) {
+        return parent.children.compute(segment, (k, existing) -> {
+            final PathNode node;
+            if (existing == null) {
+                node = new PathNode(parent, segment);
+                activePathCounter.inc();
+            } else {
+                node = existing;
+            }
+            node.pins++;
+            return node;
+        });
+    }
+
+    /*
+     * This is the only method that removes nodes from the trie.  Because every
+     * request pins each node along its path, a node whose pin count has
+     * dropped to zero has no pinned descendants either and may be pruned.
+     */
+    private static void unpin(final PathNode node) {
+        node.parent.children.computeIfPresent(node.segment, (k, existing) -> {
+            if (--existing.pins == 0) {
+                activePathCounter.dec();
+                return null;
+            }
+            return existing;
+        });
+    }
+
+    private static List<String> segments(final String path) {
+        final List<String> segments = new ArrayList<>();
+        for (final String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        return segments;
+    }
+
+    private static String getParentPath(final String path) {
+        if (path.indexOf('/') == -1) {
+            return null;
+        }
+        return path.substring(0, path.lastIndexOf('/'));
+    }
+
+    @VisibleForTesting
+    static String normalizePath(final String path) {
+        if (path.endsWith("/")) {
+            return path.substring(0, path.length() - 1);
+        }
+        return path;
+    }
+
+    @Override
+    public AcquiredLock lockForRead(final String path) {
+        final List<String> paths = new ArrayList<>();
+        paths.add(normalizePath(path));
+        return new AcquiredHierarchicalLock(paths, Mode.READ);
+    }
+
+    @Override
+    public AcquiredLock lockForWrite(final String path, final FedoraSession session, final NodeService nodeService) {
+        // lock the specified path along with each path that would be created
+        // implicitly by this write (ie, non-existent ancestral paths)
+        final List<String> paths = new ArrayList<>();
+        final String startingPath = normalizePath(path);
+        for (String currentPath = startingPath;
+                currentPath != null && currentPath.length() > 0;
+                currentPath = getParentPath(currentPath)) {
+            if (currentPath != startingPath && nodeService.exists(session, currentPath)) {
+                // we've found an ancestor that exists, so there are no more locks to create.
+                break;
+            }
+            paths.add(0, currentPath);
+        }
+        return new AcquiredHierarchicalLock(paths, Mode.WRITE);
+    }
+
+    @Override
+    public AcquiredLock lockForDelete(final String path) {
+        final List<String> paths = new ArrayList<>();
+        paths.add(normalizePath(path));
+        return new AcquiredHierarchicalLock(paths, Mode.DELETE);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.api;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.Base64;
+
+/**
+ * The position of a page of the children of a container, for LDP Paging. A cursor records the number of children
+ * on each page and the child after which its page begins, both by path and by position, so that a page still begins
+ * in the right place when children have come or gone since the previous one. A cursor is exchanged with clients as
+ * an opaque, URL-safe token.
+ *
+ * The repository can only list the children of a container from the first, so finding the child after which a page
+ * begins still visits every child before it. Fetching a page thus costs time in proportion to its position, and
+ * paging through a whole container in proportion to the square of its size divided by the page size; the cursor
+ * saves converting the skipped children to resources and serializing them, not visiting them.
+ *
+ * @author agent
+ */
+public final class PageCursor {
+
+    private static final char SEPARATOR = ',';
+
+    private final int pageSize;
+
+    private final String after;
+
+    private final long position;
+
+    private PageCursor(final int pageSize, final String after, final long position) {
+        if (pageSize <= 0 || position < 0) {
+            throw new IllegalArgumentException("Invalid page size or position");
+        }
+        this.pageSize = pageSize;
+        this.after = after;
+        this.position = position;
+    }
+
+    /**
+     * @param pageSize the number of children on each page
+     * @return a cursor for the first page
+     */
+    public static PageCursor first(final int pageSize) {
+        return new PageCursor(pageSize, null, 0);
+    }
+
+    /**
+     * @param lastChild the path of the last child on this page
+     * @return a cursor for the page after this one
+     */
+    public PageCursor next(final String lastChild) {
+        return new PageCursor(pageSize, lastChild, position + pageSize);
+    }
+
+    /**
+     * @return the number of children on each page
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * @return the path of the child after which the page begins, or null for the first page
+     */
+    public String getAfter() {
+        return after;
+    }
+
+    /**
+     * @return the number of children before the page
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * @return this cursor as a token
+     */
+    public String encode() {
+        final String cursor = pageSize + "" + SEPARATOR + position + (after == null ? "" : SEPARATOR + after);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(UTF_8));
+    }
+
+    /**
+     * @param token a token produced by {@link #encode()}
+     * @return the cursor
+     * @throws IllegalArgumentException if the token is not a valid cursor
+     */
+    public static PageCursor decode(final String token) {
+        final String[] cursor = new String(Base64.getUrlDecoder().decode(token), UTF_8).split(",", 3);
+        if (cursor.length < 2) {
+            throw new IllegalArgumentException("Invalid page cursor: " + token);
+        }
+        return new PageCursor(Integer.parseInt(cursor[0]), cursor.length == 3 ? cursor[2] : null,
+                Long.parseLong(cursor[1]));
+    }
+}
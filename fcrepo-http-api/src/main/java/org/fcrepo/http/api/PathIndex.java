@@ -0,0 +1,171 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.api;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A map from paths to values that is indexed by path segment, so that
+ * finding the entries at or beneath a path, or determining whether any
+ * entry exists at or above a path, costs time proportional to the depth
+ * of the path rather than to the number of entries.
+ *
+ * A path is considered to be at or beneath another exactly when it is
+ * equal to it or begins with it followed by a "/".
+ *
+ * This class is not thread-safe.
+ *
+ * @param <V> the type of value stored in the index
+ * @author agent
+ */
+class PathIndex<V> {
+
+    private static class Node<V> {
+
+        private final Map<String, Node<V>> children = new HashMap<>();
+
+        private V value;
+    }
+
+    private final Node<V> root = new Node<>();
+
+    private int size;
+
+    private static String[] segments(final String path) {
+        return path.split("/", -1);
+    }
+
+    private Node<V> find(final String path) {
+        Node<V> node = root;
+        for (final String segment : segments(path)) {
+            node = node.children.get(segment);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * @param path a path
+     * @return the value stored at exactly the given path, or null
+     */
+    public V get(final String path) {
+        final Node<V> node = find(path);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * @param path a path
+     * @param value the (non-null) value to store at the given path
+     * @return the value previously stored at the given path, or null
+     */
+    public V put(final String path, final V value) {
+        Node<V> node = root;
+        for (final String segment : segments(path)) {
+            node = node.children.computeIfAbsent(segment, k -> new Node<>());
+        }
+        final V previous = node.value;
+        node.value = value;
+        if (previous == null) {
+            size++;
+        }
+        return previous;
+    }
+
+    /**
+     * Removes the value stored at the given path, pruning any part of the
+     * index that no longer leads to a value.
+     * @param path a path
+     * @return the value that was removed, or null
+     */
+    public V remove(final String path) {
+        final Deque<Node<V>> visited = new ArrayDeque<>();
+        final String[] segments = segments(path);
+        Node<V> node = root;
+        for (final String segment : segments) {
+            visited.push(node);
+            node = node.children.get(segment);
+            if (node == null) {
+                return null;
+            }
+        }
+        final V previous = node.value;
+        if (previous == null) {
+            return null;
+        }
+        node.value = null;
+        size--;
+        for (int i = segments.length - 1; i >= 0 && node.value == null && node.children.isEmpty(); i--) {
+            node = visited.pop();
+            node.children.remove(segments[i]);
+        }
+        return previous;
+    }
+
+    /**
+     * @param path a path
+     * @return whether a value is stored at the given path or at any of its ancestors
+     */
+    public boolean containsPathOrAncestor(final String path) {
+        Node<V> node = root;
+        for (final String segment : segments(path)) {
+            node = node.children.get(segment);
+            if (node == null) {
+                return false;
+            }
+            if (node.value != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Offers each value stored at the given path or any of its descendants
+     * to the given consumer.
+     * @param path a path
+     * @param consumer the consumer of values
+     */
+    public void forEachPathOrDescendant(final String path, final Consumer<V> consumer) {
+        final Node<V> start = find(path);
+        if (start == null) {
+            return;
+        }
+        final Deque<Node<V>> pending = new ArrayDeque<>();
+        pending.push(start);
+        while (!pending.isEmpty()) {
+            final Node<V> node = pending.pop();
+            if (node.value != null) {
+                consumer.accept(node.value);
+            }
+            node.children.values().forEach(pending::push);
+        }
+    }
+
+    /**
+     * @return the number of values stored in this index
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.api;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.fcrepo.kernel.api.models.FedoraBinary;
+import org.fcrepo.kernel.api.models.FedoraResource;
+
+/**
+ * The values from which the validators and headers of a response are drawn, each read from the repository at most
+ * once.  The ETag and Last-Modified date are those of the description of a fedora:Binary, and of the described
+ * resource otherwise (see {@link ContentExposingResource#addCacheControlHeaders}).  A view is only valid until its
+ * resource changes, so it serves a single request that reads the resource.
+ *
+ * @author agent
+ */
+public class ResourceHeaderView {
+
+    private final FedoraResource resource;
+
+    private FedoraResource validatedResource;
+
+    private String etagValue;
+
+    private Instant lastModifiedDate;
+
+    private boolean lastModifiedDateRead = false;
+
+    private Long contentSize;
+
+    private String mimeType;
+
+    private final Map<String, Boolean> types = new HashMap<>();
+
+    /**
+     * Create a view of a resource.
+     *
+     * @param resource the resource
+     */
+    public ResourceHeaderView(final FedoraResource resource) {
+        this.resource = resource;
+    }
+
+    /**
+     * @return the resource
+     */
+    public FedoraResource getResource() {
+        return resource;
+    }
+
+    /**
+     * @return the value of the ETag of the resource
+     */
+    public String getEtagValue() {
+        if (etagValue == null) {
+            etagValue = getValidatingResource().getEtagValue();
+        }
+        return etagValue;
+    }
+
+    /**
+     * @return the date on which the resource was last modified, or null if it is not known
+     */
+    public Instant getLastModifiedDate() {
+        if (!lastModifiedDateRead) {
+            lastModifiedDate = getValidatingResource().getLastModifiedDate();
+            lastModifiedDateRead = true;
+        }
+        return lastModifiedDate;
+    }
+
+    /**
+     * @return the size of the content of a fedora:Binary
+     */
+    public long getContentSize() {
+        if (contentSize == null) {
+            contentSize = ((FedoraBinary) resource).getContentSize();
+        }
+        return contentSize;
+    }
+
+    /**
+     * @return the mime type of the content of a fedora:Binary
+     */
+    public String getMimeType() {
+        if (mimeType == null) {
+            mimeType = ((FedoraBinary) resource).getMimeType();
+        }
+        return mimeType;
+    }
+
+    /**
+     * @param type the name of a type
+     * @return whether the resource has the type
+     */
+    public boolean hasType(final String type) {
+        return types.computeIfAbsent(type, resource::hasType);
+    }
+
+    /**
+     * @return the description of a fedora:Binary, or else the resource described
+     */
+    public FedoraResource getValidatingResource() {
+        if (validatedResource == null) {
+            validatedResource = resource instanceof FedoraBinary ? resource.getDescription()
+                    : resource.getDescribedResource();
+        }
+        return validatedResource;
+    }
+}
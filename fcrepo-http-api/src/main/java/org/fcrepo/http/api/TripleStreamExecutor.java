@@ -0,0 +1,316 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.api;
+
+import static java.util.Spliterator.ORDERED;
+import static java.util.Spliterators.spliteratorUnknownSize;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.stream.StreamSupport.stream;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.jena.graph.Triple;
+import org.fcrepo.http.commons.session.HttpSession;
+import org.fcrepo.kernel.api.exception.InterruptedRuntimeException;
+import org.slf4j.Logger;
+
+/**
+ * Joins the triple streams of the RDF contexts of a response, one after another.  With a parallelism greater than
+ * 1, the first context is read through the session of the request as the response is written, while the others are
+ * read ahead, at most parallelism - 1 at a time across all requests.  A JCR session may only be used by one thread
+ * at a time, so each context read ahead is built afresh against a session of its own, and its triples are handed
+ * over through a bounded queue until its turn comes; the triples are written in the same order either way.
+ *
+ * A context whose turn comes before a thread has been free to read it is read through its session as the response
+ * is written instead, so that a response never waits on a context queued behind those of other responses.  The
+ * sessions of the contexts read ahead see the repository as saved, so this should only be used for requests whose
+ * session has no pending changes.
+ *
+ * @author agent
+ */
+public class TripleStreamExecutor {
+
+    private static final Logger LOGGER = getLogger(TripleStreamExecutor.class);
+
+    private static final int QUEUE_SIZE = 1024;
+
+    // marks the end of the triples of a context read ahead
+    private static final Object END = new Object();
+
+    private int parallelism = 1;
+
+    private ExecutorService executor;
+
+    /**
+     * Set the number of contexts read at once for a response, or 1 to read them one after another.
+     *
+     * @param parallelism the parallelism
+     */
+    public void setParallelism(final int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Start the threads that read contexts ahead.
+     */
+    @PostConstruct
+    public void init() {
+        if (parallelism > 1) {
+            final AtomicInteger count = new AtomicInteger();
+            final ThreadFactory threads = r -> {
+                final Thread thread = new Thread(r, "fcrepo-rdf-context-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            executor = newFixedThreadPool(parallelism - 1, threads);
+            LOGGER.info("Reading up to {} RDF contexts of a response at once", parallelism);
+        }
+    }
+
+    /**
+     * Stop the threads that read contexts ahead.
+     */
+    @PreDestroy
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Join the triple streams of the contexts of a response.
+     *
+     * @param contexts builds the stream of each context against the given session, in the order in which they are
+     *        to be written
+     * @param session the session of the request, through which the first context is read
+     * @param sessions opens a session in which to read a context ahead; each is expired once its context is read
+     * @return the triples of every context, in order
+     */
+    public Stream<Triple> concatenate(final List<Function<HttpSession, Stream<Triple>>> contexts,
+            final HttpSession session, final Supplier<HttpSession> sessions) {
+        final List<Context> ordered = new ArrayList<>(contexts.size());
+        final Stream<Triple> triples = stream(spliteratorUnknownSize(new Joined(ordered), ORDERED), false)
+                .onClose(() -> ordered.forEach(Context::close));
+        try {
+            for (int i = 0; i < contexts.size(); i++) {
+                if (i == 0 || executor == null) {
+                    ordered.add(new Context(contexts.get(i), session, false));
+                } else {
+                    final Context context = new Context(contexts.get(i), sessions.get(), true);
+                    ordered.add(context);
+                    context.future = executor.submit(context::readAhead);
+                }
+            }
+        } catch (final RuntimeException e) {
+            triples.close();
+            throw e;
+        }
+        return triples;
+    }
+
+    private enum State {
+        QUEUED, READING_AHEAD, READING, CLOSED
+    }
+
+    /**
+     * A context of a response, read either ahead on a thread of the pool or as the response is written.
+     */
+    private static class Context {
+
+        private final Function<HttpSession, Stream<Triple>> builder;
+
+        private final HttpSession session;
+
+        private final boolean ownSession;
+
+        private final AtomicReference<State> state = new AtomicReference<>(State.QUEUED);
+
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+
+        private Future<?> future;
+
+        private Stream<Triple> stream;
+
+        private Context(final Function<HttpSession, Stream<Triple>> builder, final HttpSession session,
+                final boolean ownSession) {
+            this.builder = builder;
+            this.session = session;
+            this.ownSession = ownSession;
+        }
+
+        private void readAhead() {
+            if (!state.compareAndSet(State.QUEUED, State.READING_AHEAD)) {
+                return;
+            }
+            try {
+                // the failure, if any, is passed on in place of the triples that would have followed
+                Object last = END;
+                try (final Stream<Triple> triples = builder.apply(session)) {
+                    final Iterator<Triple> iterator = triples.iterator();
+                    while (iterator.hasNext()) {
+                        queue.put(iterator.next());
+                    }
+                } catch (final RuntimeException e) {
+                    last = e;
+                }
+                queue.put(last);
+            } catch (final InterruptedException e) {
+                LOGGER.debug("Stopped reading an RDF context ahead");
+            } finally {
+                session.expire();
+            }
+        }
+
+        /**
+         * @return the triples of this context, read through its session on this thread unless it is already being
+         *         read ahead
+         */
+        private Iterator<Triple> iterator() {
+            if (state.compareAndSet(State.QUEUED, State.READING)) {
+                if (future != null) {
+                    future.cancel(false);
+                }
+                stream = builder.apply(session);
+                return stream.iterator();
+            }
+            return new Queued(queue);
+        }
+
+        /**
+         * Release the session of this context once its triples have all been read on this thread; a context read
+         * ahead releases its own.
+         */
+        private void finish() {
+            if (state.get() == State.READING) {
+                close();
+            }
+        }
+
+        private void close() {
+            final State previous = state.getAndSet(State.CLOSED);
+            if (previous == State.READING_AHEAD) {
+                future.cancel(true);
+                return;
+            }
+            if (future != null) {
+                future.cancel(false);
+            }
+            if (stream != null) {
+                stream.close();
+            }
+            if (ownSession && previous != State.CLOSED) {
+                session.expire();
+            }
+        }
+    }
+
+    /**
+     * The triples of a context read ahead, taken from its queue as they arrive.
+     */
+    private static class Queued implements Iterator<Triple> {
+
+        private final BlockingQueue<Object> queue;
+
+        private Object next;
+
+        private Queued(final BlockingQueue<Object> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                try {
+                    next = queue.take();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedRuntimeException(e);
+                }
+            }
+            if (next instanceof RuntimeException) {
+                throw (RuntimeException) next;
+            }
+            return next != END;
+        }
+
+        @Override
+        public Triple next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Triple triple = (Triple) next;
+            next = null;
+            return triple;
+        }
+    }
+
+    /**
+     * The triples of each context in turn, starting on a context only once the last is exhausted.
+     */
+    private static class Joined implements Iterator<Triple> {
+
+        private final List<Context> contexts;
+
+        private int index = -1;
+
+        private Iterator<Triple> current;
+
+        private Joined(final List<Context> contexts) {
+            this.contexts = contexts;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (current == null || !current.hasNext()) {
+                if (current != null) {
+                    contexts.get(index).finish();
+                }
+                if (++index >= contexts.size()) {
+                    return false;
+                }
+                current = contexts.get(index).iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public Triple next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.api.repository;
+
+import static java.util.Collections.reverseOrder;
+import static java.util.Map.Entry.comparingByValue;
+import static java.util.stream.Collectors.joining;
+import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
+import static javax.ws.rs.core.Response.ok;
+
+import java.util.stream.Stream;
+
+import javax.inject.Inject;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Response;
+
+import org.fcrepo.http.commons.AbstractResource;
+import org.fcrepo.kernel.api.services.RepositoryService;
+import org.fcrepo.kernel.api.utils.BinaryStatistics;
+import org.springframework.context.annotation.Scope;
+
+import com.codahale.metrics.annotation.Timed;
+
+/**
+ * Repository-wide endpoint reporting how the binaries in the repository share their stored content
+ *
+ * @author agent
+ */
+@Scope("prototype")
+@Path("/fcr:binaryStatistics")
+public class FedoraRepositoryBinaryStatistics extends AbstractResource {
+
+    private static final String HISTORY_HEADER =
+            "date\tbinaryCount\tuniqueBinaryCount\tlogicalSize\tuniqueSize\tsharedSize";
+
+    /**
+     * The fcrepo repository service
+     */
+    @Inject
+    protected RepositoryService repositoryService;
+
+    /**
+     * Report the number and size of the binaries in the repository, and of the distinct contents among them.
+     *
+     * GET /fcr:binaryStatistics
+     *
+     * @return one statistic to a line, each name followed by its value
+     */
+    @GET
+    @Timed
+    @Produces(TEXT_PLAIN)
+    public Response getStatistics() {
+        final BinaryStatistics statistics = repositoryService.getBinaryStatistics();
+        return ok(Stream.of(
+                "date " + statistics.getDate(),
+                "binaryCount " + statistics.getBinaryCount(),
+                "uniqueBinaryCount " + statistics.getUniqueBinaryCount(),
+                "logicalSize " + statistics.getLogicalSize(),
+                "uniqueSize " + statistics.getUniqueSize(),
+                "sharedSize " + statistics.getSharedSize()).collect(joining("\n"))).build();
+    }
+
+    /**
+     * Report earlier statistics on the binaries in the repository, to show how it has grown.
+     *
+     * GET /fcr:binaryStatistics/history
+     *
+     * @return a tab-separated table of the statistics, oldest first, beneath a line naming its columns
+     */
+    @GET
+    @Timed
+    @Path("history")
+    @Produces(TEXT_PLAIN)
+    public Response getHistory() {
+        return ok(Stream.concat(Stream.of(HISTORY_HEADER),
+                repositoryService.getBinaryStatisticsHistory().stream().map(statistics -> statistics.getDate() +
+                        "\t" + statistics.getBinaryCount() + "\t" + statistics.getUniqueBinaryCount() +
+                        "\t" + statistics.getLogicalSize() + "\t" + statistics.getUniqueSize() +
+                        "\t" + statistics.getSharedSize())).collect(joining("\n"))).build();
+    }
+
+    /**
+     * Report the bytes held by the binaries of each MIME type.
+     *
+     * GET /fcr:binaryStatistics/mimeTypes
+     *
+     * @return each MIME type followed by the bytes held by its binaries, one to a line, most first
+     */
+    @GET
+    @Timed
+    @Path("mimeTypes")
+    @Produces(TEXT_PLAIN)
+    public Response getSizeByMimeType() {
+        return ok(repositoryService.getRepositorySizeByMimeType().entrySet().stream()
+                .sorted(comparingByValue(reverseOrder()))
+                .map(size -> size.getKey() + " " + size.getValue()).collect(joining("\n"))).build();
+    }
+
+    /**
+     * Report the contents shared by the most binaries.
+     *
+     * GET /fcr:binaryStatistics/references?limit=10
+     *
+     * @param limit the largest number of contents to report
+     * @return the SHA-1 of each content followed by the number of binaries that share it, one to a line, most first
+     */
+    @GET
+    @Timed
+    @Path("references")
+    @Produces(TEXT_PLAIN)
+    public Response getMostReferenced(@QueryParam("limit") @DefaultValue("10") final int limit) {
+        return ok(repositoryService.getMostReferencedBinaries(limit).entrySet().stream()
+                .map(reference -> reference.getKey() + " " + reference.getValue()).collect(joining("\n"))).build();
+    }
+
+    /**
+     * Report the number of binaries that share a content.
+     *
+     * GET /fcr:binaryStatistics/references/{hash}
+     *
+     * @param hash the SHA-1 of the content, in hexadecimal
+     * @return the number of binaries with that content
+     */
+    @GET
+    @Timed
+    @Path("references/{hash}")
+    @Produces(TEXT_PLAIN)
+    public Response getReferenceCount(@PathParam("hash") final String hash) {
+        return ok(Long.toString(repositoryService.getBinaryReferenceCount(hash.toLowerCase()))).build();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.api.repository;
+
+import static java.util.stream.Collectors.joining;
+import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
+import static javax.ws.rs.core.Response.ok;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.Collection;
+
+import javax.inject.Inject;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Response;
+
+import org.fcrepo.http.commons.AbstractResource;
+import org.fcrepo.http.commons.session.HttpSession;
+import org.fcrepo.kernel.api.services.MembershipService;
+import org.slf4j.Logger;
+import org.springframework.context.annotation.Scope;
+
+import com.codahale.metrics.annotation.Timed;
+
+/**
+ * Repository-wide endpoint for checking and rebuilding the index from which the membership of LDP Direct and
+ * Indirect containers is read
+ *
+ * @author agent
+ */
+@Scope("prototype")
+@Path("/fcr:membership")
+public class FedoraRepositoryMembership extends AbstractResource {
+
+    private static final Logger LOGGER = getLogger(FedoraRepositoryMembership.class);
+
+    @Inject
+    protected HttpSession session;
+
+    /**
+     * The fcrepo membership service
+     */
+    @Inject
+    protected MembershipService membershipService;
+
+    /**
+     * Check the membership index of the containers at or beneath a path.
+     *
+     * GET /fcr:membership?path=/some/path
+     *
+     * @param path the repository path to check
+     * @return the paths of the containers whose index is inconsistent, one to a line
+     */
+    @GET
+    @Timed
+    @Produces(TEXT_PLAIN)
+    public Response checkMembershipIndex(@QueryParam("path") @DefaultValue("/") final String path) {
+        final Collection<String> inconsistent = membershipService.checkMembershipIndex(session.getFedoraSession(),
+                path);
+        LOGGER.info("Found {} inconsistent membership indexes at or beneath {}", inconsistent.size(), path);
+        return ok(inconsistent.stream().collect(joining("\n"))).build();
+    }
+
+    /**
+     * Rebuild the membership index of the containers at or beneath a path.
+     *
+     * POST /fcr:membership?path=/some/path
+     *
+     * @param path the repository path to rebuild
+     * @return the number of containers whose index was rebuilt
+     */
+    @POST
+    @Timed
+    @Produces(TEXT_PLAIN)
+    public Response rebuildMembershipIndex(@QueryParam("path") @DefaultValue("/") final String path) {
+        final long rebuilt = membershipService.rebuildMembershipIndex(session.getFedoraSession(), path);
+        session.commit();
+        return ok(Long.toString(rebuilt)).build();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.api.responses;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Map;
+
+import org.fcrepo.http.commons.responses.RdfNamespacedStream;
+import org.fcrepo.kernel.api.RdfStream;
+
+/**
+ * An RdfStream whose serialization may be served from, and stored in, the {@link RdfResponseCache}
+ *
+ * @author agent
+ */
+public class CacheableRdfStream extends RdfNamespacedStream {
+
+    private final RdfResponseCache cache;
+
+    private final String key;
+
+    private final String path;
+
+    /**
+     * Creates an object to hold a cacheable RdfStream.
+     *
+     * @param stream the RdfStream
+     * @param namespaces the namespace mapping
+     * @param cache the cache of serialized responses
+     * @param key the key of the response, to which the media type of its serialization is added
+     * @param path the path of the resource the response describes
+     */
+    public CacheableRdfStream(final RdfStream stream, final Map<String, String> namespaces,
+            final RdfResponseCache cache, final String key, final String path) {
+        super(stream, namespaces);
+        requireNonNull(cache);
+        requireNonNull(key);
+        requireNonNull(path);
+        this.cache = cache;
+        this.key = key;
+        this.path = path;
+    }
+
+    /**
+     * @return the cache of serialized responses
+     */
+    public RdfResponseCache getCache() {
+        return cache;
+    }
+
+    /**
+     * @return the key of the response
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return the path of the resource the response describes
+     */
+    public String getPath() {
+        return path;
+    }
+}
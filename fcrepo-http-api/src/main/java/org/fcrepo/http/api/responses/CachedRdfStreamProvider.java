@@ -0,0 +1,126 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.api.responses;
+
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.newOutputStream;
+import static javax.ws.rs.core.MediaType.TEXT_HTML_TYPE;
+import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
+import static org.fcrepo.http.commons.domain.RDFMediaType.JSON_LD;
+import static org.fcrepo.http.commons.domain.RDFMediaType.N3;
+import static org.fcrepo.http.commons.domain.RDFMediaType.N3_ALT2;
+import static org.fcrepo.http.commons.domain.RDFMediaType.NTRIPLES;
+import static org.fcrepo.http.commons.domain.RDFMediaType.RDF_XML;
+import static org.fcrepo.http.commons.domain.RDFMediaType.TURTLE;
+import static org.fcrepo.http.commons.domain.RDFMediaType.TURTLE_X;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.TeeOutputStream;
+import org.fcrepo.http.commons.responses.RdfStreamStreamingOutput;
+import org.slf4j.Logger;
+
+/**
+ * Serializes a {@link CacheableRdfStream}, copying the serialization from the {@link RdfResponseCache} when it holds
+ * one, and otherwise storing the serialization there as it is written to the client.
+ *
+ * @author agent
+ */
+@Provider
+@Produces({TURTLE, N3, N3_ALT2, RDF_XML, NTRIPLES, TEXT_PLAIN, TURTLE_X, JSON_LD})
+public class CachedRdfStreamProvider implements MessageBodyWriter<CacheableRdfStream> {
+
+    private static final Logger LOGGER = getLogger(CachedRdfStreamProvider.class);
+
+    @Override
+    public boolean isWriteable(final Class<?> type, final Type genericType,
+            final Annotation[] annotations, final MediaType mediaType) {
+        return CacheableRdfStream.class.isAssignableFrom(type) && !mediaType.equals(TEXT_HTML_TYPE)
+                && !(mediaType.getType().equals("application") && mediaType.getSubtype().equals("html"));
+    }
+
+    @Override
+    public long getSize(final CacheableRdfStream t, final Class<?> type,
+            final Type genericType, final Annotation[] annotations,
+            final MediaType mediaType) {
+        // We do not know how long the stream is
+        return -1;
+    }
+
+    @Override
+    public void writeTo(final CacheableRdfStream nsStream, final Class<?> type,
+        final Type genericType, final Annotation[] annotations,
+        final MediaType mediaType,
+        final MultivaluedMap<String, Object> httpHeaders,
+        final OutputStream entityStream) throws IOException {
+
+        final RdfResponseCache cache = nsStream.getCache();
+        final String key = nsStream.getKey() + "\n" + mediaType;
+        final InputStream cached = open(cache.get(key));
+        if (cached != null) {
+            LOGGER.debug("Serving a cached response for {} as {}", nsStream.getPath(), mediaType);
+            nsStream.close();
+            try (final InputStream in = cached) {
+                IOUtils.copy(in, entityStream);
+            }
+            return;
+        }
+
+        LOGGER.debug("Serializing an RdfStream to mimeType: {}", mediaType);
+        final Path file = cache.newFile();
+        boolean complete = false;
+        try {
+            try (final OutputStream copy = newOutputStream(file)) {
+                new RdfStreamStreamingOutput(nsStream.stream, nsStream.namespaces, mediaType)
+                        .write(new TeeOutputStream(entityStream, copy));
+            }
+            cache.put(key, nsStream.getPath(), file);
+            complete = true;
+        } finally {
+            if (!complete) {
+                deleteIfExists(file);
+            }
+        }
+    }
+
+    private static InputStream open(final RdfResponseCache.Entry entry) {
+        if (entry == null) {
+            return null;
+        }
+        try {
+            return entry.open();
+        } catch (final IOException e) {
+            // evicted after it was retrieved, so it is serialized anew
+            LOGGER.debug("Cached response is gone: {}", e.getMessage());
+            return null;
+        }
+    }
+}
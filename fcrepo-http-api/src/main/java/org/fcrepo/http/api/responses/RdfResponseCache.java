@@ -0,0 +1,333 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.api.responses;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.createTempFile;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.newDirectoryStream;
+import static java.nio.file.Files.newInputStream;
+import static java.nio.file.Files.size;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.fcrepo.kernel.api.observer.FedoraEvent;
+import org.fcrepo.metrics.RegistryService;
+
+import org.slf4j.Logger;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+
+/**
+ * A cache of serialized RDF responses, held in files on local disk so that it does not weigh on the heap.  An entry
+ * is keyed by everything that shapes the response: the resource and its ETag, the request preferences and the media
+ * type of the serialization.  The least recently used entries are evicted once the entries together exceed the
+ * configured size, and every entry for a resource, or for the container of a resource, is dropped when an event
+ * reports that it has changed.  A size of 0 disables the cache.
+ *
+ * @author agent
+ */
+public class RdfResponseCache {
+
+    private static final Logger LOGGER = getLogger(RdfResponseCache.class);
+
+    private static final MetricRegistry METRICS = RegistryService.getInstance().getMetrics();
+
+    private static final String PREFIX = "rdf-response-";
+
+    private final Meter hits = METRICS.meter(name(RdfResponseCache.class, "hits"));
+
+    private final Meter misses = METRICS.meter(name(RdfResponseCache.class, "misses"));
+
+    @Inject
+    private EventBus eventBus;
+
+    private Path directory = Paths.get(System.getProperty("fcrepo.rdf.cache.directory",
+            Paths.get(System.getProperty("java.io.tmpdir"), "fcrepo-rdf-cache").toString()));
+
+    private long maxSize = 0;
+
+    private long size = 0;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Map<String, Set<String>> keysByPath = new HashMap<>();
+
+    /**
+     * A serialized response held in the cache
+     */
+    public static class Entry {
+
+        private final String path;
+
+        private final Path file;
+
+        private final long size;
+
+        private Entry(final String path, final Path file, final long size) {
+            this.path = path;
+            this.file = file;
+            this.size = size;
+        }
+
+        /**
+         * Open the serialized response.
+         *
+         * @return the serialized response
+         * @throws IOException if the entry has been evicted since it was retrieved
+         */
+        public InputStream open() throws IOException {
+            return newInputStream(file);
+        }
+    }
+
+    /**
+     * Set the directory in which serialized responses are held.
+     *
+     * @param directory the directory
+     */
+    public void setDirectory(final String directory) {
+        this.directory = Paths.get(directory);
+    }
+
+    /**
+     * Set the number of bytes the cache may hold, or 0 to disable the cache.
+     *
+     * @param maxSize the size of the cache, in bytes
+     */
+    public void setMaxSize(final long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Whether responses should be cached at all
+     *
+     * @return true if the cache is enabled
+     */
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /**
+     * Prepare the cache directory and start listening for changes to resources.
+     *
+     * @throws IOException if the cache directory cannot be prepared
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        createDirectories(directory);
+        clearDirectory();
+        if (eventBus != null) {
+            eventBus.register(this);
+        }
+        registerGauge("size", () -> currentSize());
+        registerGauge("hit-ratio", new RatioGauge() {
+            @Override
+            protected Ratio getRatio() {
+                return Ratio.of(hits.getCount(), hits.getCount() + misses.getCount());
+            }
+        });
+        LOGGER.info("Caching up to {} bytes of RDF responses in {}", maxSize, directory);
+    }
+
+    /**
+     * Stop listening for changes and drop every entry.
+     */
+    @PreDestroy
+    public void close() {
+        if (!isEnabled()) {
+            return;
+        }
+        if (eventBus != null) {
+            eventBus.unregister(this);
+        }
+        METRICS.remove(name(RdfResponseCache.class, "size"));
+        METRICS.remove(name(RdfResponseCache.class, "hit-ratio"));
+        synchronized (this) {
+            entries.values().forEach(RdfResponseCache::delete);
+            entries.clear();
+            keysByPath.clear();
+            size = 0;
+        }
+    }
+
+    /**
+     * Look up a serialized response.
+     *
+     * @param key the key of the response
+     * @return the entry, or null if the response is not in the cache
+     */
+    public Entry get(final String key) {
+        final Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            misses.mark();
+        } else {
+            hits.mark();
+        }
+        return entry;
+    }
+
+    /**
+     * Create a file, in the cache directory, to which a response may be serialized before it is added with
+     * {@link #put(String, String, Path)}.
+     *
+     * @return the new file
+     * @throws IOException if the file cannot be created
+     */
+    public Path newFile() throws IOException {
+        return createTempFile(directory, PREFIX, null);
+    }
+
+    /**
+     * Add a serialized response to the cache, evicting the least recently used entries to make room for it.  A
+     * response larger than the whole cache is discarded.
+     *
+     * @param key the key of the response
+     * @param path the path of the resource described by the response
+     * @param file the serialized response, which the cache now owns
+     * @throws IOException if the file cannot be read
+     */
+    public void put(final String key, final String path, final Path file) throws IOException {
+        final Entry entry = new Entry(path, file, size(file));
+        if (entry.size > maxSize) {
+            delete(entry);
+            return;
+        }
+        synchronized (this) {
+            final Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                size -= previous.size;
+                delete(previous);
+            }
+            size += entry.size;
+            keysByPath.computeIfAbsent(path, p -> new HashSet<>()).add(key);
+
+            final Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (size > maxSize && eldest.hasNext()) {
+                final Map.Entry<String, Entry> evicted = eldest.next();
+                eldest.remove();
+                removeFromIndex(evicted.getKey(), evicted.getValue().path);
+                size -= evicted.getValue().size;
+                delete(evicted.getValue());
+            }
+        }
+    }
+
+    /**
+     * Drop every response describing a resource.
+     *
+     * @param path the path of the resource
+     */
+    public void invalidate(final String path) {
+        synchronized (this) {
+            final Set<String> keys = keysByPath.remove(path);
+            if (keys == null) {
+                return;
+            }
+            for (final String key : keys) {
+                final Entry entry = entries.remove(key);
+                if (entry != null) {
+                    size -= entry.size;
+                    delete(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop the responses for a changed resource and for its container, whose containment triples may have changed
+     * with it.
+     *
+     * @param event the event
+     */
+    @Subscribe
+    public void onEvent(final FedoraEvent event) {
+        final String path = event.getPath().replaceFirst("#.*$", "");
+        LOGGER.trace("Invalidating cached responses for {}", path);
+        invalidate(path);
+        final int slash = path.lastIndexOf('/');
+        if (slash > 0) {
+            invalidate(path.substring(0, slash));
+        } else if (slash == 0 && path.length() > 1) {
+            invalidate("/");
+        }
+    }
+
+    private synchronized long currentSize() {
+        return size;
+    }
+
+    private void removeFromIndex(final String key, final String path) {
+        final Set<String> keys = keysByPath.get(path);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                keysByPath.remove(path);
+            }
+        }
+    }
+
+    private void clearDirectory() throws IOException {
+        try (final DirectoryStream<Path> files = newDirectoryStream(directory, PREFIX + "*")) {
+            for (final Path file : files) {
+                deleteIfExists(file);
+            }
+        }
+    }
+
+    private static void delete(final Entry entry) {
+        try {
+            deleteIfExists(entry.file);
+        } catch (final IOException e) {
+            LOGGER.warn("Unable to delete cached response {}: {}", entry.file, e.getMessage());
+        }
+    }
+
+    private static void registerGauge(final String gaugeName, final Gauge<?> gauge) {
+        final String fullName = name(RdfResponseCache.class, gaugeName);
+        METRICS.remove(fullName);
+        METRICS.register(fullName, gauge);
+    }
+}
@@ -137,7 +137,7 @@ public class DefaultPathLockManagerTest {
         final String p1 = "delete";
         final AcquiredLock l = m.lockForDelete(p1);
         assertEquals("One delete lock should exist!", 1, m.activeDeletePaths.size());
-        assertEquals(p1, m.activeDeletePaths.get(0));
+        assertEquals("One delete lock should exist for " + p1, 1, m.activeDeletePaths.get(p1).intValue());
         l.release();
         assertEquals("Delete lock should have been cleaned up!", 0, m.activeDeletePaths.size());
     }
@@ -25,12 +25,15 @@ import static java.util.Collections.singleton;
 import static java.util.stream.Stream.of;
 import static javax.ws.rs.core.MediaType.APPLICATION_OCTET_STREAM;
 import static javax.ws.rs.core.MediaType.APPLICATION_OCTET_STREAM_TYPE;
+import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
 import static javax.ws.rs.core.MediaType.TEXT_PLAIN_TYPE;
 import static javax.ws.rs.core.HttpHeaders.CONTENT_LENGTH;
 import static javax.ws.rs.core.HttpHeaders.LINK;
+import static javax.ws.rs.core.Response.Status.CONFLICT;
 import static javax.ws.rs.core.Response.Status.CREATED;
 import static javax.ws.rs.core.Response.Status.NO_CONTENT;
 import static javax.ws.rs.core.Response.Status.OK;
+import static javax.ws.rs.core.Response.Status.PRECONDITION_FAILED;
 import static javax.ws.rs.core.Response.Status.TEMPORARY_REDIRECT;
 import static javax.ws.rs.core.Response.Status.NOT_MODIFIED;
 
@@ -61,7 +64,9 @@ import static org.mockito.Matchers.anySetOf;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -117,6 +122,7 @@ import org.fcrepo.kernel.api.models.Container;
 import org.fcrepo.kernel.api.models.FedoraBinary;
 import org.fcrepo.kernel.api.models.FedoraResource;
 import org.fcrepo.kernel.api.models.NonRdfSourceDescription;
+import org.fcrepo.kernel.api.models.StagedContent;
 import org.fcrepo.kernel.api.rdf.DefaultRdfStream;
 import org.fcrepo.kernel.api.services.BinaryService;
 import org.fcrepo.kernel.api.services.ContainerService;
@@ -126,6 +132,7 @@ import org.glassfish.jersey.server.ContainerRequest;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.mockito.stubbing.Answer;
@@ -349,6 +356,21 @@ public class FedoraLdpTest {
         assertShouldContainLinkToBinaryDescription();
     }
 
+    @Test
+    public void testHeadWithBinaryReadsValidatorsOnce() throws Exception {
+        final FedoraBinary mockResource = (FedoraBinary)setResource(FedoraBinary.class);
+        when(mockResource.getDescription()).thenReturn(mockNonRdfSourceDescription);
+        when(mockResource.getMimeType()).thenReturn("image/jpeg");
+        final Response actual = testObj.head();
+        assertEquals(OK.getStatusCode(), actual.getStatus());
+        verify(mockNonRdfSourceDescription).getEtagValue();
+        verify(mockNonRdfSourceDescription).getLastModifiedDate();
+        verify(mockResource).getContentSize();
+        verify(mockResource).getMimeType();
+        verify(mockResource, never()).getTriples(eq(idTranslator), any(TripleCategory.class));
+        verify(mockResource, never()).getTriples(eq(idTranslator), anySetOf(TripleCategory.class));
+    }
+
     private void assertContentLengthGreaterThan0(final String contentLength) {
         assertTrue("Should have a content length header greater than 0", Integer.parseInt(contentLength) > 0);
     }
@@ -670,6 +692,20 @@ public class FedoraLdpTest {
         assertTrue(IOUtils.toString((InputStream)actual.getEntity(), UTF_8).equals("xyz"));
     }
 
+    @Test
+    public void testGetWithBinaryBuildsNoTriples() throws Exception {
+        final FedoraBinary mockResource = (FedoraBinary)setResource(FedoraBinary.class);
+        when(mockResource.getDescription()).thenReturn(mockNonRdfSourceDescription);
+        when(mockResource.getMimeType()).thenReturn("text/plain");
+        when(mockResource.getContent()).thenReturn(toInputStream("xyz", UTF_8));
+        final Response actual = testObj.getResource(null);
+        assertEquals(OK.getStatusCode(), actual.getStatus());
+        verify(mockResource).getMimeType();
+        verify(mockResource).getContentSize();
+        verify(mockResource, never()).getTriples(eq(idTranslator), any(TripleCategory.class));
+        verify(mockResource, never()).getTriples(eq(idTranslator), anySetOf(TripleCategory.class));
+    }
+
     private void assertShouldBeAnLDPNonRDFSource() {
         assertTrue("Should be an LDP NonRDFSource",
                 mockResponse.getHeaders(LINK).contains("<" + LDP_NAMESPACE + "NonRDFSource>;rel=\"type\""));
@@ -795,6 +831,74 @@ public class FedoraLdpTest {
         assertEquals(CREATED.getStatusCode(), actual.getStatus());
     }
 
+    @Test
+    public void testPutReplaceBinaryStagedBeforeLock() throws Exception {
+        setField(testObj, "externalPath", "some/path");
+        final FedoraBinary mockObject = (FedoraBinary)setResource(FedoraBinary.class);
+        doReturn(mockObject).when(testObj).resource();
+        when(mockObject.isNew()).thenReturn(false);
+        when(mockNodeService.exists(mockFedoraSession, "/some/path")).thenReturn(true);
+        final StagedContent mockStaged = mock(StagedContent.class);
+        final InputStream content = toInputStream("xyz", UTF_8);
+        when(mockBinaryService.stage(mockFedoraSession, content)).thenReturn(mockStaged);
+
+        final Response actual = testObj.createOrReplaceObjectRdf(TEXT_PLAIN_TYPE, content, null, null, null, null);
+
+        assertEquals(NO_CONTENT.getStatusCode(), actual.getStatus());
+        final InOrder inOrder = inOrder(mockBinaryService, mockLockManager, mockObject);
+        inOrder.verify(mockBinaryService).stage(mockFedoraSession, content);
+        inOrder.verify(mockLockManager).lockForWrite(eq("/some/path"), any(), any());
+        inOrder.verify(mockObject).setContent(mockStaged, TEXT_PLAIN, Collections.emptySet(), "");
+    }
+
+    @Test
+    public void testPutReplaceBinaryPreconditionFailsBeforeStaging() throws Exception {
+        setField(testObj, "externalPath", "some/path");
+        final FedoraBinary mockObject = (FedoraBinary)setResource(FedoraBinary.class);
+        when(mockObject.isNew()).thenReturn(false);
+        when(mockNodeService.exists(mockFedoraSession, "/some/path")).thenReturn(true);
+
+        final Response.ResponseBuilder builder = mock(Response.ResponseBuilder.class);
+        final Response response = mock(Response.class);
+        when(builder.build()).thenReturn(response);
+        when(response.getStatus()).thenReturn(PRECONDITION_FAILED.getStatusCode());
+        when(mockRequest.evaluatePreconditions(any(EntityTag.class))).thenReturn(builder);
+
+        try {
+            testObj.createOrReplaceObjectRdf(TEXT_PLAIN_TYPE, toInputStream("xyz", UTF_8), null, "\"stale\"", null,
+                    null);
+            fail("Expected " + PreconditionException.class.getName() + " to be thrown.");
+        } catch (final PreconditionException e) {
+            // expected
+        }
+        verify(mockBinaryService, never()).stage(any(), any());
+        verify(mockLockManager, never()).lockForWrite(any(), any(), any());
+    }
+
+    @Test
+    public void testPutReplaceBinaryReplacedWhileStaged() throws Exception {
+        setField(testObj, "externalPath", "some/path");
+        final FedoraBinary mockObject = (FedoraBinary)setResource(FedoraBinary.class);
+        when(mockObject.isNew()).thenReturn(false);
+        when(mockNodeService.exists(mockFedoraSession, "/some/path")).thenReturn(true);
+        final InputStream content = toInputStream("xyz", UTF_8);
+        when(mockBinaryService.stage(mockFedoraSession, content)).thenReturn(mock(StagedContent.class));
+
+        // the binary is replaced by a container while its content is received
+        when(mockLockManager.lockForWrite(any(), any(), any())).thenAnswer(invocation -> {
+            setResource(Container.class);
+            return mockLock;
+        });
+
+        try {
+            testObj.createOrReplaceObjectRdf(TEXT_PLAIN_TYPE, content, null, null, null, null);
+            fail("Expected " + ClientErrorException.class.getName() + " to be thrown.");
+        } catch (final ClientErrorException e) {
+            assertEquals(CONFLICT.getStatusCode(), e.getResponse().getStatus());
+        }
+        verify(mockObject, never()).setContent(any(StagedContent.class), any(), any(), any());
+    }
+
     @Test
     public void testPutReplaceRdfObject() throws Exception {
 
@@ -918,6 +1022,36 @@ public class FedoraLdpTest {
         }
     }
 
+    @Test
+    public void testCreateNewBinaryStagedBeforeLock() throws MalformedRdfException, InvalidChecksumException,
+           IOException {
+        setResource(Container.class);
+        when(mockBinaryService.findOrCreate(mockFedoraSession, "/b")).thenReturn(mockBinary);
+        final StagedContent mockStaged = mock(StagedContent.class);
+        try (final InputStream content = toInputStream("x", UTF_8)) {
+            when(mockBinaryService.stage(mockFedoraSession, content)).thenReturn(mockStaged);
+            final Response actual = testObj.createObject(null, APPLICATION_OCTET_STREAM_TYPE, "b", content, null, null);
+            assertEquals(CREATED.getStatusCode(), actual.getStatus());
+
+            final InOrder inOrder = inOrder(mockBinaryService, mockLockManager, mockBinary);
+            inOrder.verify(mockBinaryService).stage(mockFedoraSession, content);
+            inOrder.verify(mockLockManager).lockForWrite(eq("/b"), any(), any());
+            inOrder.verify(mockBinary).setContent(mockStaged, APPLICATION_OCTET_STREAM, Collections.emptySet(), "");
+            verify(mockBinary, never()).setContent(any(InputStream.class), any(), any(), any(), any());
+        }
+    }
+
+    @Test
+    public void testCreateNewContainerNotStaged() throws MalformedRdfException, InvalidChecksumException,
+           IOException {
+        setResource(Container.class);
+        when(mockContainerService.findOrCreate(mockFedoraSession, "/b")).thenReturn(mockContainer);
+        try (final InputStream content = toInputStream("_:a <info:x> _:c .", UTF_8)) {
+            testObj.createObject(null, NTRIPLES_TYPE, "b", content, null, null);
+            verify(mockBinaryService, never()).stage(any(), any());
+        }
+    }
+
     @Test(expected = InsufficientStorageException.class)
     public void testCreateNewBinaryWithInsufficientResources() throws MalformedRdfException,
            InvalidChecksumException, IOException {
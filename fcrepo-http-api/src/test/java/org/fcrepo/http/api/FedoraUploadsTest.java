@@ -0,0 +1,121 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.api;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static javax.ws.rs.core.Response.Status.CREATED;
+import static javax.ws.rs.core.Response.Status.NO_CONTENT;
+import static javax.ws.rs.core.Response.Status.OK;
+import static org.fcrepo.http.commons.test.util.TestHelpers.getUriInfoImpl;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.security.Principal;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.SecurityContext;
+
+import org.fcrepo.kernel.api.services.UploadService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+/**
+ * <p>FedoraUploadsTest class.</p>
+ *
+ * @author agent
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class FedoraUploadsTest {
+
+    private static final String USER_NAME = "test";
+
+    private FedoraUploads testObj;
+
+    @Mock
+    private UploadService mockUploadService;
+
+    @Mock
+    private InputStream mockContent;
+
+    @Mock
+    private Principal mockPrincipal;
+
+    @Mock
+    private SecurityContext mockSecurityContext;
+
+    @Before
+    public void setUp() {
+        testObj = new FedoraUploads();
+        setField(testObj, "uriInfo", getUriInfoImpl());
+        setField(testObj, "uploadService", mockUploadService);
+        setField(testObj, "securityContext", mockSecurityContext);
+        when(mockSecurityContext.getUserPrincipal()).thenReturn(mockPrincipal);
+        when(mockPrincipal.getName()).thenReturn(USER_NAME);
+    }
+
+    @Test
+    public void testCreateUpload() {
+        when(mockUploadService.create(USER_NAME)).thenReturn("abc");
+        final Response response = testObj.createUpload();
+        assertEquals(CREATED.getStatusCode(), response.getStatus());
+        assertEquals(URI.create("http://localhost/fcrepo/fcr:uploads/abc"), response.getLocation());
+    }
+
+    @Test
+    public void testPutChunk() throws Exception {
+        final Response response = testObj.putChunk("abc", 3, mockContent, null);
+        assertEquals(NO_CONTENT.getStatusCode(), response.getStatus());
+        verify(mockUploadService).putChunk("abc", USER_NAME, 3, mockContent, emptyList());
+    }
+
+    @Test
+    public void testPutChunkWithDigest() throws Exception {
+        testObj.putChunk("abc", 0, mockContent, "SHA1=a9993e364706816aba3e25717850c26c9cd0d89d");
+        verify(mockUploadService).putChunk("abc", USER_NAME, 0, mockContent,
+                singletonList(URI.create("urn:sha1:a9993e364706816aba3e25717850c26c9cd0d89d")));
+    }
+
+    @Test
+    public void testGetChunks() {
+        final SortedMap<Integer, Long> chunks = new TreeMap<>();
+        chunks.put(0, 1024L);
+        chunks.put(1, 512L);
+        when(mockUploadService.getChunks("abc", USER_NAME)).thenReturn(chunks);
+
+        final Response response = testObj.getChunks("abc");
+        assertEquals(OK.getStatusCode(), response.getStatus());
+        assertEquals("0 1024\n1 512", response.getEntity());
+    }
+
+    @Test
+    public void testDeleteUpload() {
+        final Response response = testObj.deleteUpload("abc");
+        assertEquals(NO_CONTENT.getStatusCode(), response.getStatus());
+        verify(mockUploadService).delete("abc", USER_NAME);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class PageCursorTest {
+
+    @Test
+    public void testFirst() {
+        final PageCursor first = PageCursor.decode(PageCursor.first(10).encode());
+        assertEquals(10, first.getPageSize());
+        assertEquals(0, first.getPosition());
+        assertNull(first.getAfter());
+    }
+
+    @Test
+    public void testNext() {
+        final PageCursor next = PageCursor.decode(PageCursor.first(10).next("/a/b,c").next("/a/d").encode());
+        assertEquals(10, next.getPageSize());
+        assertEquals(20, next.getPosition());
+        assertEquals("/a/d", next.getAfter());
+    }
+
+    @Test
+    public void testPathWithSeparator() {
+        assertEquals("/a/b,c", PageCursor.decode(PageCursor.first(10).next("/a/b,c").encode()).getAfter());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotBase64() {
+        PageCursor.decode("not a cursor!");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingPosition() {
+        PageCursor.decode("MTA");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPageSize() {
+        PageCursor.decode("MCww");
+    }
+}
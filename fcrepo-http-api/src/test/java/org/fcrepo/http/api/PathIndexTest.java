@@ -0,0 +1,91 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.api;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for PathIndex.
+ * @author agent
+ */
+public class PathIndexTest {
+
+    private PathIndex<String> index;
+
+    @Before
+    public void setUp() {
+        index = new PathIndex<>();
+        index.put("/a", "a");
+        index.put("/a/b", "b");
+        index.put("/a/b/c", "c");
+        index.put("/ab", "ab");
+    }
+
+    @Test
+    public void testGetAndSize() {
+        assertEquals(4, index.size());
+        assertEquals("b", index.get("/a/b"));
+        assertNull(index.get("/a/b/c/d"));
+        assertNull(index.get("/"));
+    }
+
+    @Test
+    public void testForEachPathOrDescendant() {
+        final Set<String> found = new HashSet<>();
+        index.forEachPathOrDescendant("/a", found::add);
+        assertEquals(new HashSet<>(asList("a", "b", "c")), found);
+
+        found.clear();
+        index.forEachPathOrDescendant("/a/b/c/d", found::add);
+        assertTrue(found.isEmpty());
+    }
+
+    @Test
+    public void testContainsPathOrAncestor() {
+        index.remove("/a");
+        assertTrue(index.containsPathOrAncestor("/a/b"));
+        assertTrue(index.containsPathOrAncestor("/a/b/x"));
+        assertFalse("A sibling sharing a prefix is not a descendant!", index.containsPathOrAncestor("/abc"));
+        assertFalse(index.containsPathOrAncestor("/a"));
+        assertFalse(index.containsPathOrAncestor("/a/x"));
+    }
+
+    @Test
+    public void testRemove() {
+        assertEquals("c", index.remove("/a/b/c"));
+        assertNull(index.remove("/a/b/c"));
+        assertNull(index.remove("/a/x"));
+        assertEquals("a", index.remove("/a"));
+        assertEquals("b", index.get("/a/b"));
+        assertEquals(2, index.size());
+        index.remove("/a/b");
+        index.remove("/ab");
+        assertEquals(0, index.size());
+        assertFalse(index.containsPathOrAncestor("/a/b"));
+    }
+}
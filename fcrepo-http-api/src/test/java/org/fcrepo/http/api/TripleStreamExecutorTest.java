@@ -0,0 +1,176 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.api;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.apache.jena.graph.NodeFactory.createLiteral;
+import static org.apache.jena.graph.NodeFactory.createURI;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.apache.jena.graph.Triple;
+import org.fcrepo.http.commons.session.HttpSession;
+import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class TripleStreamExecutorTest {
+
+    private TripleStreamExecutor testObj;
+
+    private HttpSession requestSession;
+
+    private final List<HttpSession> readSessions = new ArrayList<>();
+
+    private final Supplier<HttpSession> sessions = () -> {
+        final HttpSession session = mock(HttpSession.class);
+        readSessions.add(session);
+        return session;
+    };
+
+    @Before
+    public void setUp() {
+        requestSession = mock(HttpSession.class);
+        testObj = new TripleStreamExecutor();
+        testObj.setParallelism(3);
+        testObj.init();
+    }
+
+    @After
+    public void tearDown() {
+        testObj.close();
+    }
+
+    @Test
+    public void testKeepsOrder() {
+        final List<Triple> triples = testObj.concatenate(asList(triples(0, 100), triples(100, 5), triples(105, 2000),
+                triples(2105, 0), triples(2105, 20)), requestSession, sessions).collect(toList());
+        assertEquals(triples(0, 2125).apply(requestSession).collect(toList()), triples);
+    }
+
+    @Test
+    public void testSequential() {
+        final TripleStreamExecutor sequential = new TripleStreamExecutor();
+        sequential.init();
+        final List<Triple> triples = sequential.concatenate(asList(triples(0, 10), triples(10, 10)), requestSession,
+                sessions).collect(toList());
+        assertEquals(triples(0, 20).apply(requestSession).collect(toList()), triples);
+        assertEquals(0, readSessions.size());
+    }
+
+    @Test
+    public void testReadsEachContextThroughItsOwnSession() {
+        final List<HttpSession> used = new ArrayList<>();
+        final Function<HttpSession, Stream<Triple>> context = session -> {
+            synchronized (used) {
+                used.add(session);
+            }
+            return Stream.empty();
+        };
+        testObj.concatenate(asList(context, context, context), requestSession, sessions).count();
+        assertEquals(2, readSessions.size());
+        assertEquals(new HashSet<>(asList(requestSession, readSessions.get(0), readSessions.get(1))),
+                new HashSet<>(used));
+        readSessions.forEach(session -> verify(session, timeout(1000)).expire());
+        verify(requestSession, never()).expire();
+    }
+
+    @Test
+    public void testClosingExpiresSessions() {
+        final CountDownLatch reading = new CountDownLatch(1);
+        final Function<HttpSession, Stream<Triple>> endless = session -> Stream.generate(() -> {
+            reading.countDown();
+            return triple(0);
+        });
+        final Stream<Triple> triples = testObj.concatenate(asList(triples(0, 1), endless, triples(1, 1)),
+                requestSession, sessions);
+        await(reading);
+        triples.close();
+        readSessions.forEach(session -> verify(session, timeout(1000)).expire());
+    }
+
+    @Test
+    public void testReadsQueuedContextOnTheRequestThread() {
+        final TripleStreamExecutor single = new TripleStreamExecutor();
+        single.setParallelism(2);
+        single.init();
+        try {
+            // occupy the only thread of the pool until the first response is read
+            final CountDownLatch occupied = new CountDownLatch(1);
+            final Function<HttpSession, Stream<Triple>> blocking = session -> Stream.generate(() -> {
+                occupied.countDown();
+                return triple(0);
+            });
+            final Stream<Triple> first = single.concatenate(asList(triples(0, 0), blocking), requestSession,
+                    sessions);
+            await(occupied);
+
+            final List<Thread> threads = new ArrayList<>();
+            final Function<HttpSession, Stream<Triple>> context = session -> {
+                threads.add(Thread.currentThread());
+                return triples(0, 1).apply(session);
+            };
+            assertEquals(2, single.concatenate(asList(triples(0, 1), context), requestSession, sessions).count());
+            assertEquals(asList(Thread.currentThread()), threads);
+            first.close();
+        } finally {
+            single.close();
+        }
+    }
+
+    @Test(expected = RepositoryRuntimeException.class)
+    public void testPassesOnFailure() {
+        final Function<HttpSession, Stream<Triple>> failing = session -> triples(10, 1).apply(session).peek(t -> {
+            throw new RepositoryRuntimeException("failed");
+        });
+        testObj.concatenate(asList(triples(0, 10), failing), requestSession, sessions).count();
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static Function<HttpSession, Stream<Triple>> triples(final int start, final int count) {
+        return session -> IntStream.range(start, start + count).mapToObj(TripleStreamExecutorTest::triple);
+    }
+
+    private static Triple triple(final int i) {
+        return new Triple(createURI("info:s"), createURI("info:p"), createLiteral(String.valueOf(i)));
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.api.repository;
+
+import static java.time.Instant.EPOCH;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.fcrepo.kernel.api.services.RepositoryService;
+import org.fcrepo.kernel.api.utils.BinaryStatistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+/**
+ * @author agent
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class FedoraRepositoryBinaryStatisticsTest {
+
+    private FedoraRepositoryBinaryStatistics testObj;
+
+    @Mock
+    private RepositoryService mockService;
+
+    private final BinaryStatistics statistics = new BinaryStatistics(EPOCH, 3L, 2L, 25L, 15L);
+
+    @Before
+    public void setUp() {
+        testObj = new FedoraRepositoryBinaryStatistics();
+        setField(testObj, "repositoryService", mockService);
+    }
+
+    @Test
+    public void testGetStatistics() {
+        when(mockService.getBinaryStatistics()).thenReturn(statistics);
+        assertEquals("date 1970-01-01T00:00:00Z\nbinaryCount 3\nuniqueBinaryCount 2\nlogicalSize 25\n" +
+                "uniqueSize 15\nsharedSize 10", testObj.getStatistics().getEntity());
+    }
+
+    @Test
+    public void testGetHistory() {
+        when(mockService.getBinaryStatisticsHistory()).thenReturn(asList(statistics, statistics));
+        final String[] lines = ((String) testObj.getHistory().getEntity()).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("1970-01-01T00:00:00Z\t3\t2\t25\t15\t10", lines[2]);
+    }
+
+    @Test
+    public void testGetMostReferenced() {
+        final Map<String, Long> references = new LinkedHashMap<>();
+        references.put("abc", 2L);
+        references.put("def", 1L);
+        when(mockService.getMostReferencedBinaries(2)).thenReturn(references);
+        assertEquals("abc 2\ndef 1", testObj.getMostReferenced(2).getEntity());
+    }
+
+    @Test
+    public void testGetSizeByMimeType() {
+        final Map<String, Long> sizes = new LinkedHashMap<>();
+        sizes.put("text/plain", 10L);
+        sizes.put("image/tiff", 200L);
+        when(mockService.getRepositorySizeByMimeType()).thenReturn(sizes);
+        assertEquals("image/tiff 200\ntext/plain 10", testObj.getSizeByMimeType().getEntity());
+    }
+
+    @Test
+    public void testGetReferenceCount() {
+        when(mockService.getBinaryReferenceCount("abc")).thenReturn(2L);
+        assertEquals("2", testObj.getReferenceCount("ABC").getEntity());
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.api.repository;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+import org.fcrepo.http.commons.session.HttpSession;
+import org.fcrepo.kernel.api.FedoraSession;
+import org.fcrepo.kernel.api.services.MembershipService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+/**
+ * @author agent
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class FedoraRepositoryMembershipTest {
+
+    private FedoraRepositoryMembership testObj;
+
+    @Mock
+    private MembershipService mockService;
+
+    @Mock
+    private HttpSession mockSession;
+
+    @Mock
+    private FedoraSession mockFedoraSession;
+
+    @Before
+    public void setUp() {
+        testObj = new FedoraRepositoryMembership();
+        setField(testObj, "session", mockSession);
+        setField(testObj, "membershipService", mockService);
+        when(mockSession.getFedoraSession()).thenReturn(mockFedoraSession);
+    }
+
+    @Test
+    public void testCheckMembershipIndex() {
+        when(mockService.checkMembershipIndex(mockFedoraSession, "/a")).thenReturn(asList("/a/b", "/a/c"));
+        assertEquals("/a/b\n/a/c", testObj.checkMembershipIndex("/a").getEntity());
+    }
+
+    @Test
+    public void testCheckConsistentMembershipIndex() {
+        when(mockService.checkMembershipIndex(mockFedoraSession, "/")).thenReturn(emptyList());
+        assertEquals("", testObj.checkMembershipIndex("/").getEntity());
+    }
+
+    @Test
+    public void testRebuildMembershipIndex() {
+        when(mockService.rebuildMembershipIndex(mockFedoraSession, "/")).thenReturn(3L);
+        assertEquals("3", testObj.rebuildMembershipIndex("/").getEntity());
+        verify(mockSession).commit();
+    }
+}
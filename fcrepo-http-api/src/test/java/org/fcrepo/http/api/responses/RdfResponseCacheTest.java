@@ -0,0 +1,199 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.api.responses;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.exists;
+import static java.nio.file.Files.write;
+import static org.apache.jena.graph.NodeFactory.createLiteral;
+import static org.apache.jena.graph.NodeFactory.createURI;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import javax.ws.rs.core.MediaType;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.fcrepo.kernel.api.RdfStream;
+import org.fcrepo.kernel.api.observer.FedoraEvent;
+import org.fcrepo.kernel.api.rdf.DefaultRdfStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.eventbus.EventBus;
+
+/**
+ * @author agent
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class RdfResponseCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private EventBus mockBus;
+
+    @Mock
+    private FedoraEvent mockEvent;
+
+    private RdfResponseCache cache;
+
+    @Before
+    public void setUp() throws IOException {
+        cache = new RdfResponseCache();
+        cache.setDirectory(folder.getRoot().getPath());
+        cache.setMaxSize(10);
+        setField(cache, "eventBus", mockBus);
+        cache.init();
+    }
+
+    @After
+    public void tearDown() {
+        cache.close();
+    }
+
+    @Test
+    public void testRegistersForEvents() {
+        verify(mockBus).register(cache);
+        cache.close();
+        verify(mockBus).unregister(cache);
+    }
+
+    @Test
+    public void testDisabled() {
+        assertTrue(cache.isEnabled());
+        assertFalse(new RdfResponseCache().isEnabled());
+    }
+
+    @Test
+    public void testPutAndGet() throws IOException {
+        assertNull(cache.get("a"));
+        cache.put("a", "/a", content("abc"));
+        assertEquals("abc", read(cache.get("a")));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() throws IOException {
+        final Path first = content("1234");
+        cache.put("a", "/a", first);
+        cache.put("b", "/b", content("1234"));
+        cache.get("a");
+        cache.put("c", "/c", content("1234"));
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertTrue(exists(first));
+    }
+
+    @Test
+    public void testDiscardsOversizedResponse() throws IOException {
+        final Path file = content("01234567890");
+        cache.put("a", "/a", file);
+        assertNull(cache.get("a"));
+        assertFalse(exists(file));
+    }
+
+    @Test
+    public void testReplacesEntry() throws IOException {
+        final Path first = content("abc");
+        cache.put("a", "/a", first);
+        cache.put("a", "/a", content("def"));
+        assertEquals("def", read(cache.get("a")));
+        assertFalse(exists(first));
+    }
+
+    @Test
+    public void testInvalidatesResourceAndParent() throws IOException {
+        cache.put("parent", "/a", content("1"));
+        cache.put("child", "/a/b", content("2"));
+        cache.put("other", "/c", content("3"));
+        when(mockEvent.getPath()).thenReturn("/a/b#hash");
+        cache.onEvent(mockEvent);
+
+        assertNull(cache.get("parent"));
+        assertNull(cache.get("child"));
+        assertNotNull(cache.get("other"));
+    }
+
+    @Test
+    public void testInvalidatesRoot() throws IOException {
+        cache.put("root", "/", content("1"));
+        when(mockEvent.getPath()).thenReturn("/a");
+        cache.onEvent(mockEvent);
+        assertNull(cache.get("root"));
+    }
+
+    @Test
+    public void testProviderStoresAndServesResponse() throws IOException {
+        final CachedRdfStreamProvider provider = new CachedRdfStreamProvider();
+        cache.setMaxSize(100000);
+        final Node subject = createURI("info:x");
+        final Triple triple = new Triple(subject, createURI("info:p"), createLiteral("o"));
+
+        final ByteArrayOutputStream first = new ByteArrayOutputStream();
+        provider.writeTo(cacheable(new DefaultRdfStream(subject, Stream.of(triple))), CacheableRdfStream.class,
+                null, null, MediaType.valueOf("application/n-triples"), null, first);
+        assertTrue(first.toString("UTF-8").contains("info:p"));
+
+        final ByteArrayOutputStream second = new ByteArrayOutputStream();
+        provider.writeTo(cacheable(new DefaultRdfStream(subject)), CacheableRdfStream.class,
+                null, null, MediaType.valueOf("application/n-triples"), null, second);
+        assertEquals(first.toString("UTF-8"), second.toString("UTF-8"));
+
+        final ByteArrayOutputStream otherType = new ByteArrayOutputStream();
+        provider.writeTo(cacheable(new DefaultRdfStream(subject)), CacheableRdfStream.class,
+                null, null, MediaType.valueOf("text/turtle"), null, otherType);
+        assertFalse(otherType.toString("UTF-8").contains("info:p"));
+    }
+
+    private CacheableRdfStream cacheable(final RdfStream stream) {
+        return new CacheableRdfStream(stream, ImmutableMap.of(), cache, "key", "/x");
+    }
+
+    private Path content(final String content) throws IOException {
+        return write(cache.newFile(), content.getBytes(UTF_8));
+    }
+
+    private static String read(final RdfResponseCache.Entry entry) throws IOException {
+        try (final InputStream in = entry.open()) {
+            return IOUtils.toString(in, UTF_8);
+        }
+    }
+}
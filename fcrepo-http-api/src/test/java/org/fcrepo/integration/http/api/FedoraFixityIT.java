@@ -22,8 +22,10 @@ import static java.util.stream.Stream.of;
 import static javax.ws.rs.core.HttpHeaders.ACCEPT;
 import static javax.ws.rs.core.HttpHeaders.CONTENT_TYPE;
 import static javax.ws.rs.core.Link.fromUri;
+import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
 import static javax.ws.rs.core.Response.Status.NO_CONTENT;
 import static javax.ws.rs.core.Response.Status.OK;
+import static org.apache.jena.atlas.iterator.Iter.count;
 import static org.apache.jena.graph.Node.ANY;
 import static org.apache.jena.graph.NodeFactory.createLiteral;
 import static org.apache.jena.graph.NodeFactory.createURI;
@@ -129,6 +131,39 @@ public class FedoraFixityIT extends AbstractResourceIT {
         }
     }
 
+    @Test
+    public void testCheckDatastreamFixityWithSeveralAlgorithms() throws IOException {
+        final String id = getRandomUniqueId();
+        createObjectAndClose(id);
+        createDatastream(id, "zxc", "foo");
+
+        try (final CloseableDataset dataset = getDataset(
+                new HttpGet(serverAddress + id + "/zxc/fcr:fixity?algorithm=sha1&algorithm=md5&algorithm=SHA-256"))) {
+            final DatasetGraph graphStore = dataset.asDatasetGraph();
+            logger.debug("Got triples {}", graphStore);
+
+            assertEquals(3, count(graphStore.find(ANY, createURI(serverAddress + id + "/zxc"),
+                    HAS_FIXITY_RESULT.asNode(), ANY)));
+            assertEquals(3, count(graphStore.find(ANY, ANY, HAS_FIXITY_STATE.asNode(), createLiteral("SUCCESS"))));
+            assertTrue(graphStore.contains(ANY,
+                    ANY, HAS_MESSAGE_DIGEST.asNode(), createURI("urn:sha1:0beec7b5ea3f0fdbc95d0dd47f3c5bc275da8a33")));
+            assertTrue(graphStore.contains(ANY,
+                    ANY, HAS_MESSAGE_DIGEST.asNode(), createURI("urn:md5:acbd18db4cc2f85cedef654fccc4a4d8")));
+            assertTrue(graphStore.contains(ANY, ANY, HAS_MESSAGE_DIGEST.asNode(),
+                    createURI("urn:sha256:2c26b46b68ffc68ff99b453c1d30413413422d706483bfa0f98a5e886266e7ae")));
+        }
+    }
+
+    @Test
+    public void testCheckDatastreamFixityWithUnsupportedAlgorithm() throws IOException {
+        final String id = getRandomUniqueId();
+        createObjectAndClose(id);
+        createDatastream(id, "zxc", "foo");
+
+        assertEquals(BAD_REQUEST.getStatusCode(),
+                getStatus(new HttpGet(serverAddress + id + "/zxc/fcr:fixity?algorithm=crc32")));
+    }
+
     @Test
     public void testFixityHeaders() throws IOException {
         final String id = getRandomUniqueId();
@@ -42,6 +42,7 @@ import static javax.ws.rs.core.Response.Status.NO_CONTENT;
 import static javax.ws.rs.core.Response.Status.OK;
 import static javax.ws.rs.core.Response.Status.PARTIAL_CONTENT;
 import static javax.ws.rs.core.Response.Status.PRECONDITION_FAILED;
+import static javax.ws.rs.core.Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE;
 import static javax.ws.rs.core.Response.Status.TEMPORARY_REDIRECT;
 import static javax.ws.rs.core.Response.Status.UNSUPPORTED_MEDIA_TYPE;
 import static nu.validator.htmlparser.common.DoctypeExpectation.NO_DOCTYPE_ERRORS;
@@ -113,11 +114,13 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 
 import javax.ws.rs.core.Link;
 import javax.ws.rs.core.Response.Status;
@@ -571,6 +574,35 @@ public class FedoraLdpIT extends AbstractResourceIT {
         assertEquals(NO_CONTENT.getStatusCode(), getStatus(updateObjectGraphMethod));
     }
 
+    @Test
+    public void testGetObjectGraphAfterUpdate() throws IOException {
+        final String id = getRandomUniqueId();
+        createObjectAndClose(id);
+        final String location = serverAddress + id;
+
+        final String original = getNTriples(location);
+        assertEquals("Repeated request returned different content!", original, getNTriples(location));
+
+        final HttpPatch updateObjectGraphMethod = new HttpPatch(location);
+        updateObjectGraphMethod.addHeader(CONTENT_TYPE, "application/sparql-update");
+        updateObjectGraphMethod.setEntity(new StringEntity("INSERT { <" + location + "> " +
+                "<http://purl.org/dc/elements/1.1/identifier> \"this is an identifier\" } WHERE {}"));
+        assertEquals(NO_CONTENT.getStatusCode(), getStatus(updateObjectGraphMethod));
+        assertTrue("Didn't find updated property!", getNTriples(location).contains("this is an identifier"));
+
+        createObjectAndClose(id + "/child");
+        assertTrue("Didn't find new child!", getNTriples(location).contains("<" + location + "/child>"));
+    }
+
+    private static String getNTriples(final String location) throws IOException {
+        final HttpGet get = new HttpGet(location);
+        get.addHeader(ACCEPT, "application/n-triples");
+        try (final CloseableHttpResponse response = execute(get)) {
+            assertEquals(OK.getStatusCode(), getStatus(response));
+            return EntityUtils.toString(response.getEntity());
+        }
+    }
+
     @Test
     public void testDeleteMultipleMultiValuedProperties() throws IOException {
         final String id = getRandomUniqueId();
@@ -1522,6 +1554,89 @@ public class FedoraLdpIT extends AbstractResourceIT {
         }
     }
 
+    @Test
+    public void testGetRangeOfLargeBinary() throws IOException {
+        final String id = getRandomUniqueId();
+        createObjectAndClose(id);
+        final StringBuilder buf = new StringBuilder();
+        for (int i = 0; buf.length() < 9000; i++) {
+            buf.append(i % 10);
+        }
+        createDatastream(id, "ds1", buf.toString());
+
+        final HttpGet get = getDSMethod(id, "ds1");
+        get.setHeader("Range", "bytes=8000-8009");
+        try (final CloseableHttpResponse response = execute(get)) {
+            assertEquals("Expected 206 Partial Content!", PARTIAL_CONTENT.getStatusCode(), getStatus(response));
+            assertEquals("bytes 8000-8009/" + buf.length(), response.getFirstHeader("Content-Range").getValue());
+            assertEquals("Expected range content!", "0123456789", EntityUtils.toString(response.getEntity()));
+        }
+        try (final CloseableHttpResponse response = execute(getDSMethod(id, "ds1"))) {
+            assertEquals(OK.getStatusCode(), getStatus(response));
+            assertEquals("Expected whole content!", buf.toString(), EntityUtils.toString(response.getEntity()));
+        }
+    }
+
+    @Test
+    public void testGetSuffixRange() throws IOException {
+        final String id = getRandomUniqueId();
+        createObjectAndClose(id);
+        createDatastream(id, "ds1", "0123456789");
+
+        final HttpGet get = getDSMethod(id, "ds1");
+        get.setHeader("Range", "bytes=-3");
+        try (final CloseableHttpResponse response = execute(get)) {
+            assertEquals("Expected 206 Partial Content!", PARTIAL_CONTENT.getStatusCode(), getStatus(response));
+            assertEquals("bytes 7-9/10", response.getFirstHeader("Content-Range").getValue());
+            assertEquals("Expected the last bytes!", "789", EntityUtils.toString(response.getEntity()));
+        }
+    }
+
+    @Test
+    public void testGetUnsatisfiableRange() throws IOException {
+        final String id = getRandomUniqueId();
+        createObjectAndClose(id);
+        createDatastream(id, "ds1", "0123456789");
+
+        final HttpGet get = getDSMethod(id, "ds1");
+        get.setHeader("Range", "bytes=10-");
+        try (final CloseableHttpResponse response = execute(get)) {
+            assertEquals(REQUESTED_RANGE_NOT_SATISFIABLE.getStatusCode(), getStatus(response));
+            assertEquals("bytes */10", response.getFirstHeader("Content-Range").getValue());
+        }
+    }
+
+    @Test
+    public void testGetMultipleRanges() throws IOException {
+        final String id = getRandomUniqueId();
+        createObjectAndClose(id);
+        final StringBuilder buf = new StringBuilder();
+        for (int i = 0; buf.length() < 9000; i++) {
+            buf.append(i % 10);
+        }
+        // the small binary is held inline and read as a stream, the large one is held in a file
+        createDatastream(id, "small", buf.substring(0, 1000));
+        createDatastream(id, "large", buf.toString());
+
+        for (final int size : new int[] { 1000, 9000 }) {
+            final HttpGet get = getDSMethod(id, size == 1000 ? "small" : "large");
+            get.setHeader("Range", "bytes=1-2,-3");
+            try (final CloseableHttpResponse response = execute(get)) {
+                assertEquals("Expected 206 Partial Content!", PARTIAL_CONTENT.getStatusCode(), getStatus(response));
+                final String contentType = response.getFirstHeader("Content-Type").getValue();
+                assertTrue("Expected multipart/byteranges!", contentType.startsWith("multipart/byteranges"));
+                final String boundary = contentType.substring(contentType.indexOf("boundary=") + 9);
+                final String body = "\r\n--" + boundary + "\r\nContent-Type: text/plain\r\n" +
+                        "Content-Range: bytes 1-2/" + size + "\r\n\r\n12" +
+                        "\r\n--" + boundary + "\r\nContent-Type: text/plain\r\n" +
+                        "Content-Range: bytes " + (size - 3) + "-" + (size - 1) + "/" + size + "\r\n\r\n789" +
+                        "\r\n--" + boundary + "--\r\n";
+                assertEquals(Integer.toString(body.length()), response.getFirstHeader(CONTENT_LENGTH).getValue());
+                assertEquals(body, EntityUtils.toString(response.getEntity()));
+            }
+        }
+    }
+
     @Test
     public void testDeleteDatastream() throws IOException {
         final String id = getRandomUniqueId();
@@ -1627,6 +1742,54 @@ public class FedoraLdpIT extends AbstractResourceIT {
         }
     }
 
+    @Test
+    public void testGetObjectGraphInPages() throws IOException {
+        final String id = getRandomUniqueId();
+        final String location = getLocation(createObject(id));
+
+        final int CHILDREN_TOTAL = 7;
+        for (int x = 0; x < CHILDREN_TOTAL; ++x) {
+            createObjectAndClose(id + "/child-" + x);
+        }
+
+        final Set<Node> children = new HashSet<>();
+        int pages = 0;
+        HttpGet httpGet = getObjMethod(id);
+        httpGet.setHeader("Limit", "3");
+        while (httpGet != null) {
+            try (final CloseableHttpResponse response = execute(httpGet)) {
+                final Collection<String> links = getLinkHeaders(response);
+                assertTrue("Didn't find LDP page link header!",
+                        links.contains("<" + LDP_NAMESPACE + "Page>;rel=\"type\""));
+                assertTrue("Pages should vary on the Limit header!",
+                        getHeader(response, "Vary").stream().anyMatch(vary -> vary.contains("Limit")));
+                httpGet = links.stream().map(Link::valueOf).filter(link -> link.getRel().equals("next"))
+                        .findFirst().map(link -> new HttpGet(link.getUri())).orElse(null);
+                try (final CloseableDataset dataset = getDataset(response)) {
+                    final Iterator<Quad> contains =
+                            dataset.asDatasetGraph().find(ANY, createURI(location), CONTAINS.asNode(), ANY);
+                    final int before = children.size();
+                    contains.forEachRemaining(quad -> children.add(quad.getObject()));
+                    assertTrue("Page should not exceed the limit!", children.size() - before <= 3);
+                }
+            }
+            pages++;
+        }
+        assertEquals("Should find every child exactly once!", CHILDREN_TOTAL, children.size());
+        assertEquals(3, pages);
+    }
+
+    @Test
+    public void testGetObjectGraphWithBadPage() throws IOException {
+        final String id = getRandomUniqueId();
+        getLocation(createObject(id));
+
+        final HttpGet httpGet = new HttpGet(serverAddress + id + "?page=not-a-page");
+        try (final CloseableHttpResponse response = execute(httpGet)) {
+            assertEquals(SC_BAD_REQUEST, response.getStatusLine().getStatusCode());
+        }
+    }
+
     @Test
     public void testGetObjectGraphWithBadLimit() throws IOException {
         final String id = getRandomUniqueId();
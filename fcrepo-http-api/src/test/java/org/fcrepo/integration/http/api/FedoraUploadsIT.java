@@ -0,0 +1,154 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.integration.http.api;
+
+import static javax.ws.rs.core.HttpHeaders.CONTENT_LOCATION;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_TYPE;
+import static javax.ws.rs.core.Response.Status.CONFLICT;
+import static javax.ws.rs.core.Response.Status.CREATED;
+import static javax.ws.rs.core.Response.Status.GONE;
+import static javax.ws.rs.core.Response.Status.NO_CONTENT;
+import static javax.ws.rs.core.Response.Status.OK;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
+import org.junit.Test;
+
+/**
+ * <p>FedoraUploadsIT class.</p>
+ *
+ * @author agent
+ */
+public class FedoraUploadsIT extends AbstractResourceIT {
+
+    @Test
+    public void testChunkedUpload() throws IOException {
+        final String upload = createUpload();
+
+        assertEquals(NO_CONTENT.getStatusCode(), getStatus(putChunk(upload, 1, "bar")));
+        final HttpPut firstChunk = putChunk(upload, 0, "foo");
+        firstChunk.setHeader("Digest", "SHA1=0beec7b5ea3f0fdbc95d0dd47f3c5bc275da8a33");
+        assertEquals(NO_CONTENT.getStatusCode(), getStatus(firstChunk));
+
+        try (final CloseableHttpResponse response = execute(new HttpGet(upload))) {
+            assertEquals(OK.getStatusCode(), getStatus(response));
+            assertEquals("0 3\n1 3", EntityUtils.toString(response.getEntity()));
+        }
+
+        final String id = getRandomUniqueId();
+        final HttpPut put = putObjMethod(id);
+        put.setHeader(CONTENT_TYPE, "text/plain");
+        put.setHeader(CONTENT_LOCATION, upload);
+        put.setHeader("Digest", "SHA1=8843d7f92416211de9ebb963ff4ce28125932878");
+        assertEquals(CREATED.getStatusCode(), getStatus(put));
+
+        try (final CloseableHttpResponse response = execute(getObjMethod(id))) {
+            assertEquals(OK.getStatusCode(), getStatus(response));
+            assertEquals("foobar", EntityUtils.toString(response.getEntity()));
+        }
+
+        assertEquals(NO_CONTENT.getStatusCode(), getStatus(new HttpDelete(upload)));
+        assertEquals(GONE.getStatusCode(), getStatus(new HttpGet(upload)));
+    }
+
+    @Test
+    public void testChunkWithBadDigest() throws IOException {
+        final String upload = createUpload();
+        final HttpPut chunk = putChunk(upload, 0, "foo");
+        chunk.setHeader("Digest", "SHA1=0000000000000000000000000000000000000000");
+        assertEquals(CONFLICT.getStatusCode(), getStatus(chunk));
+
+        try (final CloseableHttpResponse response = execute(new HttpGet(upload))) {
+            assertEquals("", EntityUtils.toString(response.getEntity()));
+        }
+    }
+
+    @Test
+    public void testReplaceChunk() throws IOException {
+        final String upload = createUpload();
+        assertEquals(NO_CONTENT.getStatusCode(), getStatus(putChunk(upload, 0, "fo")));
+        assertEquals(NO_CONTENT.getStatusCode(), getStatus(putChunk(upload, 0, "foo")));
+
+        final String id = getRandomUniqueId();
+        final HttpPut put = putObjMethod(id);
+        put.setHeader(CONTENT_TYPE, "text/plain");
+        put.setHeader(CONTENT_LOCATION, upload);
+        assertEquals(CREATED.getStatusCode(), getStatus(put));
+
+        try (final CloseableHttpResponse response = execute(getObjMethod(id))) {
+            assertEquals("foo", EntityUtils.toString(response.getEntity()));
+        }
+    }
+
+    @Test
+    public void testUploadMissingFirstChunk() throws IOException {
+        final String upload = createUpload();
+        assertEquals(NO_CONTENT.getStatusCode(), getStatus(putChunk(upload, 1, "bar")));
+
+        final HttpPost post = postObjMethod();
+        post.setHeader(CONTENT_TYPE, "text/plain");
+        post.setHeader(CONTENT_LOCATION, upload);
+        assertEquals(CONFLICT.getStatusCode(), getStatus(post));
+    }
+
+    @Test
+    public void testEmptyUpload() throws IOException {
+        final HttpPost post = postObjMethod();
+        post.setHeader(CONTENT_TYPE, "text/plain");
+        post.setHeader(CONTENT_LOCATION, createUpload());
+        assertEquals(CONFLICT.getStatusCode(), getStatus(post));
+    }
+
+    @Test
+    public void testIncompleteUpload() throws IOException {
+        final String upload = createUpload();
+        assertEquals(NO_CONTENT.getStatusCode(), getStatus(putChunk(upload, 0, "foo")));
+        assertEquals(NO_CONTENT.getStatusCode(), getStatus(putChunk(upload, 2, "baz")));
+
+        final HttpPost post = postObjMethod();
+        post.setHeader(CONTENT_TYPE, "text/plain");
+        post.setHeader(CONTENT_LOCATION, upload);
+        assertEquals(CONFLICT.getStatusCode(), getStatus(post));
+    }
+
+    @Test
+    public void testMissingUpload() {
+        assertEquals(GONE.getStatusCode(), getStatus(putChunk(serverAddress + "fcr:uploads/no-such-upload", 0, "foo")));
+    }
+
+    private static String createUpload() throws IOException {
+        try (final CloseableHttpResponse response = execute(new HttpPost(serverAddress + "fcr:uploads"))) {
+            assertEquals(CREATED.getStatusCode(), getStatus(response));
+            return getLocation(response);
+        }
+    }
+
+    private static HttpPut putChunk(final String upload, final int chunk, final String content) {
+        final HttpPut put = new HttpPut(upload + "/" + chunk);
+        put.setEntity(new StringEntity(content, "UTF-8"));
+        return put;
+    }
+}
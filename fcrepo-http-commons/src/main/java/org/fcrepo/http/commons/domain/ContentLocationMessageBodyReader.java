@@ -20,11 +20,16 @@ package org.fcrepo.http.commons.domain;
 import com.google.common.annotations.VisibleForTesting;
 
 import org.fcrepo.kernel.api.services.ExternalContentService;
+import org.fcrepo.kernel.api.services.UploadService;
 
 import javax.inject.Inject;
+import javax.ws.rs.ClientErrorException;
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.UriInfo;
 import javax.ws.rs.ext.MessageBodyReader;
 import javax.ws.rs.ext.Provider;
 
@@ -34,11 +39,18 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.security.Principal;
+import java.util.SortedMap;
+
 import static java.util.Arrays.stream;
 import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
+import static javax.ws.rs.core.Response.Status.CONFLICT;
+import static org.fcrepo.kernel.api.FedoraTypes.FCR_UPLOADS;
+import static org.fcrepo.kernel.api.services.UploadService.FIRST_CHUNK;
 
 /**
- * Provide an InputStream either from the POST/PUT body, or by resolving a Content-Location URI
+ * Provide an InputStream either from the POST/PUT body, or by resolving a Content-Location URI.  A Content-Location
+ * naming an upload staged in this repository, under fcr:uploads, is resolved to the chunks of that upload.
  * @author cabeer
  */
 @Provider
@@ -50,6 +62,18 @@ public class ContentLocationMessageBodyReader implements MessageBodyReader<Input
     @Inject
     private ExternalContentService contentService;
 
+    /**
+     * The fcrepo upload service
+     */
+    @Inject
+    private UploadService uploadService;
+
+    @Context
+    private UriInfo uriInfo;
+
+    @Context
+    private SecurityContext securityContext;
+
     private static final Class<ContentLocation> contentLocationClass = ContentLocation.class;
 
     @Override
@@ -72,6 +96,11 @@ public class ContentLocationMessageBodyReader implements MessageBodyReader<Input
         if (httpHeaders.containsKey("Content-Location")) {
             final String location = httpHeaders.getFirst("Content-Location");
 
+            final String uploadsPrefix = uriInfo.getBaseUriBuilder().path(FCR_UPLOADS).build() + "/";
+            if (location.startsWith(uploadsPrefix)) {
+                return readUpload(location.substring(uploadsPrefix.length()).replaceAll("/$", ""));
+            }
+
             try {
                 return contentService.retrieveExternalContent(new URI(location));
             } catch (final URISyntaxException e) {
@@ -82,8 +111,28 @@ public class ContentLocationMessageBodyReader implements MessageBodyReader<Input
         return entityStream;
     }
 
+    private InputStream readUpload(final String uploadId) {
+        final Principal principal = securityContext.getUserPrincipal();
+        final String username = principal == null ? null : principal.getName();
+
+        final SortedMap<Integer, Long> chunks = uploadService.getChunks(uploadId, username);
+        if (chunks.isEmpty()) {
+            throw new ClientErrorException("Upload " + uploadId + " has no chunks\n", CONFLICT);
+        }
+        if (chunks.firstKey() != FIRST_CHUNK || chunks.lastKey() - FIRST_CHUNK + 1 != chunks.size()) {
+            throw new ClientErrorException("Upload " + uploadId + " is missing one or more chunks between "
+                    + FIRST_CHUNK + " and " + chunks.lastKey() + "\n", CONFLICT);
+        }
+        return uploadService.getContent(uploadId, username);
+    }
+
     @VisibleForTesting
     protected void setContentService(final ExternalContentService externalContentService) {
         this.contentService = externalContentService;
     }
+
+    @VisibleForTesting
+    protected void setUploadService(final UploadService uploadService) {
+        this.uploadService = uploadService;
+    }
 }
@@ -18,8 +18,11 @@
 package org.fcrepo.http.commons.domain;
 
 import static java.lang.Long.parseLong;
+import static java.util.Comparator.comparingLong;
 import static java.util.regex.Pattern.compile;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -37,6 +40,15 @@ public class Range {
     private static Pattern rangePattern =
         compile("^bytes\\s*=\\s*(\\d*)\\s*-\\s*(\\d*)");
 
+    private static Pattern rangeSetPattern = compile("^\\s*bytes\\s*=(.*)$");
+
+    private static Pattern rangeSpecPattern = compile("^\\s*(\\d*)\\s*-\\s*(\\d*)\\s*$");
+
+    /**
+     * Ranges separated by no more than this many bytes are served as one
+     */
+    private static final long COALESCE_GAP = 80;
+
     /**
      * Unbounded Range
      */
@@ -98,7 +110,76 @@ public class Range {
     }
 
     /**
-     * Convert an HTTP Range header to a Range object
+     * Parse an HTTP Range header of any number of byte ranges, as described in RFC 7233, and resolve it against
+     * the size of the content requested.
+     *
+     * A suffix range, such as <code>bytes=-500</code>, selects the last bytes of the content, and a range that
+     * extends beyond the end of the content is cut short.  Ranges that cannot be satisfied are dropped, and the
+     * rest are put in order and coalesced where they overlap or lie close together, so that they may be read in a
+     * single pass over the content.
+     *
+     * @param source the value of the Range header
+     * @param contentSize the size of the content, in bytes
+     * @return the ranges, each with both ends within the content, or null if the header is not a valid set of
+     *         byte ranges and should be ignored
+     */
+    public static List<Range> parse(final String source, final long contentSize) {
+        final Matcher set = rangeSetPattern.matcher(source);
+        if (!set.matches()) {
+            return null;
+        }
+        final List<Range> ranges = new ArrayList<>();
+        for (final String spec : set.group(1).split(",")) {
+            if (spec.trim().isEmpty()) {
+                continue;
+            }
+            final Matcher matcher = rangeSpecPattern.matcher(spec);
+            if (!matcher.matches() || (matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+                return null;
+            }
+            final String from = matcher.group(1);
+            final String to = matcher.group(2);
+            try {
+                if (from.isEmpty()) {
+                    final long suffix = parseLong(to);
+                    if (suffix > 0 && contentSize > 0) {
+                        ranges.add(new Range(Math.max(0, contentSize - suffix), contentSize - 1));
+                    }
+                } else {
+                    final long start = parseLong(from);
+                    final long end = to.isEmpty() ? contentSize - 1 : Math.min(parseLong(to), contentSize - 1);
+                    if (!to.isEmpty() && parseLong(to) < start) {
+                        return null;
+                    }
+                    if (start < contentSize) {
+                        ranges.add(new Range(start, end));
+                    }
+                }
+            } catch (final NumberFormatException e) {
+                return null;
+            }
+        }
+        return coalesce(ranges);
+    }
+
+    private static List<Range> coalesce(final List<Range> ranges) {
+        ranges.sort(comparingLong(Range::start));
+        final List<Range> coalesced = new ArrayList<>(ranges.size());
+        for (final Range range : ranges) {
+            final Range last = coalesced.isEmpty() ? null : coalesced.get(coalesced.size() - 1);
+            if (last != null && range.start() <= last.end() + 1 + COALESCE_GAP) {
+                coalesced.set(coalesced.size() - 1, new Range(last.start(), Math.max(last.end(), range.end())));
+            } else {
+                coalesced.add(range);
+            }
+        }
+        return coalesced;
+    }
+
+    /**
+     * Convert an HTTP Range header to a Range object.  Only a single range is read, and a suffix range is read as
+     * a range from the start of the content; {@link #parse(String, long)} reads any Range header.
+     *
      * @param source the source
      * @return range object
      */
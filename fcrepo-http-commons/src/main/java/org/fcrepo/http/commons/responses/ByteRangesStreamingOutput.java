@@ -0,0 +1,165 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.commons.responses;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.util.UUID.randomUUID;
+import static org.apache.commons.io.IOUtils.copyLarge;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.fcrepo.http.commons.domain.Range;
+
+/**
+ * Writes several ranges of a binary as a <code>multipart/byteranges</code> body, as described in RFC 7233.
+ *
+ * The content is opened once for all of the ranges.  The ranges must be in order and must not overlap, as
+ * returned by {@link Range#parse(String, long)}, so that content held in a stream is read in a single pass;
+ * content held in a local file is read directly at the start of each range.
+ *
+ * @author agent
+ */
+public class ByteRangesStreamingOutput implements StreamingOutput {
+
+    private static final String CRLF = "\r\n";
+
+    private final List<Range> ranges;
+
+    private final long contentSize;
+
+    private final String contentType;
+
+    private final String boundary = randomUUID().toString();
+
+    private final File file;
+
+    private final Supplier<InputStream> content;
+
+    /**
+     * Write ranges of content held in a local file
+     *
+     * @param file the file holding the content
+     * @param ranges the ranges, in order and not overlapping
+     * @param contentSize the size of the content
+     * @param contentType the media type of the content
+     */
+    public ByteRangesStreamingOutput(final File file, final List<Range> ranges, final long contentSize,
+            final String contentType) {
+        this(file, null, ranges, contentSize, contentType);
+    }
+
+    /**
+     * Write ranges of content read from a stream
+     *
+     * @param content supplies the stream of content, opened once the body is written
+     * @param ranges the ranges, in order and not overlapping
+     * @param contentSize the size of the content
+     * @param contentType the media type of the content
+     */
+    public ByteRangesStreamingOutput(final Supplier<InputStream> content, final List<Range> ranges,
+            final long contentSize, final String contentType) {
+        this(null, content, ranges, contentSize, contentType);
+    }
+
+    private ByteRangesStreamingOutput(final File file, final Supplier<InputStream> content, final List<Range> ranges,
+            final long contentSize, final String contentType) {
+        this.file = file;
+        this.content = content;
+        this.ranges = ranges;
+        this.contentSize = contentSize;
+        this.contentType = contentType;
+    }
+
+    /**
+     * @return the media type of the body, naming the boundary between its parts
+     */
+    public MediaType getMediaType() {
+        return MediaType.valueOf("multipart/byteranges; boundary=" + boundary);
+    }
+
+    /**
+     * @return the length of the body, in bytes
+     */
+    public long getContentLength() {
+        long length = closingBoundary().length();
+        for (final Range range : ranges) {
+            length += partHeader(range).length() + range.size();
+        }
+        return length;
+    }
+
+    @Override
+    public void write(final OutputStream output) throws IOException {
+        if (file != null) {
+            try (final FileChannel channel = FileChannel.open(file.toPath(), READ)) {
+                final WritableByteChannel target = Channels.newChannel(output);
+                for (final Range range : ranges) {
+                    writePartHeader(output, range);
+                    long position = range.start();
+                    while (position <= range.end()) {
+                        final long transferred = channel.transferTo(position, range.end() - position + 1, target);
+                        if (transferred <= 0) {
+                            break;
+                        }
+                        position += transferred;
+                    }
+                }
+            }
+        } else {
+            try (final InputStream in = content.get()) {
+                long position = 0;
+                for (final Range range : ranges) {
+                    writePartHeader(output, range);
+                    copyLarge(in, output, range.start() - position, range.size());
+                    position = range.end() + 1;
+                }
+            }
+        }
+        output.write(closingBoundary().getBytes(US_ASCII));
+        output.flush();
+    }
+
+    private void writePartHeader(final OutputStream output, final Range range) throws IOException {
+        output.write(partHeader(range).getBytes(US_ASCII));
+    }
+
+    private String partHeader(final Range range) {
+        final StringBuilder header = new StringBuilder(CRLF).append("--").append(boundary).append(CRLF);
+        if (contentType != null) {
+            header.append("Content-Type: ").append(contentType).append(CRLF);
+        }
+        return header.append("Content-Range: bytes ").append(range.start()).append('-').append(range.end())
+                .append('/').append(contentSize).append(CRLF).append(CRLF).toString();
+    }
+
+    private String closingBoundary() {
+        return CRLF + "--" + boundary + "--" + CRLF;
+    }
+}
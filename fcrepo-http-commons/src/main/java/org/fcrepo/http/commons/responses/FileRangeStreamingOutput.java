@@ -0,0 +1,73 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.commons.responses;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+import javax.ws.rs.core.StreamingOutput;
+
+/**
+ * Writes a range of bytes from a file, reading from the start of the range directly rather than reading and
+ * discarding the bytes before it, and transferring the bytes through {@link FileChannel#transferTo} so that
+ * the platform may avoid copying them where it can.
+ *
+ * @author agent
+ */
+public class FileRangeStreamingOutput implements StreamingOutput {
+
+    private final File file;
+
+    private final long start;
+
+    private final long length;
+
+    /**
+     * @param file the file
+     * @param start the offset of the first byte to write
+     * @param length the number of bytes to write, or -1 for every byte to the end of the file
+     */
+    public FileRangeStreamingOutput(final File file, final long start, final long length) {
+        this.file = file;
+        this.start = start;
+        this.length = length;
+    }
+
+    @Override
+    public void write(final OutputStream output) throws IOException {
+        try (final FileChannel channel = FileChannel.open(file.toPath(), READ)) {
+            final WritableByteChannel target = Channels.newChannel(output);
+            final long end = length < 0 ? channel.size() : Math.min(channel.size(), start + length);
+            long position = start;
+            while (position < end) {
+                final long transferred = channel.transferTo(position, end - position, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+            output.flush();
+        }
+    }
+}
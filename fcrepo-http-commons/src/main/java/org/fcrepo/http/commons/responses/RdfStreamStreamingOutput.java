@@ -22,7 +22,6 @@ import static org.apache.jena.riot.Lang.JSONLD;
 import static org.apache.jena.riot.Lang.RDFXML;
 import static org.apache.jena.riot.RDFLanguages.contentTypeToLang;
 import static org.apache.jena.riot.RDFLanguages.getRegisteredLanguages;
-import static org.apache.jena.riot.RDFFormat.RDFXML_PLAIN;
 import static org.apache.jena.riot.RDFFormat.JSONLD_COMPACT_FLAT;
 import static org.apache.jena.riot.RDFFormat.JSONLD_EXPAND_FLAT;
 import static org.apache.jena.riot.RDFFormat.JSONLD_FLATTEN_FLAT;
@@ -120,26 +119,25 @@ public class RdfStreamStreamingOutput extends AbstractFuture<Void> implements
                        final MediaType dataMediaType,
                        final Map<String, String> nsPrefixes) throws IOException {
 
-        final RDFFormat format = defaultSerialization(dataFormat);
+        final StreamRDF writer = getStreamWriter(output, dataFormat, dataMediaType);
 
-        // For formats that can be block-streamed (n-triples, turtle)
-        if (format != null) {
+        // For formats that can be block-streamed (n-triples, turtle), written incrementally (rdfxml) or written
+        // without a model (expanded jsonld)
+        if (writer != null) {
             LOGGER.debug("Stream-based serialization of {}", dataFormat.toString());
-            final StreamRDF stream = new SynchonizedStreamRDFWrapper(getWriterStream(output, format));
+            final StreamRDF stream = new SynchonizedStreamRDFWrapper(writer);
             stream.start();
             nsPrefixes.forEach(stream::prefix);
             rdfStream.forEach(stream::triple);
             stream.finish();
 
-        // For formats that require analysis of the entire model and cannot be streamed directly (rdfxml, n3)
+        // For formats that require analysis of the entire model and cannot be streamed directly
+        // (compacted and flattened jsonld, n3)
         } else {
             LOGGER.debug("Non-stream serialization of {}", dataFormat.toString());
             final Model model = rdfStream.collect(toModel());
             model.setNsPrefixes(nsPrefixes);
-            // use block output streaming for RDFXML
-            if (RDFXML.equals(dataFormat)) {
-                RDFDataMgr.write(output, model.getGraph(), RDFXML_PLAIN);
-            } else if (JSONLD.equals(dataFormat)) {
+            if (JSONLD.equals(dataFormat)) {
                 final RDFFormat jsonldFormat = getFormatFromMediaType(dataMediaType);
                 RDFDataMgr.write(output, model.getGraph(), jsonldFormat);
             } else {
@@ -148,6 +146,19 @@ public class RdfStreamStreamingOutput extends AbstractFuture<Void> implements
         }
     }
 
+    private static StreamRDF getStreamWriter(final OutputStream output, final Lang dataFormat,
+            final MediaType dataMediaType) throws IOException {
+        final RDFFormat format = defaultSerialization(dataFormat);
+        if (format != null) {
+            return getWriterStream(output, format);
+        } else if (RDFXML.equals(dataFormat)) {
+            return new StreamingRdfXmlWriter(output);
+        } else if (JSONLD.equals(dataFormat) && getFormatFromMediaType(dataMediaType).equals(JSONLD_EXPAND_FLAT)) {
+            return new StreamingJsonLdWriter(output);
+        }
+        return null;
+    }
+
     private static RDFFormat getFormatFromMediaType(final MediaType mediaType) {
         final String profile = mediaType.getParameters().getOrDefault("profile", "");
         if (profile.equals(JSONLD_COMPACTED)) {
@@ -0,0 +1,181 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.commons.responses;
+
+import static org.apache.jena.rdf.model.impl.Util.isLangString;
+import static org.apache.jena.rdf.model.impl.Util.isSimpleString;
+import static org.apache.jena.vocabulary.RDF.type;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.sparql.core.Quad;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Writes triples to an {@link OutputStream} as flat, expanded JSON-LD as they arrive, without first collecting them
+ * into a model and passing it through a JSON-LD processor.
+ *
+ * Consecutive triples with the same subject are written as one node object as soon as the subject changes, so only
+ * the triples of the current subject are held in memory. A subject whose triples are not consecutive is written as
+ * a node object for each run of them; several node objects with the same {@code @id} are still valid expanded
+ * JSON-LD, and are merged by any JSON-LD processor that reads them.
+ *
+ * Compacted and flattened JSON-LD depend upon the whole graph, and are not streamed: they are still written from a
+ * model.
+ *
+ * @author agent
+ */
+public class StreamingJsonLdWriter implements StreamRDF {
+
+    private static final JsonFactory JSON_FACTORY =
+            new JsonFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private final JsonGenerator json;
+
+    private final Map<Node, String> blankNodeLabels = new HashMap<>();
+
+    private Node subject;
+
+    private final Map<Node, Collection<Node>> properties = new LinkedHashMap<>();
+
+    /**
+     * @param output the stream to which to write
+     * @throws IOException if IO exception occurred
+     */
+    public StreamingJsonLdWriter(final OutputStream output) throws IOException {
+        this.json = JSON_FACTORY.createGenerator(output).useDefaultPrettyPrinter();
+    }
+
+    @Override
+    public void start() {
+        try {
+            json.writeStartArray();
+        } catch (final IOException e) {
+            throw new RiotException(e);
+        }
+    }
+
+    @Override
+    public void triple(final Triple triple) {
+        if (!triple.getSubject().equals(subject)) {
+            writeNodeObject();
+            subject = triple.getSubject();
+        }
+        properties.computeIfAbsent(triple.getPredicate(), k -> new LinkedHashSet<>()).add(triple.getObject());
+    }
+
+    @Override
+    public void quad(final Quad quad) {
+        triple(quad.asTriple());
+    }
+
+    @Override
+    public void base(final String base) {
+        // expanded JSON-LD uses only absolute IRIs
+    }
+
+    @Override
+    public void prefix(final String prefix, final String iri) {
+        // expanded JSON-LD uses only absolute IRIs
+    }
+
+    @Override
+    public void finish() {
+        writeNodeObject();
+        try {
+            json.writeEndArray();
+            json.flush();
+        } catch (final IOException e) {
+            throw new RiotException(e);
+        }
+    }
+
+    /*
+     * Write the triples held for the current subject, if any, as a node object.
+     */
+    private void writeNodeObject() {
+        if (properties.isEmpty()) {
+            return;
+        }
+        try {
+            writeProperties();
+        } catch (final IOException e) {
+            throw new RiotException(e);
+        }
+        properties.clear();
+    }
+
+    private void writeProperties() throws IOException {
+        json.writeStartObject();
+        json.writeStringField("@id", id(subject));
+        final Collection<Node> types = properties.get(type.asNode());
+        final boolean writeTypes = types != null && types.stream().noneMatch(Node::isLiteral);
+        if (writeTypes) {
+            json.writeArrayFieldStart("@type");
+            for (final Node t : types) {
+                json.writeString(id(t));
+            }
+            json.writeEndArray();
+        }
+        for (final Map.Entry<Node, Collection<Node>> property : properties.entrySet()) {
+            if (writeTypes && property.getKey().equals(type.asNode())) {
+                continue;
+            }
+            json.writeArrayFieldStart(property.getKey().getURI());
+            for (final Node object : property.getValue()) {
+                writeValue(object);
+            }
+            json.writeEndArray();
+        }
+        json.writeEndObject();
+    }
+
+    private void writeValue(final Node object) throws IOException {
+        json.writeStartObject();
+        if (object.isLiteral()) {
+            if (isLangString(object)) {
+                json.writeStringField("@language", object.getLiteralLanguage());
+            } else if (!isSimpleString(object)) {
+                json.writeStringField("@type", object.getLiteralDatatypeURI());
+            }
+            json.writeStringField("@value", object.getLiteralLexicalForm());
+        } else {
+            json.writeStringField("@id", id(object));
+        }
+        json.writeEndObject();
+    }
+
+    private String id(final Node node) {
+        if (node.isBlank()) {
+            return blankNodeLabels.computeIfAbsent(node, k -> "_:b" + blankNodeLabels.size());
+        }
+        return node.getURI();
+    }
+}
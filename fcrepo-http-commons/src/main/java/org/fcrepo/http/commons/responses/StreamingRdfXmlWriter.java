@@ -0,0 +1,194 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.commons.responses;
+
+import static javax.xml.XMLConstants.XML_NS_URI;
+import static org.apache.jena.rdf.model.impl.Util.isLangString;
+import static org.apache.jena.rdf.model.impl.Util.isSimpleString;
+import static org.apache.jena.rdf.model.impl.Util.splitNamespaceXML;
+import static org.apache.jena.vocabulary.RDF.uri;
+
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.sparql.core.Quad;
+
+/**
+ * Writes triples to an {@link OutputStream} as RDF/XML as they arrive, without first collecting them into a model.
+ *
+ * Consecutive triples with the same subject are written together in a single rdf:Description. Namespace prefixes
+ * received before the first triple are declared on the document element; any other namespace needed for a
+ * predicate is declared where it is used.
+ *
+ * @author agent
+ */
+public class StreamingRdfXmlWriter implements StreamRDF {
+
+    private static final XMLOutputFactory XML_FACTORY = XMLOutputFactory.newFactory();
+
+    private static final Pattern PREFIX = Pattern.compile("(?i)(?!xml)[a-z_][a-z0-9._-]*");
+
+    private final XMLStreamWriter xml;
+
+    private final Map<String, String> prefixes = new LinkedHashMap<>();
+
+    private final Map<Node, String> blankNodeLabels = new HashMap<>();
+
+    private boolean started = false;
+
+    private Node subject;
+
+    /**
+     * @param output the stream to which to write
+     */
+    public StreamingRdfXmlWriter(final OutputStream output) {
+        try {
+            this.xml = XML_FACTORY.createXMLStreamWriter(output, "UTF-8");
+        } catch (final XMLStreamException e) {
+            throw new RiotException(e);
+        }
+    }
+
+    @Override
+    public void start() {
+        // the document element is written with the first triple, once all prefixes are known
+    }
+
+    @Override
+    public void triple(final Triple triple) {
+        try {
+            startDocument();
+            if (!triple.getSubject().equals(subject)) {
+                endDescription();
+                subject = triple.getSubject();
+                xml.writeStartElement("rdf", "Description", uri);
+                if (subject.isBlank()) {
+                    xml.writeAttribute("rdf", uri, "nodeID", label(subject));
+                } else {
+                    xml.writeAttribute("rdf", uri, "about", subject.getURI());
+                }
+            }
+            writeProperty(triple.getPredicate(), triple.getObject());
+        } catch (final XMLStreamException e) {
+            throw new RiotException(e);
+        }
+    }
+
+    @Override
+    public void quad(final Quad quad) {
+        triple(quad.asTriple());
+    }
+
+    @Override
+    public void base(final String base) {
+        // only absolute IRIs are written
+    }
+
+    @Override
+    public void prefix(final String prefix, final String iri) {
+        if (!started && !iri.equals(uri) && (prefix.isEmpty() || PREFIX.matcher(prefix).matches())) {
+            prefixes.putIfAbsent(iri, prefix);
+        }
+    }
+
+    @Override
+    public void finish() {
+        try {
+            startDocument();
+            endDescription();
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.flush();
+        } catch (final XMLStreamException e) {
+            throw new RiotException(e);
+        }
+    }
+
+    private void startDocument() throws XMLStreamException {
+        if (started) {
+            return;
+        }
+        started = true;
+        xml.writeStartDocument("UTF-8", "1.0");
+        xml.writeStartElement("rdf", "RDF", uri);
+        xml.writeNamespace("rdf", uri);
+        for (final Map.Entry<String, String> namespace : prefixes.entrySet()) {
+            if (namespace.getValue().isEmpty()) {
+                xml.writeDefaultNamespace(namespace.getKey());
+            } else {
+                xml.writeNamespace(namespace.getValue(), namespace.getKey());
+            }
+        }
+    }
+
+    private void endDescription() throws XMLStreamException {
+        if (subject != null) {
+            xml.writeEndElement();
+            subject = null;
+        }
+    }
+
+    private void writeProperty(final Node predicate, final Node object) throws XMLStreamException {
+        final String iri = predicate.getURI();
+        final int split = splitNamespaceXML(iri);
+        if (split == iri.length()) {
+            throw new RiotException("Predicate cannot be written as RDF/XML: " + iri);
+        }
+        final String namespace = iri.substring(0, split);
+        final String localName = iri.substring(split);
+        final String known = namespace.equals(uri) ? "rdf" : prefixes.get(namespace);
+        final String prefix = known == null ? "ns" : known;
+
+        if (object.isLiteral()) {
+            xml.writeStartElement(prefix, localName, namespace);
+        } else {
+            xml.writeEmptyElement(prefix, localName, namespace);
+        }
+        if (known == null) {
+            xml.writeNamespace(prefix, namespace);
+        }
+        if (object.isLiteral()) {
+            if (isLangString(object)) {
+                xml.writeAttribute("xml", XML_NS_URI, "lang", object.getLiteralLanguage());
+            } else if (!isSimpleString(object)) {
+                xml.writeAttribute("rdf", uri, "datatype", object.getLiteralDatatypeURI());
+            }
+            xml.writeCharacters(object.getLiteralLexicalForm());
+            xml.writeEndElement();
+        } else if (object.isBlank()) {
+            xml.writeAttribute("rdf", uri, "nodeID", label(object));
+        } else {
+            xml.writeAttribute("rdf", uri, "resource", object.getURI());
+        }
+    }
+
+    private String label(final Node node) {
+        return blankNodeLabels.computeIfAbsent(node, k -> "b" + blankNodeLabels.size());
+    }
+}
@@ -17,19 +17,29 @@
  */
 package org.fcrepo.http.commons.domain;
 
+import static java.util.Collections.emptySortedMap;
+import static javax.ws.rs.core.UriBuilder.fromUri;
+import static org.fcrepo.http.commons.test.util.TestHelpers.setField;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
 import java.io.InputStream;
 import java.net.URI;
+import java.security.Principal;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import org.fcrepo.kernel.api.services.ExternalContentService;
+import org.fcrepo.kernel.api.services.UploadService;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 
+import javax.ws.rs.ClientErrorException;
 import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.UriInfo;
 
 /**
  * @author cabeer
@@ -45,11 +55,29 @@ public class ContentLocationMessageBodyReaderTest {
     @Mock
     private ExternalContentService mockContentService;
 
+    @Mock
+    private UploadService mockUploadService;
+
+    @Mock
+    private UriInfo mockUriInfo;
+
+    @Mock
+    private SecurityContext mockSecurityContext;
+
+    @Mock
+    private Principal mockPrincipal;
+
     @Before
     public void setUp() {
         initMocks(this);
         testObj = new ContentLocationMessageBodyReader();
         testObj.setContentService(mockContentService);
+        testObj.setUploadService(mockUploadService);
+        setField(testObj, "uriInfo", mockUriInfo);
+        setField(testObj, "securityContext", mockSecurityContext);
+        when(mockUriInfo.getBaseUriBuilder()).thenReturn(fromUri("http://localhost:8080/rest/"));
+        when(mockSecurityContext.getUserPrincipal()).thenReturn(mockPrincipal);
+        when(mockPrincipal.getName()).thenReturn("someUser");
     }
 
     @Test
@@ -72,4 +100,48 @@ public class ContentLocationMessageBodyReaderTest {
         }
 
     }
+
+    @Test
+    public void testReadFromUpload() throws Exception {
+        final MultivaluedHashMap<String, String> headers = new MultivaluedHashMap<>();
+        headers.putSingle("Content-Location", "http://localhost:8080/rest/fcr:uploads/abc");
+        final SortedMap<Integer, Long> chunks = new TreeMap<>();
+        chunks.put(0, 10L);
+        chunks.put(1, 5L);
+        when(mockUploadService.getChunks("abc", "someUser")).thenReturn(chunks);
+        when(mockUploadService.getContent("abc", "someUser")).thenReturn(mockInputStream);
+        try (final InputStream actual = testObj.readFrom(InputStream.class, null, null, null, headers, null)) {
+            assertEquals(mockInputStream, actual);
+        }
+    }
+
+    @Test(expected = ClientErrorException.class)
+    public void testReadFromEmptyUpload() throws Exception {
+        final MultivaluedHashMap<String, String> headers = new MultivaluedHashMap<>();
+        headers.putSingle("Content-Location", "http://localhost:8080/rest/fcr:uploads/abc/");
+        when(mockUploadService.getChunks("abc", "someUser")).thenReturn(emptySortedMap());
+        testObj.readFrom(InputStream.class, null, null, null, headers, null);
+    }
+
+    @Test(expected = ClientErrorException.class)
+    public void testReadFromUploadMissingLeadingChunks() throws Exception {
+        final MultivaluedHashMap<String, String> headers = new MultivaluedHashMap<>();
+        headers.putSingle("Content-Location", "http://localhost:8080/rest/fcr:uploads/abc");
+        final SortedMap<Integer, Long> chunks = new TreeMap<>();
+        chunks.put(3, 10L);
+        chunks.put(4, 5L);
+        when(mockUploadService.getChunks("abc", "someUser")).thenReturn(chunks);
+        testObj.readFrom(InputStream.class, null, null, null, headers, null);
+    }
+
+    @Test(expected = ClientErrorException.class)
+    public void testReadFromIncompleteUpload() throws Exception {
+        final MultivaluedHashMap<String, String> headers = new MultivaluedHashMap<>();
+        headers.putSingle("Content-Location", "http://localhost:8080/rest/fcr:uploads/abc");
+        final SortedMap<Integer, Long> chunks = new TreeMap<>();
+        chunks.put(0, 10L);
+        chunks.put(2, 5L);
+        when(mockUploadService.getChunks("abc", "someUser")).thenReturn(chunks);
+        testObj.readFrom(InputStream.class, null, null, null, headers, null);
+    }
 }
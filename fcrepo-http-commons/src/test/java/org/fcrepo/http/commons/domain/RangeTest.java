@@ -19,8 +19,11 @@ package org.fcrepo.http.commons.domain;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.List;
+
 import org.junit.Test;
 
 /**
@@ -80,4 +83,70 @@ public class RangeTest {
         assertEquals(-1L, range.size());
 
     }
+
+    @Test
+    public void testSuffixRangeParsing() {
+        final List<Range> ranges = Range.parse("bytes=-50", 1000);
+
+        assertEquals(1, ranges.size());
+        assertEquals(950L, ranges.get(0).start());
+        assertEquals(999L, ranges.get(0).end());
+        assertEquals(50L, ranges.get(0).size());
+    }
+
+    @Test
+    public void testLongSuffixRangeParsing() {
+        final List<Range> ranges = Range.parse("bytes=-5000", 1000);
+
+        assertEquals(0L, ranges.get(0).start());
+        assertEquals(999L, ranges.get(0).end());
+    }
+
+    @Test
+    public void testRangeBeyondContentParsing() {
+        final List<Range> ranges = Range.parse("bytes=900-5000", 1000);
+
+        assertEquals(900L, ranges.get(0).start());
+        assertEquals(999L, ranges.get(0).end());
+    }
+
+    @Test
+    public void testMultipleRangeParsing() {
+        final List<Range> ranges = Range.parse("bytes=500-599, 0-99,-100", 1000);
+
+        assertEquals(3, ranges.size());
+        assertEquals(0L, ranges.get(0).start());
+        assertEquals(99L, ranges.get(0).end());
+        assertEquals(500L, ranges.get(1).start());
+        assertEquals(599L, ranges.get(1).end());
+        assertEquals(900L, ranges.get(2).start());
+        assertEquals(999L, ranges.get(2).end());
+    }
+
+    @Test
+    public void testCoalescingRanges() {
+        final List<Range> ranges = Range.parse("bytes=0-99,50-149,160-199,900-", 1000);
+
+        assertEquals(2, ranges.size());
+        assertEquals(0L, ranges.get(0).start());
+        assertEquals(199L, ranges.get(0).end());
+        assertEquals(900L, ranges.get(1).start());
+        assertEquals(999L, ranges.get(1).end());
+    }
+
+    @Test
+    public void testUnsatisfiableRangeParsing() {
+        assertTrue(Range.parse("bytes=1000-", 1000).isEmpty());
+        assertTrue(Range.parse("bytes=-0", 1000).isEmpty());
+        assertEquals(1, Range.parse("bytes=1000-,10-20", 1000).size());
+    }
+
+    @Test
+    public void testInvalidRangeSetParsing() {
+        assertNull(Range.parse("something-thats-not-a-range", 1000));
+        assertNull(Range.parse("bytes=50-10", 1000));
+        assertNull(Range.parse("bytes=a-b", 1000));
+        assertNull(Range.parse("bytes=-", 1000));
+        assertNull(Range.parse("items=0-10", 1000));
+    }
 }
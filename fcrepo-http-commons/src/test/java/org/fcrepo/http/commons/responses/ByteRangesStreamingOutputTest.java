@@ -0,0 +1,86 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.commons.responses;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.fcrepo.http.commons.domain.Range;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * <p>ByteRangesStreamingOutputTest class.</p>
+ *
+ * @author agent
+ */
+public class ByteRangesStreamingOutputTest {
+
+    private static final String CONTENT = "0123456789";
+
+    private static final List<Range> RANGES = asList(new Range(1, 2), new Range(7, 9));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldWriteRangesOfAStream() throws IOException {
+        final ByteRangesStreamingOutput output = new ByteRangesStreamingOutput(
+                () -> new ByteArrayInputStream(CONTENT.getBytes(UTF_8)), RANGES, 10, "text/plain");
+        assertEquals(expected(output), write(output));
+        assertEquals(expected(output).length(), output.getContentLength());
+    }
+
+    @Test
+    public void shouldWriteRangesOfAFile() throws IOException {
+        final File file = folder.newFile();
+        Files.write(file.toPath(), CONTENT.getBytes(UTF_8));
+        final ByteRangesStreamingOutput output = new ByteRangesStreamingOutput(file, RANGES, 10, "text/plain");
+        assertEquals(expected(output), write(output));
+    }
+
+    @Test
+    public void shouldNameTheBoundary() {
+        final ByteRangesStreamingOutput output = new ByteRangesStreamingOutput(
+                () -> new ByteArrayInputStream(CONTENT.getBytes(UTF_8)), RANGES, 10, "text/plain");
+        assertEquals("multipart", output.getMediaType().getType());
+        assertEquals("byteranges", output.getMediaType().getSubtype());
+    }
+
+    private static String expected(final ByteRangesStreamingOutput output) {
+        final String boundary = output.getMediaType().getParameters().get("boundary");
+        return "\r\n--" + boundary + "\r\nContent-Type: text/plain\r\nContent-Range: bytes 1-2/10\r\n\r\n12" +
+                "\r\n--" + boundary + "\r\nContent-Type: text/plain\r\nContent-Range: bytes 7-9/10\r\n\r\n789" +
+                "\r\n--" + boundary + "--\r\n";
+    }
+
+    private static String write(final ByteRangesStreamingOutput output) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        output.write(out);
+        return new String(out.toByteArray(), UTF_8);
+    }
+}
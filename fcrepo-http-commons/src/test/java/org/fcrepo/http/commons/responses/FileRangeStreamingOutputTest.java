@@ -0,0 +1,71 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.commons.responses;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * <p>FileRangeStreamingOutputTest class.</p>
+ *
+ * @author agent
+ */
+public class FileRangeStreamingOutputTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = folder.newFile();
+        Files.write(file.toPath(), "0123456789".getBytes(UTF_8));
+    }
+
+    @Test
+    public void shouldWriteTheRange() throws IOException {
+        assertEquals("567", write(new FileRangeStreamingOutput(file, 5L, 3L)));
+    }
+
+    @Test
+    public void shouldWriteTheWholeFile() throws IOException {
+        assertEquals("0123456789", write(new FileRangeStreamingOutput(file, 0L, -1L)));
+    }
+
+    @Test
+    public void shouldStopAtTheEndOfTheFile() throws IOException {
+        assertEquals("89", write(new FileRangeStreamingOutput(file, 8L, 9000L)));
+    }
+
+    private static String write(final FileRangeStreamingOutput output) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        output.write(out);
+        return new String(out.toByteArray(), UTF_8);
+    }
+}
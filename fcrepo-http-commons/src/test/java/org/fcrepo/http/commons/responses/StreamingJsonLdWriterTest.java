@@ -0,0 +1,131 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.commons.responses;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.apache.jena.datatypes.xsd.XSDDatatype.XSDint;
+import static org.apache.jena.graph.NodeFactory.createBlankNode;
+import static org.apache.jena.graph.NodeFactory.createLiteral;
+import static org.apache.jena.graph.NodeFactory.createURI;
+import static org.apache.jena.graph.Triple.create;
+import static org.apache.jena.rdf.model.ModelFactory.createDefaultModel;
+import static org.apache.jena.riot.Lang.JSONLD;
+import static org.apache.jena.vocabulary.RDF.type;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.RDFDataMgr;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * @author agent
+ */
+public class StreamingJsonLdWriterTest {
+
+    private static final Node subject = createURI("info:subject");
+
+    private static final Node other = createURI("info:other");
+
+    private static final Node predicate = createURI("info:predicate");
+
+    private static final Node blank = createBlankNode();
+
+    @Test
+    public void testWrite() throws IOException {
+        final List<Triple> triples = asList(
+                create(subject, type.asNode(), createURI("info:Type")),
+                create(subject, predicate, createLiteral("plain")),
+                create(subject, predicate, createLiteral("french", "fr")),
+                create(subject, predicate, createLiteral("1", XSDint)),
+                create(subject, predicate, blank),
+                create(blank, predicate, other));
+
+        final String output = write(triples);
+        final Model expected = createDefaultModel();
+        triples.forEach(t -> expected.add(expected.asStatement(t)));
+        assertTrue("Output should match input: " + output, read(output).isIsomorphicWith(expected));
+    }
+
+    @Test
+    public void testGroupsBySubject() throws IOException {
+        final JsonNode json = new ObjectMapper().readTree(write(asList(
+                create(subject, predicate, createLiteral("a")),
+                create(subject, type.asNode(), createURI("info:Type")),
+                create(subject, predicate, createLiteral("b")),
+                create(other, predicate, createLiteral("c")))));
+
+        assertEquals("Should be one node object per subject", 2, json.size());
+        assertEquals("info:subject", json.get(0).get("@id").asText());
+        assertEquals(2, json.get(0).get("info:predicate").size());
+        assertEquals("info:Type", json.get(0).get("@type").get(0).asText());
+        assertEquals("info:other", json.get(1).get("@id").asText());
+    }
+
+    @Test
+    public void testWritesEachRunOfInterleavedSubjects() throws IOException {
+        final List<Triple> triples = asList(
+                create(subject, predicate, createLiteral("a")),
+                create(other, predicate, createLiteral("c")),
+                create(subject, predicate, createLiteral("b")),
+                create(subject, predicate, createLiteral("b")));
+        final String output = write(triples);
+        final JsonNode json = new ObjectMapper().readTree(output);
+
+        assertEquals("Should be one node object per run of a subject", 3, json.size());
+        assertEquals("info:subject", json.get(0).get("@id").asText());
+        assertEquals("info:other", json.get(1).get("@id").asText());
+        assertEquals("info:subject", json.get(2).get("@id").asText());
+        assertEquals("Each value should appear once in a run", 1, json.get(2).get("info:predicate").size());
+
+        final Model expected = createDefaultModel();
+        triples.forEach(t -> expected.add(expected.asStatement(t)));
+        assertTrue("Output should match input: " + output, read(output).isIsomorphicWith(expected));
+    }
+
+    @Test
+    public void testWriteEmpty() throws IOException {
+        assertTrue(read(write(asList())).isEmpty());
+    }
+
+    private static String write(final List<Triple> triples) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final StreamingJsonLdWriter writer = new StreamingJsonLdWriter(output);
+        writer.start();
+        triples.forEach(writer::triple);
+        writer.finish();
+        return output.toString("UTF-8");
+    }
+
+    private static Model read(final String output) {
+        final Model model = createDefaultModel();
+        RDFDataMgr.read(model, new ByteArrayInputStream(output.getBytes(UTF_8)), JSONLD);
+        return model;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.commons.responses;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.apache.jena.datatypes.xsd.XSDDatatype.XSDint;
+import static org.apache.jena.graph.NodeFactory.createBlankNode;
+import static org.apache.jena.graph.NodeFactory.createLiteral;
+import static org.apache.jena.graph.NodeFactory.createURI;
+import static org.apache.jena.graph.Triple.create;
+import static org.apache.jena.rdf.model.ModelFactory.createDefaultModel;
+import static org.apache.jena.riot.Lang.RDFXML;
+import static org.apache.jena.vocabulary.RDF.type;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RiotException;
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class StreamingRdfXmlWriterTest {
+
+    private static final Node subject = createURI("info:subject");
+
+    private static final Node other = createURI("info:other");
+
+    private static final Node predicate = createURI("http://example.org/ns#predicate");
+
+    private static final Node blank = createBlankNode();
+
+    @Test
+    public void testWrite() {
+        final List<Triple> triples = asList(
+                create(subject, type.asNode(), createURI("info:Type")),
+                create(subject, predicate, createLiteral("plain <&>")),
+                create(subject, predicate, createLiteral("french", "fr")),
+                create(subject, predicate, createLiteral("1", XSDint)),
+                create(subject, createURI("http://example.org/other/predicate"), blank),
+                create(blank, predicate, other));
+
+        final String output = write(triples, "ex", "http://example.org/ns#");
+        final Model expected = createDefaultModel();
+        triples.forEach(t -> expected.add(expected.asStatement(t)));
+        assertTrue("Output should match input: " + output, read(output).isIsomorphicWith(expected));
+        assertTrue("Should use the given prefix: " + output, output.contains("<ex:predicate"));
+    }
+
+    @Test
+    public void testGroupsBySubject() {
+        final String output = write(asList(
+                create(subject, predicate, createLiteral("a")),
+                create(subject, predicate, createLiteral("b")),
+                create(other, predicate, createLiteral("c"))), "ex", "http://example.org/ns#");
+        assertEquals("Should be one description per subject", 2, output.split("<rdf:Description").length - 1);
+    }
+
+    @Test
+    public void testWriteEmpty() {
+        assertTrue(read(write(asList(), "ex", "http://example.org/ns#")).isEmpty());
+    }
+
+    @Test(expected = RiotException.class)
+    public void testUnsplittablePredicate() {
+        write(asList(create(subject, createURI("info:1"), other)), "ex", "http://example.org/ns#");
+    }
+
+    private static String write(final List<Triple> triples, final String prefix, final String namespace) {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final StreamingRdfXmlWriter writer = new StreamingRdfXmlWriter(output);
+        writer.start();
+        writer.prefix(prefix, namespace);
+        triples.forEach(writer::triple);
+        writer.finish();
+        return new String(output.toByteArray(), UTF_8);
+    }
+
+    private static Model read(final String output) {
+        final Model model = createDefaultModel();
+        RDFDataMgr.read(model, new ByteArrayInputStream(output.getBytes(UTF_8)), RDFXML);
+        return model;
+    }
+}
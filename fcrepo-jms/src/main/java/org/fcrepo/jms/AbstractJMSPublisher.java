@@ -17,9 +17,21 @@
  */
 package org.fcrepo.jms;
 
+import static com.codahale.metrics.MetricRegistry.name;
+import static java.lang.System.currentTimeMillis;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.fcrepo.jms.DefaultMessageFactory.JOURNAL_OFFSET_HEADER_NAME;
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -29,12 +41,18 @@ import javax.jms.Destination;
 import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.MessageProducer;
+import javax.jms.ResourceAllocationException;
 import javax.jms.Session;
 
 import org.apache.activemq.ActiveMQConnectionFactory;
+import org.fcrepo.kernel.api.exception.InterruptedRuntimeException;
 import org.fcrepo.kernel.api.observer.FedoraEvent;
+import org.fcrepo.metrics.RegistryService;
 import org.slf4j.Logger;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 
@@ -42,6 +60,22 @@ import com.google.common.eventbus.Subscribe;
  * Machinery to publish JMS messages when an EventBus
  * message is received.
  *
+ * By default, each event is sent to JMS on the thread that posted it to the
+ * EventBus.  When a buffer size is configured, events are instead placed in
+ * a bounded buffer and sent by a single background thread in batches, each
+ * batch in one transaction, so that a slow broker does not add latency to
+ * repository writes.  What happens when that buffer is full is governed by
+ * the {@link BackpressurePolicy}.  Batches that cannot be sent are retried,
+ * and events still unsent at shutdown are kept in the spool, if there is one.
+ *
+ * When a journal directory is configured, events are instead appended to an
+ * {@link EventJournal} on disk, and the background thread sends them from
+ * there, recording its progress in the journal after each batch.  Batches
+ * that cannot be sent are retried until the broker is available again, and
+ * events not yet sent at shutdown are sent after the next start.  Each
+ * message then carries its offset in the journal, from which events may be
+ * {@link #replay(long) replayed}.
+ *
  * @author barmintor
  * @author awoods
  * @author acoburn
@@ -63,10 +97,173 @@ abstract class AbstractJMSPublisher {
 
     protected MessageProducer producer;
 
+    private Destination destination;
+
     protected static final Logger LOGGER = getLogger(AbstractJMSPublisher.class);
 
+    private static final long SHUTDOWN_TIMEOUT = 30000;
+
+    private static final MetricRegistry METRICS = RegistryService.getInstance().getMetrics();
+
+    private final Timer publishLatency = METRICS.timer(name(getClass(), "publish-latency"));
+
+    private int bufferSize = 0;
+
+    private int batchSize = 100;
+
+    private long batchTimeout = 100;
+
+    private BackpressurePolicy backpressurePolicy = BackpressurePolicy.BLOCK;
+
+    private File spoolDirectory = new File(System.getProperty("java.io.tmpdir"), "fcrepo-jms-spool");
+
+    private File journalDirectory;
+
+    private int journalSegmentSize = 64 * 1024 * 1024;
+
+    private int journalRetainedSegments = 2;
+
+    private long journalForceInterval = 1000;
+
+    private long retryInterval = 1000;
+
+    private BlockingQueue<PendingEvent> buffer;
+
+    private EventSpool spool;
+
+    private EventJournal journal;
+
+    private final AtomicLong replayOffset = new AtomicLong(-1);
+
+    private volatile long deliveredOffset;
+
+    private Connection senderConnection;
+
+    private Session senderSession;
+
+    private MessageProducer senderProducer;
+
+    private Thread sender;
+
+    private volatile boolean running;
+
     protected abstract Destination createDestination() throws JMSException;
 
+    /**
+     * An event waiting to be sent, with the time at which it began waiting
+     * and its offset in the journal (if any).
+     */
+    private static class PendingEvent {
+
+        private final FedoraEvent event;
+
+        private final long queued;
+
+        private final long offset;
+
+        private PendingEvent(final FedoraEvent event) {
+            this.event = event;
+            this.queued = nanoTime();
+            this.offset = -1;
+        }
+
+        private PendingEvent(final EventJournal.Entry entry) {
+            this.event = entry.event;
+            this.queued = event.getDate() == null ? nanoTime() :
+                    nanoTime() - MILLISECONDS.toNanos(currentTimeMillis() - event.getDate().toEpochMilli());
+            this.offset = entry.offset;
+        }
+    }
+
+    /**
+     * @param bufferSize the number of events that may wait to be sent in the background,
+     *        or 0 (the default) to send each event as it is received
+     */
+    public void setBufferSize(final int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * @param batchSize the largest number of events to send in one JMS transaction
+     */
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param batchTimeout the longest time, in milliseconds, to wait for a batch to fill
+     *        before sending it
+     */
+    public void setBatchTimeout(final long batchTimeout) {
+        this.batchTimeout = batchTimeout;
+    }
+
+    /**
+     * @param backpressurePolicy what to do with events that arrive while the buffer is full
+     */
+    public void setBackpressurePolicy(final BackpressurePolicy backpressurePolicy) {
+        this.backpressurePolicy = backpressurePolicy;
+    }
+
+    /**
+     * @param spoolDirectory the directory in which to spool events under the SPOOL policy
+     */
+    public void setSpoolDirectory(final File spoolDirectory) {
+        this.spoolDirectory = spoolDirectory;
+    }
+
+    /**
+     * @param journalDirectory the directory in which to journal events before they are sent,
+     *        or null (the default) for no journal
+     */
+    public void setJournalDirectory(final File journalDirectory) {
+        this.journalDirectory = journalDirectory;
+    }
+
+    /**
+     * @param journalSegmentSize the size, in bytes, of each journal file
+     */
+    public void setJournalSegmentSize(final int journalSegmentSize) {
+        this.journalSegmentSize = journalSegmentSize;
+    }
+
+    /**
+     * @param journalRetainedSegments the number of journal files to keep for replay once sent
+     */
+    public void setJournalRetainedSegments(final int journalRetainedSegments) {
+        this.journalRetainedSegments = journalRetainedSegments;
+    }
+
+    /**
+     * @param journalForceInterval the longest time, in milliseconds, for which journaled events may go unforced to
+     *        disk; 0 forces each event to disk before it is published
+     */
+    public void setJournalForceInterval(final long journalForceInterval) {
+        this.journalForceInterval = journalForceInterval;
+    }
+
+    /**
+     * @param retryInterval the time, in milliseconds, to wait before retrying journaled events
+     *        that could not be sent
+     */
+    public void setRetryInterval(final long retryInterval) {
+        this.retryInterval = retryInterval;
+    }
+
+    /**
+     * Send again every journaled event from the given offset onwards (or from
+     * the earliest event still journaled, if that is later).
+     *
+     * @param offset the journal offset from which to replay events
+     */
+    public void replay(final long offset) {
+        if (journal == null) {
+            throw new IllegalStateException("Events can only be replayed when a journal is configured");
+        }
+        LOGGER.info("Replaying events from journal offset {}", offset);
+        replayOffset.set(offset);
+    }
+
     /**
      * When an EventBus mesage is received, map it to our JMS
      * message payload and push it onto the queue.
@@ -78,6 +275,14 @@ abstract class AbstractJMSPublisher {
     @Subscribe
     public void publishJCREvent(final FedoraEvent fedoraEvent) throws JMSException, IOException {
         LOGGER.debug("Received an event from the internal bus.");
+        if (journal != null) {
+            journal.append(fedoraEvent);
+            return;
+        }
+        if (buffer != null) {
+            enqueue(fedoraEvent);
+            return;
+        }
         final Message tm =
                 eventFactory.getMessage(fedoraEvent, jmsSession);
         LOGGER.debug("Transformed the event to a JMS message.");
@@ -86,6 +291,228 @@ abstract class AbstractJMSPublisher {
         LOGGER.debug("Put event: {} onto JMS.", tm.getJMSMessageID());
     }
 
+    private void enqueue(final FedoraEvent fedoraEvent) throws JMSException, IOException {
+        final PendingEvent pending = new PendingEvent(fedoraEvent);
+        switch (backpressurePolicy) {
+            case SPOOL:
+                // once anything has been spooled, later events must follow it to preserve their order
+                synchronized (spool) {
+                    if (!spool.isEmpty() || !buffer.offer(pending)) {
+                        LOGGER.debug("Event buffer is full: spooling event {} to disk.", fedoraEvent.getEventID());
+                        spool.append(fedoraEvent);
+                    }
+                }
+                break;
+            case FAIL:
+                if (!buffer.offer(pending)) {
+                    throw new ResourceAllocationException("Event buffer is full: refusing event "
+                            + fedoraEvent.getEventID());
+                }
+                break;
+            default:
+                try {
+                    // wait for room, unless the sender that makes room has stopped
+                    while (!buffer.offer(pending, retryInterval, MILLISECONDS)) {
+                        if (!sender.isAlive()) {
+                            throw new ResourceAllocationException("Background event publisher has stopped: "
+                                    + "refusing event " + fedoraEvent.getEventID());
+                        }
+                    }
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedRuntimeException(e);
+                }
+        }
+    }
+
+    /**
+     * The body of the background sender: repeatedly gathers a batch of waiting
+     * events and sends them in one transaction.
+     */
+    private void sendBatches() {
+        final List<PendingEvent> batch = new ArrayList<>(batchSize);
+        try {
+            while (true) {
+                try {
+                    if (journal != null) {
+                        sendJournal();
+                    } else {
+                        sendBuffer(batch);
+                    }
+                    return;
+                } catch (final IOException e) {
+                    if (!running) {
+                        LOGGER.error("Background event publisher failed while stopping.", e);
+                        saveUnsent(batch);
+                        return;
+                    }
+                    // the events of an unsent batch are kept, to be sent first once restarted
+                    LOGGER.error("Background event publisher failed: restarting in {} ms.", retryInterval, e);
+                    closeSenderSession();
+                    Thread.sleep(retryInterval);
+                }
+            }
+        } catch (final InterruptedException e) {
+            LOGGER.warn("Background event publisher interrupted.");
+            saveUnsent(batch);
+        } finally {
+            closeSenderSession();
+        }
+    }
+
+    private void sendBuffer(final List<PendingEvent> batch) throws IOException, InterruptedException {
+        while (running || !batch.isEmpty() || !buffer.isEmpty() || (spool != null && !spool.isEmpty())) {
+            fillBatch(batch);
+            if (batch.isEmpty()) {
+                continue;
+            }
+            if (sendBatch(batch)) {
+                batch.clear();
+            } else if (running) {
+                Thread.sleep(retryInterval);
+            } else {
+                saveUnsent(batch);
+                return;
+            }
+        }
+    }
+
+    /*
+     * Keep the events that could not be sent before stopping in the spool, if there is one, to be sent after the
+     * next start, after any events spooled before them.
+     */
+    private void saveUnsent(final List<PendingEvent> batch) {
+        if (buffer == null) {
+            return;
+        }
+        buffer.drainTo(batch);
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (spool != null) {
+            try {
+                for (final PendingEvent pending : batch) {
+                    spool.append(pending.event);
+                }
+                LOGGER.warn("{} unpublished events were spooled, to be published after restart.", batch.size());
+                batch.clear();
+                return;
+            } catch (final IOException e) {
+                LOGGER.error("Failed to spool unpublished events", e);
+            }
+        }
+        LOGGER.error("{} events could not be published!", batch.size());
+        batch.clear();
+    }
+
+    private void sendJournal() throws IOException, InterruptedException {
+        long position = journal.readCheckpoint();
+        deliveredOffset = position;
+        final List<PendingEvent> batch = new ArrayList<>(batchSize);
+        while (true) {
+            final long replay = replayOffset.getAndSet(-1);
+            if (replay >= 0) {
+                position = Math.max(replay, journal.firstOffset());
+            }
+            journal.read(position, batchSize).forEach(entry -> batch.add(new PendingEvent(entry)));
+            if (batch.isEmpty()) {
+                if (!running) {
+                    return;
+                }
+                journal.awaitAppend(position, batchTimeout);
+            } else if (forceAndSend(batch)) {
+                position = batch.get(batch.size() - 1).offset + 1;
+                journal.checkpoint(position);
+                deliveredOffset = position;
+            } else if (running) {
+                Thread.sleep(retryInterval);
+            } else {
+                LOGGER.warn("{} journaled events will be published after restart.",
+                        journal.nextOffset() - position);
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    /*
+     * No event is sent before it is safely on disk, so a batch delivered is never lost to a crash.
+     */
+    private boolean forceAndSend(final List<PendingEvent> batch) {
+        journal.force();
+        return sendBatch(batch);
+    }
+
+    private void fillBatch(final List<PendingEvent> batch) throws IOException, InterruptedException {
+        long deadline = nanoTime() + MILLISECONDS.toNanos(batchTimeout);
+        while (batch.size() < batchSize) {
+            PendingEvent next = buffer.poll();
+            if (next == null && spool != null) {
+                final FedoraEvent spooled = spool.poll();
+                next = spooled == null ? null : new PendingEvent(spooled);
+            }
+            if (next == null) {
+                next = buffer.poll(deadline - nanoTime(), NANOSECONDS);
+            }
+            if (next != null) {
+                if (batch.isEmpty()) {
+                    // a batch waits at most batchTimeout from its first event
+                    deadline = nanoTime() + MILLISECONDS.toNanos(batchTimeout);
+                }
+                batch.add(next);
+            } else if (!batch.isEmpty() || !running || nanoTime() - deadline >= 0) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Send a batch of events in a single transaction, (re)connecting if need be.
+     *
+     * @param batch the events to send
+     * @return whether the batch was sent
+     */
+    private boolean sendBatch(final List<PendingEvent> batch) {
+        try {
+            if (senderSession == null) {
+                senderConnection = connectionFactory.createConnection();
+                senderConnection.start();
+                senderSession = senderConnection.createSession(true, Session.SESSION_TRANSACTED);
+                senderProducer = senderSession.createProducer(destination);
+            }
+            for (final PendingEvent pending : batch) {
+                final Message message = eventFactory.getMessage(pending.event, senderSession);
+                if (pending.offset >= 0) {
+                    message.setLongProperty(JOURNAL_OFFSET_HEADER_NAME, pending.offset);
+                }
+                senderProducer.send(message);
+            }
+            senderSession.commit();
+            LOGGER.debug("Put {} events onto JMS.", batch.size());
+            final long now = nanoTime();
+            batch.forEach(pending -> publishLatency.update(now - pending.queued, NANOSECONDS));
+            return true;
+        } catch (final JMSException | IOException e) {
+            LOGGER.error("Failed to publish a batch of {} events!", batch.size(), e);
+            // start afresh with the next batch, in case the connection itself has failed
+            closeSenderSession();
+            return false;
+        }
+    }
+
+    private void closeSenderSession() {
+        if (senderConnection != null) {
+            try {
+                senderConnection.close();
+            } catch (final JMSException e) {
+                LOGGER.warn("Failed to close JMS connection", e);
+            }
+        }
+        senderConnection = null;
+        senderSession = null;
+        senderProducer = null;
+    }
+
     /**
      * Connect to JCR Repostory and JMS queue
      *
@@ -98,10 +525,74 @@ abstract class AbstractJMSPublisher {
         connection = connectionFactory.createConnection();
         connection.start();
         jmsSession = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
-        producer = jmsSession.createProducer(createDestination());
+        destination = createDestination();
+        producer = jmsSession.createProducer(destination);
+        if (bufferSize > 0 || journalDirectory != null) {
+            startSender();
+        }
         eventBus.register(this);
     }
 
+    private void startSender() throws JMSException {
+        try {
+            if (journalDirectory != null) {
+                journal = new EventJournal(new File(journalDirectory, getClass().getSimpleName()),
+                        journalSegmentSize, journalRetainedSegments, journalForceInterval);
+                deliveredOffset = journal.readCheckpoint();
+                registerGauge("journal-lag", () -> journal.nextOffset() - deliveredOffset);
+            } else {
+                buffer = new ArrayBlockingQueue<>(bufferSize);
+                if (backpressurePolicy == BackpressurePolicy.SPOOL) {
+                    spool = new EventSpool(new File(spoolDirectory, getClass().getSimpleName() + ".spool"));
+                }
+                registerGauge("queue-depth", () -> (long) buffer.size());
+            }
+        } catch (final IOException e) {
+            final JMSException ex = new JMSException("Unable to open event storage: " + e.getMessage());
+            ex.setLinkedException(e);
+            throw ex;
+        }
+
+        running = true;
+        sender = new Thread(this::sendBatches, getClass().getSimpleName() + "-sender");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    private void stopSender() {
+        running = false;
+        try {
+            sender.join(SHUTDOWN_TIMEOUT);
+            if (sender.isAlive()) {
+                LOGGER.warn("Background event publisher did not finish within {} ms.", SHUTDOWN_TIMEOUT);
+                sender.interrupt();
+                // give it the chance to spool the events it still holds
+                sender.join(retryInterval);
+            }
+        } catch (final InterruptedException e) {
+            sender.interrupt();
+            Thread.currentThread().interrupt();
+        }
+        if (spool != null) {
+            try {
+                spool.close();
+            } catch (final IOException e) {
+                LOGGER.warn("Failed to close event spool", e);
+            }
+        }
+        if (journal != null) {
+            journal.close();
+        }
+        METRICS.remove(name(getClass(), "queue-depth"));
+        METRICS.remove(name(getClass(), "journal-lag"));
+    }
+
+    private void registerGauge(final String gaugeName, final Gauge<Long> gauge) {
+        final String fullName = name(getClass(), gaugeName);
+        METRICS.remove(fullName);
+        METRICS.register(fullName, gauge);
+    }
+
     /**
      * Close external connections
      *
@@ -111,9 +602,12 @@ abstract class AbstractJMSPublisher {
     public void releaseConnections() throws JMSException {
         LOGGER.debug("Tearing down: {}", this.getClass().getCanonicalName());
 
+        eventBus.unregister(this);
+        if (sender != null) {
+            stopSender();
+        }
         producer.close();
         jmsSession.close();
         connection.close();
-        eventBus.unregister(this);
     }
 }
@@ -0,0 +1,42 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.jms;
+
+/**
+ * What a publisher does with an event that arrives while its buffer of
+ * events waiting to be sent is full.
+ *
+ * @author agent
+ */
+public enum BackpressurePolicy {
+
+    /**
+     * Wait for room in the buffer, delaying the caller.
+     */
+    BLOCK,
+
+    /**
+     * Write the event to a spool file on disk, to be sent once the buffer drains.
+     */
+    SPOOL,
+
+    /**
+     * Refuse the event with an exception.
+     */
+    FAIL
+}
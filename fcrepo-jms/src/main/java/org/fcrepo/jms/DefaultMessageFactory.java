@@ -65,6 +65,11 @@ public class DefaultMessageFactory implements JMSEventMessageFactory {
     public static final String USER_AGENT_HEADER_NAME = JMS_NAMESPACE + "userAgent";
     public static final String EVENT_ID_HEADER_NAME = JMS_NAMESPACE + "eventID";
 
+    /**
+     * Set by publishers that journal events: the offset of the event in the journal.
+     */
+    public static final String JOURNAL_OFFSET_HEADER_NAME = JMS_NAMESPACE + "journalOffset";
+
     @Override
     public Message getMessage(final FedoraEvent event, final Session jmsSession)
             throws JMSException {
@@ -0,0 +1,208 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.jms;
+
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Collections.unmodifiableSet;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import org.fcrepo.kernel.api.observer.EventType;
+import org.fcrepo.kernel.api.observer.FedoraEvent;
+
+/**
+ * Encodes {@link FedoraEvent}s into a compact binary form, and back, so that
+ * they may be kept on disk until they can be published.  A decoded event
+ * retains the identifier of the original event.
+ *
+ * @author agent
+ */
+final class EventCodec {
+
+    private EventCodec() {
+        // static utility class
+    }
+
+    /**
+     * @param event the event to encode
+     * @return the encoded event
+     * @throws IOException if IO exception occurred
+     */
+    static byte[] encode(final FedoraEvent event) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (final DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(event.getTypes().size());
+            for (final EventType type : event.getTypes()) {
+                out.writeUTF(type.name());
+            }
+            writeStrings(out, event.getResourceTypes());
+            writeNullable(out, event.getPath());
+            writeNullable(out, event.getUserID());
+            out.writeBoolean(event.getDate() != null);
+            if (event.getDate() != null) {
+                out.writeLong(event.getDate().getEpochSecond());
+                out.writeInt(event.getDate().getNano());
+            }
+            writeNullable(out, event.getEventID());
+            final Map<String, String> info = event.getInfo();
+            out.writeInt(info == null ? 0 : info.size());
+            if (info != null) {
+                for (final Map.Entry<String, String> entry : info.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    writeNullable(out, entry.getValue());
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param encoded an encoded event
+     * @return a CRC32 checksum of the encoded event, by which damage to it on disk may be detected
+     */
+    static int checksum(final byte[] encoded) {
+        final CRC32 crc = new CRC32();
+        crc.update(encoded);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * @param encoded an event encoded by {@link #encode(FedoraEvent)}
+     * @return the decoded event
+     * @throws IOException if IO exception occurred
+     */
+    static FedoraEvent decode(final byte[] encoded) throws IOException {
+        try (final DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            final Set<EventType> types = EnumSet.noneOf(EventType.class);
+            for (int i = in.readInt(); i > 0; i--) {
+                types.add(EventType.valueOf(in.readUTF()));
+            }
+            final Set<String> resourceTypes = readStrings(in);
+            final String path = readNullable(in);
+            final String userID = readNullable(in);
+            final Instant date = in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+            final String eventID = readNullable(in);
+            final Map<String, String> info = new HashMap<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                info.put(in.readUTF(), readNullable(in));
+            }
+            return new DecodedEvent(types, resourceTypes, path, userID, date, eventID, info);
+        }
+    }
+
+    private static void writeStrings(final DataOutputStream out, final Collection<String> strings)
+            throws IOException {
+        out.writeInt(strings == null ? 0 : strings.size());
+        if (strings != null) {
+            for (final String s : strings) {
+                out.writeUTF(s);
+            }
+        }
+    }
+
+    private static Set<String> readStrings(final DataInputStream in) throws IOException {
+        final Set<String> strings = new HashSet<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            strings.add(in.readUTF());
+        }
+        return strings;
+    }
+
+    private static void writeNullable(final DataOutputStream out, final String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) {
+            out.writeUTF(s);
+        }
+    }
+
+    private static String readNullable(final DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * A FedoraEvent reconstituted from its encoded form.
+     */
+    private static class DecodedEvent implements FedoraEvent {
+
+        private final Set<EventType> types;
+        private final Set<String> resourceTypes;
+        private final String path;
+        private final String userID;
+        private final Instant date;
+        private final String eventID;
+        private final Map<String, String> info;
+
+        private DecodedEvent(final Set<EventType> types, final Set<String> resourceTypes, final String path,
+                final String userID, final Instant date, final String eventID, final Map<String, String> info) {
+            this.types = unmodifiableSet(types);
+            this.resourceTypes = unmodifiableSet(resourceTypes);
+            this.path = path;
+            this.userID = userID;
+            this.date = date;
+            this.eventID = eventID;
+            this.info = unmodifiableMap(info);
+        }
+
+        @Override
+        public Set<EventType> getTypes() {
+            return types;
+        }
+
+        @Override
+        public Set<String> getResourceTypes() {
+            return resourceTypes;
+        }
+
+        @Override
+        public String getPath() {
+            return path;
+        }
+
+        @Override
+        public String getUserID() {
+            return userID;
+        }
+
+        @Override
+        public Instant getDate() {
+            return date;
+        }
+
+        @Override
+        public String getEventID() {
+            return eventID;
+        }
+
+        @Override
+        public Map<String, String> getInfo() {
+            return info;
+        }
+    }
+}
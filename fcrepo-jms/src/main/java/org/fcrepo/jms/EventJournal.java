@@ -0,0 +1,375 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.jms;
+
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.fcrepo.jms.EventCodec.checksum;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.fcrepo.kernel.api.observer.FedoraEvent;
+import org.slf4j.Logger;
+
+/**
+ * An append-only journal of events, kept on disk in a series of
+ * memory-mapped segment files, each named for the offset of its first event.
+ * Every event appended is given an offset one greater than the last.
+ *
+ * Each record in a segment is its length, a CRC32 checksum and the encoded
+ * event; on opening, each segment is scanned and the journal resumes after
+ * the last intact record, so that a record torn by a crash is discarded.
+ *
+ * Appended records are forced to disk no more than a configured interval
+ * after the last time the journal was forced, and whenever {@link #force()}
+ * is called; the checkpoint is forced to disk each time it is written.
+ *
+ * The journal also keeps a checkpoint: the offset of the first event not
+ * yet known to have been delivered.  Segments entirely before the
+ * checkpoint are deleted, apart from the most recent few, which are
+ * retained so that events may be replayed.
+ *
+ * @author agent
+ */
+class EventJournal implements Closeable {
+
+    private static final Logger LOGGER = getLogger(EventJournal.class);
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private static final String CHECKPOINT = "checkpoint";
+
+    private static final int HEADER = 8;
+
+    private final File directory;
+
+    private final int segmentSize;
+
+    private final int retainedSegments;
+
+    private final long forceInterval;
+
+    private long lastForced = System.nanoTime();
+
+    private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+
+    private long nextOffset;
+
+    /**
+     * An event read back from the journal, with its offset.
+     */
+    static class Entry {
+
+        final long offset;
+
+        final FedoraEvent event;
+
+        private Entry(final long offset, final FedoraEvent event) {
+            this.offset = offset;
+            this.event = event;
+        }
+    }
+
+    /**
+     * A single memory-mapped journal file.
+     */
+    private static class Segment {
+
+        private final File file;
+
+        private final long baseOffset;
+
+        private MappedByteBuffer buffer;
+
+        private int[] positions = new int[1024];
+
+        private int count;
+
+        private int writePosition;
+
+        private int forcedPosition;
+
+        private Segment(final File file, final long baseOffset, final int size) throws IOException {
+            this.file = file;
+            this.baseOffset = baseOffset;
+            try (final RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                final long length = Math.max(raf.length(), size);
+                raf.setLength(length);
+                buffer = raf.getChannel().map(READ_WRITE, 0, length);
+            }
+            recover();
+        }
+
+        /*
+         * Find every intact record, stopping at the first that is absent or damaged.
+         */
+        private void recover() {
+            int position = 0;
+            while (position + HEADER <= buffer.capacity()) {
+                final int length = buffer.getInt(position);
+                if (length <= 0 || position + HEADER + length > buffer.capacity()) {
+                    break;
+                }
+                final byte[] record = read(position + HEADER, length);
+                if (checksum(record) != buffer.getInt(position + 4)) {
+                    LOGGER.warn("Discarding damaged record at {} in {}", position, file);
+                    break;
+                }
+                addPosition(position);
+                position += HEADER + length;
+            }
+            writePosition = position;
+            forcedPosition = position;
+        }
+
+        private void force() {
+            if (forcedPosition < writePosition) {
+                buffer.force();
+                forcedPosition = writePosition;
+            }
+        }
+
+        private boolean hasRoomFor(final int length) {
+            return writePosition + HEADER + length <= buffer.capacity();
+        }
+
+        private void append(final byte[] record) {
+            final int position = writePosition;
+            final ByteBuffer data = buffer.duplicate();
+            data.position(position + HEADER);
+            data.put(record);
+            buffer.putInt(position + 4, checksum(record));
+            // the length is written last, marking the record as complete
+            buffer.putInt(position, record.length);
+            addPosition(position);
+            writePosition = position + HEADER + record.length;
+        }
+
+        private byte[] get(final long offset) {
+            final int position = positions[(int) (offset - baseOffset)];
+            return read(position + HEADER, buffer.getInt(position));
+        }
+
+        private byte[] read(final int position, final int length) {
+            final byte[] record = new byte[length];
+            final ByteBuffer data = buffer.duplicate();
+            data.position(position);
+            data.get(record);
+            return record;
+        }
+
+        private void addPosition(final int position) {
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+            }
+            positions[count++] = position;
+        }
+
+        private long endOffset() {
+            return baseOffset + count;
+        }
+    }
+
+    /**
+     * Open (or create) a journal in the given directory
+     *
+     * @param directory the directory in which to keep the journal
+     * @param segmentSize the size, in bytes, of each segment file
+     * @param retainedSegments the number of delivered segments to retain for replay
+     * @param forceInterval the longest time, in milliseconds, for which appended events may go unforced to disk;
+     *        0 forces each event as it is appended
+     * @throws IOException if IO exception occurred
+     */
+    EventJournal(final File directory, final int segmentSize, final int retainedSegments, final long forceInterval)
+            throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.retainedSegments = retainedSegments;
+        this.forceInterval = MILLISECONDS.toNanos(forceInterval);
+        Files.createDirectories(directory.toPath());
+        final File[] files = directory.listFiles((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            for (final File file : files) {
+                final String name = file.getName();
+                final long baseOffset = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                segments.put(baseOffset, new Segment(file, baseOffset, segmentSize));
+            }
+        }
+        nextOffset = segments.isEmpty() ? readCheckpoint() : segments.lastEntry().getValue().endOffset();
+        LOGGER.info("Opened event journal in {} at offset {} with checkpoint {}", directory, nextOffset,
+                readCheckpoint());
+    }
+
+    /**
+     * @param event the event to add to the journal
+     * @return the offset of the event in the journal
+     * @throws IOException if IO exception occurred
+     */
+    synchronized long append(final FedoraEvent event) throws IOException {
+        final byte[] record = EventCodec.encode(event);
+        Segment head = segments.isEmpty() ? null : segments.lastEntry().getValue();
+        if (head == null || !head.hasRoomFor(record.length)) {
+            if (head != null) {
+                head.force();
+            }
+            head = new Segment(new File(directory, nextOffset + SEGMENT_SUFFIX), nextOffset,
+                    Math.max(segmentSize, HEADER + record.length));
+            segments.put(nextOffset, head);
+        }
+        head.append(record);
+        if (System.nanoTime() - lastForced >= forceInterval) {
+            force();
+        }
+        notifyAll();
+        return nextOffset++;
+    }
+
+    /**
+     * Force every event appended to the journal to disk
+     */
+    synchronized void force() {
+        segments.values().forEach(Segment::force);
+        lastForced = System.nanoTime();
+    }
+
+    /**
+     * Read events from the journal
+     *
+     * @param offset the offset of the first event to read
+     * @param max the largest number of events to read
+     * @return the events at and after the given offset, in order
+     * @throws IOException if IO exception occurred
+     */
+    synchronized List<Entry> read(final long offset, final int max) throws IOException {
+        final List<Entry> entries = new ArrayList<>();
+        final Map.Entry<Long, Segment> floor = segments.floorEntry(Math.max(offset, firstOffset()));
+        if (floor == null) {
+            return entries;
+        }
+        for (final Segment segment : segments.tailMap(floor.getKey(), true).values()) {
+            for (long o = Math.max(offset, segment.baseOffset); o < segment.endOffset(); o++) {
+                if (entries.size() == max) {
+                    return entries;
+                }
+                entries.add(new Entry(o, EventCodec.decode(segment.get(o))));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Wait until an event is appended at the given offset, or the timeout elapses
+     *
+     * @param offset the offset
+     * @param timeout the longest time to wait, in milliseconds
+     * @throws InterruptedException if interrupted while waiting
+     */
+    synchronized void awaitAppend(final long offset, final long timeout) throws InterruptedException {
+        if (nextOffset <= offset) {
+            wait(timeout);
+        }
+    }
+
+    /**
+     * @return the offset of the earliest event still held in the journal
+     */
+    synchronized long firstOffset() {
+        return segments.isEmpty() ? nextOffset : segments.firstKey();
+    }
+
+    /**
+     * @return the offset that will be given to the next event appended
+     */
+    synchronized long nextOffset() {
+        return nextOffset;
+    }
+
+    /**
+     * @return the offset of the first event not yet known to have been delivered
+     * @throws IOException if IO exception occurred
+     */
+    long readCheckpoint() throws IOException {
+        final File checkpoint = new File(directory, CHECKPOINT);
+        if (!checkpoint.exists()) {
+            return 0;
+        }
+        return Long.parseLong(new String(Files.readAllBytes(checkpoint.toPath()), UTF_8).trim());
+    }
+
+    /**
+     * Record that every event before the given offset has been delivered, and
+     * delete any segments that are no longer needed.
+     *
+     * @param offset the offset of the first event not yet delivered
+     * @throws IOException if IO exception occurred
+     */
+    synchronized void checkpoint(final long offset) throws IOException {
+        final File temp = new File(directory, CHECKPOINT + ".tmp");
+        try (final FileChannel channel = FileChannel.open(temp.toPath(), WRITE, CREATE, TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(Long.toString(offset).getBytes(UTF_8)));
+            channel.force(true);
+        }
+        Files.move(temp.toPath(), new File(directory, CHECKPOINT).toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+        if (segments.isEmpty()) {
+            return;
+        }
+
+        // the newest segment is never deleted: it is where the next event goes
+        final List<Segment> delivered = new ArrayList<>();
+        for (final Segment segment : segments.headMap(segments.lastKey(), false).values()) {
+            if (segment.endOffset() <= offset) {
+                delivered.add(segment);
+            }
+        }
+        final Iterator<Segment> expired = delivered.iterator();
+        for (int i = delivered.size() - retainedSegments; i > 0; i--) {
+            final Segment segment = expired.next();
+            segments.remove(segment.baseOffset);
+            segment.buffer = null;
+            if (!segment.file.delete()) {
+                LOGGER.warn("Unable to delete expired journal segment {}", segment.file);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        force();
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.jms;
+
+import static org.fcrepo.jms.EventCodec.checksum;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.fcrepo.kernel.api.observer.FedoraEvent;
+import org.slf4j.Logger;
+
+/**
+ * A first-in, first-out queue of events kept in a file on disk, used to hold
+ * events that arrive while the in-memory buffer of a publisher is full.
+ * Events left in the spool file by a previous run are published first.
+ *
+ * Each record in the file is its length, a CRC32 checksum and the encoded
+ * event.  A record that is incomplete or damaged, as when a crash interrupts
+ * its writing, is discarded together with any that follow it.
+ *
+ * @author agent
+ */
+class EventSpool implements Closeable {
+
+    private static final Logger LOGGER = getLogger(EventSpool.class);
+
+    private static final int HEADER = 8;
+
+    private final File spoolFile;
+
+    private final RandomAccessFile file;
+
+    private long readPosition;
+
+    private long writePosition;
+
+    /**
+     * Open (or create) a spool in the given file
+     *
+     * @param spoolFile the file in which to keep spooled events
+     * @throws IOException if IO exception occurred
+     */
+    EventSpool(final File spoolFile) throws IOException {
+        spoolFile.getParentFile().mkdirs();
+        this.spoolFile = spoolFile;
+        this.file = new RandomAccessFile(spoolFile, "rw");
+        this.writePosition = file.length();
+        if (writePosition > 0) {
+            LOGGER.info("Found {} bytes of spooled events in {}", writePosition, spoolFile);
+        }
+    }
+
+    /**
+     * @param event the event to add to the end of the spool
+     * @throws IOException if IO exception occurred
+     */
+    synchronized void append(final FedoraEvent event) throws IOException {
+        final byte[] record = EventCodec.encode(event);
+        file.seek(writePosition);
+        file.writeInt(record.length);
+        file.writeInt(checksum(record));
+        file.write(record);
+        writePosition = file.getFilePointer();
+    }
+
+    /**
+     * @return the event at the head of the spool, now removed, or null if the spool is empty
+     * @throws IOException if IO exception occurred
+     */
+    synchronized FedoraEvent poll() throws IOException {
+        if (isEmpty()) {
+            return null;
+        }
+        final byte[] record = readRecord();
+        if (record == null) {
+            LOGGER.warn("Discarding {} bytes of damaged spooled events in {}", writePosition - readPosition,
+                    spoolFile);
+            file.setLength(0);
+            readPosition = writePosition = 0;
+            return null;
+        }
+        if (readPosition >= writePosition) {
+            // fully drained: reclaim the space
+            file.setLength(0);
+            readPosition = writePosition = 0;
+        }
+        return EventCodec.decode(record);
+    }
+
+    /*
+     * Read the record at the read position, or return null if it is incomplete or damaged.
+     */
+    private byte[] readRecord() throws IOException {
+        if (readPosition + HEADER > writePosition) {
+            return null;
+        }
+        file.seek(readPosition);
+        final int length = file.readInt();
+        final int checksum = file.readInt();
+        if (length < 0 || readPosition + HEADER + length > writePosition) {
+            return null;
+        }
+        final byte[] record = new byte[length];
+        file.readFully(record);
+        if (checksum(record) != checksum) {
+            return null;
+        }
+        readPosition = file.getFilePointer();
+        return record;
+    }
+
+    /**
+     * @return whether there are no events in the spool
+     */
+    synchronized boolean isEmpty() {
+        return readPosition >= writePosition;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        file.close();
+    }
+}
@@ -17,20 +17,33 @@
  */
 package org.fcrepo.jms;
 
+import static com.jayway.awaitility.Awaitility.await;
+import static java.nio.file.Files.createTempDirectory;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static javax.jms.Session.AUTO_ACKNOWLEDGE;
+import static javax.jms.Session.SESSION_TRANSACTED;
+import static org.fcrepo.jms.DefaultMessageFactory.JOURNAL_OFFSET_HEADER_NAME;
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
 
 import javax.jms.Connection;
 import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.MessageProducer;
+import javax.jms.ResourceAllocationException;
 
 import org.apache.activemq.ActiveMQConnectionFactory;
 
@@ -74,6 +87,12 @@ abstract class AbstractJMSPublisherTest {
     @Mock
     private Connection mockConn;
 
+    @Mock
+    private javax.jms.Session mockTransactedSession;
+
+    @Mock
+    private MessageProducer mockBatchProducer;
+
     @Before
     public void setUp() {
         testJMSPublisher = getPublisher();
@@ -101,6 +120,111 @@ abstract class AbstractJMSPublisherTest {
         verify(mockProducer).send(mockMsg);
     }
 
+    @Test
+    public void testPublishJCREventInBatches() throws IOException, JMSException {
+        final Message mockMsg = mock(Message.class);
+        final FedoraEvent mockEvent = mock(FedoraEvent.class);
+        mockBatchConnections();
+        when(mockEventFactory.getMessage(eq(mockEvent), eq(mockTransactedSession))).thenReturn(mockMsg);
+        testJMSPublisher.setBufferSize(10);
+        testJMSPublisher.setBatchSize(2);
+        testJMSPublisher.acquireConnections();
+        for (int i = 0; i < 3; i++) {
+            testJMSPublisher.publishJCREvent(mockEvent);
+        }
+        testJMSPublisher.releaseConnections();
+        verify(mockBatchProducer, times(3)).send(mockMsg);
+        verify(mockTransactedSession, atLeastOnce()).commit();
+        verify(mockProducer).close();
+    }
+
+    @Test
+    public void testPublishJCREventInBatchesRetried() throws IOException, JMSException {
+        final Message mockMsg = mock(Message.class);
+        final FedoraEvent mockEvent = mock(FedoraEvent.class);
+        mockBatchConnections();
+        when(mockEventFactory.getMessage(eq(mockEvent), eq(mockTransactedSession))).thenReturn(mockMsg);
+        // the broker is unavailable for the first attempt
+        doThrow(new JMSException("Broker unavailable")).doNothing().when(mockBatchProducer).send(mockMsg);
+        final CountDownLatch committed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            committed.countDown();
+            return null;
+        }).when(mockTransactedSession).commit();
+        testJMSPublisher.setBufferSize(10);
+        testJMSPublisher.setRetryInterval(10);
+        testJMSPublisher.acquireConnections();
+        testJMSPublisher.publishJCREvent(mockEvent);
+        await().atMost(5, SECONDS).until(() -> committed.getCount() == 0);
+        testJMSPublisher.releaseConnections();
+        verify(mockBatchProducer, times(2)).send(mockMsg);
+    }
+
+    @Test(expected = ResourceAllocationException.class)
+    public void testPublishJCREventToFullBuffer() throws IOException, JMSException {
+        final Message mockMsg = mock(Message.class);
+        final FedoraEvent mockEvent = mock(FedoraEvent.class);
+        mockBatchConnections();
+        when(mockEventFactory.getMessage(eq(mockEvent), eq(mockTransactedSession))).thenReturn(mockMsg);
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch brokerAvailable = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            sending.countDown();
+            brokerAvailable.await();
+            return null;
+        }).when(mockBatchProducer).send(mockMsg);
+        testJMSPublisher.setBufferSize(1);
+        testJMSPublisher.setBatchSize(1);
+        testJMSPublisher.setBackpressurePolicy(BackpressurePolicy.FAIL);
+        testJMSPublisher.acquireConnections();
+        try {
+            testJMSPublisher.publishJCREvent(mockEvent);
+            await().atMost(5, SECONDS).until(() -> sending.getCount() == 0);
+            testJMSPublisher.publishJCREvent(mockEvent);
+            testJMSPublisher.publishJCREvent(mockEvent);
+        } finally {
+            brokerAvailable.countDown();
+            testJMSPublisher.releaseConnections();
+        }
+    }
+
+    @Test
+    public void testPublishJCREventThroughJournal() throws IOException, JMSException {
+        final Message mockMsg = mock(Message.class);
+        final FedoraEvent mockEvent = mock(FedoraEvent.class);
+        when(mockEvent.getPath()).thenReturn("/some/path");
+        mockBatchConnections();
+        when(mockEventFactory.getMessage(any(FedoraEvent.class), eq(mockTransactedSession))).thenReturn(mockMsg);
+        // the broker is unavailable for the first attempt
+        doThrow(new JMSException("Broker unavailable")).doNothing().when(mockBatchProducer).send(mockMsg);
+        final CountDownLatch committed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            committed.countDown();
+            return null;
+        }).when(mockTransactedSession).commit();
+        final File journalDirectory = createTempDirectory("fcrepo-jms-journal").toFile();
+        testJMSPublisher.setJournalDirectory(journalDirectory);
+        testJMSPublisher.setRetryInterval(10);
+        testJMSPublisher.acquireConnections();
+        testJMSPublisher.publishJCREvent(mockEvent);
+        testJMSPublisher.publishJCREvent(mockEvent);
+        await().atMost(5, SECONDS).until(() -> committed.getCount() == 0);
+        testJMSPublisher.releaseConnections();
+        verify(mockMsg).setLongProperty(JOURNAL_OFFSET_HEADER_NAME, 1L);
+        try (final EventJournal journal = new EventJournal(
+                new File(journalDirectory, testJMSPublisher.getClass().getSimpleName()), 1024, 1, 0)) {
+            assertEquals("All events should have been checkpointed", 2, journal.readCheckpoint());
+        }
+    }
+
+    private void mockBatchConnections() throws JMSException {
+        when(mockConnections.createConnection()).thenReturn(mockConn);
+        when(mockConn.createSession(false, AUTO_ACKNOWLEDGE)).thenReturn(mockJmsSession);
+        when(mockConn.createSession(true, SESSION_TRANSACTED)).thenReturn(mockTransactedSession);
+        when(mockJmsSession.createProducer(any())).thenReturn(mockProducer);
+        when(mockTransactedSession.createProducer(any())).thenReturn(mockBatchProducer);
+    }
+
     @Test
     public void testReleaseConnections() throws JMSException  {
         setField(testJMSPublisher, "connection", mockConn);
@@ -0,0 +1,145 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.jms;
+
+import static java.time.Instant.ofEpochMilli;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singleton;
+import static org.fcrepo.kernel.api.observer.EventType.RESOURCE_MODIFICATION;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import org.fcrepo.kernel.api.observer.FedoraEvent;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+/**
+ * <p>EventJournalTest class.</p>
+ *
+ * @author agent
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class EventJournalTest {
+
+    private static final int SEGMENT_SIZE = 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private FedoraEvent mockEvent;
+
+    private File directory;
+
+    @Before
+    public void setUp() {
+        directory = new File(folder.getRoot(), "journal");
+        when(mockEvent.getTypes()).thenReturn(singleton(RESOURCE_MODIFICATION));
+        when(mockEvent.getResourceTypes()).thenReturn(singleton("http://www.w3.org/ns/ldp#Container"));
+        when(mockEvent.getUserID()).thenReturn("fedoraAdmin");
+        when(mockEvent.getDate()).thenReturn(ofEpochMilli(1465919304000L));
+        when(mockEvent.getInfo()).thenReturn(emptyMap());
+    }
+
+    private void append(final EventJournal journal, final int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            when(mockEvent.getPath()).thenReturn("/" + journal.nextOffset());
+            journal.append(mockEvent);
+        }
+    }
+
+    @Test
+    public void testReadFromOffset() throws IOException {
+        try (final EventJournal journal = new EventJournal(directory, SEGMENT_SIZE, 1, 0)) {
+            append(journal, 50);
+            assertTrue("Events should span several segments", directory.list().length > 2);
+
+            final List<EventJournal.Entry> entries = journal.read(17, 20);
+            assertEquals(20, entries.size());
+            for (int i = 0; i < 20; i++) {
+                assertEquals(17 + i, entries.get(i).offset);
+                assertEquals("/" + (17 + i), entries.get(i).event.getPath());
+            }
+            assertEquals(2, journal.read(48, 20).size());
+            assertTrue(journal.read(50, 20).isEmpty());
+        }
+    }
+
+    @Test
+    public void testReopen() throws IOException {
+        try (final EventJournal journal = new EventJournal(directory, SEGMENT_SIZE, 1, 0)) {
+            append(journal, 30);
+            journal.checkpoint(12);
+        }
+        try (final EventJournal journal = new EventJournal(directory, SEGMENT_SIZE, 1, 0)) {
+            assertEquals(30, journal.nextOffset());
+            assertEquals(12, journal.readCheckpoint());
+            assertEquals("/12", journal.read(12, 1).get(0).event.getPath());
+            append(journal, 1);
+            assertEquals("/30", journal.read(30, 1).get(0).event.getPath());
+        }
+    }
+
+    @Test
+    public void testTornRecordIsDiscarded() throws IOException {
+        try (final EventJournal journal = new EventJournal(directory, SEGMENT_SIZE, 1, 0)) {
+            append(journal, 2);
+        }
+        final File segment = new File(directory, "0.journal");
+        try (final RandomAccessFile raf = new RandomAccessFile(segment, "rw")) {
+            // corrupt the last byte of the second record
+            final int first = raf.readInt();
+            raf.seek(8 + first);
+            final int second = raf.readInt();
+            final long last = 8 + first + 8 + second - 1;
+            raf.seek(last);
+            final int b = raf.read();
+            raf.seek(last);
+            raf.write(b ^ 0xff);
+        }
+        try (final EventJournal journal = new EventJournal(directory, SEGMENT_SIZE, 1, 0)) {
+            assertEquals(1, journal.nextOffset());
+            append(journal, 1);
+            assertEquals("/1", journal.read(1, 1).get(0).event.getPath());
+        }
+    }
+
+    @Test
+    public void testCheckpointRetainsRecentSegments() throws IOException {
+        try (final EventJournal journal = new EventJournal(directory, SEGMENT_SIZE, 1, 0)) {
+            append(journal, 50);
+            journal.checkpoint(50);
+            // the segment being written and one delivered segment remain
+            assertEquals(3, directory.list().length);
+            assertTrue(journal.firstOffset() > 0);
+            assertEquals(journal.firstOffset(), journal.read(0, 1).get(0).offset);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.jms;
+
+import static java.time.Instant.ofEpochMilli;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonMap;
+import static org.fcrepo.kernel.api.observer.EventType.RESOURCE_CREATION;
+import static org.fcrepo.kernel.api.observer.OptionalValues.BASE_URL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.fcrepo.kernel.api.observer.FedoraEvent;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+/**
+ * <p>EventSpoolTest class.</p>
+ *
+ * @author agent
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class EventSpoolTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private FedoraEvent mockEvent;
+
+    private File spoolFile;
+
+    @Before
+    public void setUp() {
+        spoolFile = new File(folder.getRoot(), "test.spool");
+        when(mockEvent.getTypes()).thenReturn(singleton(RESOURCE_CREATION));
+        when(mockEvent.getResourceTypes())
+                .thenReturn(singleton("http://fedora.info/definitions/v4/repository#Resource"));
+        when(mockEvent.getPath()).thenReturn("/path/to/resource");
+        when(mockEvent.getUserID()).thenReturn("fedoraAdmin");
+        when(mockEvent.getDate()).thenReturn(ofEpochMilli(1465919304000L));
+        when(mockEvent.getEventID()).thenReturn("urn:uuid:some-event");
+        when(mockEvent.getInfo()).thenReturn(singletonMap(BASE_URL, "http://localhost:8080/rest"));
+    }
+
+    @Test
+    public void testSpoolPreservesEvents() throws IOException {
+        try (final EventSpool spool = new EventSpool(spoolFile)) {
+            assertTrue(spool.isEmpty());
+            spool.append(mockEvent);
+            final FedoraEvent event = spool.poll();
+            assertEquals(mockEvent.getTypes(), event.getTypes());
+            assertEquals(mockEvent.getResourceTypes(), event.getResourceTypes());
+            assertEquals(mockEvent.getPath(), event.getPath());
+            assertEquals(mockEvent.getUserID(), event.getUserID());
+            assertEquals(mockEvent.getDate(), event.getDate());
+            assertEquals(mockEvent.getEventID(), event.getEventID());
+            assertEquals(mockEvent.getInfo(), event.getInfo());
+            assertNull(spool.poll());
+            assertEquals("A drained spool should be truncated", 0, spoolFile.length());
+        }
+    }
+
+    @Test
+    public void testSpoolIsFirstInFirstOut() throws IOException {
+        try (final EventSpool spool = new EventSpool(spoolFile)) {
+            for (int i = 0; i < 3; i++) {
+                when(mockEvent.getPath()).thenReturn("/" + i);
+                spool.append(mockEvent);
+            }
+            assertEquals("/0", spool.poll().getPath());
+            when(mockEvent.getPath()).thenReturn("/3");
+            spool.append(mockEvent);
+            assertEquals("/1", spool.poll().getPath());
+            assertEquals("/2", spool.poll().getPath());
+            assertEquals("/3", spool.poll().getPath());
+            assertTrue(spool.isEmpty());
+        }
+    }
+
+    @Test
+    public void testDamagedRecordIsDiscarded() throws IOException {
+        try (final EventSpool spool = new EventSpool(spoolFile)) {
+            spool.append(mockEvent);
+            spool.append(mockEvent);
+        }
+        try (final RandomAccessFile raf = new RandomAccessFile(spoolFile, "rw")) {
+            // corrupt the last byte of the second record
+            final long last = raf.length() - 1;
+            raf.seek(last);
+            final int b = raf.read();
+            raf.seek(last);
+            raf.write(b ^ 0xff);
+        }
+        try (final EventSpool spool = new EventSpool(spoolFile)) {
+            assertEquals(mockEvent.getEventID(), spool.poll().getEventID());
+            assertNull(spool.poll());
+            assertTrue(spool.isEmpty());
+            assertEquals("A damaged spool should be truncated", 0, spoolFile.length());
+        }
+    }
+
+    @Test
+    public void testSpoolSurvivesRestart() throws IOException {
+        try (final EventSpool spool = new EventSpool(spoolFile)) {
+            spool.append(mockEvent);
+        }
+        try (final EventSpool spool = new EventSpool(spoolFile)) {
+            assertEquals(mockEvent.getEventID(), spool.poll().getEventID());
+        }
+    }
+}
@@ -77,6 +77,8 @@ public interface FedoraTypes {
 
     String FCR_VERSIONS = "fcr:versions";
 
+    String FCR_UPLOADS = "fcr:uploads";
+
     String LDP_HAS_MEMBER_RELATION = "ldp:hasMemberRelation";
 
     String LDP_IS_MEMBER_OF_RELATION = "ldp:isMemberOfRelation";
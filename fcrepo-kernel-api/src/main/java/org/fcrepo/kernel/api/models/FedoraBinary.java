@@ -23,6 +23,7 @@ import org.fcrepo.kernel.api.identifiers.IdentifierConverter;
 import org.fcrepo.kernel.api.RdfStream;
 import org.fcrepo.kernel.api.services.policy.StoragePolicyDecisionPoint;
 
+import java.io.File;
 import java.io.InputStream;
 import java.net.URI;
 import java.util.Collection;
@@ -38,6 +39,14 @@ public interface FedoraBinary extends FedoraResource {
      */
     InputStream getContent();
 
+    /**
+     * Get the local file in which the content is stored, if there is one, so that it may be read from any position
+     * without reading the content before it.
+     *
+     * @return the file holding the content of this datastream, or null if the content is not held in a local file
+     */
+    File getContentFile();
+
     /**
      * Sets the content of this Datastream.
      *
@@ -53,6 +62,20 @@ public interface FedoraBinary extends FedoraResource {
                     StoragePolicyDecisionPoint storagePolicyDecisionPoint)
             throws InvalidChecksumException;
 
+    /**
+     * Sets the content of this Datastream to content already staged in the binary store, so that the content need
+     * not be read while this Datastream is being changed.
+     *
+     * @param content content staged by {@link org.fcrepo.kernel.api.services.BinaryService#stage}
+     * @param contentType MIME type of content (optional)
+     * @param checksums Collection of checksum URIs of the content (optional)
+     * @param originalFileName Original file name of the content (optional)
+     * @throws org.fcrepo.kernel.api.exception.InvalidChecksumException if invalid checksum exception occurred
+     */
+    void setContent(StagedContent content, String contentType, Collection<URI> checksums,
+                    String originalFileName)
+            throws InvalidChecksumException;
+
     /**
      * @return The size in bytes of content associated with this datastream.
      */
@@ -91,4 +114,14 @@ public interface FedoraBinary extends FedoraResource {
      */
     RdfStream getFixity(IdentifierConverter<Resource, FedoraResource> idTranslator,
                         URI contentDigest, long size);
+
+    /**
+     * Get the fixity of this datastream for each of several algorithms, reading the binary only once.  Each
+     * result is compared to the stored digest for its algorithm.
+     * @param idTranslator the id translator
+     * @param algorithms the digest algorithms to use
+     * @return the fixity of this datastream compared to metadata stored in the repository
+     */
+    RdfStream getFixity(IdentifierConverter<Resource, FedoraResource> idTranslator,
+                        Collection<String> algorithms);
 }
@@ -62,6 +62,18 @@ public interface FedoraResource {
      */
     Stream<FedoraResource> getChildren(Boolean recursive);
 
+    /**
+     * Get the children of this resource that follow a given child, in the same order as {@link #getChildren()}.
+     * The given child is found by its path; should it have been removed since, the children resume from its
+     * remembered position instead. Every child before it is still visited, though not converted, so the cost of
+     * this grows with the position of the given child.
+     *
+     * @param after the path of the child after which to begin, or null to begin with the first child
+     * @param position the number of children up to and including the given child, when it was last seen
+     * @return a stream of Fedora resources
+     */
+    Stream<FedoraResource> getChildren(String after, long position);
+
     /**
      * Get the container of this resource
      * @return the container of this resource
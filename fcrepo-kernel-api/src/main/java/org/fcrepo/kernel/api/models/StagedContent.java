@@ -0,0 +1,41 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.api.models;
+
+import java.net.URI;
+import java.util.Collection;
+
+/**
+ * Content already written to the binary store, with the digests computed while it was written, that is yet to be
+ * attached to a binary. Content staged is not part of the repository until it is attached, and is discarded by the
+ * binary store in time if it never is.
+ *
+ * @author agent
+ */
+public interface StagedContent {
+
+    /**
+     * @return the size of the content, in bytes
+     */
+    long getSize();
+
+    /**
+     * @return checksum URIs of the content, computed while it was written
+     */
+    Collection<URI> getDigests();
+}
@@ -30,7 +30,8 @@ public enum EventType {
     RESOURCE_CREATION("resource creation", "ResourceCreation"),
     RESOURCE_DELETION("resource deletion", "ResourceDeletion"),
     RESOURCE_MODIFICATION("resource modification", "ResourceModification"),
-    RESOURCE_RELOCATION("resource relocation", "ResourceRelocation");
+    RESOURCE_RELOCATION("resource relocation", "ResourceRelocation"),
+    RESOURCE_FIXITY_FAILURE("resource fixity failure", "ResourceFixityFailure");
 
     private final String eventName;
     private final String eventType;
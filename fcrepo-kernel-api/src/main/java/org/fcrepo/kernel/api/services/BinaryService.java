@@ -17,7 +17,11 @@
  */
 package org.fcrepo.kernel.api.services;
 
+import java.io.InputStream;
+
+import org.fcrepo.kernel.api.FedoraSession;
 import org.fcrepo.kernel.api.models.FedoraBinary;
+import org.fcrepo.kernel.api.models.StagedContent;
 
 /**
  * @author cabeer
@@ -25,4 +29,15 @@ import org.fcrepo.kernel.api.models.FedoraBinary;
  */
 public interface BinaryService extends Service<FedoraBinary> {
 
+    /**
+     * Write content to the binary store, computing its digests as it is written, before the binary it is meant for
+     * is changed. Staging neither changes the session nor needs a lock on any path, so that a large upload may be
+     * received without holding either, and then set with
+     * {@link FedoraBinary#setContent(StagedContent, String, java.util.Collection, String)}.
+     *
+     * @param session the session in which the content will be set
+     * @param content the content, which is read to its end and closed
+     * @return the staged content
+     */
+    StagedContent stage(FedoraSession session, InputStream content);
 }
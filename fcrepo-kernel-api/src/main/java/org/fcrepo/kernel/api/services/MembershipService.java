@@ -0,0 +1,50 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.api.services;
+
+import java.util.Collection;
+
+import org.fcrepo.kernel.api.FedoraSession;
+
+/**
+ * Service for maintaining the index from which the membership of LDP Direct and Indirect containers is read
+ *
+ * @author agent
+ */
+public interface MembershipService {
+
+    /**
+     * Rebuild the membership index of each direct and indirect container at or beneath a path, and remove any
+     * index left on a container that is no longer direct or indirect.  The changes are not saved.
+     *
+     * @param session the session
+     * @param path the path
+     * @return the number of containers whose index was rebuilt
+     */
+    long rebuildMembershipIndex(FedoraSession session, String path);
+
+    /**
+     * Check the membership index of each container at or beneath a path against the children of the container.
+     *
+     * @param session the session
+     * @param path the path
+     * @return the paths of the containers whose index is missing, stale or does not match their children
+     */
+    Collection<String> checkMembershipIndex(FedoraSession session, String path);
+
+}
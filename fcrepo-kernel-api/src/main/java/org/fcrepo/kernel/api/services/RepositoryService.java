@@ -19,8 +19,11 @@ package org.fcrepo.kernel.api.services;
 
 import java.io.File;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 import org.fcrepo.kernel.api.FedoraSession;
+import org.fcrepo.kernel.api.utils.BinaryStatistics;
 
 /**
  * @author bbpennel
@@ -42,6 +45,43 @@ public interface RepositoryService {
      */
     Long getRepositoryObjectCount();
 
+    /**
+     * Calculate the total size of the binaries of each MIME type in the repository
+     *
+     * @return size in bytes, by MIME type
+     */
+    Map<String, Long> getRepositorySizeByMimeType();
+
+    /**
+     * Summarize the binaries in the repository, distinguishing the bytes they hold from the bytes stored once for
+     * each distinct content. The summary is kept up to date as binaries are added and removed, so no scan of the
+     * repository is needed.
+     *
+     * @return the current statistics
+     */
+    BinaryStatistics getBinaryStatistics();
+
+    /**
+     * @return earlier summaries of the binaries in the repository, oldest first, showing how it has grown
+     */
+    List<BinaryStatistics> getBinaryStatisticsHistory();
+
+    /**
+     * Count the binaries that share a single content
+     *
+     * @param hash the SHA-1 of the content, in hexadecimal
+     * @return the number of binaries with that content
+     */
+    long getBinaryReferenceCount(String hash);
+
+    /**
+     * Find the contents shared by the most binaries
+     *
+     * @param limit the largest number of contents to return
+     * @return the SHA-1 of each content, in hexadecimal, with the number of binaries that share it, most first
+     */
+    Map<String, Long> getMostReferencedBinaries(int limit);
+
     /**
      * This method backups up a running repository
      *
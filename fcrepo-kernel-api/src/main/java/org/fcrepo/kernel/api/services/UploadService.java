@@ -0,0 +1,102 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.api.services;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Collection;
+import java.util.SortedMap;
+
+import org.fcrepo.kernel.api.exception.InvalidChecksumException;
+
+/**
+ * Service for staging the content of a binary in numbered chunks, so that a large upload may be sent over many
+ * requests and resumed where it failed, rather than started again. Each upload belongs to the user who created it,
+ * and is removed once it has been idle for too long.
+ *
+ * @author agent
+ */
+public interface UploadService {
+
+    /**
+     * The number of the first chunk of every upload; the chunks that follow are numbered without gaps
+     */
+    int FIRST_CHUNK = 0;
+
+    /**
+     * Check for uploads that have been idle too long and remove them
+     */
+    void removeExpired();
+
+    /**
+     * Begin a new upload
+     *
+     * @param username the name of the {@link java.security.Principal}
+     * @return the id of the upload
+     */
+    String create(String username);
+
+    /**
+     * Check whether an upload exists for a given user
+     *
+     * @param uploadId the id of the upload
+     * @param username the name of the {@link java.security.Principal}
+     * @return whether the upload exists
+     */
+    boolean exists(String uploadId, String username);
+
+    /**
+     * Stage a chunk of an upload, replacing any chunk of the same number already staged
+     *
+     * @param uploadId the id of the upload
+     * @param username the name of the {@link java.security.Principal}
+     * @param index the number of the chunk
+     * @param content the content of the chunk
+     * @param checksums checksums of the chunk, which must all match its content
+     * @return the size of the chunk
+     * @throws InvalidChecksumException if a checksum does not match, in which case the chunk is not staged
+     */
+    long putChunk(String uploadId, String username, int index, InputStream content, Collection<URI> checksums)
+            throws InvalidChecksumException;
+
+    /**
+     * List the chunks staged for an upload
+     *
+     * @param uploadId the id of the upload
+     * @param username the name of the {@link java.security.Principal}
+     * @return the size of each chunk, by chunk number in ascending order
+     */
+    SortedMap<Integer, Long> getChunks(String uploadId, String username);
+
+    /**
+     * Read the content of an upload: its chunks, one after the other in ascending order of their numbers
+     *
+     * @param uploadId the id of the upload
+     * @param username the name of the {@link java.security.Principal}
+     * @return the content
+     */
+    InputStream getContent(String uploadId, String username);
+
+    /**
+     * Abandon an upload and remove its chunks
+     *
+     * @param uploadId the id of the upload
+     * @param username the name of the {@link java.security.Principal}
+     */
+    void delete(String uploadId, String username);
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.api.utils;
+
+import java.time.Instant;
+
+/**
+ * A summary of the binaries held in the repository at a moment in time, distinguishing the bytes held by every
+ * binary (logical bytes) from the bytes actually stored, once for each distinct content (unique bytes).
+ *
+ * @author agent
+ */
+public class BinaryStatistics {
+
+    private final Instant date;
+
+    private final long binaryCount;
+
+    private final long uniqueBinaryCount;
+
+    private final long logicalSize;
+
+    private final long uniqueSize;
+
+    /**
+     * @param date the moment summarized
+     * @param binaryCount the number of binaries
+     * @param uniqueBinaryCount the number of distinct contents among the binaries
+     * @param logicalSize the sum of the sizes of the binaries
+     * @param uniqueSize the sum of the sizes of the distinct contents
+     */
+    public BinaryStatistics(final Instant date, final long binaryCount, final long uniqueBinaryCount,
+            final long logicalSize, final long uniqueSize) {
+        this.date = date;
+        this.binaryCount = binaryCount;
+        this.uniqueBinaryCount = uniqueBinaryCount;
+        this.logicalSize = logicalSize;
+        this.uniqueSize = uniqueSize;
+    }
+
+    /**
+     * @return the moment summarized
+     */
+    public Instant getDate() {
+        return date;
+    }
+
+    /**
+     * @return the number of binaries
+     */
+    public long getBinaryCount() {
+        return binaryCount;
+    }
+
+    /**
+     * @return the number of distinct contents among the binaries
+     */
+    public long getUniqueBinaryCount() {
+        return uniqueBinaryCount;
+    }
+
+    /**
+     * @return the sum of the sizes of the binaries, in bytes
+     */
+    public long getLogicalSize() {
+        return logicalSize;
+    }
+
+    /**
+     * @return the sum of the sizes of the distinct contents, in bytes
+     */
+    public long getUniqueSize() {
+        return uniqueSize;
+    }
+
+    /**
+     * @return the bytes saved by storing each distinct content once
+     */
+    public long getSharedSize() {
+        return logicalSize - uniqueSize;
+    }
+}
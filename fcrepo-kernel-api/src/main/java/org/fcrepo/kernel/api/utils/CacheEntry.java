@@ -34,6 +34,13 @@ public interface CacheEntry {
      */
     Collection<FixityResult> checkFixity(final String algorithm);
 
+    /**
+     * Check the fixity of a {@link CacheEntry} with several algorithms, reading it only once
+     * @param algorithms the given algorithms
+     * @return a {@link FixityResult} for each algorithm
+     */
+    Collection<FixityResult> checkFixity(final Collection<String> algorithms);
+
     /**
      * Get a raw input stream from the underlying store
      * @return the content for this entry
@@ -39,7 +39,8 @@ public final class ContentDigest {
     private static final Logger LOGGER = getLogger(ContentDigest.class);
 
     public enum DIGEST_ALGORITHM {
-        SHA1("SHA-1", "urn:sha1"), SHA256("SHA-256", "urn:sha256"), MD5("MD5", "urn:md5"), MISSING("NONE", "missing");
+        SHA1("SHA-1", "urn:sha1"), SHA256("SHA-256", "urn:sha256"), SHA512("SHA-512", "urn:sha512"),
+        MD5("MD5", "urn:md5"), MISSING("NONE", "missing");
 
         final public String algorithm;
         final private String scheme;
@@ -56,9 +57,19 @@ public final class ContentDigest {
          * @return scheme
          */
         public static String getScheme(final String alg) {
+            return fromAlgorithm(alg).scheme;
+        }
+
+        /**
+         * Return enum value for the provided algorithm (e.g. SHA-256 or sha256 returns SHA256)
+         *
+         * @param alg for which enum is requested
+         * @return enum value associated with the arg algorithm
+         */
+        public static DIGEST_ALGORITHM fromAlgorithm(final String alg) {
             return Arrays.stream(values()).filter(value ->
                     value.algorithm.equalsIgnoreCase(alg) || value.algorithm.replace("-", "").equalsIgnoreCase(alg)
-            ).findFirst().orElse(MISSING).scheme;
+            ).findFirst().orElse(MISSING);
         }
 
         /**
@@ -28,6 +28,7 @@ import org.fcrepo.kernel.api.identifiers.IdentifierConverter;
 import org.fcrepo.kernel.api.models.NonRdfSourceDescription;
 import org.fcrepo.kernel.api.models.FedoraBinary;
 import org.fcrepo.kernel.api.models.FedoraResource;
+import org.fcrepo.kernel.api.models.StagedContent;
 import org.fcrepo.kernel.api.services.policy.StoragePolicyDecisionPoint;
 import org.fcrepo.kernel.api.RdfStream;
 import org.fcrepo.kernel.api.utils.CacheEntry;
@@ -35,17 +36,24 @@ import org.fcrepo.kernel.api.utils.ContentDigest;
 import org.fcrepo.kernel.api.utils.FixityResult;
 import org.fcrepo.kernel.modeshape.rdf.impl.FixityRdfContext;
 import org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils;
+import org.fcrepo.kernel.modeshape.utils.MultiDigestInputStream;
 import org.fcrepo.kernel.modeshape.utils.impl.CacheEntryFactory;
 import org.fcrepo.metrics.RegistryService;
+import org.modeshape.jcr.JcrRepository;
+import org.modeshape.jcr.RepositoryConfiguration.BinaryStorage;
 import org.modeshape.jcr.api.Binary;
 import org.modeshape.jcr.api.ValueFactory;
+import org.modeshape.jcr.value.binary.BinaryStore;
+import org.modeshape.jcr.value.binary.FileSystemBinaryStore;
 import org.slf4j.Logger;
 
 import javax.jcr.Node;
 import javax.jcr.PathNotFoundException;
 import javax.jcr.Property;
 import javax.jcr.RepositoryException;
+import javax.jcr.Session;
 import javax.jcr.Value;
+import java.io.File;
 import java.io.InputStream;
 import java.net.URI;
 import java.util.Collection;
@@ -56,11 +64,17 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static com.codahale.metrics.MetricRegistry.name;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyMap;
 import static org.apache.jena.datatypes.xsd.XSDDatatype.XSDstring;
+import static org.fcrepo.kernel.api.utils.ContentDigest.DIGEST_ALGORITHM.MD5;
 import static org.fcrepo.kernel.api.utils.ContentDigest.DIGEST_ALGORITHM.SHA1;
+import static org.fcrepo.kernel.api.utils.ContentDigest.DIGEST_ALGORITHM.SHA256;
+import static org.fcrepo.kernel.api.utils.ContentDigest.DIGEST_ALGORITHM.SHA512;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FIELD_DELIMITER;
 import static org.fcrepo.kernel.modeshape.services.functions.JcrPropertyFunctions.property2values;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.isFedoraBinary;
+import static org.fcrepo.kernel.modeshape.utils.UncheckedFunction.uncheck;
 import static org.modeshape.jcr.api.JcrConstants.JCR_CONTENT;
 import static org.modeshape.jcr.api.JcrConstants.JCR_DATA;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -74,6 +88,13 @@ public class FedoraBinaryImpl extends FedoraResourceImpl implements FedoraBinary
     private static final Logger LOGGER = getLogger(FedoraBinaryImpl.class);
 
 
+    /**
+     * The digests computed while a binary is written, so that neither verifying user-supplied checksums nor
+     * reporting them later requires the binary to be read again.
+     */
+    private static final Collection<String> INGEST_ALGORITHMS =
+            asList(MD5.algorithm, SHA1.algorithm, SHA256.algorithm, SHA512.algorithm);
+
     static final RegistryService registryService = RegistryService.getInstance();
     static final Counter fixityCheckCounter
             = registryService.getMetrics().counter(name(FedoraBinary.class, "fixity-check-counter"));
@@ -126,6 +147,41 @@ public class FedoraBinaryImpl extends FedoraResourceImpl implements FedoraBinary
         }
     }
 
+    /*
+     * (non-Javadoc)
+     * @see org.fcrepo.kernel.api.models.FedoraBinary#getContentFile()
+     */
+    @Override
+    public File getContentFile() {
+        try {
+            final javax.jcr.Binary binary = getBinaryContent();
+            if (!(binary instanceof Binary) || !(getNode().getSession().getRepository() instanceof JcrRepository)) {
+                return null;
+            }
+            final BinaryStorage storage =
+                    ((JcrRepository) getNode().getSession().getRepository()).getConfiguration().getBinaryStorage();
+            // only file stores are shared singletons; other kinds of store are constructed anew on each request
+            if (!"file".equalsIgnoreCase(storage.getType()) && !"transient".equalsIgnoreCase(storage.getType())) {
+                return null;
+            }
+            final BinaryStore store = storage.getBinaryStore();
+            if (!(store instanceof FileSystemBinaryStore)) {
+                return null;
+            }
+            // a file store keeps each binary under nested directories named for the first bytes of its SHA-1,
+            // but binaries smaller than the store's minimum size are held inline and have no file
+            final String hash = ((Binary) binary).getHexHash();
+            final File file = new File(((FileSystemBinaryStore) store).getDirectory(), hash.substring(0, 2) + "/" +
+                    hash.substring(2, 4) + "/" + hash.substring(4, 6) + "/" + hash);
+            return file.isFile() && file.length() == binary.getSize() ? file : null;
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        } catch (final Exception e) {
+            LOGGER.debug("Unable to locate the file for {}: {}", getPath(), e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Retrieve the JCR Binary object
      * @return a JCR-wrapped Binary object
@@ -153,30 +209,54 @@ public class FedoraBinaryImpl extends FedoraResourceImpl implements FedoraBinary
             throws InvalidChecksumException {
 
         try {
-            final Node contentNode = getNode();
+            final Node contentNode = prepareContentNode(contentType, originalFileName);
 
-            if (contentNode.canAddMixin(FEDORA_BINARY)) {
-                contentNode.addMixin(FEDORA_BINARY);
-            }
+            String hint = null;
 
-            if (contentType != null) {
-                contentNode.setProperty(HAS_MIME_TYPE, contentType);
+            if (storagePolicyDecisionPoint != null) {
+                hint = storagePolicyDecisionPoint.evaluatePolicies(this);
             }
+            attachContent(contentNode, (StagedBinary) stage(node.getSession(), content, hint), checksums);
 
-            if (originalFileName != null) {
-                contentNode.setProperty(FILENAME, originalFileName);
-            }
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
 
-            LOGGER.debug("Created content node at path: {}", contentNode.getPath());
+    /*
+     * (non-Javadoc)
+     * @see org.fcrepo.kernel.api.models.FedoraBinary#setContent(org.fcrepo.kernel.api.models.StagedContent,
+     * java.lang.String, java.util.Collection, java.lang.String)
+     */
+    @Override
+    public void setContent(final StagedContent content, final String contentType,
+                           final Collection<URI> checksums, final String originalFileName)
+            throws InvalidChecksumException {
 
-            String hint = null;
+        if (!(content instanceof StagedBinary)) {
+            throw new IllegalArgumentException("Content was not staged in this repository: " + content);
+        }
+        try {
+            attachContent(prepareContentNode(contentType, originalFileName), (StagedBinary) content, checksums);
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
 
-            if (storagePolicyDecisionPoint != null) {
-                hint = storagePolicyDecisionPoint.evaluatePolicies(this);
-            }
-            final ValueFactory modevf =
-                    (ValueFactory) node.getSession().getValueFactory();
-            final Binary binary = modevf.createBinary(content, hint);
+    /**
+     * Write content to the binary store, computing its digests as it is written, without yet attaching it to
+     * any node.
+     *
+     * @param session the session whose binary store will hold the content
+     * @param content the content, which is read to its end and closed
+     * @param hint the storage hint for the content, or null
+     * @return the staged content
+     * @throws RepositoryException if the content cannot be stored
+     */
+    public static StagedContent stage(final Session session, final InputStream content, final String hint)
+            throws RepositoryException {
+        final ValueFactory modevf = (ValueFactory) session.getValueFactory();
+        final MultiDigestInputStream digestStream = new MultiDigestInputStream(content, INGEST_ALGORITHMS);
 
         /*
          * This next line of code deserves explanation. If we chose for the
@@ -191,20 +271,75 @@ public class FedoraBinaryImpl extends FedoraResourceImpl implements FedoraBinary
          * may still be useful to us for an asynchronous method that we develop
          * later.
          */
-            final Property dataProperty = contentNode.setProperty(JCR_DATA, binary);
+        final Binary binary = modevf.createBinary(digestStream, hint);
+
+        // The digests computed while the binary was written, if it was read in full
+        return new StagedBinary(binary, digestStream.isExhausted() ? digestStream.getDigests() : emptyMap());
+    }
+
+    private Node prepareContentNode(final String contentType, final String originalFileName)
+            throws RepositoryException {
+        final Node contentNode = getNode();
 
-            // Ensure provided checksums are valid
-            final Collection<URI> nonNullChecksums = (null == checksums) ? new HashSet<>() : checksums;
-            verifyChecksums(nonNullChecksums, dataProperty);
+        if (contentNode.canAddMixin(FEDORA_BINARY)) {
+            contentNode.addMixin(FEDORA_BINARY);
+        }
 
-            decorateContentNode(contentNode, nonNullChecksums);
-            FedoraTypesUtils.touch(getNode());
-            FedoraTypesUtils.touch(((FedoraResourceImpl) getDescription()).getNode());
+        if (contentType != null) {
+            contentNode.setProperty(HAS_MIME_TYPE, contentType);
+        }
 
-            LOGGER.debug("Created data property at path: {}", dataProperty.getPath());
+        if (originalFileName != null) {
+            contentNode.setProperty(FILENAME, originalFileName);
+        }
 
-        } catch (final RepositoryException e) {
-            throw new RepositoryRuntimeException(e);
+        LOGGER.debug("Created content node at path: {}", contentNode.getPath());
+        return contentNode;
+    }
+
+    private void attachContent(final Node contentNode, final StagedBinary staged, final Collection<URI> checksums)
+            throws InvalidChecksumException, RepositoryException {
+        final Property dataProperty = contentNode.setProperty(JCR_DATA, staged.binary);
+
+        // Ensure provided checksums are valid
+        final Collection<URI> nonNullChecksums = (null == checksums) ? new HashSet<>() : checksums;
+        verifyChecksums(nonNullChecksums, staged.computed, dataProperty);
+
+        final Collection<URI> digests = new HashSet<>(nonNullChecksums);
+        digests.addAll(staged.computed.values());
+        decorateContentNode(contentNode, digests);
+        FedoraTypesUtils.touch(getNode());
+        FedoraTypesUtils.touch(((FedoraResourceImpl) getDescription()).getNode());
+
+        LOGGER.debug("Created data property at path: {}", dataProperty.getPath());
+    }
+
+    /**
+     * Content written to the binary store, but not yet attached to a node
+     */
+    private static class StagedBinary implements StagedContent {
+
+        private final Binary binary;
+
+        private final Map<String, URI> computed;
+
+        private StagedBinary(final Binary binary, final Map<String, URI> computed) {
+            this.binary = binary;
+            this.computed = computed;
+        }
+
+        @Override
+        public long getSize() {
+            try {
+                return binary.getSize();
+            } catch (final RepositoryException e) {
+                throw new RepositoryRuntimeException(e);
+            }
+        }
+
+        @Override
+        public Collection<URI> getDigests() {
+            return computed.values();
         }
     }
 
@@ -213,12 +348,13 @@ public class FedoraBinaryImpl extends FedoraResourceImpl implements FedoraBinary
      * If one or more of the checksums are invalid, an InvalidChecksumException is thrown.
      *
      * @param checksums that the user provided
+     * @param computed the digests computed as the binary was written, keyed by algorithm
      * @param dataProperty containing the binary against which the checksums will be verified
      * @throws InvalidChecksumException
      * @throws RepositoryException
      */
-    private void verifyChecksums(final Collection<URI> checksums, final Property dataProperty)
-            throws InvalidChecksumException, RepositoryException {
+    private void verifyChecksums(final Collection<URI> checksums, final Map<String, URI> computed,
+            final Property dataProperty) throws InvalidChecksumException, RepositoryException {
 
         final Map<URI, URI> checksumErrors = new HashMap<>();
 
@@ -226,8 +362,15 @@ public class FedoraBinaryImpl extends FedoraResourceImpl implements FedoraBinary
         checksums.forEach(checksum -> {
             final String algorithm = ContentDigest.getAlgorithm(checksum);
             try {
+                // The case already computed during ingest
+                if (computed.containsKey(algorithm)) {
+                    if (!computed.get(algorithm).equals(checksum)) {
+                        LOGGER.debug("Failed checksum test");
+                        checksumErrors.put(checksum, computed.get(algorithm));
+                    }
+
                 // The case internally supported by ModeShape
-                if (algorithm.equals(SHA1.algorithm)) {
+                } else if (algorithm.equals(SHA1.algorithm)) {
                     final String dsSHA1 = ((Binary) dataProperty.getBinary()).getHexHash();
                     final URI dsSHA1Uri = ContentDigest.asURI(SHA1.algorithm, dsSHA1);
 
@@ -380,6 +523,32 @@ public class FedoraBinaryImpl extends FedoraResourceImpl implements FedoraBinary
         }
     }
 
+    @Override
+    public RdfStream getFixity(final IdentifierConverter<Resource, FedoraResource> idTranslator,
+                               final Collection<String> algorithms) {
+
+        fixityCheckCounter.inc();
+
+        try (final Timer.Context context = timer.time()) {
+
+            LOGGER.debug("Checking resource: {} with {}", getPath(), algorithms);
+
+            final long contentSize = getContentSize() < 0 ? getBinaryContent().getSize() : getContentSize();
+
+            final Collection<URI> digests = hasProperty(CONTENT_DIGEST) ?
+                    property2values.apply(getProperty(CONTENT_DIGEST))
+                            .map(uncheck((final Value v) -> URI.create(v.getString()))).collect(Collectors.toList()) :
+                    new HashSet<>();
+
+            final Collection<FixityResult> fixityResults
+                    = CacheEntryFactory.forProperty(getProperty(JCR_DATA)).checkFixity(algorithms);
+
+            return new FixityRdfContext(this, idTranslator, fixityResults, digests, contentSize);
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
     /**
      * When deleting the binary, we also need to clean up the description document.
      */
@@ -48,6 +48,20 @@ public final class FedoraJcrConstants {
 
     public static final String FIELD_DELIMITER = "\30^^\30";
 
+    public static final String MEMBERSHIP_INDEX = "fedora:membershipIndex";
+
+    public static final String MEMBERSHIP_ENTRY_PREFIX = "fedora:member_";
+
+    public static final String MEMBERSHIP_ENTRIES = "fedora:membershipEntries";
+
+    public static final String FEDORA_MEMBERSHIP_INDEX = "fedora:MembershipIndex";
+
+    public static final String FIXITY_AUDIT_DATE = "fedora:fixityAuditDate";
+
+    public static final String FIXITY_AUDIT_OUTCOME = "fedora:fixityAuditOutcome";
+
+    public static final String FIXITY_AUDIT_CURSOR = "fedora:fixityAuditCursor";
+
     private FedoraJcrConstants() {
         // Prevent instantiation
     }
@@ -47,6 +47,7 @@ import static org.fcrepo.kernel.api.RequiredRdfContext.VERSIONS;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FROZEN_MIXIN_TYPES;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.JCR_CREATED;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.JCR_LASTMODIFIED;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMBERSHIP_ENTRIES;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.ROOT;
 import static org.fcrepo.kernel.modeshape.RdfJcrLexicon.jcrProperties;
 import static org.fcrepo.kernel.modeshape.identifiers.NodeResourceConverter.nodeConverter;
@@ -61,6 +62,9 @@ import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.isInternalNode;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.ldpInsertedContentProperty;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.resourceToProperty;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.touchLdpMembershipResource;
+import static org.fcrepo.kernel.modeshape.utils.LdpMembershipIndex.indexMember;
+import static org.fcrepo.kernel.modeshape.utils.LdpMembershipIndex.refreshIndex;
+import static org.fcrepo.kernel.modeshape.utils.LdpMembershipIndex.unindexMember;
 import static org.fcrepo.kernel.modeshape.utils.NamespaceTools.getNamespaceRegistry;
 import static org.fcrepo.kernel.modeshape.utils.StreamUtils.iteratorToStream;
 import static org.fcrepo.kernel.modeshape.utils.UncheckedFunction.uncheck;
@@ -340,11 +344,47 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
      * @return
      * @throws RepositoryException
      */
-    @SuppressWarnings("unchecked")
     private Stream<FedoraResource> nodeToGoodChildren(final Node input) throws RepositoryException {
-        return iteratorToStream(input.getNodes()).filter(nastyChildren.negate())
-            .flatMap(uncheck((final Node child) -> child.isNodeType(FEDORA_PAIRTREE) ? nodeToGoodChildren(child) :
-                        of(nodeToObjectBinaryConverter.convert(child))));
+        return nodeToGoodChildNodes(input).map(nodeToObjectBinaryConverter::convert);
+    }
+
+    /**
+     * The nodes of the children of a node, passing through pairtree nodes, before any conversion to resources.
+     *
+     * @param input the node
+     * @return the nodes of its children
+     * @throws RepositoryException if repository exception occurred
+     */
+    public static Stream<Node> nodeToGoodChildNodes(final Node input) throws RepositoryException {
+        @SuppressWarnings("unchecked")
+        final Iterator<Node> nodes = input.getNodes();
+        return iteratorToStream(nodes).filter(nastyChildren.negate())
+            .flatMap(uncheck((final Node child) -> child.isNodeType(FEDORA_PAIRTREE) ? nodeToGoodChildNodes(child) :
+                        of(child)));
+    }
+
+    /* (non-Javadoc)
+     * @see org.fcrepo.kernel.api.models.FedoraResource#getChildren(String after, long position)
+     */
+    @Override
+    public Stream<FedoraResource> getChildren(final String after, final long position) {
+        if (after == null) {
+            return getChildren();
+        }
+        try {
+            // JCR offers no way to begin listing children after a given one, so scan once for the given child
+            final Iterator<Node> children = nodeToGoodChildNodes(node).iterator();
+            while (children.hasNext()) {
+                if (children.next().getPath().equals(after)) {
+                    return iteratorToStream(children).map(nodeToObjectBinaryConverter::convert);
+                }
+            }
+
+            // if the given child is gone, resume from its remembered position
+            return nodeToGoodChildNodes(node).skip(position).map(nodeToObjectBinaryConverter::convert);
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
     }
 
     /**
@@ -360,7 +400,8 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
     private static Predicate<Node> nastyChildren = isInternalNode
                     .or(TombstoneImpl::hasMixin)
                     .or(UncheckedPredicate.uncheck(p -> p.getName().equals(JCR_CONTENT)))
-                    .or(UncheckedPredicate.uncheck(p -> p.getName().equals("#")));
+                    .or(UncheckedPredicate.uncheck(p -> p.getName().equals("#")))
+                    .or(UncheckedPredicate.uncheck(p -> p.getName().equals(MEMBERSHIP_ENTRIES)));
 
     private static final Converter<FedoraResource, FedoraResource> datastreamToBinary
             = new Converter<FedoraResource, FedoraResource>() {
@@ -417,9 +458,12 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
                 .flatMap(resourceToProperty(getSession())).filter(this::hasProperty).isPresent();
 
             final Optional<Node> containingNode = getContainingNode(getNode());
+            final String path = getNode().getPath();
 
             node.remove();
 
+            containingNode.ifPresent(ancestor -> unindexMember(ancestor, path));
+
             if (parent != null) {
                 createTombstone(parent, name);
 
@@ -832,6 +876,11 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
         if (includeMembershipResource) {
             touchLdpMembershipResource(getNode(), modifiedDate, modifyingUser);
         }
+
+        // Note any change to the configuration of this resource's membership index, and keep its entry in that of
+        // its container up to date; neither visits the children of a container
+        refreshIndex(getNode());
+        indexMember(getNode());
     }
 
     private void removeEmptyFragments() {
@@ -0,0 +1,135 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.audit;
+
+import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_NON_RDF_SOURCE_DESCRIPTION;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMBERSHIP_ENTRIES;
+import static org.modeshape.jcr.api.JcrConstants.JCR_CONTENT;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import javax.jcr.InvalidItemStateException;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
+import org.slf4j.Logger;
+
+/**
+ * A lazy, depth-first walk over the binaries in a repository, yielding the path of each binary content node.
+ * Only the iterators along the current branch are held, so the walk needs little memory however large the
+ * repository.
+ *
+ * A walk may be resumed after the binary at a given path, as recorded by an earlier walk.  Since the order of
+ * children is stable, every binary that the earlier walk had not reached is visited.  Should some node on the
+ * way to the recorded binary have since been removed, the walk resumes at the start of that node's siblings,
+ * and some binaries are visited again.
+ *
+ * @author agent
+ */
+class BinaryWalk implements Iterator<String> {
+
+    private static final Logger LOGGER = getLogger(BinaryWalk.class);
+
+    private final Deque<NodeIterator> branch = new ArrayDeque<>();
+
+    private String next;
+
+    /**
+     * Begin a walk
+     *
+     * @param session the session in which to walk the repository
+     * @param cursor the path of the binary after which to resume, or null to walk from the start
+     * @throws RepositoryException if repository exception occurred
+     */
+    BinaryWalk(final Session session, final String cursor) throws RepositoryException {
+        Node node = session.getRootNode();
+        branch.push(node.getNodes());
+        if (cursor != null) {
+            LOGGER.debug("Resuming walk after {}", cursor);
+            for (final String name : cursor.substring(1).split("/")) {
+                if (name.equals(JCR_CONTENT) || !node.hasNode(name)) {
+                    break;
+                }
+                final String path = node.getNode(name).getPath();
+                // everything before the node on the way to the cursor has already been walked
+                while (branch.peek().hasNext()) {
+                    node = branch.peek().nextNode();
+                    if (node.getPath().equals(path)) {
+                        break;
+                    }
+                }
+                if (!node.isNodeType(FEDORA_NON_RDF_SOURCE_DESCRIPTION)) {
+                    branch.push(node.getNodes());
+                }
+            }
+        }
+        next = advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public String next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        final String current = next;
+        try {
+            next = advance();
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+        return current;
+    }
+
+    private String advance() throws RepositoryException {
+        while (!branch.isEmpty()) {
+            final NodeIterator children = branch.peek();
+            if (!children.hasNext()) {
+                branch.pop();
+                continue;
+            }
+            try {
+                final Node child = children.nextNode();
+                if (child.getName().startsWith("jcr:") || child.getName().equals(MEMBERSHIP_ENTRIES)) {
+                    continue;
+                }
+                if (child.isNodeType(FEDORA_NON_RDF_SOURCE_DESCRIPTION)) {
+                    if (child.hasNode(JCR_CONTENT)) {
+                        return child.getNode(JCR_CONTENT).getPath();
+                    }
+                } else {
+                    branch.push(child.getNodes());
+                }
+            } catch (final InvalidItemStateException e) {
+                LOGGER.debug("Node removed during walk: {}", e.getMessage());
+            }
+        }
+        return null;
+    }
+}
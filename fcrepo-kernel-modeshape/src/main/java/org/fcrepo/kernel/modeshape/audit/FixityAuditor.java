@@ -0,0 +1,419 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.audit;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static com.google.common.collect.ImmutableSet.of;
+import static java.lang.Thread.MIN_PRIORITY;
+import static java.util.Collections.singletonMap;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static org.fcrepo.kernel.api.FedoraTypes.CONTENT_DIGEST;
+import static org.fcrepo.kernel.api.RdfLexicon.LDP_NAMESPACE;
+import static org.fcrepo.kernel.api.RdfLexicon.REPOSITORY_NAMESPACE;
+import static org.fcrepo.kernel.api.observer.EventType.RESOURCE_FIXITY_FAILURE;
+import static org.fcrepo.kernel.api.utils.ContentDigest.DIGEST_ALGORITHM.SHA1;
+import static org.fcrepo.kernel.api.utils.ContentDigest.DIGEST_ALGORITHM.isSupportedAlgorithm;
+import static org.fcrepo.kernel.api.utils.ContentDigest.getAlgorithm;
+import static org.fcrepo.kernel.api.utils.FixityResult.FixityState.BAD_SIZE;
+import static org.fcrepo.kernel.api.utils.FixityResult.FixityState.SUCCESS;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FIXITY_AUDIT_CURSOR;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FIXITY_AUDIT_DATE;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FIXITY_AUDIT_OUTCOME;
+import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.getJcrSession;
+import static org.fcrepo.kernel.modeshape.services.functions.JcrPropertyFunctions.property2values;
+import static org.fcrepo.kernel.modeshape.utils.UncheckedFunction.uncheck;
+import static org.modeshape.jcr.api.JcrConstants.JCR_DATA;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.jcr.Node;
+import javax.jcr.PathNotFoundException;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.Value;
+
+import org.fcrepo.kernel.api.FedoraRepository;
+import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
+import org.fcrepo.kernel.api.utils.CacheEntry;
+import org.fcrepo.kernel.api.utils.FixityResult;
+import org.fcrepo.kernel.api.utils.FixityResult.FixityState;
+import org.fcrepo.kernel.modeshape.FedoraBinaryImpl;
+import org.fcrepo.kernel.modeshape.observer.FedoraEventImpl;
+import org.fcrepo.kernel.modeshape.utils.BasicCacheEntry;
+import org.fcrepo.kernel.modeshape.utils.impl.CacheEntryFactory;
+import org.fcrepo.metrics.RegistryService;
+import org.slf4j.Logger;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.google.common.eventbus.EventBus;
+import com.google.common.util.concurrent.RateLimiter;
+
+/**
+ * Audits the fixity of every binary in the repository in the background, away from the request path.
+ *
+ * The repository is walked incrementally, a batch of binaries at a time, and the binaries of each batch are
+ * checked in parallel on a small pool of low-priority threads.  Each binary is read once, at no more than the
+ * configured rate, and checked against every digest stored for it.  The time and outcome of the check are kept
+ * on the binary, and the position of the walk is kept on the repository root after each batch, so that an
+ * audit interrupted by a restart resumes where it stopped.  Once a pass over the repository is complete, the
+ * next begins after a configurable interval.
+ *
+ * Each failure is logged, counted, and posted to the internal event bus as a
+ * {@link org.fcrepo.kernel.api.observer.EventType#RESOURCE_FIXITY_FAILURE} event for the binary.
+ *
+ * @author agent
+ */
+public class FixityAuditor {
+
+    private static final Logger LOGGER = getLogger(FixityAuditor.class);
+
+    private static final int BYTES_PER_MB = 1024 * 1024;
+
+    private static final Set<String> BINARY_TYPES =
+            of(REPOSITORY_NAMESPACE + "Binary", LDP_NAMESPACE + "NonRDFSource");
+
+    /**
+     * Counts the binaries checked
+     */
+    static final Counter CHECKED_COUNTER =
+            RegistryService.getInstance().getMetrics().counter(name(FixityAuditor.class, "checked"));
+
+    /**
+     * Counts the binaries that failed their check
+     */
+    static final Counter FAILURE_COUNTER =
+            RegistryService.getInstance().getMetrics().counter(name(FixityAuditor.class, "failures"));
+
+    /**
+     * Measures the rate at which binary content is read
+     */
+    static final Meter BYTES_METER =
+            RegistryService.getInstance().getMetrics().meter(name(FixityAuditor.class, "bytes"));
+
+    /**
+     * Times the check of each binary
+     */
+    static final Timer CHECK_TIMER =
+            RegistryService.getInstance().getMetrics().timer(name(FixityAuditor.class, "check"));
+
+    @Inject
+    private FedoraRepository repository;
+
+    @Inject
+    private EventBus eventBus;
+
+    private boolean enabled = false;
+
+    private int threads = 1;
+
+    private int batchSize = 100;
+
+    private long passInterval = 24 * 60 * 60 * 1000L;
+
+    private RateLimiter ioRateLimiter;
+
+    private ExecutorService auditing;
+
+    private ExecutorService checking;
+
+    /**
+     * Choose whether to audit continuously in the background.
+     *
+     * @param enabled whether to audit in the background
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Set the number of threads on which binaries are checked.
+     *
+     * @param threads the number of threads
+     */
+    public void setThreads(final int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Set the number of binaries checked between each record of the position of the audit.
+     *
+     * @param batchSize the number of binaries in each batch
+     */
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Set the time to wait after one pass over the repository before beginning the next.
+     *
+     * @param passInterval the interval, in milliseconds
+     */
+    public void setPassInterval(final long passInterval) {
+        this.passInterval = passInterval;
+    }
+
+    /**
+     * Limit the rate at which binary content is read, across all threads.
+     *
+     * @param ioRate the largest number of megabytes to read each second, or 0 for no limit
+     */
+    public void setIoRate(final double ioRate) {
+        this.ioRateLimiter = ioRate > 0 ? RateLimiter.create(ioRate * BYTES_PER_MB) : null;
+    }
+
+    /**
+     * Begin auditing in the background, if enabled
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            LOGGER.debug("Background fixity audit is not enabled");
+            return;
+        }
+        LOGGER.info("Starting background fixity audit on {} threads", threads);
+        auditing = newSingleThreadExecutor(lowPriority("fcrepo-fixity-audit"));
+        auditing.execute(this::auditContinuously);
+    }
+
+    /**
+     * Stop auditing
+     */
+    @PreDestroy
+    public void stop() {
+        if (auditing != null) {
+            auditing.shutdownNow();
+        }
+        synchronized (this) {
+            if (checking != null) {
+                checking.shutdownNow();
+                checking = null;
+            }
+        }
+    }
+
+    private void auditContinuously() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    LOGGER.info("Fixity audit pass complete: {} binaries checked", auditPass());
+                } catch (final RepositoryRuntimeException ex) {
+                    LOGGER.error("Fixity audit pass failed", ex);
+                }
+                Thread.sleep(passInterval);
+            }
+        } catch (final InterruptedException ex) {
+            LOGGER.info("Stopped background fixity audit");
+        }
+    }
+
+    /**
+     * Check the binaries not yet checked in the current pass over the repository, completing the pass.
+     *
+     * @return the number of binaries checked
+     * @throws InterruptedException if interrupted while waiting for checks to complete
+     */
+    public long auditPass() throws InterruptedException {
+        final Session session = getJcrSession(repository.login());
+        try {
+            final String cursor = session.getRootNode().hasProperty(FIXITY_AUDIT_CURSOR) ?
+                    session.getRootNode().getProperty(FIXITY_AUDIT_CURSOR).getString() : null;
+            final BinaryWalk walk = new BinaryWalk(session, cursor);
+            final List<String> batch = new ArrayList<>(batchSize);
+            long checked = 0;
+            while (walk.hasNext()) {
+                batch.add(walk.next());
+                if (batch.size() >= batchSize || !walk.hasNext()) {
+                    checkAll(batch);
+                    checked += batch.size();
+                    session.getRootNode().setProperty(FIXITY_AUDIT_CURSOR, batch.get(batch.size() - 1));
+                    session.save();
+                    batch.clear();
+                }
+            }
+            // the pass is complete: the next begins from the start
+            session.getRootNode().setProperty(FIXITY_AUDIT_CURSOR, (Value) null);
+            session.save();
+            return checked;
+        } catch (final RepositoryException ex) {
+            throw new RepositoryRuntimeException(ex);
+        } finally {
+            session.logout();
+        }
+    }
+
+    private void checkAll(final List<String> paths) throws InterruptedException {
+        final ExecutorService pool = checking();
+        final List<Future<?>> checks = paths.stream().map(path -> pool.submit(() -> check(path))).collect(toList());
+        for (final Future<?> check : checks) {
+            try {
+                check.get();
+            } catch (final ExecutionException ex) {
+                LOGGER.error("Unable to check fixity", ex.getCause());
+            }
+        }
+    }
+
+    private synchronized ExecutorService checking() {
+        if (checking == null) {
+            checking = newFixedThreadPool(threads, lowPriority("fcrepo-fixity-check"));
+        }
+        return checking;
+    }
+
+    /**
+     * Check a single binary against its stored digests, and record the outcome on it.
+     */
+    private void check(final String path) {
+        final Session session = getJcrSession(repository.login());
+        try (final Timer.Context context = CHECK_TIMER.time()) {
+            final Node node = session.getNode(path);
+            final FedoraBinaryImpl binary = new FedoraBinaryImpl(node);
+            final Collection<URI> digests = node.hasProperty(CONTENT_DIGEST) ?
+                    property2values.apply(node.getProperty(CONTENT_DIGEST))
+                            .map(uncheck((final Value v) -> URI.create(v.getString()))).collect(toList()) :
+                    new ArrayList<>();
+            final Set<String> algorithms = digests.stream().map(d -> getAlgorithm(d))
+                    .filter(a -> isSupportedAlgorithm(a)).collect(toSet());
+            if (algorithms.isEmpty()) {
+                algorithms.add(SHA1.algorithm);
+            }
+
+            final CacheEntry entry = new RateLimitedCacheEntry(
+                    CacheEntryFactory.forProperty(node.getProperty(JCR_DATA)), ioRateLimiter);
+            final Set<FixityState> states = EnumSet.noneOf(FixityState.class);
+            for (final FixityResult result : entry.checkFixity(algorithms)) {
+                final long size = binary.getContentSize() < 0 ? result.getComputedSize() : binary.getContentSize();
+                final List<URI> stored = digests.stream()
+                        .filter(d -> getAlgorithm(d).equals(result.getUsedAlgorithm())).collect(toList());
+                if (stored.isEmpty()) {
+                    states.add(result.matches(size) ? SUCCESS : BAD_SIZE);
+                } else {
+                    stored.forEach(d -> states.addAll(result.getStatus(size, d)));
+                }
+            }
+            // any failure outweighs the algorithms that succeeded
+            if (states.size() > 1) {
+                states.remove(SUCCESS);
+            }
+            final String outcome = states.stream().map(FixityState::toString).sorted().collect(joining(","));
+
+            node.setProperty(FIXITY_AUDIT_DATE, Calendar.getInstance());
+            node.setProperty(FIXITY_AUDIT_OUTCOME, outcome);
+            session.save();
+            CHECKED_COUNTER.inc();
+
+            if (!states.contains(SUCCESS)) {
+                FAILURE_COUNTER.inc();
+                final String resourcePath = binary.getPath();
+                LOGGER.warn("Fixity check of {} failed: {}", resourcePath, outcome);
+                eventBus.post(new FedoraEventImpl(RESOURCE_FIXITY_FAILURE, resourcePath, BINARY_TYPES,
+                        session.getUserID(), Instant.now(), singletonMap(FIXITY_AUDIT_OUTCOME, outcome)));
+            }
+        } catch (final PathNotFoundException ex) {
+            LOGGER.debug("Binary {} removed before its fixity was checked", path);
+        } catch (final RepositoryException ex) {
+            throw new RepositoryRuntimeException(ex);
+        } finally {
+            session.logout();
+        }
+    }
+
+    private static ThreadFactory lowPriority(final String name) {
+        return task -> {
+            final Thread thread = new Thread(task, name);
+            thread.setDaemon(true);
+            thread.setPriority(MIN_PRIORITY);
+            return thread;
+        };
+    }
+
+    /**
+     * A cache entry whose content is read at no more than a given rate.
+     */
+    private static class RateLimitedCacheEntry extends BasicCacheEntry {
+
+        private final CacheEntry entry;
+
+        private final RateLimiter rateLimiter;
+
+        private RateLimitedCacheEntry(final CacheEntry entry, final RateLimiter rateLimiter) {
+            this.entry = entry;
+            this.rateLimiter = rateLimiter;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new FilterInputStream(entry.getInputStream()) {
+
+                @Override
+                public int read() throws IOException {
+                    final int b = super.read();
+                    if (b != -1) {
+                        acquire(1);
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(final byte[] b, final int off, final int len) throws IOException {
+                    final int n = super.read(b, off, len);
+                    if (n > 0) {
+                        acquire(n);
+                    }
+                    return n;
+                }
+            };
+        }
+
+        private void acquire(final int bytes) {
+            BYTES_METER.mark(bytes);
+            if (rateLimiter != null) {
+                rateLimiter.acquire(bytes);
+            }
+        }
+
+        @Override
+        public String getExternalIdentifier() {
+            return entry.getExternalIdentifier();
+        }
+    }
+}
@@ -21,11 +21,26 @@ import static com.google.common.collect.ImmutableSet.of;
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_BINARY;
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_CONTAINER;
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_RESOURCE;
+import static javax.jcr.observation.Event.PROPERTY_ADDED;
+import static javax.jcr.observation.Event.PROPERTY_CHANGED;
+import static javax.jcr.observation.Event.PROPERTY_REMOVED;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_DIRECT_CONTAINER;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_INDIRECT_CONTAINER;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FIXITY_AUDIT_CURSOR;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FIXITY_AUDIT_DATE;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FIXITY_AUDIT_OUTCOME;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.JCR_LASTMODIFIED;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.JCR_LASTMODIFIEDBY;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMBERSHIP_ENTRIES;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMBERSHIP_INDEX;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.ROOT;
 import static org.fcrepo.kernel.modeshape.observer.FedoraEventImpl.getResourceTypes;
 
+import javax.jcr.RepositoryException;
 import javax.jcr.observation.Event;
 
+import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
+
 import java.util.Set;
 
 /**
@@ -34,6 +49,11 @@ import java.util.Set;
  * removal. In that case, since we cannot test the node for its types, we assume
  * that any non-JCR namespaced node is fair game.
  *
+ * Changes to the membership index kept beneath LDP Direct and Indirect containers, and to
+ * the fixity audit results kept on binaries and the audit cursor kept on the root,
+ * are internal bookkeeping, and are not passed; nor are the jcr:lastModified updates
+ * that the repository makes to such a node as a consequence.
+ *
  * @author ajs6f
  * @author barmintor
  * @since Dec 2013
@@ -47,8 +67,33 @@ public class DefaultFilter implements EventFilter {
     private static final Set<String> fedoraMixins =
             of(FEDORA_BINARY, FEDORA_CONTAINER, FEDORA_RESOURCE, ROOT);
 
+    private static final Set<String> bookkeepingMixins =
+            of(LDP_DIRECT_CONTAINER, LDP_INDIRECT_CONTAINER, FEDORA_BINARY, ROOT);
+
+    private static final Set<String> auditProperties =
+            of(FIXITY_AUDIT_CURSOR, FIXITY_AUDIT_DATE, FIXITY_AUDIT_OUTCOME);
+
     @Override
     public boolean test(final Event event) {
-        return getResourceTypes(event).anyMatch(fedoraMixins::contains);
+        return !isBookkeepingEvent(event) && getResourceTypes(event).anyMatch(fedoraMixins::contains);
+    }
+
+    private static boolean isBookkeepingEvent(final Event event) {
+        try {
+            if (event.getPath() != null && event.getPath().contains("/" + MEMBERSHIP_ENTRIES)) {
+                return true;
+            }
+            if ((event.getType() & (PROPERTY_ADDED | PROPERTY_CHANGED | PROPERTY_REMOVED)) == 0) {
+                return false;
+            }
+            final String name = event.getPath().substring(event.getPath().lastIndexOf('/') + 1);
+            if (name.equals(MEMBERSHIP_INDEX) || auditProperties.contains(name)) {
+                return true;
+            }
+            return (name.equals(JCR_LASTMODIFIED) || name.equals(JCR_LASTMODIFIEDBY)) &&
+                    getResourceTypes(event).anyMatch(bookkeepingMixins::contains);
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
     }
 }
@@ -19,8 +19,9 @@ package org.fcrepo.kernel.modeshape.observer;
 
 import static com.codahale.metrics.MetricRegistry.name;
 import static com.google.common.collect.Iterators.filter;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
-import static java.util.stream.Stream.concat;
 import static java.util.stream.Stream.of;
 import static javax.jcr.observation.Event.NODE_ADDED;
 import static javax.jcr.observation.Event.NODE_MOVED;
@@ -51,9 +52,15 @@ import static org.slf4j.LoggerFactory.getLogger;
 
 import  org.fcrepo.metrics.RegistryService;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -61,12 +68,14 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.jcr.NamespaceRegistry;
+import javax.jcr.PathNotFoundException;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 import javax.jcr.observation.Event;
 import javax.jcr.observation.EventListener;
 
 import org.fcrepo.kernel.api.FedoraRepository;
+import org.fcrepo.kernel.api.exception.InterruptedRuntimeException;
 import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
 import org.fcrepo.kernel.api.models.FedoraResource;
 import org.fcrepo.kernel.api.observer.FedoraEvent;
@@ -76,13 +85,26 @@ import org.fcrepo.kernel.modeshape.observer.eventmappings.InternalExternalEventM
 import org.slf4j.Logger;
 
 import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.eventbus.EventBus;
+import com.google.common.util.concurrent.RateLimiter;
 
 /**
  * Simple JCR EventListener that filters JCR Events through a Fedora EventFilter, maps the results through a mapper,
  * and puts the resulting stream onto the internal Fedora EventBus as a stream of FedoraEvents.
  *
+ * A MOVE leads to a relocation event for the moved resource, and to a relocation event at the new location and a
+ * deletion event at the old location for each of its descendants. Since a resource may have arbitrarily many
+ * descendants, their events are generated on a separate thread, with a session of its own, by walking the subtree
+ * lazily and posting events a page at a time, optionally at a limited rate. To keep the events in order, a batch
+ * containing a relocation, and every batch that arrives while an earlier one is still queued, is handed whole to
+ * that thread, which posts the events of each batch in turn; other batches are posted directly.
+ *
+ * Alternatively, a single relocation event marked {@link #SUBTREE_RELOCATED} may be posted for the whole subtree.
+ * Such an event is also posted if the descendants of a relocated resource cannot all be walked, in which case its
+ * {@link #SUBTREE_CURSOR} names the last descendant for which events were posted.
+ *
  * @author eddies
  * @author ajs6f
  * @since Feb 7, 2013
@@ -100,37 +122,33 @@ public class SimpleObserver implements EventListener {
     static final Counter EVENT_COUNTER =
             RegistryService.getInstance().getMetrics().counter(name(SimpleObserver.class, "onEvent"));
 
-    static final Integer EVENT_TYPES = NODE_ADDED + NODE_REMOVED + NODE_MOVED + PROPERTY_ADDED + PROPERTY_CHANGED
-            + PROPERTY_REMOVED;
+    /**
+     * Where the JCR keeps registered namespaces: changes beneath this path invalidate cached namespaces
+     */
+    static final String NAMESPACES_PATH = "/jcr:system/mode:namespaces";
 
     /**
-     * Note: This function maps a FedoraEvent to a Stream of some number of FedoraEvents. This is because a MOVE event
-     * may lead to an arbitrarily large number of additional events for any child resources. In the event of this not
-     * being a MOVE event, the same FedoraEvent is returned, wrapped in a Stream. For a MOVEd resource, the resource in
-     * question will be translated to two FedoraEvents: a MOVED event for the new resource location and a REMOVED event
-     * corresponding to the old location. The same pair of FedoraEvents will also be generated for each child resource.
+     * Event info key marking a relocation event as standing for its whole subtree, in place of
+     * separate relocation and deletion events for each descendant
      */
-    private static Function<FedoraEvent, Stream<FedoraEvent>> handleMoveEvents(final Session session) {
-        return evt -> {
-            if (evt.getTypes().contains(RESOURCE_RELOCATION)) {
-                final Map<String, String> movePath = evt.getInfo();
-                final String dest = movePath.get("destAbsPath");
-                final String src = movePath.get("srcAbsPath");
-                try {
-                    final FedoraResource resource = new FedoraResourceImpl(session.getNode(evt.getPath()));
-                    return concat(of(evt), resource.getChildren(true).map(FedoraResource::getPath)
-                        .flatMap(path -> of(
-                            new FedoraEventImpl(RESOURCE_RELOCATION, path, evt.getResourceTypes(), evt.getUserID(),
-                                evt.getDate(), evt.getInfo()),
-                            new FedoraEventImpl(RESOURCE_DELETION, path.replaceFirst(dest, src), evt.getResourceTypes(),
-                                evt.getUserID(), evt.getDate(), evt.getInfo()))));
-                } catch (final RepositoryException ex) {
-                    throw new RepositoryRuntimeException(ex);
-                }
-            }
-            return of(evt);
-        };
-    }
+    public static final String SUBTREE_RELOCATED = "subtreeRelocated";
+
+    /**
+     * Event info key, on an event marked {@link #SUBTREE_RELOCATED}, for the new path of the last descendant for
+     * which events were posted before the subtree could no longer be walked. The subtree is walked depth first,
+     * each resource before its children, so a consumer may resume the walk after this descendant. The key is
+     * absent if no descendant was reached.
+     */
+    public static final String SUBTREE_CURSOR = "subtreeCursor";
+
+    /**
+     * Times the expansion of a relocation event into events for the descendants of the relocated resource
+     */
+    static final Timer MOVE_EXPANSION_TIMER =
+            RegistryService.getInstance().getMetrics().timer(name(SimpleObserver.class, "moveExpansion"));
+
+    static final Integer EVENT_TYPES = NODE_ADDED + NODE_REMOVED + NODE_MOVED + PROPERTY_ADDED + PROPERTY_CHANGED
+            + PROPERTY_REMOVED;
 
     /**
      * Note: Certain RDF types are generated dynamically. These are added here, based on
@@ -149,12 +167,14 @@ public class SimpleObserver implements EventListener {
         }
     };
 
-    private static Function<FedoraEvent, FedoraEvent> filterAndDerefResourceTypes(final Session session) {
+    private Function<FedoraEvent, FedoraEvent> filterAndDerefResourceTypes(final Session session) {
         final NamespaceRegistry registry = getNamespaceRegistry(session);
+        final Function<String, String> resolver = uncheck(registry::getURI);
         return evt -> {
             final Set<String> resourceTypes = evt.getResourceTypes().stream()
                 .flatMap(dynamicTypes).map(type -> type.split(":"))
-                .filter(pair -> pair.length == 2).map(uncheck(pair -> new String[]{registry.getURI(pair[0]), pair[1]}))
+                .filter(pair -> pair.length == 2)
+                .map(pair -> new String[]{namespaces.computeIfAbsent(pair[0], resolver), pair[1]})
                 .filter(pair -> !filteredNamespaces.contains(pair[0])).map(pair -> pair[0] + pair[1]).collect(toSet());
             return new FedoraEventImpl(evt.getTypes(), evt.getPath(), resourceTypes, evt.getUserID(),
                     evt.getDate(), evt.getInfo());
@@ -177,6 +197,63 @@ public class SimpleObserver implements EventListener {
     // it is used only to register and deregister this observer to the JCR
     private Session session;
 
+    // a long-lived session used only to look up nodes while handling events,
+    // refreshed before each batch so that it sees the latest persisted state
+    private Session lookupSession;
+
+    // a long-lived session used only to walk the descendants of relocated resources, on the expansion thread
+    private volatile Session expansionSession;
+
+    // prefix to URI, cleared whenever a namespace is registered or changed
+    private final Map<String, String> namespaces = new ConcurrentHashMap<>();
+
+    // posts batches containing relocations, and the batches that follow them, one at a time and in order
+    private final ExecutorService moveExpansion = newSingleThreadExecutor(task -> {
+        final Thread thread = new Thread(task, "fcrepo-move-expansion");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // the number of batches handed to the expansion thread and not yet posted
+    private final AtomicInteger queuedBatches = new AtomicInteger();
+
+    private int moveExpansionPageSize = 1000;
+
+    private RateLimiter moveExpansionRateLimiter;
+
+    private boolean moveSummary = false;
+
+    /**
+     * Set the number of descendants for which events are generated and posted together while expanding a
+     * relocation event.
+     *
+     * @param moveExpansionPageSize the number of descendants in each page
+     */
+    public void setMoveExpansionPageSize(final int moveExpansionPageSize) {
+        this.moveExpansionPageSize = moveExpansionPageSize;
+    }
+
+    /**
+     * Limit the rate at which events for the descendants of a relocated resource are posted. The limit applies on
+     * the expansion thread only, but since events are posted in order, it also delays the events that follow a
+     * relocation.
+     *
+     * @param moveExpansionRate the largest number of events to post each second, or 0 for no limit
+     */
+    public void setMoveExpansionRate(final double moveExpansionRate) {
+        this.moveExpansionRateLimiter = moveExpansionRate > 0 ? RateLimiter.create(moveExpansionRate) : null;
+    }
+
+    /**
+     * Choose whether to post a single relocation event, marked with {@link #SUBTREE_RELOCATED}, for a relocated
+     * resource and all its descendants, rather than relocation and deletion events for each descendant.
+     *
+     * @param moveSummary whether to post a single summary event for each relocation
+     */
+    public void setMoveSummary(final boolean moveSummary) {
+        this.moveSummary = moveSummary;
+    }
+
     /**
      * Register this observer with the JCR event listeners
      *
@@ -202,7 +279,10 @@ public class SimpleObserver implements EventListener {
             LOGGER.debug("Destroying an observer for JCR events...");
             session.getWorkspace().getObservationManager().removeEventListener(this);
         } finally {
+            moveExpansion.shutdownNow();
             session.logout();
+            closeLookupSession();
+            closeExpansionSession();
         }
     }
 
@@ -212,22 +292,185 @@ public class SimpleObserver implements EventListener {
      * @param events the JCR events
      */
     @Override
-    public void onEvent(final javax.jcr.observation.EventIterator events) {
-        Session lookupSession = null;
+    public synchronized void onEvent(final javax.jcr.observation.EventIterator events) {
+        final Session lookup = lookupSession();
         try {
-            lookupSession = getJcrSession(repository.login());
-
             @SuppressWarnings("unchecked")
-            final Iterator<Event> filteredEvents = filter(events, eventFilter::test);
-            eventMapper.apply(iteratorToStream(filteredEvents))
-                .map(filterAndDerefResourceTypes(lookupSession))
-                .flatMap(handleMoveEvents(lookupSession))
-                .forEach(this::post);
-        } finally {
-            if (lookupSession != null) {
-                lookupSession.logout();
+            final Iterator<Event> filteredEvents = filter(events, this::test);
+            final List<FedoraEvent> batch = eventMapper.apply(iteratorToStream(filteredEvents))
+                .map(filterAndDerefResourceTypes(lookup)).collect(toList());
+            if (queuedBatches.get() == 0 && (moveSummary || batch.stream().noneMatch(SimpleObserver::isRelocation))) {
+                batch.forEach(this::postWithDescendants);
+            } else {
+                queuedBatches.incrementAndGet();
+                moveExpansion.execute(() -> postBatch(batch));
             }
+        } catch (final RuntimeException ex) {
+            // start afresh with the next batch, in case the session is no longer usable
+            closeLookupSession();
+            throw ex;
+        }
+    }
+
+    /**
+     * Pass an event to the event filter, first noting any change to the registered namespaces.
+     */
+    private boolean test(final Event event) {
+        try {
+            if (event.getPath().startsWith(NAMESPACES_PATH)) {
+                LOGGER.debug("Namespace registry changed: clearing cached namespaces");
+                namespaces.clear();
+            }
+        } catch (final RepositoryException ex) {
+            throw new RepositoryRuntimeException(ex);
+        }
+        return eventFilter.test(event);
+    }
+
+    /**
+     * @return the session used to look up nodes, logging in anew if there is no live session
+     */
+    private Session lookupSession() {
+        try {
+            if (lookupSession != null && lookupSession.isLive()) {
+                lookupSession.refresh(false);
+            } else {
+                lookupSession = getJcrSession(repository.login());
+                namespaces.clear();
+            }
+            return lookupSession;
+        } catch (final RepositoryException ex) {
+            closeLookupSession();
+            throw new RepositoryRuntimeException(ex);
+        }
+    }
+
+    private synchronized void closeLookupSession() {
+        if (lookupSession != null) {
+            lookupSession.logout();
+            lookupSession = null;
+        }
+    }
+
+    /**
+     * Post a batch on the expansion thread, expanding its relocation events.
+     */
+    private void postBatch(final List<FedoraEvent> batch) {
+        try {
+            batch.forEach(this::postWithDescendants);
+        } catch (final InterruptedRuntimeException ex) {
+            LOGGER.info("Stopped posting a batch of events while expanding a relocation");
+        } finally {
+            queuedBatches.decrementAndGet();
+        }
+    }
+
+    private static boolean isRelocation(final FedoraEvent evt) {
+        return evt.getTypes().contains(RESOURCE_RELOCATION);
+    }
+
+    /**
+     * Post an event. For a relocation, either mark the event as standing for the whole subtree, or follow it with
+     * events for each descendant of the relocated resource.
+     */
+    private void postWithDescendants(final FedoraEvent evt) {
+        if (!isRelocation(evt)) {
+            post(evt);
+        } else if (moveSummary) {
+            post(summary(evt, null));
+        } else {
+            post(evt);
+            expandMove(evt);
+        }
+    }
+
+    /**
+     * For a relocated resource, post a relocation event for each descendant at its new location and a deletion
+     * event for it at its old location. The subtree is walked lazily, and events are posted in pages. If the
+     * subtree cannot be walked, a summary event is posted in place of the events not yet posted.
+     */
+    private void expandMove(final FedoraEvent evt) {
+        final String dest = evt.getInfo().get("destAbsPath");
+        final String src = evt.getInfo().get("srcAbsPath");
+        final List<FedoraEvent> page = new ArrayList<>();
+        final String[] cursor = new String[1];
+        try (final Timer.Context context = MOVE_EXPANSION_TIMER.time()) {
+            final FedoraResource resource = new FedoraResourceImpl(expansionSession().getNode(evt.getPath()));
+            resource.getChildren(true).map(FedoraResource::getPath).forEach(path -> {
+                page.add(new FedoraEventImpl(RESOURCE_RELOCATION, path, evt.getResourceTypes(), evt.getUserID(),
+                        evt.getDate(), evt.getInfo()));
+                page.add(new FedoraEventImpl(RESOURCE_DELETION, relocate(path, dest, src),
+                        evt.getResourceTypes(), evt.getUserID(), evt.getDate(), evt.getInfo()));
+                if (page.size() >= 2 * moveExpansionPageSize) {
+                    postPage(page);
+                    cursor[0] = path;
+                }
+            });
+            postPage(page);
+        } catch (final InterruptedRuntimeException ex) {
+            throw ex;
+        } catch (final PathNotFoundException ex) {
+            LOGGER.warn("Relocated resource {} no longer exists: posting a summary event for its descendants",
+                    evt.getPath());
+            post(summary(evt, cursor[0]));
+        } catch (final RepositoryException | RuntimeException ex) {
+            LOGGER.error("Unable to post events for the descendants of relocated resource {}: posting a summary "
+                    + "event", evt.getPath(), ex);
+            closeExpansionSession();
+            post(summary(evt, cursor[0]));
+        }
+    }
+
+    /**
+     * @return the session used to walk relocated subtrees, logging in anew if there is no live session
+     */
+    private Session expansionSession() throws RepositoryException {
+        if (expansionSession != null && expansionSession.isLive()) {
+            expansionSession.refresh(false);
+        } else {
+            expansionSession = getJcrSession(repository.login());
+        }
+        return expansionSession;
+    }
+
+    private void closeExpansionSession() {
+        if (expansionSession != null) {
+            expansionSession.logout();
+            expansionSession = null;
+        }
+    }
+
+    /**
+     * @param cursor the new path of the last descendant for which events were posted, or null if none were
+     * @return the event, marked as standing for the whole subtree of the relocated resource
+     */
+    private static FedoraEvent summary(final FedoraEvent evt, final String cursor) {
+        final Map<String, String> info = new HashMap<>(evt.getInfo());
+        info.put(SUBTREE_RELOCATED, "true");
+        if (cursor != null) {
+            info.put(SUBTREE_CURSOR, cursor);
+        }
+        return new FedoraEventImpl(evt.getTypes(), evt.getPath(), evt.getResourceTypes(), evt.getUserID(),
+                evt.getDate(), info);
+    }
+
+    /**
+     * @return the path that a descendant at the given path had before its ancestor was relocated
+     */
+    private static String relocate(final String path, final String dest, final String src) {
+        return path.startsWith(dest) ? src + path.substring(dest.length()) : path;
+    }
+
+    private void postPage(final List<FedoraEvent> page) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedRuntimeException(
+                    new InterruptedException("Interrupted while posting events for relocated descendants"));
+        }
+        if (moveExpansionRateLimiter != null && !page.isEmpty()) {
+            moveExpansionRateLimiter.acquire(page.size());
         }
+        page.forEach(this::post);
+        page.clear();
     }
 
     private void post(final FedoraEvent evt) {
@@ -30,11 +30,15 @@ import static org.fcrepo.kernel.api.RdfLexicon.HAS_SIZE;
 import static org.fcrepo.kernel.api.RdfLexicon.EVENT_OUTCOME_INFORMATION;
 import static org.fcrepo.kernel.api.RdfLexicon.HAS_FIXITY_RESULT;
 import static org.fcrepo.kernel.api.RdfLexicon.HAS_FIXITY_STATE;
+import static org.fcrepo.kernel.api.utils.ContentDigest.getAlgorithm;
 import static org.fcrepo.kernel.modeshape.utils.UncheckedFunction.uncheck;
 
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import org.apache.jena.rdf.model.Resource;
@@ -68,25 +72,56 @@ public class FixityRdfContext extends NodeRdfContext {
                             final long size) {
         super(resource, idTranslator);
 
+        concat(StreamSupport.stream(blobs.spliterator(), false).flatMap(uncheck(blob ->
+                fixityTriples(createURI(subject().getURI() + "#fixity/" + now().toEpochMilli()), blob,
+                        Optional.of(digest), size))));
+    }
+
+    /**
+     * Constructor for results computed with several algorithms at once.  Each result is compared to the stored
+     * digest for its own algorithm; a result for which no digest is stored has no fixity state.
+     *
+     * @param resource the resource
+     * @param idTranslator the id translator
+     * @param blobs the blobs
+     * @param digests the stored digest uris
+     * @param size the size
+     */
+    public FixityRdfContext(final FedoraResource resource,
+                            final IdentifierConverter<Resource, FedoraResource> idTranslator,
+                            final Iterable<FixityResult> blobs,
+                            final Collection<URI> digests,
+                            final long size) {
+        super(resource, idTranslator);
+
+        final long time = now().toEpochMilli();
         concat(StreamSupport.stream(blobs.spliterator(), false).flatMap(uncheck(blob -> {
-            final org.apache.jena.graph.Node resultSubject =
-                    createURI(subject().getURI() + "#fixity/" + now().toEpochMilli());
-            final List<Triple> b = new ArrayList<>();
+            final Optional<URI> digest = digests.stream()
+                    .filter(d -> getAlgorithm(d).equals(blob.getUsedAlgorithm())).findFirst();
+            final String suffix = blob.getUsedAlgorithm().replace("-", "").toLowerCase();
+            return fixityTriples(createURI(subject().getURI() + "#fixity/" + time + "/" + suffix), blob, digest,
+                    size);
+        })));
+    }
+
+    private Stream<Triple> fixityTriples(final org.apache.jena.graph.Node resultSubject, final FixityResult blob,
+            final Optional<URI> digest, final long size) {
+        final List<Triple> b = new ArrayList<>();
 
-            b.add(create(subject(), HAS_FIXITY_RESULT.asNode(), resultSubject));
-            b.add(create(resultSubject, type.asNode(), FIXITY_TYPE.asNode()));
-            b.add(create(resultSubject, type.asNode(), EVENT_OUTCOME_INFORMATION.asNode()));
+        b.add(create(subject(), HAS_FIXITY_RESULT.asNode(), resultSubject));
+        b.add(create(resultSubject, type.asNode(), FIXITY_TYPE.asNode()));
+        b.add(create(resultSubject, type.asNode(), EVENT_OUTCOME_INFORMATION.asNode()));
 
-            blob.getStatus(size, digest).stream().map(state -> createLiteral(state.toString()))
+        if (digest.isPresent()) {
+            blob.getStatus(size, digest.get()).stream().map(state -> createLiteral(state.toString()))
                     .map(state -> create(resultSubject, HAS_FIXITY_STATE.asNode(), state)).forEach(b::add);
+        }
 
-            b.add(create(resultSubject, HAS_MESSAGE_DIGEST_ALGORITHM.asNode(),
-                    createTypedLiteral(blob.getUsedAlgorithm()).asNode()));
-            b.add(create(resultSubject, HAS_MESSAGE_DIGEST.asNode(), createURI(blob.getComputedChecksum().toString())));
-            b.add(create(resultSubject, HAS_SIZE.asNode(), createTypedLiteral(blob.getComputedSize()).asNode()));
+        b.add(create(resultSubject, HAS_MESSAGE_DIGEST_ALGORITHM.asNode(),
+                createTypedLiteral(blob.getUsedAlgorithm()).asNode()));
+        b.add(create(resultSubject, HAS_MESSAGE_DIGEST.asNode(), createURI(blob.getComputedChecksum().toString())));
+        b.add(create(resultSubject, HAS_SIZE.asNode(), createTypedLiteral(blob.getComputedSize()).asNode()));
 
-            return b.stream();
-        })));
+        return b.stream();
     }
-
 }
@@ -52,6 +52,8 @@ import static org.fcrepo.kernel.modeshape.identifiers.NodeResourceConverter.node
 import static org.fcrepo.kernel.modeshape.rdf.converters.PropertyConverter.getPropertyNameFromPredicate;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getJcrNode;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getReferencePropertyName;
+import static org.fcrepo.kernel.modeshape.utils.LdpMembershipIndex.indexedMembers;
+import static org.fcrepo.kernel.modeshape.utils.LdpMembershipIndex.isIndexCurrent;
 import static org.fcrepo.kernel.modeshape.utils.StreamUtils.iteratorToStream;
 import static org.fcrepo.kernel.modeshape.utils.UncheckedFunction.uncheck;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -121,6 +123,16 @@ public class LdpContainerRdfContext extends NodeRdfContext {
             insertedContainerProperty = MEMBER_SUBJECT.getURI();
         }
 
+        final Node containerNode = getJcrNode(container);
+        final ValueConverter valueConverter = new ValueConverter(containerNode.getSession(), translator());
+
+        if (isIndexCurrent(containerNode)) {
+            return indexedMembers(containerNode)
+                .map(v -> create(subject(), memberRelation, valueConverter.convert(v).asNode()));
+        }
+
+        LOGGER.debug("Membership index of {} is not current; reading members from its children", container);
+
         return container.getChildren().flatMap(
             UncheckedFunction.<FedoraResource, Stream<Triple>>uncheck(child -> {
                 final org.apache.jena.graph.Node childSubject = uriFor(child.getDescribedResource());
@@ -145,8 +157,7 @@ public class LdpContainerRdfContext extends NodeRdfContext {
 
                 return iteratorToStream(new PropertyValueIterator(
                         getJcrNode(child).getProperty(insertedContentProperty)))
-                    .map(uncheck(v -> create(subject(), memberRelation,
-                        new ValueConverter(getJcrNode(container).getSession(), translator()).convert(v).asNode())));
+                    .map(v -> create(subject(), memberRelation, valueConverter.convert(v).asNode()));
             }));
     }
 }
@@ -17,20 +17,31 @@
  */
 package org.fcrepo.kernel.modeshape.rdf.impl;
 
-import static org.fcrepo.kernel.modeshape.identifiers.NodeResourceConverter.nodeConverter;
-import static org.fcrepo.kernel.modeshape.rdf.converters.ValueConverter.nodeForValue;
-import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getJcrNode;
-import static org.fcrepo.kernel.modeshape.utils.StreamUtils.iteratorToStream;
-import static org.fcrepo.kernel.modeshape.utils.UncheckedFunction.uncheck;
 import static java.util.Arrays.asList;
+import static java.util.Optional.empty;
 import static javax.jcr.PropertyType.PATH;
 import static javax.jcr.PropertyType.REFERENCE;
 import static javax.jcr.PropertyType.WEAKREFERENCE;
+import static org.apache.jena.graph.NodeFactory.createURI;
+import static org.apache.jena.graph.Triple.create;
+import static org.apache.jena.rdf.model.ResourceFactory.createResource;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_HAS_MEMBER_RELATION;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_INDIRECT_CONTAINER;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_INSERTED_CONTENT_RELATION;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_MEMBER_RESOURCE;
+import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getContainingNode;
+import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getJcrNode;
+import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getReferencePropertyName;
+import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.resourceToProperty;
+import static org.fcrepo.kernel.modeshape.utils.StreamUtils.iteratorToStream;
+import static org.fcrepo.kernel.modeshape.utils.UncheckedFunction.uncheck;
+import static org.fcrepo.kernel.modeshape.utils.UncheckedPredicate.uncheck;
 
 import org.apache.jena.graph.Triple;
 import org.apache.jena.rdf.model.Resource;
 import org.fcrepo.kernel.api.identifiers.IdentifierConverter;
 import org.fcrepo.kernel.api.models.FedoraResource;
+import org.fcrepo.kernel.modeshape.rdf.converters.ValueConverter;
 import org.fcrepo.kernel.modeshape.rdf.impl.mappings.PropertyToTriple;
 import org.fcrepo.kernel.modeshape.rdf.impl.mappings.PropertyValueIterator;
 
@@ -39,8 +50,12 @@ import javax.jcr.Property;
 import javax.jcr.RepositoryException;
 import javax.jcr.Value;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.function.Predicate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
 
 /**
@@ -53,8 +68,17 @@ public class ReferencesRdfContext extends NodeRdfContext {
 
     private final PropertyToTriple property2triple;
 
+    private final ValueConverter valueConverter;
+
     public static final List<Integer> REFERENCE_TYPES = asList(PATH, REFERENCE, WEAKREFERENCE);
 
+    /* The referrers already examined for indirect container membership, so that a resource that refers to this
+       one more than once is examined only once. */
+    private final Set<String> referrers = new HashSet<>();
+
+    /* The membership of each container of a referrer met so far, or empty if it is not an indirect container. */
+    private final Map<String, Optional<IndirectMembership>> containers = new HashMap<>();
+
     /**
      * Add the inbound references from other nodes to this resource to the stream
      *
@@ -68,34 +92,103 @@ public class ReferencesRdfContext extends NodeRdfContext {
         throws RepositoryException {
         super(resource, idTranslator);
         property2triple = new PropertyToTriple(getJcrNode(resource).getSession(), idTranslator);
+        valueConverter = new ValueConverter(getJcrNode(resource).getSession(), idTranslator);
         concat(putReferencesIntoContext(getJcrNode(resource)));
     }
 
-    private final Predicate<Triple> INBOUND = t -> {
-        return t.getObject().getURI().equals(uriFor(resource()).getURI());
-    };
-
     /* References from LDP indirect containers are generated dynamically by LdpContainerRdfContext, so they won't
        show up in getReferences()/getWeakReferences().  Instead, we should check referencers to see if they are
-       members of an IndirectContainer and generate the appropriate inbound references. */
+       members of an IndirectContainer and generate the appropriate inbound references.  This is done as each
+       referring property is met, in a single pass over the references. */
     private Stream<Triple> putReferencesIntoContext(final Node node) throws RepositoryException {
-        return Stream.concat(
-            getAllReferences(node).flatMap(property2triple),
-            getAllReferences(node).flatMap(uncheck((final Property x) -> {
-                    @SuppressWarnings("unchecked")
-                    final Stream<Value> values = iteratorToStream(new PropertyValueIterator(x.getParent()
-                            .getProperties())).filter((final Value y) -> REFERENCE_TYPES.contains(y.getType()));
-                    return values;
-                }))
-                .flatMap(uncheck((final Value x) -> {
-                    return new LdpContainerRdfContext(nodeConverter.convert(nodeForValue(node.getSession(), x)),
-                        translator());
-                }))
-                .filter(INBOUND));
+        final String identifier = node.getIdentifier();
+        return getAllReferences(node).flatMap(uncheck((final Property p) ->
+                Stream.concat(property2triple.apply(p), indirectMembership(p.getParent(), identifier))));
+    }
+
+    /**
+     * The membership triple, if any, that an indirect container asserts of this resource because the given referrer
+     * is among its children and names this resource with its inserted content relation.
+     */
+    private Stream<Triple> indirectMembership(final Node referrer, final String identifier)
+            throws RepositoryException {
+        if (!referrers.add(referrer.getPath())) {
+            return Stream.empty();
+        }
+        final Optional<Node> container = getContainingNode(referrer);
+        if (!container.isPresent()) {
+            return Stream.empty();
+        }
+        final Optional<IndirectMembership> membership = containers.computeIfAbsent(container.get().getPath(),
+                uncheck((final String k) -> membershipOf(container.get())));
+        if (!membership.isPresent()) {
+            return Stream.empty();
+        }
+
+        final String name;
+        if (referrer.hasProperty(membership.get().property)) {
+            name = membership.get().property;
+        } else if (referrer.hasProperty(getReferencePropertyName(membership.get().property))) {
+            name = getReferencePropertyName(membership.get().property);
+        } else {
+            return Stream.empty();
+        }
+
+        final org.apache.jena.graph.Node object = uriFor(resource());
+        return iteratorToStream(new PropertyValueIterator(referrer.getProperty(name)))
+                .filter(uncheck((final Value v) -> refersTo(v, identifier, object)))
+                .limit(1)
+                .map(v -> create(membership.get().subject, membership.get().relation, object));
+    }
+
+    private boolean refersTo(final Value value, final String identifier, final org.apache.jena.graph.Node object)
+            throws RepositoryException {
+        if (value.getType() == REFERENCE || value.getType() == WEAKREFERENCE) {
+            // compare identifiers, without loading the node referred to
+            return value.getString().equals(identifier);
+        }
+        return valueConverter.convert(value).asNode().equals(object);
+    }
+
+    private Optional<IndirectMembership> membershipOf(final Node container) throws RepositoryException {
+        if (!container.isNodeType(LDP_INDIRECT_CONTAINER) || !container.hasProperty(LDP_MEMBER_RESOURCE) ||
+                !container.hasProperty(LDP_HAS_MEMBER_RELATION) ||
+                !container.hasProperty(LDP_INSERTED_CONTENT_RELATION)) {
+            return empty();
+        }
+        final Optional<String> property = resourceToProperty(container.getSession())
+                .apply(createResource(container.getProperty(LDP_INSERTED_CONTENT_RELATION).getString()));
+        if (!property.isPresent()) {
+            return empty();
+        }
+        return Optional.of(new IndirectMembership(
+                nodeConverter().convert(container.getProperty(LDP_MEMBER_RESOURCE).getNode()).asNode(),
+                createURI(container.getProperty(LDP_HAS_MEMBER_RELATION).getString()),
+                property.get()));
     }
 
     @SuppressWarnings("unchecked")
     private static Stream<Property> getAllReferences(final Node node) throws RepositoryException {
         return Stream.concat(iteratorToStream(node.getReferences()), iteratorToStream(node.getWeakReferences()));
     }
+
+    /**
+     * The membership asserted by an indirect container: its membership resource, its member relation, and the
+     * property of its children that holds their inserted content.
+     */
+    private static class IndirectMembership {
+
+        private final org.apache.jena.graph.Node subject;
+
+        private final org.apache.jena.graph.Node relation;
+
+        private final String property;
+
+        private IndirectMembership(final org.apache.jena.graph.Node subject,
+                final org.apache.jena.graph.Node relation, final String property) {
+            this.subject = subject;
+            this.relation = relation;
+            this.property = property;
+        }
+    }
 }
@@ -17,6 +17,8 @@
  */
 package org.fcrepo.kernel.modeshape.rdf.impl.mappings;
 
+import static javax.jcr.PropertyType.REFERENCE;
+import static javax.jcr.PropertyType.WEAKREFERENCE;
 import static org.apache.jena.datatypes.xsd.XSDDatatype.XSDstring;
 import static org.apache.jena.graph.NodeFactory.createLiteral;
 import static org.apache.jena.graph.Triple.create;
@@ -24,6 +26,9 @@ import static org.fcrepo.kernel.modeshape.identifiers.NodeResourceConverter.node
 import static org.fcrepo.kernel.modeshape.utils.StreamUtils.iteratorToStream;
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -46,7 +51,8 @@ import org.apache.jena.graph.Triple;
 import org.slf4j.Logger;
 
 /**
- * Utility for moving from JCR properties to RDF triples.
+ * Utility for moving from JCR properties to RDF triples.  Each value is converted once, and the predicate for each
+ * property name is remembered, so an instance should serve a single request and is not thread-safe.
  *
  * @author ajs6f
  * @since Oct 10, 2013
@@ -59,6 +65,12 @@ public class PropertyToTriple implements Function<Property, Stream<Triple>> {
     private final ValueConverter valueConverter;
     private final Converter<Node, Resource> translator;
 
+    private final Map<String, org.apache.jena.graph.Node> predicates = new HashMap<>();
+    private final Map<String, org.apache.jena.graph.Node> referencePredicates = new HashMap<>();
+
+    private Node lastParent;
+    private org.apache.jena.graph.Node lastSubject;
+
     /**
      * Default constructor. We require a {@link Converter} in order to construct the RDF subjects of our triples.
      *
@@ -73,50 +85,71 @@ public class PropertyToTriple implements Function<Property, Stream<Triple>> {
     @Override
     public Stream<Triple> apply(final Property p) {
         try {
-            final org.apache.jena.graph.Node subject = translator.convert(p.getParent()).asNode();
-            final org.apache.jena.graph.Node propPredicate = propertyConverter.convert(p).asNode();
+            final org.apache.jena.graph.Node subject = subject(p.getParent());
+            final org.apache.jena.graph.Node propPredicate = predicate(p);
+            // unpack the name of the property for information about what kind of literal
             final String propertyName = p.getName();
+            final int i = propertyName.indexOf('@');
+            final String lang = i > 0 ? propertyName.substring(i + 1) : null;
 
-            return iteratorToStream(new PropertyValueIterator(p)).filter(this::valueCanBeConverted).map(v -> {
-                final org.apache.jena.graph.Node object = valueConverter.convert(v).asNode();
-                if (object.isLiteral()) {
-                    // unpack the name of the property for information about what kind of literal
-                    final int i = propertyName.indexOf('@');
-                    if (i > 0) {
-                        final LiteralLabel literal = object.getLiteral();
-                        final RDFDatatype datatype = literal.getDatatype();
-                        final String datatypeURI = datatype.getURI();
-                        if (datatypeURI.isEmpty() || datatype.equals(XSDstring)) {
-                            // this is an RDF string literal and could involve an RDF lang tag
-                            final String lang = propertyName.substring(i + 1);
-                            final String lex = literal.getLexicalForm();
-                            return create(subject, propPredicate, createLiteral(lex, lang, datatype));
-                        }
-                    }
-                }
-                return create(subject, propPredicate, object);
-            });
+            return iteratorToStream(new PropertyValueIterator(p))
+                    .map(v -> toTriple(subject, propPredicate, lang, v)).filter(Objects::nonNull);
         } catch (final RepositoryException e) {
             throw new RepositoryRuntimeException(e);
         }
     }
 
+    private org.apache.jena.graph.Node subject(final Node parent) {
+        // the properties of a node share its subject, and are usually converted one after another
+        if (parent != lastParent) {
+            lastSubject = translator.convert(parent).asNode();
+            lastParent = parent;
+        }
+        return lastSubject;
+    }
+
+    private org.apache.jena.graph.Node predicate(final Property p) throws RepositoryException {
+        final Map<String, org.apache.jena.graph.Node> cache =
+                p.getType() == REFERENCE || p.getType() == WEAKREFERENCE ? referencePredicates : predicates;
+        final String name = p.getName();
+        final org.apache.jena.graph.Node predicate = cache.get(name);
+        if (predicate != null) {
+            return predicate;
+        }
+        final org.apache.jena.graph.Node converted = propertyConverter.convert(p).asNode();
+        cache.put(name, converted);
+        return converted;
+    }
+
     /**
-     * This method tests if a given value can be converted.
-     * The scenario when this may not be true is for (weak)reference properties that target an non-existent resource.
-     * This scenario generally should not be possible, but the following bug introduced the possibility:
+     * Convert a value to a triple, or to null if it cannot be converted.
+     * The scenario when a value cannot be converted is for (weak)reference properties that target an non-existent
+     * resource. This scenario generally should not be possible, but the following bug introduced the possibility:
      *   https://jira.duraspace.org/browse/FCREPO-2323
      *
-     * @param value to be tested for whether it can be converted to an RDFNode or not
-     * @return true if value can be converted
+     * @param subject the subject of the triple
+     * @param predicate the predicate of the triple
+     * @param lang the language tag carried in the name of the property, if any
+     * @param value the value to convert
+     * @return the triple, or null if the value cannot be converted
      */
-    private boolean valueCanBeConverted(final Value value) {
+    private Triple toTriple(final org.apache.jena.graph.Node subject, final org.apache.jena.graph.Node predicate,
+            final String lang, final Value value) {
+        final org.apache.jena.graph.Node object;
         try {
-            valueConverter.convert(value);
-            return true;
+            object = valueConverter.convert(value).asNode();
         } catch (final RepositoryRuntimeException e) {
             LOGGER.warn("Reference to non-existent resource encounterd: {}", value);
-            return false;
+            return null;
         }
-    };
+        if (lang != null && object.isLiteral()) {
+            final LiteralLabel literal = object.getLiteral();
+            final RDFDatatype datatype = literal.getDatatype();
+            if (datatype.getURI().isEmpty() || datatype.equals(XSDstring)) {
+                // this is an RDF string literal and could involve an RDF lang tag
+                return create(subject, predicate, createLiteral(literal.getLexicalForm(), lang, datatype));
+            }
+        }
+        return create(subject, predicate, object);
+    }
 }
@@ -21,6 +21,7 @@ import org.fcrepo.kernel.api.FedoraSession;
 import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
 import org.fcrepo.kernel.api.exception.ResourceTypeException;
 import org.fcrepo.kernel.api.models.FedoraBinary;
+import org.fcrepo.kernel.api.models.StagedContent;
 import org.fcrepo.kernel.api.services.BinaryService;
 import org.fcrepo.kernel.modeshape.FedoraBinaryImpl;
 import org.slf4j.Logger;
@@ -29,12 +30,16 @@ import org.springframework.stereotype.Component;
 import javax.jcr.Node;
 import javax.jcr.RepositoryException;
 
+import java.io.InputStream;
+
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_BINARY;
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_NON_RDF_SOURCE_DESCRIPTION;
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_RESOURCE;
+import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.getJcrSession;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getContainingNode;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.touch;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.touchLdpMembershipResource;
+import static org.fcrepo.kernel.modeshape.utils.LdpMembershipIndex.indexMember;
 import static org.modeshape.jcr.api.JcrConstants.JCR_CONTENT;
 import static org.modeshape.jcr.api.JcrConstants.NT_FILE;
 import static org.modeshape.jcr.api.JcrConstants.NT_RESOURCE;
@@ -64,6 +69,7 @@ public class BinaryServiceImpl extends AbstractService implements BinaryService
                 getContainingNode(dsNode).ifPresent(parent -> {
                     touch(parent);
                     touchLdpMembershipResource(dsNode);
+                    indexMember(dsNode);
                 });
             }
 
@@ -96,6 +102,15 @@ public class BinaryServiceImpl extends AbstractService implements BinaryService
         }
     }
 
+    @Override
+    public StagedContent stage(final FedoraSession session, final InputStream content) {
+        try {
+            return FedoraBinaryImpl.stage(getJcrSession(session), content, null);
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
     private static void initializeNewDatastreamProperties(final Node node) {
         try {
 
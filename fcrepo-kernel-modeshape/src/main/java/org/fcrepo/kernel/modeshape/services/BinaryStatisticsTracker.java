@@ -0,0 +1,453 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.services;
+
+import static java.util.Collections.reverseOrder;
+import static java.util.Map.Entry.comparingByValue;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.stream.Collectors.toMap;
+import static javax.jcr.observation.Event.NODE_MOVED;
+import static javax.jcr.observation.Event.NODE_REMOVED;
+import static javax.jcr.observation.Event.PROPERTY_ADDED;
+import static javax.jcr.observation.Event.PROPERTY_CHANGED;
+import static javax.jcr.observation.Event.PROPERTY_REMOVED;
+import static javax.jcr.query.Query.JCR_SQL2;
+import static org.apache.jena.datatypes.xsd.XSDDatatype.XSDstring;
+import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_BINARY;
+import static org.fcrepo.kernel.api.FedoraTypes.HAS_MIME_TYPE;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FIELD_DELIMITER;
+import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.getJcrSession;
+import static org.modeshape.jcr.api.JcrConstants.JCR_DATA;
+import static org.modeshape.jcr.api.JcrConstants.JCR_PATH;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.jcr.Node;
+import javax.jcr.PathNotFoundException;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.observation.Event;
+import javax.jcr.observation.EventIterator;
+import javax.jcr.observation.EventListener;
+import javax.jcr.query.RowIterator;
+
+import org.fcrepo.kernel.api.FedoraRepository;
+import org.fcrepo.kernel.api.utils.BinaryStatistics;
+import org.modeshape.jcr.api.Binary;
+import org.modeshape.jcr.cache.NodeNotFoundException;
+import org.slf4j.Logger;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps statistics on the binaries in the repository, distinguishing the bytes held by every binary from the
+ * bytes the binary store actually keeps, once for each distinct content, as identified by its SHA-1.
+ *
+ * The statistics are gathered once, by a query run in the background at startup, and are then kept up to date
+ * from the JCR events for the addition, change, removal and relocation of binary content, so that no later scan of
+ * the repository is needed. A summary is recorded from time to time to show how the repository grows. The bytes
+ * held by the binaries of each MIME type are kept in the same way.
+ *
+ * @author agent
+ */
+@Component
+public class BinaryStatisticsTracker implements EventListener {
+
+    private static final Logger LOGGER = getLogger(BinaryStatisticsTracker.class);
+
+    private static final int EVENT_TYPES = NODE_REMOVED + NODE_MOVED + PROPERTY_ADDED + PROPERTY_CHANGED
+            + PROPERTY_REMOVED;
+
+    private static final String SYSTEM_PATH = "/jcr:system";
+
+    private static final String DATA_SUFFIX = "/" + JCR_DATA;
+
+    private static final String MIME_TYPE_SUFFIX = "/" + HAS_MIME_TYPE;
+
+    private static final String DEFAULT_MIME_TYPE = "application/octet-stream";
+
+    @Inject
+    private FedoraRepository repository;
+
+    // the content of each binary, by the path of the node holding it
+    private final NavigableMap<String, Content> contents = new TreeMap<>();
+
+    // the number of binaries holding each content, by its hash
+    private final Map<String, Long> references = new HashMap<>();
+
+    // the bytes held by the binaries of each MIME type
+    private final Map<String, Long> mimeTypeSizes = new HashMap<>();
+
+    private long logicalSize;
+
+    private long uniqueSize;
+
+    private final Deque<BinaryStatistics> history = new ArrayDeque<>();
+
+    private Duration sampleInterval = Duration.ofHours(1);
+
+    private int historySize = 24 * 30;
+
+    // paths removed while the initial scan runs, which the scan must not restore
+    private Set<String> removedDuringScan = new HashSet<>();
+
+    private volatile boolean ready;
+
+    private Session session;
+
+    private final ExecutorService scan = newSingleThreadExecutor(task -> {
+        final Thread thread = new Thread(task, "fcrepo-binary-statistics");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The content of a single binary
+     */
+    private static class Content {
+
+        private final String hash;
+
+        private final long size;
+
+        private final String mimeType;
+
+        private Content(final String hash, final long size, final String mimeType) {
+            this.hash = hash;
+            this.size = size;
+            this.mimeType = mimeType;
+        }
+    }
+
+    /**
+     * Set how often a summary of the statistics is recorded as they change.
+     *
+     * @param sampleInterval the least time between summaries, in milliseconds
+     */
+    public void setSampleInterval(final long sampleInterval) {
+        this.sampleInterval = Duration.ofMillis(sampleInterval);
+    }
+
+    /**
+     * Set the number of summaries kept.
+     *
+     * @param historySize the largest number of summaries kept, after which the oldest are discarded
+     */
+    public void setHistorySize(final int historySize) {
+        this.historySize = historySize;
+    }
+
+    /**
+     * Listen for changes to binaries, and gather the statistics for the binaries already in the repository.
+     *
+     * @throws RepositoryException if repository exception occurred
+     */
+    @PostConstruct
+    public void start() throws RepositoryException {
+        session = getJcrSession(repository.login());
+        session.getWorkspace().getObservationManager()
+                .addEventListener(this, EVENT_TYPES, "/", true, null, null, false);
+        scan.execute(this::scan);
+    }
+
+    /**
+     * Stop listening for changes to binaries
+     *
+     * @throws RepositoryException if repository exception occurred
+     */
+    @PreDestroy
+    public void stop() throws RepositoryException {
+        scan.shutdownNow();
+        if (session.isLive()) {
+            try {
+                session.getWorkspace().getObservationManager().removeEventListener(this);
+            } finally {
+                session.logout();
+            }
+        }
+    }
+
+    /**
+     * Gather the statistics afresh, as when the content of the whole repository has been replaced by a restore,
+     * which also closes the session through which this tracker listens.
+     *
+     * @throws RepositoryException if repository exception occurred
+     */
+    public void restart() throws RepositoryException {
+        ready = false;
+        if (session.isLive()) {
+            session.getWorkspace().getObservationManager().removeEventListener(this);
+            session.logout();
+        }
+        synchronized (this) {
+            contents.clear();
+            references.clear();
+            mimeTypeSizes.clear();
+            logicalSize = 0;
+            uniqueSize = 0;
+            removedDuringScan = new HashSet<>();
+        }
+        start();
+    }
+
+    private void scan() {
+        final Session scanSession = getJcrSession(repository.login());
+        try {
+            LOGGER.info("Gathering statistics on the binaries in the repository");
+            final RowIterator rows = scanSession.getWorkspace().getQueryManager()
+                    .createQuery("SELECT [" + JCR_PATH + "] FROM [" + FEDORA_BINARY + "]", JCR_SQL2)
+                    .execute().getRows();
+            while (rows.hasNext() && !Thread.currentThread().isInterrupted()) {
+                final String path = rows.nextRow().getPath();
+                try {
+                    final Node node = scanSession.getNode(path);
+                    if (node.hasProperty(JCR_DATA)) {
+                        final Content content = contentOf(node);
+                        synchronized (this) {
+                            if (!wasRemovedDuringScan(path) && !contents.containsKey(path)) {
+                                add(path, content);
+                            }
+                        }
+                    }
+                } catch (final PathNotFoundException | NodeNotFoundException ex) {
+                    LOGGER.trace("Binary {} removed during the scan", path);
+                }
+            }
+            ready = !Thread.currentThread().isInterrupted();
+            LOGGER.info("Gathered statistics on {} binaries", getStatistics().getBinaryCount());
+        } catch (final RepositoryException ex) {
+            LOGGER.error("Unable to gather statistics on the binaries in the repository", ex);
+        } finally {
+            synchronized (this) {
+                removedDuringScan = null;
+            }
+            scanSession.logout();
+        }
+    }
+
+    private boolean wasRemovedDuringScan(final String path) {
+        for (String ancestor = path; !ancestor.isEmpty(); ancestor = parentOf(ancestor)) {
+            if (removedDuringScan.contains(ancestor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void onEvent(final EventIterator events) {
+        final Session lookup = getJcrSession(repository.login());
+        try {
+            while (events.hasNext()) {
+                final Event event = events.nextEvent();
+                final String path = event.getPath();
+                if (path.startsWith(SYSTEM_PATH)) {
+                    continue;
+                }
+                switch (event.getType()) {
+                    case NODE_REMOVED:
+                        removeAll(path);
+                        break;
+                    case NODE_MOVED:
+                        move((String) event.getInfo().get("srcAbsPath"), (String) event.getInfo().get("destAbsPath"));
+                        break;
+                    case PROPERTY_REMOVED:
+                        if (path.endsWith(DATA_SUFFIX)) {
+                            removeAll(parentOf(path));
+                        }
+                        break;
+                    default:
+                        if (path.endsWith(DATA_SUFFIX) || path.endsWith(MIME_TYPE_SUFFIX)) {
+                            update(lookup, parentOf(path));
+                        }
+                }
+            }
+        } catch (final RepositoryException ex) {
+            LOGGER.error("Unable to update the statistics on the binaries in the repository", ex);
+        } finally {
+            lookup.logout();
+        }
+    }
+
+    private void update(final Session lookup, final String path) throws RepositoryException {
+        try {
+            final Node node = lookup.getNode(path);
+            if (node.hasProperty(JCR_DATA)) {
+                final Content content = contentOf(node);
+                synchronized (this) {
+                    remove(path);
+                    add(path, content);
+                }
+            }
+        } catch (final PathNotFoundException ex) {
+            LOGGER.trace("Binary {} removed before its statistics were gathered", path);
+        }
+    }
+
+    private static Content contentOf(final Node node) throws RepositoryException {
+        final String mimeType = node.hasProperty(HAS_MIME_TYPE) ?
+                node.getProperty(HAS_MIME_TYPE).getString().replace(FIELD_DELIMITER + XSDstring.getURI(), "") :
+                DEFAULT_MIME_TYPE;
+        final javax.jcr.Binary binary = node.getProperty(JCR_DATA).getBinary();
+        try {
+            return new Content(binary instanceof Binary ? ((Binary) binary).getHexHash() : null, binary.getSize(),
+                    mimeType);
+        } finally {
+            binary.dispose();
+        }
+    }
+
+    private static String parentOf(final String path) {
+        return path.substring(0, path.lastIndexOf('/'));
+    }
+
+    private synchronized void add(final String path, final Content content) {
+        contents.put(path, content);
+        logicalSize += content.size;
+        mimeTypeSizes.merge(content.mimeType, content.size, Long::sum);
+        if (references.merge(content.hash, 1L, Long::sum) == 1L) {
+            uniqueSize += content.size;
+        }
+        sample();
+    }
+
+    private synchronized Content remove(final String path) {
+        final Content content = contents.remove(path);
+        if (content != null) {
+            logicalSize -= content.size;
+            if (mimeTypeSizes.merge(content.mimeType, -content.size, Long::sum) == 0L) {
+                mimeTypeSizes.remove(content.mimeType);
+            }
+            if (references.merge(content.hash, -1L, Long::sum) == 0L) {
+                references.remove(content.hash);
+                uniqueSize -= content.size;
+            }
+            sample();
+        }
+        return content;
+    }
+
+    /**
+     * Remove the binary at a path, and every binary beneath it
+     */
+    private synchronized void removeAll(final String path) {
+        if (removedDuringScan != null) {
+            removedDuringScan.add(path);
+        }
+        remove(path);
+        new ArrayList<>(beneath(path).keySet()).forEach(this::remove);
+    }
+
+    private synchronized void move(final String source, final String destination) {
+        if (source == null || destination == null) {
+            return;
+        }
+        final Map<String, Content> moved = new LinkedHashMap<>();
+        final Content content = remove(source);
+        if (content != null) {
+            moved.put(destination, content);
+        }
+        for (final String path : new ArrayList<>(beneath(source).keySet())) {
+            moved.put(destination + path.substring(source.length()), remove(path));
+        }
+        moved.forEach(this::add);
+    }
+
+    private NavigableMap<String, Content> beneath(final String path) {
+        // '0' is the character following '/'
+        return contents.subMap(path + "/", true, path + "0", false);
+    }
+
+    /**
+     * Record a summary of the statistics, if long enough has passed since the last
+     */
+    private void sample() {
+        final BinaryStatistics last = history.peekLast();
+        final Instant now = Instant.now();
+        if (last == null || !now.isBefore(last.getDate().plus(sampleInterval))) {
+            history.addLast(getStatistics());
+            while (history.size() > historySize) {
+                history.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * @return whether the statistics have been gathered for the binaries already in the repository, and are
+     *         complete
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return the current statistics
+     */
+    public synchronized BinaryStatistics getStatistics() {
+        return new BinaryStatistics(Instant.now(), contents.size(), references.size(), logicalSize, uniqueSize);
+    }
+
+    /**
+     * @return earlier summaries of the statistics, oldest first
+     */
+    public synchronized List<BinaryStatistics> getHistory() {
+        return new ArrayList<>(history);
+    }
+
+    /**
+     * @param hash the SHA-1 of a content, in hexadecimal
+     * @return the number of binaries with that content
+     */
+    public synchronized long getReferenceCount(final String hash) {
+        return references.getOrDefault(hash, 0L);
+    }
+
+    /**
+     * @param limit the largest number of contents to return
+     * @return the SHA-1 of each content with the number of binaries that share it, most first
+     */
+    public synchronized Map<String, Long> getMostReferenced(final int limit) {
+        return references.entrySet().stream()
+                .sorted(comparingByValue(reverseOrder()))
+                .limit(limit)
+                .collect(toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    /**
+     * @return the bytes held by the binaries of each MIME type
+     */
+    public synchronized Map<String, Long> getSizeByMimeType() {
+        return new HashMap<>(mimeTypeSizes);
+    }
+}
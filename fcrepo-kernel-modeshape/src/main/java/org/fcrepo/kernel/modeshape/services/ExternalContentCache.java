@@ -0,0 +1,198 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.services;
+
+import static java.nio.file.Files.copy;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.createTempFile;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.newDirectoryStream;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+
+/**
+ * A bounded cache, on local disk, of the content retrieved from external URIs, together with the validators (ETag
+ * and Last-Modified) with which the content may be revalidated. When the cache grows beyond its bounds, the entries
+ * least recently used are evicted.
+ *
+ * The index of the cache is held in memory, so the cache starts empty, and any files left in its directory by an
+ * earlier run are removed.
+ *
+ * @author agent
+ */
+public class ExternalContentCache {
+
+    private static final Logger LOGGER = getLogger(ExternalContentCache.class);
+
+    private static final String PREFIX = "external";
+
+    private final Path directory;
+
+    private final long maxSize;
+
+    private long size;
+
+    private final Map<URI, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Content cached for a single URI
+     */
+    public static class Entry {
+
+        private final Path file;
+
+        private final long size;
+
+        private final String etag;
+
+        private final String lastModified;
+
+        private Entry(final Path file, final long size, final String etag, final String lastModified) {
+            this.file = file;
+            this.size = size;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * @return the ETag with which the content was retrieved, or null if there was none
+         */
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * @return the Last-Modified date with which the content was retrieved, or null if there was none
+         */
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * @return the size of the content, in bytes
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Read the cached content. The content remains readable though the entry be evicted while it is read.
+         *
+         * @return the content
+         * @throws IOException if the content cannot be read
+         */
+        public InputStream open() throws IOException {
+            return new FileInputStream(file.toFile());
+        }
+    }
+
+    /**
+     * @param directory the directory in which to keep the cached content
+     * @param maxSize the largest number of bytes to keep
+     * @throws IOException if the directory cannot be created or cleared
+     */
+    public ExternalContentCache(final Path directory, final long maxSize) throws IOException {
+        this.directory = createDirectories(directory);
+        this.maxSize = maxSize;
+        try (final DirectoryStream<Path> files = newDirectoryStream(directory, PREFIX + "*")) {
+            for (final Path file : files) {
+                deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * @return the largest number of bytes kept
+     */
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @param uri the URI
+     * @return the content cached for the URI, or null if there is none
+     */
+    public synchronized Entry get(final URI uri) {
+        return entries.get(uri);
+    }
+
+    /**
+     * Cache the content retrieved from a URI, replacing any cached before, and evicting the entries least recently
+     * used to keep within bounds.
+     *
+     * @param uri the URI
+     * @param content the content, which is read to its end but not closed
+     * @param etag the ETag with which the content was retrieved, or null
+     * @param lastModified the Last-Modified date with which the content was retrieved, or null
+     * @return the entry cached
+     * @throws IOException if the content cannot be read or written
+     */
+    public Entry put(final URI uri, final InputStream content, final String etag, final String lastModified)
+            throws IOException {
+        final Path file = createTempFile(directory, PREFIX, null);
+        final Entry entry;
+        try {
+            copy(content, file, REPLACE_EXISTING);
+            entry = new Entry(file, Files.size(file), etag, lastModified);
+        } catch (final IOException ex) {
+            deleteIfExists(file);
+            throw ex;
+        }
+        synchronized (this) {
+            remove(entries.put(uri, entry));
+            size += entry.size;
+            for (final Iterator<Entry> eldest = entries.values().iterator(); size > maxSize && eldest.hasNext();) {
+                final Entry evicted = eldest.next();
+                eldest.remove();
+                remove(evicted);
+            }
+        }
+        return entry;
+    }
+
+    private void remove(final Entry entry) {
+        if (entry != null) {
+            size -= entry.size;
+            try {
+                deleteIfExists(entry.file);
+            } catch (final IOException ex) {
+                LOGGER.warn("Unable to remove cached external content {}", entry.file, ex);
+            }
+        }
+    }
+
+    /**
+     * @return the number of bytes kept
+     */
+    public synchronized long size() {
+        return size;
+    }
+}
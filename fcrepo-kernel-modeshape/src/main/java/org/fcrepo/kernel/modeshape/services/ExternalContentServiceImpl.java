@@ -17,52 +17,245 @@
  */
 package org.fcrepo.kernel.modeshape.services;
 
+import static java.lang.Integer.getInteger;
+import static java.lang.Long.getLong;
+import static java.lang.System.getProperty;
+import static org.apache.http.HttpHeaders.ETAG;
+import static org.apache.http.HttpHeaders.IF_MODIFIED_SINCE;
+import static org.apache.http.HttpHeaders.IF_NONE_MATCH;
+import static org.apache.http.HttpHeaders.LAST_MODIFIED;
+import static org.apache.http.HttpStatus.SC_NOT_MODIFIED;
+import static org.apache.http.HttpStatus.SC_OK;
+import static org.slf4j.LoggerFactory.getLogger;
+
 import org.fcrepo.kernel.api.services.ExternalContentService;
 
 import com.google.common.annotations.VisibleForTesting;
-import org.apache.http.HttpResponse;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.conn.HttpClientConnectionManager;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
 import org.apache.http.impl.client.HttpClients;
+import org.slf4j.Logger;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.file.Paths;
 
 /**
+ * Retrieves external content through a single client, shared by all requests, over the global connection pool.
+ *
+ * The client gives up on a server that does not accept a connection, or send data, within a timeout, and retries a
+ * request that fails for want of a connection. Content from a server that does not answer with success is refused.
+ *
+ * If the system property fcrepo.external.cache.directory names a directory, content that the server marks with an
+ * ETag or Last-Modified date is kept in a cache there, bounded to fcrepo.external.cache.size bytes, and is
+ * revalidated with the server before it is used again.
+ *
  * @author cabeer
  */
 @Component
 public class ExternalContentServiceImpl implements ExternalContentService {
 
+    private static final Logger LOGGER = getLogger(ExternalContentServiceImpl.class);
+
     @Inject
     private HttpClientConnectionManager connManager;
 
+    private int connectTimeout = getInteger("fcrepo.external.connectTimeout", 10000);
+
+    private int socketTimeout = getInteger("fcrepo.external.socketTimeout", 60000);
+
+    private int retries = getInteger("fcrepo.external.retries", 3);
+
+    private String cacheDirectory = getProperty("fcrepo.external.cache.directory");
+
+    private long cacheSize = getLong("fcrepo.external.cache.size", 1024L * 1024 * 1024);
+
+    private CloseableHttpClient client;
+
+    private ExternalContentCache cache;
+
     /**
      * Retrieve the content at the URI using the global connection pool.
      * @param sourceUri the source uri
      * @return the content at the URI using the global connection pool
      * @throws IOException if IO exception occurred
      */
-    @SuppressWarnings("resource")
     @Override
     public InputStream retrieveExternalContent(final URI sourceUri) throws IOException {
+        final ExternalContentCache cache = getCache();
+        final ExternalContentCache.Entry cached = cache == null ? null : cache.get(sourceUri);
+        // open the cached content before revalidating it, so that it cannot be evicted before it is served
+        final InputStream pinned = open(cached);
         final HttpGet httpGet = new HttpGet(sourceUri);
-        final CloseableHttpClient client = getCloseableHttpClient();
-        final HttpResponse response = client.execute(httpGet);
-        return response.getEntity().getContent();
+        if (pinned != null) {
+            if (cached.getEtag() != null) {
+                httpGet.setHeader(IF_NONE_MATCH, cached.getEtag());
+            }
+            if (cached.getLastModified() != null) {
+                httpGet.setHeader(IF_MODIFIED_SINCE, cached.getLastModified());
+            }
+        }
+        final CloseableHttpResponse response;
+        try {
+            response = getCloseableHttpClient().execute(httpGet);
+        } catch (final IOException | RuntimeException ex) {
+            closeQuietly(pinned);
+            throw ex;
+        }
+        try {
+            final int status = response.getStatusLine().getStatusCode();
+            if (pinned != null && status == SC_NOT_MODIFIED) {
+                LOGGER.debug("Serving external content {} from the cache", sourceUri);
+                response.close();
+                return pinned;
+            }
+            closeQuietly(pinned);
+            if (status < 200 || status >= 300) {
+                throw new IOException("Unable to retrieve external content " + sourceUri + ": " +
+                        response.getStatusLine());
+            }
+            final HttpEntity entity = response.getEntity();
+            if (isCacheable(cache, response, entity)) {
+                try (final InputStream content = entity.getContent()) {
+                    return cache.put(sourceUri, content, value(response.getFirstHeader(ETAG)),
+                            value(response.getFirstHeader(LAST_MODIFIED))).open();
+                } finally {
+                    response.close();
+                }
+            }
+            return new FilterInputStream(entity.getContent()) {
+
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        response.close();
+                    }
+                }
+            };
+        } catch (final IOException | RuntimeException ex) {
+            response.close();
+            throw ex;
+        }
+    }
+
+    private static InputStream open(final ExternalContentCache.Entry cached) {
+        if (cached != null) {
+            try {
+                return cached.open();
+            } catch (final IOException ex) {
+                LOGGER.debug("Cached external content was evicted before it could be revalidated", ex);
+            }
+        }
+        return null;
+    }
+
+    private static void closeQuietly(final InputStream stream) {
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (final IOException ex) {
+                LOGGER.debug("Unable to close cached external content", ex);
+            }
+        }
+    }
+
+    private static boolean isCacheable(final ExternalContentCache cache, final CloseableHttpResponse response,
+            final HttpEntity entity) {
+        return cache != null && response.getStatusLine().getStatusCode() == SC_OK &&
+                (response.containsHeader(ETAG) || response.containsHeader(LAST_MODIFIED)) &&
+                entity.getContentLength() >= 0 && entity.getContentLength() <= cache.getMaxSize() / 4;
+    }
+
+    private static String value(final Header header) {
+        return header == null ? null : header.getValue();
+    }
+
+    /**
+     * Close the shared client, and with it the connections it holds
+     *
+     * @throws IOException if IO exception occurred
+     */
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (client != null) {
+            client.close();
+            client = null;
+        }
     }
 
     @VisibleForTesting
-    protected CloseableHttpClient getCloseableHttpClient() {
-        return HttpClients.createMinimal(connManager);
+    protected synchronized CloseableHttpClient getCloseableHttpClient() {
+        if (client == null) {
+            client = HttpClients.custom()
+                    .setConnectionManager(connManager)
+                    .setConnectionManagerShared(true)
+                    .setRetryHandler(new DefaultHttpRequestRetryHandler(retries, false))
+                    .setDefaultRequestConfig(RequestConfig.custom()
+                            .setConnectTimeout(connectTimeout)
+                            .setConnectionRequestTimeout(connectTimeout)
+                            .setSocketTimeout(socketTimeout).build())
+                    .build();
+        }
+        return client;
+    }
+
+    private synchronized ExternalContentCache getCache() throws IOException {
+        if (cache == null && cacheDirectory != null) {
+            cache = new ExternalContentCache(Paths.get(cacheDirectory), cacheSize);
+        }
+        return cache;
     }
 
     @VisibleForTesting
     protected void setConnManager(final HttpClientConnectionManager connManager) {
         this.connManager = connManager;
     }
+
+    /**
+     * @param connectTimeout the time to wait for a connection, in milliseconds
+     */
+    public void setConnectTimeout(final int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    /**
+     * @param socketTimeout the time to wait for data, in milliseconds
+     */
+    public void setSocketTimeout(final int socketTimeout) {
+        this.socketTimeout = socketTimeout;
+    }
+
+    /**
+     * @param retries the number of times a request that fails for want of a connection is retried
+     */
+    public void setRetries(final int retries) {
+        this.retries = retries;
+    }
+
+    /**
+     * @param cacheDirectory the directory in which to cache external content, or null to cache none
+     */
+    public void setCacheDirectory(final String cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * @param cacheSize the largest number of bytes of external content to cache
+     */
+    public void setCacheSize(final long cacheSize) {
+        this.cacheSize = cacheSize;
+    }
 }
@@ -0,0 +1,119 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.services;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static javax.jcr.query.Query.JCR_SQL2;
+import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_CONTAINER;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_DIRECT_CONTAINER;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_INDIRECT_CONTAINER;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMBERSHIP_INDEX;
+import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.getJcrSession;
+import static org.fcrepo.kernel.modeshape.utils.LdpMembershipIndex.checkIndex;
+import static org.fcrepo.kernel.modeshape.utils.LdpMembershipIndex.rebuildIndex;
+import static org.modeshape.jcr.api.JcrConstants.JCR_MIXIN_TYPES;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.fcrepo.kernel.api.FedoraSession;
+import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
+import org.fcrepo.kernel.api.services.MembershipService;
+import org.fcrepo.metrics.RegistryService;
+import org.slf4j.Logger;
+import org.springframework.stereotype.Component;
+
+import com.codahale.metrics.Timer;
+
+/**
+ * Service for rebuilding and checking the membership index of LDP Direct and Indirect containers
+ *
+ * @author agent
+ */
+@Component
+public class MembershipServiceImpl extends AbstractService implements MembershipService {
+
+    private static final Logger LOGGER = getLogger(MembershipServiceImpl.class);
+
+    private final Timer rebuildTimer = RegistryService.getInstance().getMetrics().timer(
+            name(MembershipService.class, "rebuildMembershipIndex"));
+
+    private final Timer checkTimer = RegistryService.getInstance().getMetrics().timer(
+            name(MembershipService.class, "checkMembershipIndex"));
+
+    @Override
+    public long rebuildMembershipIndex(final FedoraSession session, final String path) {
+        try (final Timer.Context context = rebuildTimer.time()) {
+            long rebuilt = 0;
+            for (final Node container : findContainers(getJcrSession(session), path)) {
+                rebuildIndex(container);
+                rebuilt++;
+            }
+            LOGGER.info("Rebuilt the membership index of {} containers at or beneath {}", rebuilt, path);
+            return rebuilt;
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    @Override
+    public Collection<String> checkMembershipIndex(final FedoraSession session, final String path) {
+        try (final Timer.Context context = checkTimer.time()) {
+            final List<String> inconsistent = new ArrayList<>();
+            for (final Node container : findContainers(getJcrSession(session), path)) {
+                if (!checkIndex(container)) {
+                    LOGGER.warn("Membership index of {} is inconsistent with its children", container.getPath());
+                    inconsistent.add(container.getPath());
+                }
+            }
+            return inconsistent;
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Find the containers at or beneath a path that are direct or indirect containers, or that have a membership
+     * index.
+     */
+    private static List<Node> findContainers(final Session session, final String path) throws RepositoryException {
+        final StringBuilder query = new StringBuilder("SELECT * FROM [" + FEDORA_CONTAINER + "] AS c WHERE (c.["
+                + JCR_MIXIN_TYPES + "] = '" + LDP_DIRECT_CONTAINER + "' OR c.[" + JCR_MIXIN_TYPES + "] = '"
+                + LDP_INDIRECT_CONTAINER + "' OR c.[" + MEMBERSHIP_INDEX + "] IS NOT NULL)");
+        if (!path.equals("/")) {
+            final String quoted = "'" + path.replace("'", "''") + "'";
+            query.append(" AND (ISSAMENODE(c, ").append(quoted).append(") OR ISDESCENDANTNODE(c, ")
+                    .append(quoted).append("))");
+        }
+
+        final NodeIterator nodes = session.getWorkspace().getQueryManager().createQuery(query.toString(), JCR_SQL2)
+                .execute().getNodes();
+        final List<Node> containers = new ArrayList<>();
+        while (nodes.hasNext()) {
+            containers.add(nodes.nextNode());
+        }
+        return containers;
+    }
+}
@@ -19,11 +19,16 @@ package org.fcrepo.kernel.modeshape.services;
 
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_TOMBSTONE;
 import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.getJcrSession;
+import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getContainingNode;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getJcrNode;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.touchLdpMembershipResource;
+import static org.fcrepo.kernel.modeshape.utils.LdpMembershipIndex.indexMember;
+import static org.fcrepo.kernel.modeshape.utils.LdpMembershipIndex.unindexMember;
 import static org.fcrepo.kernel.modeshape.utils.NamespaceTools.validatePath;
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.util.Optional;
+
 import javax.jcr.Node;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
@@ -95,6 +100,7 @@ public class NodeServiceImpl extends AbstractService implements NodeService {
         try {
             jcrSession.getWorkspace().copy(source, destination);
             touchLdpMembershipResource(getJcrNode(find(session, destination)));
+            indexMember(getJcrNode(find(session, destination)));
         } catch (final RepositoryException e) {
             throw new RepositoryRuntimeException(e);
         }
@@ -115,6 +121,7 @@ public class NodeServiceImpl extends AbstractService implements NodeService {
             final Node sourceNode = getJcrNode(srcResource);
             final String name = sourceNode.getName();
             final Node parent = sourceNode.getDepth() > 0 ? sourceNode.getParent() : null;
+            final Optional<Node> containingNode = getContainingNode(sourceNode);
 
             jcrSession.getWorkspace().move(source, destination);
 
@@ -125,6 +132,9 @@ public class NodeServiceImpl extends AbstractService implements NodeService {
             touchLdpMembershipResource(getJcrNode(find(session, source)));
             touchLdpMembershipResource(getJcrNode(find(session, destination)));
 
+            containingNode.ifPresent(container -> unindexMember(container, source));
+            indexMember(getJcrNode(find(session, destination)));
+
         } catch (final RepositoryException e) {
             throw new RepositoryRuntimeException(e);
         }
@@ -0,0 +1,254 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.services;
+
+import static java.lang.Long.getLong;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static javax.jcr.observation.Event.NODE_ADDED;
+import static javax.jcr.observation.Event.NODE_REMOVED;
+import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_CONTAINER;
+import static org.fcrepo.kernel.modeshape.FedoraRepositoryImpl.getJcrRepository;
+import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.getJcrSession;
+import static org.fcrepo.kernel.modeshape.services.ServiceHelpers.getBinaryCount;
+import static org.fcrepo.kernel.modeshape.services.ServiceHelpers.getRepositoryCount;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.nodetype.NodeType;
+import javax.jcr.observation.Event;
+import javax.jcr.observation.EventIterator;
+import javax.jcr.observation.EventListener;
+
+import org.fcrepo.kernel.api.FedoraRepository;
+import org.slf4j.Logger;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the containers in the repository as they are added and removed, so that the count may be read without a
+ * query, and reconciles that count, and the statistics kept by the {@link BinaryStatisticsTracker}, with the
+ * repository from time to time.
+ *
+ * The count is first taken by a query run in the background at startup, and is then kept from the JCR events for
+ * the addition and removal of containers. The repository reports the removal of every node of a removed subtree,
+ * and reports a move as the addition of its root at the destination and its removal at the source, so a single
+ * counter is enough. Since those events arrive after the changes they describe are saved, the count may lag briefly
+ * behind the repository.
+ *
+ * A change saved while the count is taken may or may not be seen by the query, so the count is taken again should
+ * containers be added or removed meanwhile; if the repository is never quiet for long enough, the last count is
+ * kept as it is, and reconciliation corrects any drift. Reconciliation runs hourly by default, and may be disabled
+ * by setting fcrepo.counters.reconcileInterval to 0.
+ *
+ * @author agent
+ */
+@Component
+public class RepositoryCounters implements EventListener {
+
+    private static final Logger LOGGER = getLogger(RepositoryCounters.class);
+
+    private static final String SYSTEM_PATH = "/jcr:system";
+
+    private static final int COUNT_ATTEMPTS = 3;
+
+    @Inject
+    private FedoraRepository repository;
+
+    @Inject
+    private BinaryStatisticsTracker binaryStatistics;
+
+    private long reconcileInterval = getLong("fcrepo.counters.reconcileInterval", 60 * 60 * 1000);
+
+    private long containerCount;
+
+    // the number of containers added or removed since the count was last taken
+    private long changesSinceCount;
+
+    private volatile boolean ready;
+
+    private Session session;
+
+    private final ScheduledExecutorService reconciliation = newSingleThreadScheduledExecutor(task -> {
+        final Thread thread = new Thread(task, "fcrepo-repository-counters");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Set how often the counts are reconciled with the repository.
+     *
+     * @param reconcileInterval the time between reconciliations, in milliseconds, or 0 never to reconcile them
+     */
+    public void setReconcileInterval(final long reconcileInterval) {
+        this.reconcileInterval = reconcileInterval;
+    }
+
+    /**
+     * Listen for the addition and removal of containers, and take the first count of them.
+     *
+     * @throws RepositoryException if repository exception occurred
+     */
+    @PostConstruct
+    public void start() throws RepositoryException {
+        listen();
+        if (reconcileInterval > 0) {
+            reconciliation.scheduleWithFixedDelay(this::reconcile, reconcileInterval, reconcileInterval,
+                    MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stop listening for the addition and removal of containers
+     *
+     * @throws RepositoryException if repository exception occurred
+     */
+    @PreDestroy
+    public void stop() throws RepositoryException {
+        reconciliation.shutdownNow();
+        stopListening();
+    }
+
+    /**
+     * Count the containers afresh, as when the content of the whole repository has been replaced by a restore,
+     * which also closes the session through which this counter listens.
+     *
+     * @throws RepositoryException if repository exception occurred
+     */
+    public void restart() throws RepositoryException {
+        ready = false;
+        stopListening();
+        listen();
+    }
+
+    private void listen() throws RepositoryException {
+        session = getJcrSession(repository.login());
+        session.getWorkspace().getObservationManager()
+                .addEventListener(this, NODE_ADDED + NODE_REMOVED, "/", true, null, null, false);
+        reconciliation.submit(this::countContainers);
+    }
+
+    private void stopListening() throws RepositoryException {
+        if (session.isLive()) {
+            try {
+                session.getWorkspace().getObservationManager().removeEventListener(this);
+            } finally {
+                session.logout();
+            }
+        }
+    }
+
+    @Override
+    public void onEvent(final EventIterator events) {
+        try {
+            long added = 0;
+            long changed = 0;
+            while (events.hasNext()) {
+                final Event event = events.nextEvent();
+                if (!event.getPath().startsWith(SYSTEM_PATH) && isContainer(event)) {
+                    added += event.getType() == NODE_ADDED ? 1 : -1;
+                    changed++;
+                }
+            }
+            synchronized (this) {
+                containerCount += added;
+                changesSinceCount += changed;
+            }
+        } catch (final RepositoryException ex) {
+            LOGGER.error("Unable to update the count of containers in the repository", ex);
+        }
+    }
+
+    private static boolean isContainer(final Event event) throws RepositoryException {
+        if (event instanceof org.modeshape.jcr.api.observation.Event) {
+            for (final NodeType type : ((org.modeshape.jcr.api.observation.Event) event).getMixinNodeTypes()) {
+                if (type.isNodeType(FEDORA_CONTAINER)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void countContainers() {
+        try {
+            for (int attempt = 1; attempt <= COUNT_ATTEMPTS; attempt++) {
+                synchronized (this) {
+                    changesSinceCount = 0;
+                }
+                final long counted = getRepositoryCount(getJcrRepository(repository));
+                synchronized (this) {
+                    if (changesSinceCount == 0 || attempt == COUNT_ATTEMPTS) {
+                        if (ready && counted != containerCount) {
+                            LOGGER.info("Reconciled the count of containers from {} to {}", containerCount,
+                                    counted);
+                        }
+                        containerCount = counted;
+                        break;
+                    }
+                }
+                LOGGER.debug("Containers were added or removed while they were counted, counting them again");
+            }
+            ready = true;
+        } catch (final RepositoryException ex) {
+            LOGGER.error("Unable to count the containers in the repository", ex);
+        }
+    }
+
+    /**
+     * Count the containers and binaries in the repository by query, correcting the count of containers, and
+     * gathering the statistics on binaries afresh if their count has drifted.
+     */
+    public void reconcile() {
+        countContainers();
+        if (binaryStatistics.isReady()) {
+            try {
+                final Repository repo = getJcrRepository(repository);
+                final long tracked = binaryStatistics.getStatistics().getBinaryCount();
+                final long counted = getBinaryCount(repo);
+                if (tracked != counted) {
+                    LOGGER.info("Found {} binaries where {} were tracked, gathering their statistics afresh",
+                            counted, tracked);
+                    binaryStatistics.restart();
+                }
+            } catch (final RepositoryException ex) {
+                LOGGER.error("Unable to reconcile the statistics on the binaries in the repository", ex);
+            }
+        }
+    }
+
+    /**
+     * @return whether the containers have been counted since startup, and the count may be relied upon
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return the number of containers in the repository
+     */
+    public synchronized long getContainerCount() {
+        return containerCount;
+    }
+}
@@ -26,11 +26,14 @@ import static org.slf4j.LoggerFactory.getLogger;
 import org.fcrepo.kernel.api.FedoraSession;
 import org.fcrepo.kernel.api.FedoraRepository;
 import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
+import org.fcrepo.kernel.api.utils.BinaryStatistics;
 import org.fcrepo.metrics.RegistryService;
 
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 
 import javax.inject.Inject;
@@ -57,18 +60,28 @@ public class RepositoryServiceImpl extends AbstractService implements Repository
     @Inject
     private FedoraRepository repository;
 
+    @Inject
+    private BinaryStatisticsTracker binaryStatistics;
+
+    @Inject
+    private RepositoryCounters counters;
+
     private static final Logger LOGGER = getLogger(RepositoryServiceImpl.class);
 
     private final Timer objectSizeCalculationTimer = RegistryService.getInstance().getMetrics().timer(
             name(RepositoryService.class, "objectSizeCalculation"));
 
     /**
-     * Calculate the total size of all the binary properties in the repository
+     * Calculate the total size of all the binary properties in the repository, as tracked by the
+     * {@link BinaryStatisticsTracker} or, until it has gathered its statistics, by query
      *
      * @return size in bytes
      */
     @Override
     public Long getRepositorySize() {
+        if (binaryStatistics.isReady()) {
+            return binaryStatistics.getStatistics().getLogicalSize();
+        }
         try {
 
             LOGGER.debug("Calculating repository size from index");
@@ -92,6 +105,9 @@ public class RepositoryServiceImpl extends AbstractService implements Repository
      */
     @Override
     public Long getRepositoryObjectCount() {
+        if (counters.isReady()) {
+            return counters.getContainerCount();
+        }
         final Repository repo = getJcrRepository(repository);
         try {
             return getRepositoryCount(repo);
@@ -143,6 +159,8 @@ public class RepositoryServiceImpl extends AbstractService implements Repository
             final Collection<Throwable> problems = new ArrayList<>();
 
             repoMgr.restoreRepository(backupDirectory).forEach(x -> problems.add(x.getThrowable()));
+            binaryStatistics.restart();
+            counters.restart();
 
             return problems;
         } catch (final RepositoryException e) {
@@ -150,4 +168,29 @@ public class RepositoryServiceImpl extends AbstractService implements Repository
         }
     }
 
+    @Override
+    public Map<String, Long> getRepositorySizeByMimeType() {
+        return binaryStatistics.getSizeByMimeType();
+    }
+
+    @Override
+    public BinaryStatistics getBinaryStatistics() {
+        return binaryStatistics.getStatistics();
+    }
+
+    @Override
+    public List<BinaryStatistics> getBinaryStatisticsHistory() {
+        return binaryStatistics.getHistory();
+    }
+
+    @Override
+    public long getBinaryReferenceCount(final String hash) {
+        return binaryStatistics.getReferenceCount(hash);
+    }
+
+    @Override
+    public Map<String, Long> getMostReferencedBinaries(final int limit) {
+        return binaryStatistics.getMostReferenced(limit);
+    }
+
 }
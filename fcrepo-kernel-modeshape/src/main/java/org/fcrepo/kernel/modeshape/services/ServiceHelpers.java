@@ -165,6 +165,23 @@ public class ServiceHelpers {
         }
     }
 
+    /**
+     * @param repository the repository
+     * @return the number of fedora:Binary nodes in the repository
+     * @throws RepositoryException if repository exception occurred
+     */
+    public static long getBinaryCount(final Repository repository)
+        throws RepositoryException {
+        final Session session = repository.login();
+        try {
+            final String querystring = "SELECT [" + JCR_PATH + "] FROM [" + FEDORA_BINARY + "]";
+            return session.getWorkspace().getQueryManager().createQuery(querystring, JCR_SQL2).execute().getRows()
+                    .getSize();
+        } finally {
+            session.logout();
+        }
+    }
+
     /**
      * @param repository the repository
      * @return a double of the size of the fedora:datastream binary content
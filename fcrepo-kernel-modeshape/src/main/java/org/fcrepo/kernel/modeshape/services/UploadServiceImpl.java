@@ -0,0 +1,282 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.services;
+
+import static java.lang.Long.getLong;
+import static java.lang.String.format;
+import static java.lang.System.getProperty;
+import static java.nio.file.Files.copy;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.createTempFile;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.move;
+import static java.nio.file.Files.newDirectoryStream;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.time.Instant.now;
+import static java.util.Collections.unmodifiableSortedMap;
+import static java.util.UUID.randomUUID;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.fcrepo.kernel.api.exception.InvalidChecksumException;
+import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
+import org.fcrepo.kernel.api.exception.SessionMissingException;
+import org.fcrepo.kernel.api.services.UploadService;
+import org.fcrepo.kernel.api.utils.ContentDigest;
+import org.fcrepo.kernel.modeshape.utils.MultiDigestInputStream;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stages the chunks of each upload as files in a directory of their own on local disk, so that the content of an
+ * upload may be read in a single pass over its chunks, in order, without first being copied into one file.
+ *
+ * The staging directory is given by the system property fcrepo.upload.directory, and an upload is removed once it
+ * has been idle for the number of milliseconds given by fcrepo.upload.timeout. The registry of uploads is held in
+ * memory, so any chunks left in the staging directory by an earlier run are removed.
+ *
+ * @author agent
+ */
+@Component
+public class UploadServiceImpl implements UploadService {
+
+    private static final Logger LOGGER = getLogger(UploadServiceImpl.class);
+
+    @VisibleForTesting
+    public static final long REAP_INTERVAL = 60000;
+
+    private static final String PREFIX = "upload-";
+
+    private Path directory = Paths.get(getProperty("fcrepo.upload.directory",
+            Paths.get(getProperty("java.io.tmpdir"), "fcrepo-uploads").toString()));
+
+    private long timeout = getLong("fcrepo.upload.timeout", 24L * 60 * 60 * 1000);
+
+    private boolean cleared;
+
+    private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+
+    /**
+     * The chunks staged for a single upload
+     */
+    private static class Upload {
+
+        private final String username;
+
+        private final Path directory;
+
+        private final SortedMap<Integer, Long> chunks = new ConcurrentSkipListMap<>();
+
+        private volatile Instant lastAccessed = now();
+
+        private Upload(final String username, final Path directory) {
+            this.username = username;
+            this.directory = directory;
+        }
+
+        private Path chunk(final int index) {
+            return directory.resolve("chunk" + index);
+        }
+    }
+
+    /**
+     * @param directory the directory in which to stage uploads
+     */
+    public void setDirectory(final Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @param timeout the number of milliseconds an upload may be idle before it is removed
+     */
+    public void setTimeout(final long timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Every REAP_INTERVAL milliseconds, check for uploads that have been idle too long and remove them.
+     */
+    @Override
+    @Scheduled(fixedRate = REAP_INTERVAL)
+    public void removeExpired() {
+        final Instant cutoff = now().minusMillis(timeout);
+        uploads.entrySet().stream()
+                .filter(e -> e.getValue().lastAccessed.isBefore(cutoff))
+                .map(Map.Entry::getKey).collect(toList())
+                .forEach(id -> {
+                    LOGGER.debug("Removing expired upload {}", id);
+                    remove(id);
+                });
+    }
+
+    @Override
+    public String create(final String username) {
+        final String id = randomUUID().toString();
+        try {
+            uploads.put(id, new Upload(username, createDirectories(stagingDirectory().resolve(PREFIX + id))));
+        } catch (final IOException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+        LOGGER.debug("Created upload {}", id);
+        return id;
+    }
+
+    @Override
+    public boolean exists(final String uploadId, final String username) {
+        final Upload upload = uploads.get(uploadId);
+        return upload != null && Objects.equals(upload.username, username);
+    }
+
+    @Override
+    public long putChunk(final String uploadId, final String username, final int index, final InputStream content,
+            final Collection<URI> checksums) throws InvalidChecksumException {
+        final Upload upload = getUpload(uploadId, username);
+        try {
+            final Path file = createTempFile(upload.directory, "staging", null);
+            try {
+                final MultiDigestInputStream digestStream = new MultiDigestInputStream(content,
+                        checksums.stream().map(ContentDigest::getAlgorithm).collect(toSet()));
+                final long size = copy(digestStream, file, REPLACE_EXISTING);
+
+                final Map<String, URI> computed = digestStream.getDigests();
+                final String mismatches = checksums.stream()
+                        .filter(checksum -> !checksum.equals(computed.get(ContentDigest.getAlgorithm(checksum))))
+                        .map(checksum -> format("Checksum Mismatch of %1$s and %2$s\n", checksum,
+                                computed.get(ContentDigest.getAlgorithm(checksum))))
+                        .collect(joining());
+                if (!mismatches.isEmpty()) {
+                    throw new InvalidChecksumException(mismatches);
+                }
+
+                synchronized (upload) {
+                    move(file, upload.chunk(index), REPLACE_EXISTING);
+                    upload.chunks.put(index, size);
+                }
+                upload.lastAccessed = now();
+                return size;
+            } finally {
+                deleteIfExists(file);
+            }
+        } catch (final IOException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    @Override
+    public SortedMap<Integer, Long> getChunks(final String uploadId, final String username) {
+        return unmodifiableSortedMap(new TreeMap<>(getUpload(uploadId, username).chunks));
+    }
+
+    @Override
+    public InputStream getContent(final String uploadId, final String username) {
+        final Upload upload = getUpload(uploadId, username);
+        final Iterator<Path> chunks = upload.chunks.keySet().stream().map(upload::chunk).collect(toList()).iterator();
+
+        // open each chunk only once the one before it has been read
+        return new SequenceInputStream(new Enumeration<InputStream>() {
+
+            @Override
+            public boolean hasMoreElements() {
+                return chunks.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                try {
+                    upload.lastAccessed = now();
+                    return new FileInputStream(chunks.next().toFile());
+                } catch (final IOException e) {
+                    throw new RepositoryRuntimeException(e);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void delete(final String uploadId, final String username) {
+        getUpload(uploadId, username);
+        remove(uploadId);
+        LOGGER.debug("Deleted upload {}", uploadId);
+    }
+
+    private Upload getUpload(final String uploadId, final String username) {
+        final Upload upload = uploads.get(uploadId);
+        if (upload == null || !Objects.equals(upload.username, username)) {
+            throw new SessionMissingException("Upload with id: " + uploadId + " is not available");
+        }
+        upload.lastAccessed = now();
+        return upload;
+    }
+
+    private void remove(final String uploadId) {
+        final Upload upload = uploads.remove(uploadId);
+        if (upload != null) {
+            synchronized (upload) {
+                clear(upload.directory);
+            }
+        }
+    }
+
+    private synchronized Path stagingDirectory() throws IOException {
+        if (!cleared) {
+            createDirectories(directory);
+            try (final DirectoryStream<Path> staged = newDirectoryStream(directory, PREFIX + "*")) {
+                staged.forEach(UploadServiceImpl::clear);
+            }
+            cleared = true;
+        }
+        return directory;
+    }
+
+    private static void clear(final Path uploadDirectory) {
+        try {
+            try (final DirectoryStream<Path> files = newDirectoryStream(uploadDirectory)) {
+                for (final Path file : files) {
+                    deleteIfExists(file);
+                }
+            }
+            deleteIfExists(uploadDirectory);
+        } catch (final IOException e) {
+            LOGGER.warn("Unable to remove staged upload {}", uploadDirectory, e);
+        }
+    }
+}
@@ -25,12 +25,23 @@ import org.fcrepo.kernel.api.utils.FixityResult;
 import org.slf4j.Logger;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
-import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
@@ -41,9 +52,7 @@ import static org.slf4j.LoggerFactory.getLogger;
  */
 public abstract class BasicCacheEntry implements CacheEntry {
 
-    private static final int DEV_NULL_BUFFER_SIZE = 4096;
-
-    private static final byte[] devNull = new byte[DEV_NULL_BUFFER_SIZE];
+    private static final int BUFFER_SIZE = 1024 * 1024;
 
     private static final Logger LOGGER = getLogger(BasicCacheEntry.class);
 
@@ -56,30 +65,90 @@ public abstract class BasicCacheEntry implements CacheEntry {
      */
     @Override
     public Collection<FixityResult> checkFixity(final String algorithm) {
+        return checkFixity(singletonList(algorithm));
+    }
 
-        try (FixityInputStream fixityInputStream = new FixityInputStream(
-                this.getInputStream(), MessageDigest.getInstance(algorithm))) {
+    /**
+     * Calculate the fixity of a CacheEntry for several algorithms, reading it only once.  While one buffer is
+     * being digested, by each algorithm in parallel, the next is read.
+     *
+     * @param algorithms the digest algorithms to be used
+     * @return the fixity of this cache entry, one result for each algorithm
+     */
+    @Override
+    public Collection<FixityResult> checkFixity(final Collection<String> algorithms) {
+        final Map<String, MessageDigest> digests = new LinkedHashMap<>();
+        try {
+            for (final String algorithm : algorithms) {
+                digests.put(algorithm, MessageDigest.getInstance(algorithm));
+            }
+        } catch (final NoSuchAlgorithmException e) {
+            throw new RepositoryRuntimeException(e);
+        }
 
-            // actually calculate the digest by consuming the stream
-            while (fixityInputStream.read(devNull) != -1) { }
+        try (final InputStream stream = this.getInputStream();
+                final ReadableByteChannel channel = Channels.newChannel(stream)) {
+            // heap buffers: a channel over a stream copies through a heap array anyway, and direct buffers would
+            // only be freed by the collector, exhausting direct memory under concurrent checks
+            ByteBuffer reading = ByteBuffer.allocate(BUFFER_SIZE);
+            ByteBuffer digesting = ByteBuffer.allocate(BUFFER_SIZE);
+            List<ForkJoinTask<?>> pending = new ArrayList<>();
+            long size = 0;
 
-            final URI calculatedChecksum =
-                    ContentDigest.asURI(algorithm, fixityInputStream.getMessageDigest().digest());
+            while (fill(channel, reading)) {
+                join(pending);
+                final ByteBuffer filled = reading;
+                reading = digesting;
+                digesting = filled;
+                digesting.flip();
+                size += digesting.remaining();
+                pending = update(digests.values(), digesting);
+            }
+            join(pending);
 
-            final FixityResult result =
-                new FixityResultImpl(getExternalIdentifier(),
-                                    fixityInputStream.getByteCount(),
-                                    calculatedChecksum,
-                                    algorithm);
+            final long computedSize = size;
+            final List<FixityResult> results = digests.entrySet().stream().map(entry -> {
+                final URI calculatedChecksum = ContentDigest.asURI(entry.getKey(), entry.getValue().digest());
+                return (FixityResult) new FixityResultImpl(getExternalIdentifier(), computedSize,
+                        calculatedChecksum, entry.getKey());
+            }).collect(toList());
 
-            LOGGER.debug("Got {}", result.toString());
+            LOGGER.debug("Got {}", results);
 
-            return asList(result);
+            return results;
         } catch (final IOException e) {
             LOGGER.debug("Got error closing input stream: {}", e);
             throw new RepositoryRuntimeException(e);
-        } catch (final NoSuchAlgorithmException e1) {
-            throw new RepositoryRuntimeException(e1);
         }
     }
+
+    /*
+     * Read from the channel until the buffer is full or the channel is exhausted, returning whether anything was
+     * read.
+     */
+    private static boolean fill(final ReadableByteChannel channel, final ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) == -1) {
+                break;
+            }
+        }
+        return buffer.position() > 0;
+    }
+
+    /*
+     * Feed the buffer to each digest; a single digest is updated directly, several are updated in parallel.
+     */
+    private static List<ForkJoinTask<?>> update(final Collection<MessageDigest> digests, final ByteBuffer buffer) {
+        if (digests.size() == 1) {
+            digests.forEach(digest -> digest.update(buffer.duplicate()));
+            return new ArrayList<>();
+        }
+        return digests.stream().map(digest -> ForkJoinPool.commonPool().submit(() ->
+                digest.update(buffer.duplicate()))).collect(toList());
+    }
+
+    private static void join(final List<ForkJoinTask<?>> tasks) {
+        tasks.forEach(ForkJoinTask::join);
+    }
 }
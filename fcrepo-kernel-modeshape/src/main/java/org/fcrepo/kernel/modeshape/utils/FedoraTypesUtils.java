@@ -56,6 +56,9 @@ import static org.fcrepo.kernel.api.FedoraTypes.LDP_DIRECT_CONTAINER;
 import static org.fcrepo.kernel.api.FedoraTypes.LDP_INDIRECT_CONTAINER;
 import static org.fcrepo.kernel.api.FedoraTypes.LDP_INSERTED_CONTENT_RELATION;
 import static org.fcrepo.kernel.api.FedoraTypes.LDP_MEMBER_RESOURCE;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FIXITY_AUDIT_CURSOR;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FIXITY_AUDIT_DATE;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FIXITY_AUDIT_OUTCOME;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FROZEN_MIXIN_TYPES;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FROZEN_PRIMARY_TYPE;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FROZEN_NODE;
@@ -64,6 +67,7 @@ import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.JCR_CREATEDBY;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.JCR_FROZEN_NODE;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.JCR_LASTMODIFIED;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.JCR_LASTMODIFIEDBY;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMBERSHIP_INDEX;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.ROOT;
 import static org.fcrepo.kernel.modeshape.services.functions.JcrPropertyFunctions.isBinaryContentProperty;
 import static org.fcrepo.kernel.modeshape.utils.NamespaceTools.getNamespaceRegistry;
@@ -99,7 +103,10 @@ public abstract class FedoraTypesUtils implements FedoraTypes {
             JCR_CREATEDBY,
             JCR_MIXIN_TYPES,
             FROZEN_MIXIN_TYPES,
-            FROZEN_PRIMARY_TYPE);
+            FROZEN_PRIMARY_TYPE,
+            FIXITY_AUDIT_CURSOR,
+            FIXITY_AUDIT_DATE,
+            FIXITY_AUDIT_OUTCOME);
 
     private static Set<String> validJcrProperties = of(
             JCR_CREATED,
@@ -174,13 +181,19 @@ public abstract class FedoraTypesUtils implements FedoraTypes {
         return hasInternalNamespace.test(p.getName());
     });
 
+    /**
+     * Check whether a property belongs to the LDP membership index of a container.
+     */
+    public static Predicate<Property> isMembershipIndexProperty = uncheck(p -> p.getName().equals(MEMBERSHIP_INDEX));
+
     /**
     * Check whether a property is an internal property that should be suppressed
     * from external output.
     */
     public static Predicate<Property> isInternalProperty = isBinaryContentProperty
                             .or(isProtectedAndShouldBeHidden::test)
-                            .or(uncheck(p -> privateProperties.contains(p.getName())));
+                            .or(uncheck(p -> privateProperties.contains(p.getName())))
+                            .or(isMembershipIndexProperty);
 
     /**
      * A functional predicate to check whether a property is a JCR property that should be exposed.
@@ -0,0 +1,416 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.utils;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.Optional.empty;
+import static javax.jcr.PropertyType.PATH;
+import static org.apache.jena.rdf.model.ResourceFactory.createResource;
+import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_NON_RDF_SOURCE_DESCRIPTION;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_DIRECT_CONTAINER;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_INDIRECT_CONTAINER;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_INSERTED_CONTENT_RELATION;
+import static org.fcrepo.kernel.api.RdfLexicon.MEMBER_SUBJECT;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FEDORA_MEMBERSHIP_INDEX;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMBERSHIP_ENTRIES;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMBERSHIP_ENTRY_PREFIX;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMBERSHIP_INDEX;
+import static org.fcrepo.kernel.modeshape.FedoraResourceImpl.nodeToGoodChildNodes;
+import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getContainingNode;
+import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getReferencePropertyName;
+import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.resourceToProperty;
+import static org.fcrepo.kernel.modeshape.utils.StreamUtils.iteratorToStream;
+import static org.fcrepo.kernel.modeshape.utils.UncheckedFunction.uncheck;
+import static org.modeshape.jcr.api.JcrConstants.JCR_CONTENT;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.jcr.Node;
+import javax.jcr.Property;
+import javax.jcr.PropertyType;
+import javax.jcr.RepositoryException;
+import javax.jcr.Value;
+
+import org.fcrepo.kernel.api.exception.AccessDeniedException;
+import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
+import org.fcrepo.kernel.modeshape.rdf.impl.mappings.PropertyValueIterator;
+import org.slf4j.Logger;
+
+/**
+ * A persisted index of the members of LDP Direct and Indirect containers, from which membership triples can be
+ * produced without visiting every child of a container.
+ *
+ * The index is kept in a hidden child node of the container, so that neither loading nor modifying the container
+ * touches it.  It records one multi-valued property for each child that contributes members, named for the path
+ * of that child relative to the container.  Its values are the members the child contributes, each prefixed with
+ * its JCR property type: for a direct container, the relative path of the resource the child describes; for an
+ * indirect container, the values of the child's property for the ldp:insertedContentRelation of the container.
+ * These properties are spread by the hash of their names over a fixed set of bucket nodes, all created along with
+ * the index, so that adding or removing a child rewrites only one small bucket, and children may be added and
+ * removed concurrently without overwriting one another's entries.
+ *
+ * The container also records the configuration for which its index was built.  Should that no longer match the
+ * container (for instance, when a basic container becomes a direct container, or the inserted content relation
+ * of an indirect container changes) the index is not used or maintained until it is rebuilt by the
+ * {@link org.fcrepo.kernel.api.services.MembershipService}, since rebuilding it means visiting every child.  Only
+ * a container without children has its index built as soon as its configuration changes.
+ *
+ * @author agent
+ */
+public final class LdpMembershipIndex {
+
+    private static final Logger LOGGER = getLogger(LdpMembershipIndex.class);
+
+    private static final String ENTRIES = MEMBERSHIP_ENTRY_PREFIX + "*";
+
+    private static final int BUCKETS = 64;
+
+    /**
+     * The configuration recorded for an index that no longer matches its container, and so must be rebuilt
+     */
+    private static final String STALE = "stale";
+
+    private LdpMembershipIndex() {
+        // static utility class
+    }
+
+    /**
+     * Whether the membership index of a node is present and was built for its current configuration
+     *
+     * @param container the JCR node
+     * @return whether the index may be used
+     */
+    public static boolean isIndexCurrent(final Node container) {
+        try {
+            final Optional<String> configuration = configuration(container);
+            return configuration.isPresent() && container.hasProperty(MEMBERSHIP_INDEX) &&
+                    container.getProperty(MEMBERSHIP_INDEX).getString().equals(configuration.get());
+        } catch (final RepositoryException ex) {
+            throw new RepositoryRuntimeException(ex);
+        }
+    }
+
+    /**
+     * The members recorded in the membership index of a container, read lazily in index order.
+     * Paths are resolved against the container, so the values are ready to be converted to RDF.
+     *
+     * @param container the JCR node of a container with a current index
+     * @return the member values
+     */
+    @SuppressWarnings("unchecked")
+    public static Stream<Value> indexedMembers(final Node container) {
+        try {
+            if (!container.hasNode(MEMBERSHIP_ENTRIES)) {
+                return Stream.empty();
+            }
+            final Iterator<Node> buckets = container.getNode(MEMBERSHIP_ENTRIES).getNodes();
+            return iteratorToStream(buckets)
+                    .flatMap(uncheck((final Node b) -> iteratorToStream(new PropertyValueIterator(
+                            b.getProperties(ENTRIES)))))
+                    .map(uncheck((final Value v) -> decode(container, v.getString())));
+        } catch (final RepositoryException ex) {
+            throw new RepositoryRuntimeException(ex);
+        }
+    }
+
+    /**
+     * Record the members contributed by a node in the membership index of its containing node, if that index
+     * is current.
+     *
+     * @param child the JCR node
+     */
+    public static void indexMember(final Node child) {
+        getContainingNode(child).filter(LdpMembershipIndex::isIndexCurrent).ifPresent(container -> {
+            try {
+                writeEntry(container, child, configuration(container).get());
+            } catch (final javax.jcr.AccessDeniedException ex) {
+                throw new AccessDeniedException(ex);
+            } catch (final RepositoryException ex) {
+                throw new RepositoryRuntimeException(ex);
+            }
+        });
+    }
+
+    /**
+     * Remove the members once contributed by a child that has been deleted or moved away from the membership
+     * index of its former containing node, if that index is current.
+     *
+     * @param container the JCR node of the former containing node
+     * @param childPath the former path of the child
+     */
+    public static void unindexMember(final Node container, final String childPath) {
+        if (!isIndexCurrent(container)) {
+            return;
+        }
+        try {
+            final String name = entryName(container, childPath);
+            final Optional<Node> bucket = bucket(container, name);
+            if (bucket.isPresent() && bucket.get().hasProperty(name)) {
+                bucket.get().getProperty(name).remove();
+            }
+        } catch (final javax.jcr.AccessDeniedException ex) {
+            throw new AccessDeniedException(ex);
+        } catch (final RepositoryException ex) {
+            throw new RepositoryRuntimeException(ex);
+        }
+    }
+
+    /**
+     * Note a change to the configuration of a node: a direct or indirect container without children has an empty
+     * index built for it at once, while the index of any other node that was built for another configuration is
+     * marked as stale, to be rebuilt by the MembershipService.  Neither visits the children of the node.
+     *
+     * @param container the JCR node
+     */
+    public static void refreshIndex(final Node container) {
+        try {
+            final Optional<String> configuration = configuration(container);
+            final String indexed = container.hasProperty(MEMBERSHIP_INDEX) ?
+                    container.getProperty(MEMBERSHIP_INDEX).getString() : null;
+            if (configuration.isPresent() && configuration.get().equals(indexed)) {
+                return;
+            }
+            if (configuration.isPresent() && !nodeToGoodChildNodes(container).findAny().isPresent()) {
+                createIndex(container, configuration.get());
+            } else if (indexed != null && !indexed.equals(STALE)) {
+                container.setProperty(MEMBERSHIP_INDEX, STALE);
+                LOGGER.debug("Membership index of {} is stale until rebuilt", container.getPath());
+            }
+        } catch (final javax.jcr.AccessDeniedException ex) {
+            throw new AccessDeniedException(ex);
+        } catch (final RepositoryException ex) {
+            throw new RepositoryRuntimeException(ex);
+        }
+    }
+
+    /**
+     * Discard the membership index of a node and, if it is a direct or indirect container, build it afresh
+     * from its children.
+     *
+     * @param container the JCR node
+     */
+    public static void rebuildIndex(final Node container) {
+        try {
+            final Optional<String> configuration = configuration(container);
+            if (configuration.isPresent()) {
+                createIndex(container, configuration.get());
+                final Iterator<Node> children = nodeToGoodChildNodes(container).iterator();
+                while (children.hasNext()) {
+                    writeEntry(container, children.next(), configuration.get());
+                }
+                LOGGER.debug("Rebuilt the membership index of {}", container.getPath());
+            } else {
+                if (container.hasNode(MEMBERSHIP_ENTRIES)) {
+                    container.getNode(MEMBERSHIP_ENTRIES).remove();
+                }
+                if (container.hasProperty(MEMBERSHIP_INDEX)) {
+                    container.getProperty(MEMBERSHIP_INDEX).remove();
+                }
+            }
+        } catch (final javax.jcr.AccessDeniedException ex) {
+            throw new AccessDeniedException(ex);
+        } catch (final RepositoryException ex) {
+            throw new RepositoryRuntimeException(ex);
+        }
+    }
+
+    /**
+     * Compare the membership index of a node with its children.
+     *
+     * @param container the JCR node
+     * @return whether the index is current and records exactly the members of the node's children, or, for a node
+     *         that is not a direct or indirect container, whether it has no index
+     */
+    public static boolean checkIndex(final Node container) {
+        try {
+            final Optional<String> configuration = configuration(container);
+            if (!configuration.isPresent()) {
+                return !container.hasProperty(MEMBERSHIP_INDEX) && !container.hasNode(MEMBERSHIP_ENTRIES);
+            }
+            if (!isIndexCurrent(container)) {
+                return false;
+            }
+            final Map<String, List<String>> expected = new HashMap<>();
+            final Iterator<Node> children = nodeToGoodChildNodes(container).iterator();
+            while (children.hasNext()) {
+                final Node child = children.next();
+                final List<String> values = entryValues(container, child, configuration.get());
+                if (!values.isEmpty()) {
+                    expected.put(entryName(container, child.getPath()), values);
+                }
+            }
+            final Map<String, List<String>> actual = new HashMap<>();
+            for (final Property entry : entries(container)) {
+                actual.put(entry.getName(), valuesOf(entry));
+            }
+            return expected.equals(actual);
+        } catch (final RepositoryException ex) {
+            throw new RepositoryRuntimeException(ex);
+        }
+    }
+
+    /**
+     * The configuration for which the membership index of a node is built: ldp:MemberSubject for a direct
+     * container, or the inserted content relation (if any) of an indirect container.
+     */
+    private static Optional<String> configuration(final Node container) throws RepositoryException {
+        if (container.isNodeType(LDP_INDIRECT_CONTAINER)) {
+            return Optional.of(container.hasProperty(LDP_INSERTED_CONTENT_RELATION) ?
+                    container.getProperty(LDP_INSERTED_CONTENT_RELATION).getString() : "");
+        } else if (container.isNodeType(LDP_DIRECT_CONTAINER)) {
+            return Optional.of(MEMBER_SUBJECT.getURI());
+        }
+        return empty();
+    }
+
+    /**
+     * Replace any index of a node with an empty one, with all of its buckets, built for a configuration.
+     */
+    private static void createIndex(final Node container, final String configuration) throws RepositoryException {
+        if (container.hasNode(MEMBERSHIP_ENTRIES)) {
+            container.getNode(MEMBERSHIP_ENTRIES).remove();
+        }
+        final Node index = container.addNode(MEMBERSHIP_ENTRIES, FEDORA_MEMBERSHIP_INDEX);
+        for (int i = 0; i < BUCKETS; i++) {
+            index.addNode(bucketName(i), FEDORA_MEMBERSHIP_INDEX);
+        }
+        container.setProperty(MEMBERSHIP_INDEX, configuration);
+    }
+
+    private static void writeEntry(final Node container, final Node child, final String configuration)
+            throws RepositoryException {
+        final String name = entryName(container, child.getPath());
+        final Optional<Node> bucket = bucket(container, name);
+        if (!bucket.isPresent()) {
+            LOGGER.warn("Membership index of {} is missing the bucket for {}", container.getPath(), name);
+            return;
+        }
+        final List<String> values = entryValues(container, child, configuration);
+        if (!values.isEmpty()) {
+            // avoid modifying the bucket (and contending for it) when its entry is unchanged
+            if (!bucket.get().hasProperty(name) || !values.equals(valuesOf(bucket.get().getProperty(name)))) {
+                bucket.get().setProperty(name, values.toArray(new String[values.size()]));
+            }
+        } else if (bucket.get().hasProperty(name)) {
+            bucket.get().getProperty(name).remove();
+        }
+    }
+
+    /**
+     * The bucket of the index of a node that holds an entry, if the index has one.
+     */
+    private static Optional<Node> bucket(final Node container, final String name) throws RepositoryException {
+        final String path = MEMBERSHIP_ENTRIES + "/" + bucketName(Math.floorMod(name.hashCode(), BUCKETS));
+        return container.hasNode(path) ? Optional.of(container.getNode(path)) : empty();
+    }
+
+    private static String bucketName(final int bucket) {
+        return String.format("%02x", bucket);
+    }
+
+    private static List<String> valuesOf(final Property entry) throws RepositoryException {
+        final List<String> values = new ArrayList<>();
+        for (final Value value : entry.getValues()) {
+            values.add(value.getString());
+        }
+        return values;
+    }
+
+    private static List<String> entryValues(final Node container, final Node child, final String configuration)
+            throws RepositoryException {
+        if (configuration.equals(MEMBER_SUBJECT.getURI())) {
+            final Node described = child.isNodeType(FEDORA_NON_RDF_SOURCE_DESCRIPTION) && child.hasNode(JCR_CONTENT)
+                    ? child.getNode(JCR_CONTENT) : child;
+            return singletonList(encode(PATH, relativePath(container, described.getPath())));
+        }
+
+        final Optional<String> property = Optional.of(configuration).filter(c -> !c.isEmpty())
+                .map(c -> createResource(c)).flatMap(resourceToProperty(container.getSession()));
+        if (!property.isPresent()) {
+            return emptyList();
+        }
+
+        final String name;
+        if (child.hasProperty(property.get())) {
+            name = property.get();
+        } else if (child.hasProperty(getReferencePropertyName(property.get()))) {
+            // the inserted content property is a pseudo reference property
+            name = getReferencePropertyName(property.get());
+        } else {
+            return emptyList();
+        }
+
+        final List<String> values = new ArrayList<>();
+        final Iterator<Value> iterator = new PropertyValueIterator(child.getProperty(name));
+        while (iterator.hasNext()) {
+            final Value value = iterator.next();
+            values.add(encode(value.getType(), value.getString()));
+        }
+        return values;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Property> entries(final Node container) throws RepositoryException {
+        final List<Property> entries = new ArrayList<>();
+        if (container.hasNode(MEMBERSHIP_ENTRIES)) {
+            final Iterator<Node> buckets = container.getNode(MEMBERSHIP_ENTRIES).getNodes();
+            while (buckets.hasNext()) {
+                buckets.next().getProperties(ENTRIES).forEachRemaining(p -> entries.add((Property) p));
+            }
+        }
+        return entries;
+    }
+
+    private static String entryName(final Node container, final String childPath) throws RepositoryException {
+        try {
+            return MEMBERSHIP_ENTRY_PREFIX + URLEncoder.encode(relativePath(container, childPath), "UTF-8");
+        } catch (final UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String relativePath(final Node container, final String path) throws RepositoryException {
+        return path.substring(basePath(container).length());
+    }
+
+    private static String basePath(final Node container) throws RepositoryException {
+        return container.getDepth() == 0 ? "/" : container.getPath() + "/";
+    }
+
+    private static String encode(final int type, final String value) {
+        return PropertyType.nameFromValue(type) + ":" + value;
+    }
+
+    private static Value decode(final Node container, final String encoded) throws RepositoryException {
+        final int separator = encoded.indexOf(':');
+        final int type = PropertyType.valueFromName(encoded.substring(0, separator));
+        final String value = encoded.substring(separator + 1);
+        final String resolved = type == PATH && !value.startsWith("/") ? basePath(container) + value : value;
+        return container.getSession().getValueFactory().createValue(resolved, type);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.utils;
+
+import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
+import org.fcrepo.kernel.api.utils.ContentDigest;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An InputStream wrapper that calculates the size and several digests at
+ * once while reading from the stream, so that a stream need be read only
+ * once whatever the number of algorithms.
+ *
+ * @author agent
+ */
+public class MultiDigestInputStream extends FilterInputStream {
+
+    private final Map<String, MessageDigest> digests = new LinkedHashMap<>();
+
+    private Map<String, URI> results;
+
+    private long byteCount;
+
+    private boolean exhausted;
+
+    /**
+     * Wrap a stream, digesting it with each of the given algorithms
+     *
+     * @param in the underlying input stream
+     * @param algorithms the MessageDigest algorithms to calculate
+     */
+    public MultiDigestInputStream(final InputStream in, final Collection<String> algorithms) {
+        super(in);
+        for (final String algorithm : algorithms) {
+            try {
+                digests.put(algorithm, MessageDigest.getInstance(algorithm));
+            } catch (final NoSuchAlgorithmException e) {
+                throw new RepositoryRuntimeException(e);
+            }
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int b = in.read();
+        if (b == -1) {
+            exhausted = true;
+        } else {
+            for (final MessageDigest digest : digests.values()) {
+                digest.update((byte) b);
+            }
+            byteCount++;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        final int n = in.read(b, off, len);
+        if (n == -1) {
+            exhausted = true;
+        } else {
+            for (final MessageDigest digest : digests.values()) {
+                digest.update(b, off, n);
+            }
+            byteCount += n;
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        // skipped bytes must still be digested
+        final byte[] buffer = new byte[(int) Math.min(n, 8192)];
+        long skipped = 0;
+        while (skipped < n) {
+            final int read = read(buffer, 0, (int) Math.min(n - skipped, buffer.length));
+            if (read == -1) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * @return the number of bytes read from the stream
+     */
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * @return whether the whole stream has been read, and so whether the digests are complete
+     */
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    /**
+     * Retrieve the calculated digests. This completes each digest, so should be called only once the stream
+     * has been read.
+     *
+     * @return the digest URIs, keyed by algorithm
+     */
+    public Map<String, URI> getDigests() {
+        if (results == null) {
+            results = new LinkedHashMap<>();
+            digests.forEach((algorithm, digest) ->
+                    results.put(algorithm, ContentDigest.asURI(algorithm, digest.digest())));
+        }
+        return results;
+    }
+}
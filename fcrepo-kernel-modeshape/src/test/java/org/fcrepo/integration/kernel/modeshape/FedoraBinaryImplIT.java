@@ -18,20 +18,28 @@
 package org.fcrepo.integration.kernel.modeshape;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
 import static org.apache.jena.rdf.model.ResourceFactory.createResource;
+import static java.nio.file.Files.readAllBytes;
 import static java.util.UUID.randomUUID;
+import static org.fcrepo.kernel.api.FedoraTypes.CONTENT_DIGEST;
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_BINARY;
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_NON_RDF_SOURCE_DESCRIPTION;
+import static org.fcrepo.kernel.api.RdfLexicon.HAS_FIXITY_RESULT;
+import static org.fcrepo.kernel.api.RdfLexicon.HAS_FIXITY_STATE;
 import static org.fcrepo.kernel.api.RdfLexicon.HAS_MESSAGE_DIGEST;
 import static org.fcrepo.kernel.api.RdfCollectors.toModel;
 import static org.fcrepo.kernel.api.RequiredRdfContext.PROPERTIES;
+import static org.fcrepo.kernel.api.utils.ContentDigest.DIGEST_ALGORITHM.MD5;
 import static org.fcrepo.kernel.api.utils.ContentDigest.DIGEST_ALGORITHM.SHA1;
+import static org.fcrepo.kernel.api.utils.ContentDigest.DIGEST_ALGORITHM.SHA256;
 import static org.fcrepo.kernel.api.utils.ContentDigest.asURI;
 import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.getJcrSession;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getJcrNode;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.modeshape.jcr.api.JcrConstants.JCR_CONTENT;
 import static org.modeshape.jcr.api.JcrConstants.JCR_DATA;
@@ -39,13 +47,17 @@ import static org.modeshape.jcr.api.JcrConstants.NT_FILE;
 import static org.modeshape.jcr.api.JcrConstants.NT_RESOURCE;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
+import java.net.URI;
 import java.time.Instant;
 import java.util.HashSet;
+import java.util.Set;
 import javax.inject.Inject;
 import javax.jcr.Node;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
+import javax.jcr.Value;
 import javax.jcr.ValueFactory;
 
 import org.apache.jena.rdf.model.Model;
@@ -59,6 +71,7 @@ import org.fcrepo.kernel.api.exception.InvalidChecksumException;
 import org.fcrepo.kernel.api.identifiers.IdentifierConverter;
 import org.fcrepo.kernel.api.models.Container;
 import org.fcrepo.kernel.api.models.FedoraBinary;
+import org.fcrepo.kernel.api.models.StagedContent;
 import org.fcrepo.kernel.api.models.FedoraResource;
 import org.fcrepo.kernel.api.services.BinaryService;
 import org.fcrepo.kernel.api.services.ContainerService;
@@ -197,6 +210,31 @@ public class FedoraBinaryImplIT extends AbstractIT {
         }
     }
 
+    @Test
+    public void testStagedContent() throws IOException, InvalidChecksumException {
+        final FedoraSession session = repo.login();
+        try {
+            containerService.findOrCreate(session, "/testStagedContentObject");
+
+            final StagedContent staged = binaryService.stage(session, new ByteArrayInputStream("asdf".getBytes()));
+            assertEquals(4L, staged.getSize());
+            assertTrue(staged.getDigests().contains(
+                    URI.create("urn:sha1:3da541559918a808c2402bba5012f6c60b27661c")));
+
+            binaryService.findOrCreate(session, "/testStagedContentObject/testDatastreamNode").setContent(
+                    staged, "text/plain", singleton(URI.create("urn:sha1:3da541559918a808c2402bba5012f6c60b27661c")),
+                    null);
+            session.commit();
+
+            final FedoraBinary ds = binaryService.findOrCreate(session, "/testStagedContentObject/testDatastreamNode");
+            assertEquals(4L, ds.getContentSize());
+            assertEquals("text/plain", ds.getMimeType());
+            assertEquals("asdf", IOUtils.toString(ds.getContent(), "ASCII"));
+        } finally {
+            session.expire();
+        }
+    }
+
     @Test
     public void
     testModifyDatastreamContentDigestAndLength() throws IOException, RepositoryException, InvalidChecksumException {
@@ -320,6 +358,80 @@ public class FedoraBinaryImplIT extends AbstractIT {
         }
     }
 
+    @Test
+    public void testContentFile() throws RepositoryException, InvalidChecksumException, IOException {
+        final String pid = "testContentFile-" + randomUUID();
+        final String content = "a binary larger than the smallest binary the store keeps in a file";
+        final FedoraSession session = repo.login();
+        try {
+            binaryService.findOrCreate(session, pid + "/large").setContent(
+                    new ByteArrayInputStream(content.getBytes()), "text/plain", null, null, null);
+            binaryService.findOrCreate(session, pid + "/small").setContent(
+                    new ByteArrayInputStream("small".getBytes()), "text/plain", null, null, null);
+            session.commit();
+
+            final File file = binaryService.findOrCreate(session, pid + "/large").getContentFile();
+            assertNotNull("Expected the content to be held in a file!", file);
+            assertEquals(content, new String(readAllBytes(file.toPath())));
+            assertNull("Expected small content to be held inline!",
+                    binaryService.findOrCreate(session, pid + "/small").getContentFile());
+        } finally {
+            session.expire();
+        }
+    }
+
+    @Test
+    public void testDigestsComputedOnIngest() throws RepositoryException, InvalidChecksumException {
+        final String pid = "testDigestsComputedOnIngest-" + randomUUID();
+        final FedoraSession session = repo.login();
+        try {
+            containerService.findOrCreate(session, pid);
+
+            binaryService.findOrCreate(session, pid + "/testRepositoryContent").setContent(
+                    new ByteArrayInputStream("0123456789".getBytes()),
+                    "text/plain",
+                    new HashSet<>(asList(asURI(SHA256.algorithm,
+                            "84d89877f0d4041efb6bf91a16f0248f2fd573e6af05c19f96bedb9f882f7882"))),
+                    null,
+                    null
+                    );
+
+            session.commit();
+
+            final FedoraBinary ds = binaryService.findOrCreate(session, pid + "/testRepositoryContent");
+            final Set<String> digests = new HashSet<>();
+            for (final Value value : getJcrNode(ds).getProperty(CONTENT_DIGEST).getValues()) {
+                digests.add(value.getString());
+            }
+            assertTrue(digests.contains("urn:md5:781e5e245d69b566979b86e28d23f2c7"));
+            assertTrue(digests.contains("urn:sha1:87acec17cd9dcd20a716cc2cf67417b71c8a7016"));
+            assertTrue(digests.contains("urn:sha256:84d89877f0d4041efb6bf91a16f0248f2fd573e6af05c19f96bedb9f882f7882"));
+            assertTrue(digests.contains("urn:sha512:bb96c2fc40d2d54617d6f276febe571f623a8dadf0b734855299b0e107fda32c" +
+                    "f6b69f2da32b36445d73690b93cbd0f7bfc20e0f7f28553d2a4428f23b716e90"));
+        } finally {
+            session.expire();
+        }
+    }
+
+    @Test(expected = InvalidChecksumException.class)
+    public void testDigestMismatchOnIngest() throws RepositoryException, InvalidChecksumException {
+        final String pid = "testDigestMismatchOnIngest-" + randomUUID();
+        final FedoraSession session = repo.login();
+        try {
+            containerService.findOrCreate(session, pid);
+
+            binaryService.findOrCreate(session, pid + "/testRepositoryContent").setContent(
+                    new ByteArrayInputStream("0123456789".getBytes()),
+                    "text/plain",
+                    new HashSet<>(asList(asURI(MD5.algorithm, "00000000000000000000000000000000"))),
+                    null,
+                    null
+                    );
+        } finally {
+            session.expire();
+        }
+    }
+
     @Test
     public void testChecksumBlobsForInMemoryValues() throws RepositoryException, InvalidChecksumException {
 
@@ -351,6 +463,40 @@ public class FedoraBinaryImplIT extends AbstractIT {
         }
     }
 
+    @Test
+    public void testFixityWithSeveralAlgorithms() throws RepositoryException, InvalidChecksumException {
+        final String pid = "testFixityWithSeveralAlgorithms-" + randomUUID();
+        final FedoraSession session = repo.login();
+        try {
+            containerService.findOrCreate(session, pid);
+            binaryService.findOrCreate(session, pid + "/testRepositoryContent").setContent(
+                    new ByteArrayInputStream("0123456789".getBytes()),
+                    "application/octet-stream",
+                    null,
+                    null,
+                    null
+                    );
+
+            session.commit();
+
+            final FedoraBinary ds = binaryService.findOrCreate(session, pid + "/testRepositoryContent");
+
+            final Model fixityResults = ds.getFixity(idTranslator,
+                    asList(MD5.algorithm, SHA1.algorithm, SHA256.algorithm)).collect(toModel());
+
+            assertEquals(3, fixityResults.listObjectsOfProperty(HAS_FIXITY_RESULT).toList().size());
+            assertTrue(fixityResults.contains(null, HAS_MESSAGE_DIGEST,
+                    createResource("urn:md5:781e5e245d69b566979b86e28d23f2c7")));
+            assertTrue(fixityResults.contains(null, HAS_MESSAGE_DIGEST,
+                    createResource("urn:sha1:87acec17cd9dcd20a716cc2cf67417b71c8a7016")));
+            assertTrue(fixityResults.contains(null, HAS_MESSAGE_DIGEST,
+                    createResource("urn:sha256:84d89877f0d4041efb6bf91a16f0248f2fd573e6af05c19f96bedb9f882f7882")));
+            assertEquals(3, fixityResults.listStatements(null, HAS_FIXITY_STATE, "SUCCESS").toList().size());
+        } finally {
+            session.expire();
+        }
+    }
+
     @Test
     public void testChecksumBlobsForValuesWithoutChecksums() throws RepositoryException {
 
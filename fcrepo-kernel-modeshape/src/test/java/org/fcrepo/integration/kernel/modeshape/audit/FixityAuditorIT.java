@@ -0,0 +1,179 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.integration.kernel.modeshape.audit;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static com.jayway.awaitility.Awaitility.await;
+import static com.jayway.awaitility.Duration.ONE_HUNDRED_MILLISECONDS;
+import static org.fcrepo.kernel.api.FedoraTypes.CONTENT_DIGEST;
+import static org.fcrepo.kernel.api.RdfLexicon.REPOSITORY_NAMESPACE;
+import static org.fcrepo.kernel.api.observer.EventType.RESOURCE_CREATION;
+import static org.fcrepo.kernel.api.observer.EventType.RESOURCE_FIXITY_FAILURE;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FIXITY_AUDIT_CURSOR;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FIXITY_AUDIT_DATE;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FIXITY_AUDIT_OUTCOME;
+import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.getJcrSession;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.inject.Inject;
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.fcrepo.integration.kernel.modeshape.AbstractIT;
+import org.fcrepo.kernel.api.FedoraRepository;
+import org.fcrepo.kernel.api.FedoraSession;
+import org.fcrepo.kernel.api.exception.InvalidChecksumException;
+import org.fcrepo.kernel.api.observer.EventType;
+import org.fcrepo.kernel.api.observer.FedoraEvent;
+import org.fcrepo.kernel.api.services.BinaryService;
+import org.fcrepo.kernel.modeshape.audit.FixityAuditor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.context.ContextConfiguration;
+
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+
+/**
+ * <p>FixityAuditorIT class.</p>
+ *
+ * @author agent
+ */
+@ContextConfiguration({"/spring-test/eventing.xml", "/spring-test/repo.xml"})
+public class FixityAuditorIT extends AbstractIT {
+
+    private volatile List<FedoraEvent> events;
+
+    @Inject
+    private FedoraRepository repository;
+
+    @Inject
+    private EventBus eventBus;
+
+    @Inject
+    private BinaryService binaryService;
+
+    @Inject
+    private FixityAuditor fixityAuditor;
+
+    @Test
+    public void testAuditRecordsOutcome() throws RepositoryException, InvalidChecksumException,
+            InterruptedException {
+        final String pid = getRandomPid();
+        createBinary("/" + pid + "/a", "some content");
+        createBinary("/" + pid + "/b", "some more content");
+        createBinary("/" + pid + "/c", "yet more content");
+        awaitEvent("/" + pid + "/c", RESOURCE_CREATION);
+
+        assertTrue("Too few binaries checked!", fixityAuditor.auditPass() >= 3);
+
+        final Session session = getJcrSession(repository.login());
+        try {
+            for (final String name : new String[] { "a", "b", "c" }) {
+                final Node node = session.getNode("/" + pid + "/" + name + "/jcr:content");
+                assertTrue("Audit date not recorded!", node.hasProperty(FIXITY_AUDIT_DATE));
+                assertEquals("SUCCESS", node.getProperty(FIXITY_AUDIT_OUTCOME).getString());
+            }
+            assertFalse("Cursor not cleared after pass!", session.getRootNode().hasProperty(FIXITY_AUDIT_CURSOR));
+        } finally {
+            session.logout();
+        }
+    }
+
+    @Test
+    public void testAuditIsNotAModification() throws RepositoryException, InvalidChecksumException,
+            InterruptedException {
+        final String pid = getRandomPid();
+        createBinary("/" + pid, "some content");
+        awaitEvent("/" + pid, RESOURCE_CREATION);
+        events.clear();
+
+        fixityAuditor.auditPass();
+        Thread.sleep(500);
+
+        assertTrue("Audit posted events!", events.stream().noneMatch(e -> e.getPath().startsWith("/" + pid)));
+    }
+
+    @Test
+    public void testAuditReportsFailure() throws RepositoryException, InvalidChecksumException,
+            InterruptedException {
+        final String pid = getRandomPid();
+        createBinary("/" + pid, "some content");
+
+        final FedoraSession session = repository.login();
+        try {
+            getJcrSession(session).getNode("/" + pid + "/jcr:content")
+                    .setProperty(CONTENT_DIGEST, new String[] { "urn:sha1:fa39" });
+            session.commit();
+        } finally {
+            session.expire();
+        }
+
+        fixityAuditor.auditPass();
+
+        awaitEvent("/" + pid, RESOURCE_FIXITY_FAILURE);
+        final Session jcrSession = getJcrSession(repository.login());
+        try {
+            assertEquals("BAD_CHECKSUM", jcrSession.getNode("/" + pid + "/jcr:content")
+                    .getProperty(FIXITY_AUDIT_OUTCOME).getString());
+        } finally {
+            jcrSession.logout();
+        }
+    }
+
+    private void createBinary(final String path, final String content) throws InvalidChecksumException {
+        final FedoraSession session = repository.login();
+        try {
+            binaryService.findOrCreate(session, path).setContent(new ByteArrayInputStream(content.getBytes()),
+                    "text/plain", null, null, null);
+            session.commit();
+        } finally {
+            session.expire();
+        }
+    }
+
+    private void awaitEvent(final String id, final EventType eventType) {
+        await().atMost(5, SECONDS).pollInterval(ONE_HUNDRED_MILLISECONDS).until(() -> events.stream().anyMatch(evt ->
+                evt.getPath().equals(id) && evt.getTypes().contains(eventType)
+                    && evt.getResourceTypes().contains(REPOSITORY_NAMESPACE + "Binary")));
+    }
+
+    @Subscribe
+    public void collectEvents(final FedoraEvent e) {
+        events.add(e);
+    }
+
+    @Before
+    public void acquireConnections() {
+        events = new CopyOnWriteArrayList<>();
+        eventBus.register(this);
+    }
+
+    @After
+    public void releaseConnections() {
+        eventBus.unregister(this);
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.integration.kernel.modeshape.services;
+
+import static org.apache.jena.graph.NodeFactory.createURI;
+import static org.fcrepo.kernel.api.RdfCollectors.toModel;
+import static org.fcrepo.kernel.api.RequiredRdfContext.LDP_MEMBERSHIP;
+import static org.fcrepo.kernel.api.RequiredRdfContext.PROPERTIES;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMBERSHIP_ENTRIES;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMBERSHIP_ENTRY_PREFIX;
+import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.getJcrSession;
+import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getJcrNode;
+import static org.fcrepo.kernel.modeshape.utils.LdpMembershipIndex.isIndexCurrent;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.jcr.NodeIterator;
+import javax.jcr.Property;
+import javax.jcr.RepositoryException;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.fcrepo.integration.kernel.modeshape.AbstractIT;
+import org.fcrepo.kernel.api.FedoraRepository;
+import org.fcrepo.kernel.api.FedoraSession;
+import org.fcrepo.kernel.api.models.Container;
+import org.fcrepo.kernel.api.models.FedoraResource;
+import org.fcrepo.kernel.api.services.ContainerService;
+import org.fcrepo.kernel.api.services.MembershipService;
+import org.fcrepo.kernel.modeshape.rdf.impl.DefaultIdentifierTranslator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.context.ContextConfiguration;
+
+/**
+ * @author agent
+ */
+@ContextConfiguration({"/spring-test/repo.xml"})
+public class MembershipServiceImplIT extends AbstractIT {
+
+    private static final Node HAS_MEMBER = createURI("http://pcdm.org/models#hasMember");
+
+    @Inject
+    private FedoraRepository repository;
+
+    @Inject
+    private ContainerService containerService;
+
+    @Inject
+    private MembershipService membershipService;
+
+    private FedoraSession session;
+
+    private DefaultIdentifierTranslator subjects;
+
+    @Before
+    public void setUp() {
+        session = repository.login();
+        subjects = new DefaultIdentifierTranslator(getJcrSession(session));
+    }
+
+    @After
+    public void tearDown() {
+        session.expire();
+    }
+
+    @Test
+    public void testDirectContainerMembersAreIndexed() throws RepositoryException {
+        final String pid = "/" + getRandomPid();
+        final Container parent = containerService.findOrCreate(session, pid);
+        final Container container = createMembershipContainer(pid + "/members", "ldp:DirectContainer", parent, "");
+        final Container a = containerService.findOrCreate(session, pid + "/members/a");
+        containerService.findOrCreate(session, pid + "/members/b");
+        session.commit();
+
+        assertTrue(isIndexCurrent(getJcrNode(container)));
+        assertEquals(2, entries(container).size());
+        assertFalse(getJcrNode(container).getProperties(MEMBERSHIP_ENTRY_PREFIX + "*").hasNext());
+        assertEquals(2, container.getChildren().count());
+        assertTrue(hasMember(parent, pid + "/members/a"));
+        assertTrue(hasMember(parent, pid + "/members/b"));
+        assertTrue(membershipService.checkMembershipIndex(session, pid).isEmpty());
+
+        a.delete();
+        session.commit();
+
+        assertFalse(hasMember(parent, pid + "/members/a"));
+        assertTrue(hasMember(parent, pid + "/members/b"));
+        assertTrue(membershipService.checkMembershipIndex(session, pid).isEmpty());
+    }
+
+    @Test
+    public void testIndirectContainerMembersAreIndexed() throws RepositoryException {
+        final String pid = "/" + getRandomPid();
+        final Container parent = containerService.findOrCreate(session, pid);
+        createMembershipContainer(pid + "/members", "ldp:IndirectContainer", parent,
+                "ldp:insertedContentRelation <http://www.openarchives.org/ore/terms/proxyFor> ;");
+        final Container proxy = containerService.findOrCreate(session, pid + "/members/proxy");
+        containerService.findOrCreate(session, pid + "/members/other");
+        proxy.updateProperties(subjects, "INSERT { <> <http://www.openarchives.org/ore/terms/proxyFor> " +
+                "<http://example.org/thing> } WHERE {}", proxy.getTriples(subjects, PROPERTIES));
+        session.commit();
+
+        final Graph graph = parent.getTriples(subjects, LDP_MEMBERSHIP).collect(toModel()).getGraph();
+        assertTrue(graph.contains(asNode(parent), HAS_MEMBER, createURI("http://example.org/thing")));
+        assertEquals(1, graph.size());
+        assertTrue(membershipService.checkMembershipIndex(session, pid).isEmpty());
+    }
+
+    @Test
+    public void testCheckAndRebuild() throws RepositoryException {
+        final String pid = "/" + getRandomPid();
+        final Container parent = containerService.findOrCreate(session, pid);
+        final Container container = createMembershipContainer(pid + "/members", "ldp:DirectContainer", parent, "");
+        containerService.findOrCreate(session, pid + "/members/a");
+        session.commit();
+
+        entries(container).get(0).remove();
+        session.commit();
+
+        assertFalse(hasMember(parent, pid + "/members/a"));
+        assertEquals(pid + "/members", membershipService.checkMembershipIndex(session, pid).iterator().next());
+
+        assertEquals(1, membershipService.rebuildMembershipIndex(session, pid));
+        session.commit();
+
+        assertTrue(hasMember(parent, pid + "/members/a"));
+        assertTrue(membershipService.checkMembershipIndex(session, pid).isEmpty());
+    }
+
+    @Test
+    public void testIndexIsNotBuiltForExistingChildren() throws RepositoryException {
+        final String pid = "/" + getRandomPid();
+        final Container parent = containerService.findOrCreate(session, pid);
+        containerService.findOrCreate(session, pid + "/members");
+        containerService.findOrCreate(session, pid + "/members/a");
+        session.commit();
+
+        final Container container = createMembershipContainer(pid + "/members", "ldp:DirectContainer", parent, "");
+        session.commit();
+
+        assertFalse(isIndexCurrent(getJcrNode(container)));
+        assertTrue(hasMember(parent, pid + "/members/a"));
+        assertEquals(pid + "/members", membershipService.checkMembershipIndex(session, pid).iterator().next());
+
+        assertEquals(1, membershipService.rebuildMembershipIndex(session, pid));
+        session.commit();
+
+        assertTrue(isIndexCurrent(getJcrNode(container)));
+        assertTrue(hasMember(parent, pid + "/members/a"));
+        assertTrue(membershipService.checkMembershipIndex(session, pid).isEmpty());
+    }
+
+    private Container createMembershipContainer(final String path, final String type, final Container parent,
+            final String extra) {
+        final Container container = containerService.findOrCreate(session, path);
+        container.updateProperties(subjects, "PREFIX ldp: <http://www.w3.org/ns/ldp#>\n" +
+                "INSERT { <> a " + type + " ; " + extra + "\n" +
+                "ldp:membershipResource <" + subjects.reverse().convert(parent) + "> ;\n" +
+                "ldp:hasMemberRelation <" + HAS_MEMBER.getURI() + "> . } WHERE {}",
+                container.getTriples(subjects, PROPERTIES));
+        return container;
+    }
+
+    private boolean hasMember(final FedoraResource membershipResource, final String path) {
+        return membershipResource.getTriples(subjects, LDP_MEMBERSHIP).collect(toModel()).getGraph()
+                .contains(asNode(membershipResource), HAS_MEMBER, subjects.toDomain(path).asNode());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Property> entries(final Container container) throws RepositoryException {
+        final List<Property> entries = new ArrayList<>();
+        final NodeIterator buckets = getJcrNode(container).getNode(MEMBERSHIP_ENTRIES).getNodes();
+        while (buckets.hasNext()) {
+            buckets.nextNode().getProperties(MEMBERSHIP_ENTRY_PREFIX + "*")
+                    .forEachRemaining(p -> entries.add((Property) p));
+        }
+        return entries;
+    }
+
+    private Node asNode(final FedoraResource resource) {
+        return subjects.reverse().convert(resource).asNode();
+    }
+}
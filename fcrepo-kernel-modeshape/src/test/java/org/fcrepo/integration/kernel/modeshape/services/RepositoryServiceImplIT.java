@@ -18,22 +18,30 @@
 package org.fcrepo.integration.kernel.modeshape.services;
 
 import static com.google.common.io.Files.createTempDir;
+import static java.lang.Thread.sleep;
+import static org.apache.commons.codec.digest.DigestUtils.sha1Hex;
+import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.getJcrSession;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.util.Collection;
+import java.util.function.BooleanSupplier;
 
 import javax.inject.Inject;
-import javax.jcr.RepositoryException;
 
 import org.fcrepo.integration.kernel.modeshape.AbstractIT;
 import org.fcrepo.kernel.api.FedoraRepository;
 import org.fcrepo.kernel.api.FedoraSession;
-import org.fcrepo.kernel.api.exception.InvalidChecksumException;
 import org.fcrepo.kernel.api.services.BinaryService;
+import org.fcrepo.kernel.api.services.ContainerService;
+import org.fcrepo.kernel.api.services.NodeService;
 import org.fcrepo.kernel.api.services.RepositoryService;
+import org.fcrepo.kernel.api.utils.BinaryStatistics;
+import org.fcrepo.kernel.modeshape.services.BinaryStatisticsTracker;
+import org.fcrepo.kernel.modeshape.services.RepositoryCounters;
 
 import org.junit.Test;
 import org.springframework.test.context.ContextConfiguration;
@@ -56,8 +64,20 @@ public class RepositoryServiceImplIT extends AbstractIT {
     @Inject
     private BinaryService binaryService;
 
+    @Inject
+    private ContainerService containerService;
+
+    @Inject
+    private NodeService nodeService;
+
+    @Inject
+    private RepositoryCounters counters;
+
+    @Inject
+    private BinaryStatisticsTracker binaryStatistics;
+
     @Test
-    public void testGetAllObjectsDatastreamSize() throws RepositoryException, InvalidChecksumException {
+    public void testGetAllObjectsDatastreamSize() throws Exception {
         final long originalSize;
         FedoraSession session = repository.login();
         try {
@@ -75,13 +95,116 @@ public class RepositoryServiceImplIT extends AbstractIT {
         }
         try {
             session = repository.login();
-            final long afterSize = repositoryService.getRepositorySize();
+            // the size is tracked from events that follow the commit
+            long afterSize = repositoryService.getRepositorySize();
+            for (int i = 0; i < 50 && afterSize - originalSize != 4L; i++) {
+                sleep(100);
+                afterSize = repositoryService.getRepositorySize();
+            }
             assertEquals(4L, afterSize - originalSize);
         } finally {
             session.expire();
         }
     }
 
+    @Test
+    public void testCounters() throws Exception {
+        final String content = "content counted by the repository counters";
+        awaitCounters();
+        final long containers = repositoryService.getRepositoryObjectCount();
+        final long size = repositoryService.getRepositorySize();
+        FedoraSession session = repository.login();
+        try {
+            containerService.findOrCreate(session, "/testCounters");
+            containerService.findOrCreate(session, "/testCounters/nested");
+            containerService.findOrCreate(session, "/testCounters/nested/container");
+            binaryService.findOrCreate(session, "/testCounters/binary").setContent(
+                    new ByteArrayInputStream(content.getBytes()), "text/x-counters", null, null, null);
+            session.commit();
+        } finally {
+            session.expire();
+        }
+        await(() -> repositoryService.getRepositoryObjectCount() == containers + 3 &&
+                repositoryService.getRepositorySize() == size + content.length());
+        assertEquals(Long.valueOf(content.length()),
+                repositoryService.getRepositorySizeByMimeType().get("text/x-counters"));
+
+        session = repository.login();
+        try {
+            nodeService.moveObject(session, "/testCounters", "/testCountersMoved");
+            session.commit();
+        } finally {
+            session.expire();
+        }
+        sleep(1000);
+        assertEquals(containers + 3, repositoryService.getRepositoryObjectCount().longValue());
+        assertEquals(size + content.length(), repositoryService.getRepositorySize().longValue());
+
+        session = repository.login();
+        try {
+            nodeService.find(session, "/testCountersMoved").delete();
+            session.commit();
+        } finally {
+            session.expire();
+        }
+        await(() -> repositoryService.getRepositoryObjectCount() == containers &&
+                repositoryService.getRepositorySize() == size);
+        assertNull(repositoryService.getRepositorySizeByMimeType().get("text/x-counters"));
+    }
+
+    private void awaitCounters() throws InterruptedException {
+        await(() -> counters.isReady() && binaryStatistics.isReady());
+    }
+
+    private static void await(final BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 50 && !condition.getAsBoolean(); i++) {
+            sleep(100);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    public void testBinaryStatistics() throws Exception {
+        final String content = "binary statistics content, stored once and shared by two binaries";
+        final BinaryStatistics before = repositoryService.getBinaryStatistics();
+        FedoraSession session = repository.login();
+        final String hash;
+        try {
+            for (final String path : new String[]{"/testBinaryStatistics0", "/testBinaryStatistics1"}) {
+                binaryService.findOrCreate(session, path).setContent(
+                        new ByteArrayInputStream(content.getBytes()), "text/plain", null, null, null);
+            }
+            session.commit();
+            hash = sha1Hex(content);
+        } finally {
+            session.expire();
+        }
+        awaitReferences(hash, 2L);
+        final BinaryStatistics after = repositoryService.getBinaryStatistics();
+        assertEquals(2L, after.getBinaryCount() - before.getBinaryCount());
+        assertEquals(2L * content.length(), after.getLogicalSize() - before.getLogicalSize());
+        assertEquals(content.length(), after.getUniqueSize() - before.getUniqueSize());
+        assertTrue(repositoryService.getMostReferencedBinaries(10).containsKey(hash));
+
+        session = repository.login();
+        try {
+            getJcrSession(session).getNode("/testBinaryStatistics0").remove();
+            session.commit();
+        } finally {
+            session.expire();
+        }
+        awaitReferences(hash, 1L);
+        assertEquals(content.length(),
+                repositoryService.getBinaryStatistics().getUniqueSize() - before.getUniqueSize());
+    }
+
+    private void awaitReferences(final String hash, final long expected) throws InterruptedException {
+        for (int i = 0; i < 50 && repositoryService.getBinaryReferenceCount(hash) != expected; i++) {
+            sleep(100);
+        }
+        assertEquals(expected, repositoryService.getBinaryReferenceCount(hash));
+    }
+
     @Test
     public void testBackupRepository() throws Exception {
         final FedoraSession session = repository.login();
@@ -20,6 +20,7 @@ package org.fcrepo.kernel.modeshape;
 import org.apache.tika.io.IOUtils;
 import org.fcrepo.kernel.api.FedoraTypes;
 import org.fcrepo.kernel.api.models.FedoraBinary;
+import org.fcrepo.kernel.api.models.StagedContent;
 import org.fcrepo.kernel.api.exception.InvalidChecksumException;
 import org.junit.After;
 import org.junit.Before;
@@ -50,6 +51,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.modeshape.jcr.api.JcrConstants.JCR_CONTENT;
@@ -184,6 +186,35 @@ public class FedoraBinaryImplTest implements FedoraTypes {
         testObj.setContent(mockStream, null, singleton(new URI("urn:sha1:xyz")), null, null);
     }
 
+    @Test
+    public void testSetStagedContent() throws RepositoryException, InvalidChecksumException {
+        final org.modeshape.jcr.api.Binary mockBin =
+                mock(org.modeshape.jcr.api.Binary.class);
+        getContentNodeMock(mockContent, 8);
+        when(mockDsNode.getNode(JCR_CONTENT)).thenReturn(mockContent);
+        when(mockSession.getValueFactory()).thenReturn(mockVF);
+        when(mockVF.createBinary(any(InputStream.class), any(String.class)))
+                .thenReturn(mockBin);
+        final Property mockData = mock(Property.class);
+        when(mockContent.canAddMixin(FEDORA_BINARY)).thenReturn(true);
+        when(mockContent.setProperty(JCR_DATA, mockBin)).thenReturn(mockData);
+        when(mockContent.getProperty(JCR_DATA)).thenReturn(mockData);
+        when(mockData.getBinary()).thenReturn(mockBin);
+
+        final StagedContent staged = FedoraBinaryImpl.stage(mockSession, mockStream, null);
+        verify(mockContent, never()).setProperty(JCR_DATA, mockBin);
+
+        testObj.setContent(staged, "text/plain", null, null);
+        verify(mockContent).setProperty(JCR_DATA, mockBin);
+        verify(mockContent).setProperty(HAS_MIME_TYPE, "text/plain");
+        verify(mockVF).createBinary(any(InputStream.class), any(String.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetForeignStagedContent() throws InvalidChecksumException {
+        testObj.setContent(mock(StagedContent.class), null, null, null);
+    }
+
     @Test
     public void getContentSize() throws RepositoryException {
         final int expectedContentLength = 2;
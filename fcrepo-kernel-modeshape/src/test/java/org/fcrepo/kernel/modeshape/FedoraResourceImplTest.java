@@ -19,7 +19,9 @@ package org.fcrepo.kernel.modeshape;
 
 import static org.apache.jena.graph.NodeFactory.createURI;
 import static org.apache.jena.rdf.model.ModelFactory.createDefaultModel;
+import static java.util.Arrays.asList;
 import static java.util.Calendar.JULY;
+import static java.util.stream.Collectors.toList;
 import static org.apache.commons.codec.digest.DigestUtils.sha1Hex;
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_PAIRTREE;
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_TOMBSTONE;
@@ -433,6 +435,40 @@ public class FedoraResourceImplTest {
         assertFalse("Expected an empty stream", children.findFirst().isPresent());
     }
 
+    @Test
+    public void testGetChildrenAfter() throws RepositoryException {
+        final Node[] children = mockChildren("a", "b", "c", "d");
+        assertEquals(asList(children[2], children[3]), childNodes(testObj.getChildren("/b", 2)));
+        assertEquals(asList(children), childNodes(testObj.getChildren(null, 0)));
+    }
+
+    @Test
+    public void testGetChildrenAfterMovedChild() throws RepositoryException {
+        final Node[] children = mockChildren("a", "b", "c", "d");
+        assertEquals(asList(children[2], children[3]), childNodes(testObj.getChildren("/b", 3)));
+    }
+
+    @Test
+    public void testGetChildrenAfterRemovedChild() throws RepositoryException {
+        final Node[] children = mockChildren("a", "c", "d");
+        assertEquals(asList(children[2]), childNodes(testObj.getChildren("/b", 2)));
+    }
+
+    private Node[] mockChildren(final String... names) throws RepositoryException {
+        final Node[] children = new Node[names.length];
+        for (int i = 0; i < names.length; i++) {
+            children[i] = mock(Node.class);
+            when(children[i].getName()).thenReturn(names[i]);
+            when(children[i].getPath()).thenReturn("/" + names[i]);
+        }
+        when(mockNode.getNodes()).thenAnswer(invocation -> nodeIterator(children));
+        return children;
+    }
+
+    private static List<Node> childNodes(final Stream<FedoraResource> children) {
+        return children.map(child -> getJcrNode(child)).collect(toList());
+    }
+
     @Test
     public void testGetChildrenExcludesTombstones() throws RepositoryException {
         when(mockNode.getNodes()).thenReturn(nodeIterator(mockChild));
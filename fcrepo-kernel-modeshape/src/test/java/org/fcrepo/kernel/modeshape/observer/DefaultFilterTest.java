@@ -21,10 +21,14 @@ import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_BINARY;
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_NON_RDF_SOURCE_DESCRIPTION;
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_CONTAINER;
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_RESOURCE;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_DIRECT_CONTAINER;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.ROOT;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
+import static org.modeshape.jcr.api.observation.Event.NODE_ADDED;
+import static org.modeshape.jcr.api.observation.Event.PROPERTY_ADDED;
+import static org.modeshape.jcr.api.observation.Event.PROPERTY_CHANGED;
 
 import javax.jcr.Node;
 import javax.jcr.Property;
@@ -66,7 +70,7 @@ public class DefaultFilterTest {
 
     @Mock
     private NodeType fedoraResource, fedoraContainer, fedoraDatastream, fedoraBinary, modeshapeRootType,
-            modeshapeFolderType;
+            modeshapeFolderType, directContainer;
 
     @Before
     public void setUp() {
@@ -77,6 +81,7 @@ public class DefaultFilterTest {
         when(fedoraBinary.getName()).thenReturn(FEDORA_BINARY);
         when(modeshapeRootType.getName()).thenReturn(ROOT);
         when(modeshapeFolderType.getName()).thenReturn("nt:folder");
+        when(directContainer.getName()).thenReturn(LDP_DIRECT_CONTAINER);
     }
 
     @Test
@@ -120,4 +125,51 @@ public class DefaultFilterTest {
         when(mockEvent.getMixinNodeTypes()).thenReturn(new NodeType[] {  });
         assertFalse(testObj.test(mockEvent));
     }
+
+    @Test
+    public void shouldNotApplyToMembershipIndex() throws RepositoryException {
+        when(mockEvent.getPrimaryNodeType()).thenReturn(modeshapeFolderType);
+        when(mockEvent.getMixinNodeTypes()).thenReturn(new NodeType[] { fedoraContainer, directContainer });
+        when(mockEvent.getType()).thenReturn(PROPERTY_ADDED);
+        when(mockEvent.getPath()).thenReturn("/container/fedora:membershipIndex");
+        assertFalse(testObj.test(mockEvent));
+
+        when(mockEvent.getPath()).thenReturn("/container/fedora:membershipEntries/3f/fedora:member_child");
+        assertFalse(testObj.test(mockEvent));
+
+        when(mockEvent.getType()).thenReturn(NODE_ADDED);
+        when(mockEvent.getPath()).thenReturn("/container/fedora:membershipEntries");
+        assertFalse(testObj.test(mockEvent));
+
+        when(mockEvent.getType()).thenReturn(PROPERTY_CHANGED);
+        when(mockEvent.getPath()).thenReturn("/container/jcr:lastModified");
+        assertFalse(testObj.test(mockEvent));
+
+        when(mockEvent.getPath()).thenReturn("/container/fedora:lastModified");
+        assertTrue(testObj.test(mockEvent));
+    }
+
+    @Test
+    public void shouldApplyToLastModifiedOfOtherResources() throws RepositoryException {
+        when(mockEvent.getPrimaryNodeType()).thenReturn(modeshapeFolderType);
+        when(mockEvent.getMixinNodeTypes()).thenReturn(new NodeType[] { fedoraContainer });
+        when(mockEvent.getType()).thenReturn(PROPERTY_CHANGED);
+        when(mockEvent.getPath()).thenReturn("/container/jcr:lastModified");
+        assertTrue(testObj.test(mockEvent));
+    }
+
+    @Test
+    public void shouldNotApplyToFixityAudit() throws RepositoryException {
+        when(mockEvent.getPrimaryNodeType()).thenReturn(modeshapeFolderType);
+        when(mockEvent.getMixinNodeTypes()).thenReturn(new NodeType[] { fedoraBinary });
+        when(mockEvent.getType()).thenReturn(PROPERTY_CHANGED);
+        when(mockEvent.getPath()).thenReturn("/binary/jcr:content/fedora:fixityAuditOutcome");
+        assertFalse(testObj.test(mockEvent));
+
+        when(mockEvent.getPath()).thenReturn("/binary/jcr:content/jcr:lastModified");
+        assertFalse(testObj.test(mockEvent));
+
+        when(mockEvent.getPath()).thenReturn("/binary/jcr:content/jcr:data");
+        assertTrue(testObj.test(mockEvent));
+    }
 }
@@ -18,14 +18,31 @@
 package org.fcrepo.kernel.modeshape.observer;
 
 import static org.fcrepo.kernel.modeshape.observer.SimpleObserver.EVENT_TYPES;
+import static org.fcrepo.kernel.modeshape.observer.SimpleObserver.NAMESPACES_PATH;
+import static org.fcrepo.kernel.modeshape.observer.SimpleObserver.SUBTREE_CURSOR;
+import static org.fcrepo.kernel.modeshape.observer.SimpleObserver.SUBTREE_RELOCATED;
+import static org.fcrepo.kernel.modeshape.testutilities.TestNodeIterator.nodeIterator;
 import static org.fcrepo.kernel.modeshape.utils.TestHelpers.setField;
+import static javax.jcr.observation.Event.NODE_MOVED;
+import static org.fcrepo.kernel.api.observer.EventType.RESOURCE_DELETION;
+import static org.fcrepo.kernel.api.observer.EventType.RESOURCE_RELOCATION;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.mock;
 
+import java.util.List;
+import java.util.Map;
+
 import javax.jcr.NamespaceRegistry;
+import javax.jcr.PathNotFoundException;
+import javax.jcr.Node;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 import javax.jcr.Workspace;
@@ -41,12 +58,14 @@ import org.fcrepo.kernel.modeshape.observer.eventmappings.OneToOne;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.modeshape.jcr.api.Repository;
 import org.modeshape.jcr.api.observation.Event;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.eventbus.EventBus;
 
 /**
@@ -89,6 +108,9 @@ public class SimpleObserverTest {
     @Mock
     private NodeType mockNodeType, fedoraContainer;
 
+    @Mock
+    private Node mockNode, mockChild1, mockChild2;
+
     @Before
     public void setUp() throws RepositoryException {
         mockSession = mock(Session.class, Mockito.withSettings().extraInterfaces(org.modeshape.jcr.api.Session.class));
@@ -124,6 +146,176 @@ public class SimpleObserverTest {
         verify(mockBus).post(any(FedoraEvent.class));
     }
 
+    @Test
+    public void testOnEventReusesSession() throws RepositoryException {
+        when(mockSession.isLive()).thenReturn(true);
+        when(mockEvents.hasNext()).thenReturn(true, false, true, false);
+        testObserver.onEvent(mockEvents);
+        testObserver.onEvent(mockEvents);
+        verify(mockRepository).login();
+        verify(mockSession).refresh(false);
+        verify(mockBus, times(2)).post(any(FedoraEvent.class));
+    }
+
+    @Test
+    public void testOnEventLogsInAgainWhenSessionNotLive() throws RepositoryException {
+        when(mockSession.isLive()).thenReturn(false);
+        when(mockEvents.hasNext()).thenReturn(true, false, true, false);
+        testObserver.onEvent(mockEvents);
+        testObserver.onEvent(mockEvents);
+        verify(mockRepository, times(2)).login();
+    }
+
+    @Test
+    public void testOnEventCachesNamespaces() throws RepositoryException {
+        when(mockSession.isLive()).thenReturn(true);
+        when(mockNS.getURI("fedora")).thenReturn("http://fedora.info/definitions/v4/repository#");
+        when(mockEvents.hasNext()).thenReturn(true, false, true, false);
+        testObserver.onEvent(mockEvents);
+        testObserver.onEvent(mockEvents);
+        verify(mockNS).getURI("fedora");
+    }
+
+    @Test
+    public void testNamespaceRegistrationClearsCache() throws RepositoryException {
+        final Event mockNamespaceEvent = mock(Event.class);
+        when(mockNamespaceEvent.getPath()).thenReturn(NAMESPACES_PATH + "/foo");
+        when(mockSession.isLive()).thenReturn(true);
+        when(mockNS.getURI("fedora")).thenReturn("http://fedora.info/definitions/v4/repository#");
+        when(mockEvents.hasNext()).thenReturn(true, false, true, true, false);
+        when(mockEvents.next()).thenReturn(mockEvent, mockNamespaceEvent, mockEvent);
+        setField(testObserver, "eventFilter", (EventFilter) e -> e == mockEvent);
+        testObserver.onEvent(mockEvents);
+        testObserver.onEvent(mockEvents);
+        verify(mockNS, times(2)).getURI("fedora");
+    }
+
+    @Test
+    public void testStopListeningClosesLookupSession() throws RepositoryException {
+        final Session mockLookupSession =
+                mock(Session.class, Mockito.withSettings().extraInterfaces(org.modeshape.jcr.api.Session.class));
+        when(mockRepository.login()).thenReturn((org.modeshape.jcr.api.Session) mockLookupSession);
+        when(mockLookupSession.getWorkspace()).thenReturn(mockWS);
+        when(mockWS.getObservationManager()).thenReturn(mockOM);
+        testObserver.onEvent(mockEvents);
+        testObserver.stopListening();
+        verify(mockOM).removeEventListener(testObserver);
+        verify(mockSession).logout();
+        verify(mockLookupSession).logout();
+    }
+
+    @Test
+    public void testMoveEventExpandedInPages() throws RepositoryException {
+        mockMove();
+        testObserver.setMoveExpansionPageSize(1);
+        testObserver.setMoveExpansionRate(1000);
+        testObserver.onEvent(mockEvents);
+
+        final ArgumentCaptor<FedoraEvent> posted = ArgumentCaptor.forClass(FedoraEvent.class);
+        verify(mockBus, timeout(1000).times(5)).post(posted.capture());
+        final List<FedoraEvent> events = posted.getAllValues();
+        assertEquals("/dest", events.get(0).getPath());
+        assertEquals("/dest/a", events.get(1).getPath());
+        assertTrue(events.get(1).getTypes().contains(RESOURCE_RELOCATION));
+        assertEquals("/src/a", events.get(2).getPath());
+        assertTrue(events.get(2).getTypes().contains(RESOURCE_DELETION));
+        assertEquals("/dest/b", events.get(3).getPath());
+        assertEquals("/src/b", events.get(4).getPath());
+    }
+
+    @Test
+    public void testMoveEventSummary() throws RepositoryException {
+        mockMove();
+        testObserver.setMoveSummary(true);
+        testObserver.onEvent(mockEvents);
+
+        final ArgumentCaptor<FedoraEvent> posted = ArgumentCaptor.forClass(FedoraEvent.class);
+        verify(mockBus).post(posted.capture());
+        assertEquals("/dest", posted.getValue().getPath());
+        assertEquals("true", posted.getValue().getInfo().get(SUBTREE_RELOCATED));
+        verify(mockSession, never()).getNode("/dest");
+    }
+
+    @Test
+    public void testMoveEventDeletionPathsReplacePrefix() throws RepositoryException {
+        mockMove("/d+");
+        testObserver.onEvent(mockEvents);
+
+        final ArgumentCaptor<FedoraEvent> posted = ArgumentCaptor.forClass(FedoraEvent.class);
+        verify(mockBus, timeout(1000).times(5)).post(posted.capture());
+        assertEquals("/src/a", posted.getAllValues().get(2).getPath());
+    }
+
+    @Test
+    public void testMoveEventSummaryWhenExpansionFails() throws RepositoryException {
+        mockMove();
+        when(mockSession.getNode("/dest")).thenThrow(new PathNotFoundException());
+        testObserver.onEvent(mockEvents);
+
+        final ArgumentCaptor<FedoraEvent> posted = ArgumentCaptor.forClass(FedoraEvent.class);
+        verify(mockBus, timeout(1000).times(2)).post(posted.capture());
+        assertEquals("/dest", posted.getAllValues().get(1).getPath());
+        assertEquals("true", posted.getAllValues().get(1).getInfo().get(SUBTREE_RELOCATED));
+        assertNull(posted.getAllValues().get(1).getInfo().get(SUBTREE_CURSOR));
+    }
+
+    @Test
+    public void testMoveEventSummaryCursor() throws RepositoryException {
+        mockMove();
+        when(mockChild2.getNodes()).thenThrow(new RepositoryException());
+        testObserver.setMoveExpansionPageSize(1);
+        testObserver.onEvent(mockEvents);
+
+        final ArgumentCaptor<FedoraEvent> posted = ArgumentCaptor.forClass(FedoraEvent.class);
+        verify(mockBus, timeout(1000).times(4)).post(posted.capture());
+        final FedoraEvent summary = posted.getAllValues().get(3);
+        assertEquals("true", summary.getInfo().get(SUBTREE_RELOCATED));
+        assertEquals("Summary should resume after the last descendant posted", "/dest/a",
+                summary.getInfo().get(SUBTREE_CURSOR));
+    }
+
+    @Test
+    public void testEventsAfterMoveWaitForExpansion() throws RepositoryException {
+        mockMove();
+        testObserver.setMoveExpansionPageSize(1);
+        testObserver.setMoveExpansionRate(4);
+        testObserver.onEvent(mockEvents);
+
+        final Event mockLaterEvent = mock(Event.class);
+        when(mockLaterEvent.getType()).thenReturn(1);
+        when(mockLaterEvent.getPath()).thenReturn("/later");
+        when(mockLaterEvent.getPrimaryNodeType()).thenReturn(mockNodeType);
+        when(mockLaterEvent.getMixinNodeTypes()).thenReturn(new NodeType[] {fedoraContainer});
+        final EventIterator mockLaterEvents = mock(EventIterator.class);
+        when(mockLaterEvents.hasNext()).thenReturn(true, false);
+        when(mockLaterEvents.next()).thenReturn(mockLaterEvent);
+        testObserver.onEvent(mockLaterEvents);
+
+        final ArgumentCaptor<FedoraEvent> posted = ArgumentCaptor.forClass(FedoraEvent.class);
+        verify(mockBus, timeout(5000).times(6)).post(posted.capture());
+        assertEquals("/src/b", posted.getAllValues().get(4).getPath());
+        assertEquals("/later", posted.getAllValues().get(5).getPath());
+    }
+
+    private void mockMove() throws RepositoryException {
+        mockMove("/dest");
+    }
+
+    private void mockMove(final String dest) throws RepositoryException {
+        final Map<String, String> info = ImmutableMap.of("srcAbsPath", "/src", "destAbsPath", dest);
+        when(mockEvent.getType()).thenReturn(NODE_MOVED);
+        when(mockEvent.getPath()).thenReturn(dest);
+        when(mockEvent.getInfo()).thenReturn(info);
+        when(mockSession.getNode(dest)).thenReturn(mockNode);
+        when(mockNode.getNodes()).thenReturn(nodeIterator(mockChild1, mockChild2));
+        when(mockChild1.getName()).thenReturn("a");
+        when(mockChild1.getPath()).thenReturn(dest + "/a");
+        when(mockChild1.getNodes()).thenReturn(nodeIterator());
+        when(mockChild2.getName()).thenReturn("b");
+        when(mockChild2.getPath()).thenReturn(dest + "/b");
+        when(mockChild2.getNodes()).thenReturn(nodeIterator());
+    }
+
     @Test
     public void testOnEventAllFiltered() {
         setField(testObserver, "eventFilter", (EventFilter) e -> false);
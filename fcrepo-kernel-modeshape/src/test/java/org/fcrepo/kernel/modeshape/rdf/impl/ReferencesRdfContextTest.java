@@ -24,6 +24,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.stubbing.Answer;
+import org.modeshape.jcr.api.NamespaceRegistry;
 
 import javax.jcr.Node;
 import javax.jcr.Property;
@@ -31,13 +32,23 @@ import javax.jcr.PropertyIterator;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 import javax.jcr.Value;
+import javax.jcr.Workspace;
 
 import static org.apache.jena.rdf.model.ResourceFactory.createProperty;
 import static org.apache.jena.rdf.model.ResourceFactory.createResource;
 import static javax.jcr.PropertyType.REFERENCE;
 import static javax.jcr.PropertyType.WEAKREFERENCE;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_HAS_MEMBER_RELATION;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_INDIRECT_CONTAINER;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_INSERTED_CONTENT_RELATION;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_MEMBER_RESOURCE;
 import static org.fcrepo.kernel.api.RdfCollectors.toModel;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
@@ -77,6 +88,18 @@ public class ReferencesRdfContextTest {
     @Mock
     private PropertyIterator mockPropertyIterator;
 
+    @Mock
+    private Node mockContainer;
+
+    @Mock
+    private Node mockMembershipResource;
+
+    @Mock
+    private Workspace mockWorkspace;
+
+    @Mock
+    private NamespaceRegistry mockNamespaceRegistry;
+
     @Before
     public void setUp() throws RepositoryException {
         initMocks(this);
@@ -86,6 +109,7 @@ public class ReferencesRdfContextTest {
         when(mockNode.getPath()).thenReturn("/a");
         when(mockNode.getSession()).thenReturn(mockSession);
         when(mockSession.getNodeByIdentifier("uuid")).thenReturn(mockNode);
+        when(mockNode.getIdentifier()).thenReturn("uuid");
 
         when(mockPropertyParent.getPath()).thenReturn("/b");
 
@@ -133,5 +157,54 @@ public class ReferencesRdfContextTest {
 
     }
 
+    @Test
+    public void testIndirectContainerMembership() throws RepositoryException {
+        when(mockSession.getWorkspace()).thenReturn(mockWorkspace);
+        when(mockWorkspace.getNamespaceRegistry()).thenReturn(mockNamespaceRegistry);
+        when(mockNamespaceRegistry.getPrefix("http://example.org/")).thenReturn("ex");
+
+        when(mockPropertyParent.getDepth()).thenReturn(2);
+        when(mockPropertyParent.getParent()).thenReturn(mockContainer);
+        when(mockContainer.getPath()).thenReturn("/c");
+        when(mockContainer.getSession()).thenReturn(mockSession);
+        when(mockContainer.isNodeType(LDP_INDIRECT_CONTAINER)).thenReturn(true);
+        when(mockContainer.hasProperty(LDP_MEMBER_RESOURCE)).thenReturn(true);
+        when(mockContainer.hasProperty(LDP_HAS_MEMBER_RELATION)).thenReturn(true);
+        when(mockContainer.hasProperty(LDP_INSERTED_CONTENT_RELATION)).thenReturn(true);
+
+        final Property mockMembershipProperty = mock(Property.class);
+        when(mockContainer.getProperty(LDP_MEMBER_RESOURCE)).thenReturn(mockMembershipProperty);
+        when(mockMembershipProperty.getNode()).thenReturn(mockMembershipResource);
+        when(mockMembershipResource.getPath()).thenReturn("/m");
+        final Property mockRelation = mock(Property.class);
+        when(mockContainer.getProperty(LDP_HAS_MEMBER_RELATION)).thenReturn(mockRelation);
+        when(mockRelation.getString()).thenReturn("http://example.org/hasMember");
+        final Property mockInsertedContent = mock(Property.class);
+        when(mockContainer.getProperty(LDP_INSERTED_CONTENT_RELATION)).thenReturn(mockInsertedContent);
+        when(mockInsertedContent.getString()).thenReturn("http://example.org/proxyFor");
+
+        when(mockPropertyParent.hasProperty("ex:proxyFor_ref")).thenReturn(true);
+        when(mockPropertyParent.getProperty("ex:proxyFor_ref")).thenReturn(mockStrongProperty);
+
+        final Model model = new ReferencesRdfContext(mockResource, translator).collect(toModel());
+        assertTrue(model.contains(createResource("info:fedora/m"),
+                createProperty("http://example.org/hasMember"),
+                createResource("info:fedora/a")));
+        assertEquals(3, model.size());
 
+        // the referrer refers to the resource twice, but is examined only once
+        verify(mockPropertyParent, times(1)).hasProperty("ex:proxyFor_ref");
+    }
+
+    @Test
+    public void testReferrerNotInIndirectContainer() throws RepositoryException {
+        when(mockPropertyParent.getDepth()).thenReturn(2);
+        when(mockPropertyParent.getParent()).thenReturn(mockContainer);
+        when(mockContainer.getPath()).thenReturn("/c");
+        when(mockContainer.isNodeType(LDP_INDIRECT_CONTAINER)).thenReturn(false);
+
+        final Model model = new ReferencesRdfContext(mockResource, translator).collect(toModel());
+        assertEquals(2, model.size());
+        assertFalse(model.contains(createResource("info:fedora/c"), null));
+    }
 }
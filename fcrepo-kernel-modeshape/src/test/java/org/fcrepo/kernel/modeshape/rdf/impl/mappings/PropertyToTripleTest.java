@@ -32,6 +32,8 @@ import static javax.jcr.PropertyType.STRING;
 import static javax.jcr.PropertyType.URI;
 import static org.fcrepo.kernel.modeshape.identifiers.NodeResourceConverter.nodeToResource;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -331,6 +333,39 @@ public class PropertyToTripleTest {
                 .getSubject());
     }
 
+    @Test
+    public void testReferenceToMissingNodeIsSkipped() throws RepositoryException {
+        when(mockProperty.isMultiple()).thenReturn(true);
+        when(mockProperty.getType()).thenReturn(REFERENCE);
+        when(mockProperty.getValues()).thenReturn(new Value[] {mockValue, mockValue2});
+        when(mockValue.getString()).thenReturn("missing");
+        when(mockValue.getType()).thenReturn(REFERENCE);
+        when(mockValue2.getString()).thenReturn(TEST_NODE_PATH);
+        when(mockValue2.getType()).thenReturn(REFERENCE);
+        when(mockSession.getNodeByIdentifier("missing")).thenThrow(new ItemNotFoundException("missing"));
+        when(mockSession.getNodeByIdentifier(TEST_NODE_PATH)).thenReturn(mockNode);
+
+        final List<Triple> tl = testPropertyToTriple.apply(mockProperty).collect(toList());
+
+        assertEquals(1, tl.size());
+        assertEquals("Got wrong RDF object!", testSubject, tl.get(0).getObject());
+        // each value is resolved only once
+        verify(mockSession).getNodeByIdentifier("missing");
+        verify(mockSession).getNodeByIdentifier(TEST_NODE_PATH);
+    }
+
+    @Test
+    public void testPredicateReusedAcrossProperties() throws RepositoryException {
+        when(mockProperty.getType()).thenReturn(STRING);
+        when(mockValue.getString()).thenReturn(TEST_VALUE);
+        when(mockValue.getType()).thenReturn(STRING);
+        final Triple first = createSingleValuedLiteralTriple();
+        final Triple second = createSingleValuedLiteralTriple();
+
+        assertSame(first.getPredicate(), second.getPredicate());
+        assertSame(first.getSubject(), second.getSubject());
+    }
+
     @Test(expected = RepositoryException.class)
     public void badProperty() throws AccessDeniedException,
                              ItemNotFoundException, RepositoryException {
@@ -0,0 +1,215 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.services;
+
+import static com.google.common.collect.ImmutableMap.of;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+import static javax.jcr.observation.Event.NODE_MOVED;
+import static javax.jcr.observation.Event.NODE_REMOVED;
+import static javax.jcr.observation.Event.PROPERTY_ADDED;
+import static javax.jcr.observation.Event.PROPERTY_CHANGED;
+import static org.apache.jena.datatypes.xsd.XSDDatatype.XSDstring;
+import static org.fcrepo.kernel.api.FedoraTypes.HAS_MIME_TYPE;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FIELD_DELIMITER;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+import static org.modeshape.jcr.api.JcrConstants.JCR_DATA;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+import java.util.Iterator;
+
+import javax.jcr.Node;
+import javax.jcr.Property;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.observation.Event;
+import javax.jcr.observation.EventIterator;
+
+import org.fcrepo.kernel.api.utils.BinaryStatistics;
+import org.fcrepo.kernel.modeshape.FedoraRepositoryImpl;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.modeshape.jcr.api.Binary;
+
+/**
+ * <p>BinaryStatisticsTrackerTest class.</p>
+ *
+ * @author agent
+ */
+public class BinaryStatisticsTrackerTest {
+
+    private BinaryStatisticsTracker testObj;
+
+    @Mock
+    private Repository mockRepo;
+
+    @Mock
+    private Session mockSession;
+
+    @Before
+    public void setUp() throws RepositoryException {
+        initMocks(this);
+        when(mockRepo.login()).thenReturn(mockSession);
+        testObj = new BinaryStatisticsTracker();
+        setField(testObj, "repository", new FedoraRepositoryImpl(mockRepo));
+    }
+
+    @Test
+    public void testSharedContent() throws RepositoryException {
+        mockContent("/a/jcr:content/jcr:data", "abc", 10L);
+        mockContent("/b/jcr:content/jcr:data", "abc", 10L);
+        mockContent("/c/jcr:content/jcr:data", "def", 5L);
+        send(event(PROPERTY_ADDED, "/a/jcr:content/jcr:data"), event(PROPERTY_ADDED, "/b/jcr:content/jcr:data"),
+                event(PROPERTY_ADDED, "/c/jcr:content/jcr:data"));
+
+        final BinaryStatistics statistics = testObj.getStatistics();
+        assertEquals(3L, statistics.getBinaryCount());
+        assertEquals(2L, statistics.getUniqueBinaryCount());
+        assertEquals(25L, statistics.getLogicalSize());
+        assertEquals(15L, statistics.getUniqueSize());
+        assertEquals(10L, statistics.getSharedSize());
+        assertEquals(2L, testObj.getReferenceCount("abc"));
+        assertEquals(0L, testObj.getReferenceCount("xyz"));
+        assertEquals(asList("abc", "def"), asList(testObj.getMostReferenced(5).keySet().toArray()));
+        assertEquals(1, testObj.getMostReferenced(1).size());
+    }
+
+    @Test
+    public void testChangedContent() throws RepositoryException {
+        mockContent("/a/jcr:content/jcr:data", "abc", 10L);
+        send(event(PROPERTY_ADDED, "/a/jcr:content/jcr:data"));
+        mockContent("/a/jcr:content/jcr:data", "def", 4L);
+        send(event(PROPERTY_CHANGED, "/a/jcr:content/jcr:data"));
+
+        assertEquals(1L, testObj.getStatistics().getBinaryCount());
+        assertEquals(4L, testObj.getStatistics().getLogicalSize());
+        assertEquals(0L, testObj.getReferenceCount("abc"));
+        assertEquals(1L, testObj.getReferenceCount("def"));
+    }
+
+    @Test
+    public void testRemovedTree() throws RepositoryException {
+        mockContent("/a/b/jcr:content/jcr:data", "abc", 10L);
+        mockContent("/a/c/jcr:content/jcr:data", "abc", 10L);
+        mockContent("/ab/jcr:content/jcr:data", "abc", 10L);
+        send(event(PROPERTY_ADDED, "/a/b/jcr:content/jcr:data"), event(PROPERTY_ADDED, "/a/c/jcr:content/jcr:data"),
+                event(PROPERTY_ADDED, "/ab/jcr:content/jcr:data"));
+        send(event(NODE_REMOVED, "/a"));
+
+        assertEquals(1L, testObj.getStatistics().getBinaryCount());
+        assertEquals(10L, testObj.getStatistics().getUniqueSize());
+        assertEquals(1L, testObj.getReferenceCount("abc"));
+        send(event(NODE_REMOVED, "/ab"));
+        assertEquals(0L, testObj.getStatistics().getLogicalSize());
+        assertEquals(0L, testObj.getStatistics().getUniqueSize());
+    }
+
+    @Test
+    public void testMovedTree() throws RepositoryException {
+        mockContent("/a/b/jcr:content/jcr:data", "abc", 10L);
+        send(event(PROPERTY_ADDED, "/a/b/jcr:content/jcr:data"));
+        final Event move = event(NODE_MOVED, "/z");
+        when(move.getInfo()).thenReturn(singletonMap("srcAbsPath", "/a"));
+        send(move);
+        assertEquals(1L, testObj.getStatistics().getBinaryCount());
+
+        final Event moved = event(NODE_MOVED, "/z");
+        when(moved.getInfo()).thenReturn(of("srcAbsPath", "/a", "destAbsPath", "/z"));
+        send(moved);
+        send(event(NODE_REMOVED, "/a"));
+        assertEquals(1L, testObj.getStatistics().getBinaryCount());
+        send(event(NODE_REMOVED, "/z"));
+        assertEquals(0L, testObj.getStatistics().getBinaryCount());
+    }
+
+    @Test
+    public void testSizeByMimeType() throws RepositoryException {
+        mockContent("/a/jcr:content/jcr:data", "abc", 10L, "text/plain");
+        mockContent("/b/jcr:content/jcr:data", "abc", 10L, "text/plain");
+        mockContent("/c/jcr:content/jcr:data", "def", 5L);
+        send(event(PROPERTY_ADDED, "/a/jcr:content/jcr:data"), event(PROPERTY_ADDED, "/b/jcr:content/jcr:data"),
+                event(PROPERTY_ADDED, "/c/jcr:content/jcr:data"));
+        assertEquals(of("text/plain", 20L, "application/octet-stream", 5L), testObj.getSizeByMimeType());
+
+        mockContent("/b/jcr:content/jcr:data", "abc", 10L, "text/html");
+        send(event(PROPERTY_CHANGED, "/b/jcr:content/ebucore:hasMimeType"));
+        assertEquals(of("text/plain", 10L, "text/html", 10L, "application/octet-stream", 5L),
+                testObj.getSizeByMimeType());
+
+        send(event(NODE_REMOVED, "/a"), event(NODE_REMOVED, "/c"));
+        assertEquals(of("text/html", 10L), testObj.getSizeByMimeType());
+    }
+
+    @Test
+    public void testHistory() throws RepositoryException {
+        testObj.setSampleInterval(0);
+        testObj.setHistorySize(2);
+        mockContent("/a/jcr:content/jcr:data", "abc", 10L);
+        mockContent("/b/jcr:content/jcr:data", "def", 10L);
+        mockContent("/c/jcr:content/jcr:data", "ghi", 10L);
+        send(event(PROPERTY_ADDED, "/a/jcr:content/jcr:data"), event(PROPERTY_ADDED, "/b/jcr:content/jcr:data"),
+                event(PROPERTY_ADDED, "/c/jcr:content/jcr:data"));
+
+        assertEquals(2, testObj.getHistory().size());
+        assertEquals(2L, testObj.getHistory().get(0).getBinaryCount());
+        assertEquals(30L, testObj.getHistory().get(1).getLogicalSize());
+    }
+
+    private void mockContent(final String path, final String hash, final long size) throws RepositoryException {
+        mockContent(path, hash, size, null);
+    }
+
+    private void mockContent(final String path, final String hash, final long size, final String mimeType)
+            throws RepositoryException {
+        final Node node = mock(Node.class);
+        final Property property = mock(Property.class);
+        final Binary binary = mock(Binary.class);
+        when(binary.getHexHash()).thenReturn(hash);
+        when(binary.getSize()).thenReturn(size);
+        when(property.getBinary()).thenReturn(binary);
+        when(node.hasProperty(JCR_DATA)).thenReturn(true);
+        when(node.getProperty(JCR_DATA)).thenReturn(property);
+        if (mimeType != null) {
+            final Property mimeTypeProperty = mock(Property.class);
+            when(mimeTypeProperty.getString()).thenReturn(mimeType + FIELD_DELIMITER + XSDstring.getURI());
+            when(node.hasProperty(HAS_MIME_TYPE)).thenReturn(true);
+            when(node.getProperty(HAS_MIME_TYPE)).thenReturn(mimeTypeProperty);
+        }
+        when(mockSession.getNode(path.substring(0, path.lastIndexOf('/')))).thenReturn(node);
+    }
+
+    private static Event event(final int type, final String path) throws RepositoryException {
+        final Event event = mock(Event.class);
+        when(event.getType()).thenReturn(type);
+        when(event.getPath()).thenReturn(path);
+        return event;
+    }
+
+    private void send(final Event... events) {
+        final Iterator<Event> iterator = asList(events).iterator();
+        final EventIterator mockEvents = mock(EventIterator.class);
+        when(mockEvents.hasNext()).thenAnswer(i -> iterator.hasNext());
+        when(mockEvents.nextEvent()).thenAnswer(i -> iterator.next());
+        testObj.onEvent(mockEvents);
+    }
+}
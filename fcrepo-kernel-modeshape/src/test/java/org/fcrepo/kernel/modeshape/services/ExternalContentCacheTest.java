@@ -0,0 +1,107 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.services;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.io.IOUtils.toInputStream;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * <p>ExternalContentCacheTest class.</p>
+ *
+ * @author agent
+ */
+public class ExternalContentCacheTest {
+
+    @Rule
+    public TemporaryFolder tmpDir = new TemporaryFolder();
+
+    private File directory;
+
+    private ExternalContentCache testObj;
+
+    private final URI a = URI.create("http://example.org/a");
+
+    private final URI b = URI.create("http://example.org/b");
+
+    private final URI c = URI.create("http://example.org/c");
+
+    @Before
+    public void setUp() throws IOException {
+        directory = tmpDir.newFolder();
+        testObj = new ExternalContentCache(directory.toPath(), 20);
+    }
+
+    @Test
+    public void testPut() throws IOException {
+        assertNull(testObj.get(a));
+        testObj.put(a, toInputStream("0123456789", UTF_8), "\"1\"", null);
+
+        final ExternalContentCache.Entry entry = testObj.get(a);
+        assertEquals("\"1\"", entry.getEtag());
+        assertNull(entry.getLastModified());
+        assertEquals(10L, entry.getSize());
+        try (final InputStream content = entry.open()) {
+            assertEquals("0123456789", IOUtils.toString(content, UTF_8));
+        }
+    }
+
+    @Test
+    public void testReplace() throws IOException {
+        testObj.put(a, toInputStream("0123456789", UTF_8), "\"1\"", null);
+        testObj.put(a, toInputStream("01234", UTF_8), "\"2\"", null);
+        assertEquals(5L, testObj.size());
+        assertEquals("\"2\"", testObj.get(a).getEtag());
+        assertEquals(1, directory.list().length);
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() throws IOException {
+        testObj.put(a, toInputStream("0123456789", UTF_8), "\"a\"", null);
+        testObj.put(b, toInputStream("0123456789", UTF_8), "\"b\"", null);
+        assertNotNull(testObj.get(a));
+        testObj.put(c, toInputStream("0123456789", UTF_8), "\"c\"", null);
+
+        assertNotNull(testObj.get(a));
+        assertNull(testObj.get(b));
+        assertNotNull(testObj.get(c));
+        assertEquals(20L, testObj.size());
+        assertEquals(2, directory.list().length);
+    }
+
+    @Test
+    public void testClearOnStart() throws IOException {
+        testObj.put(a, toInputStream("0123456789", UTF_8), "\"a\"", null);
+        testObj = new ExternalContentCache(directory.toPath(), 20);
+        assertNull(testObj.get(a));
+        assertEquals(0, directory.list().length);
+    }
+}
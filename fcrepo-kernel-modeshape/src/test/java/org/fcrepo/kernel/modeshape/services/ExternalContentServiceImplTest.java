@@ -17,25 +17,44 @@
  */
 package org.fcrepo.kernel.modeshape.services;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.http.HttpStatus.SC_NOT_FOUND;
+import static org.apache.http.HttpStatus.SC_NOT_MODIFIED;
+import static org.apache.http.HttpStatus.SC_OK;
+import static org.apache.http.HttpVersion.HTTP_1_1;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicStatusLine;
+import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mock;
 
+import com.sun.net.httpserver.HttpServer;
+
 
 /**
  * @author cabeer
@@ -61,6 +80,19 @@ public class ExternalContentServiceImplTest {
     @Mock
     private InputStream mockInputStream;
 
+    @Rule
+    public TemporaryFolder tmpDir = new TemporaryFolder();
+
+    private HttpServer server;
+
+    private volatile String body;
+
+    private volatile String etag;
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final AtomicInteger notModified = new AtomicInteger();
+
     @Before
     public void setUp() throws URISyntaxException, IOException {
         initMocks(this);
@@ -71,13 +103,109 @@ public class ExternalContentServiceImplTest {
         when(testObj.getCloseableHttpClient()).thenReturn(mockClient);
         when(mockClient.execute(any(HttpGet.class))).thenReturn(mockResponse);
         when(mockResponse.getEntity()).thenReturn(mockEntity);
+        when(mockResponse.getStatusLine()).thenReturn(new BasicStatusLine(HTTP_1_1, SC_OK, "OK"));
         when(mockEntity.getContent()).thenReturn(mockInputStream);
     }
 
+    @After
+    public void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
     @Test
     public void testRetrieveExternalContent() throws Exception {
+        when(mockInputStream.read()).thenReturn(42);
         try (final InputStream xyz = testObj.retrieveExternalContent(sourceUri)) {
-            assertEquals(mockInputStream, xyz);
+            assertEquals(42, xyz.read());
+            verify(mockResponse, never()).close();
+        }
+        verify(mockInputStream).close();
+        verify(mockResponse).close();
+    }
+
+    @Test(expected = IOException.class)
+    public void testRetrieveMissingExternalContent() throws Exception {
+        when(mockResponse.getStatusLine()).thenReturn(new BasicStatusLine(HTTP_1_1, SC_NOT_FOUND, "Not Found"));
+        try {
+            testObj.retrieveExternalContent(sourceUri);
+        } finally {
+            verify(mockResponse).close();
         }
     }
+
+    @Test
+    public void testRetrieveFromServer() throws Exception {
+        final URI uri = serve("/content", "external content", "\"1\"");
+        final ExternalContentServiceImpl service = new ExternalContentServiceImpl();
+        service.setConnManager(new PoolingHttpClientConnectionManager());
+        try (final InputStream content = service.retrieveExternalContent(uri)) {
+            assertEquals("external content", IOUtils.toString(content, UTF_8));
+        }
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void testRevalidateCachedContent() throws Exception {
+        final URI uri = serve("/content", "external content", "\"1\"");
+        final ExternalContentServiceImpl service = new ExternalContentServiceImpl();
+        service.setConnManager(new PoolingHttpClientConnectionManager());
+        service.setCacheDirectory(tmpDir.newFolder().getPath());
+        for (int i = 0; i < 3; i++) {
+            try (final InputStream content = service.retrieveExternalContent(uri)) {
+                assertEquals("external content", IOUtils.toString(content, UTF_8));
+            }
+        }
+        assertEquals(3, requests.get());
+        assertEquals(2, notModified.get());
+
+        body = "changed content";
+        etag = "\"2\"";
+        try (final InputStream content = service.retrieveExternalContent(uri)) {
+            assertEquals("changed content", IOUtils.toString(content, UTF_8));
+        }
+        assertEquals(2, notModified.get());
+    }
+
+    @Test
+    public void testRetrieveEvictedCachedContent() throws Exception {
+        final URI uri = serve("/content", "external content", "\"1\"");
+        final ExternalContentServiceImpl service = new ExternalContentServiceImpl();
+        service.setConnManager(new PoolingHttpClientConnectionManager());
+        final File cacheDirectory = tmpDir.newFolder();
+        service.setCacheDirectory(cacheDirectory.getPath());
+        try (final InputStream content = service.retrieveExternalContent(uri)) {
+            assertEquals("external content", IOUtils.toString(content, UTF_8));
+        }
+        for (final File file : cacheDirectory.listFiles()) {
+            assertTrue(file.delete());
+        }
+        try (final InputStream content = service.retrieveExternalContent(uri)) {
+            assertEquals("external content", IOUtils.toString(content, UTF_8));
+        }
+        assertEquals(2, requests.get());
+        assertEquals(0, notModified.get());
+    }
+
+    private URI serve(final String path, final String body, final String etag) throws IOException {
+        this.body = body;
+        this.etag = etag;
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(path, exchange -> {
+            requests.incrementAndGet();
+            if (this.etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(SC_NOT_MODIFIED, -1);
+            } else {
+                final byte[] bytes = this.body.getBytes(UTF_8);
+                exchange.getResponseHeaders().set("ETag", this.etag);
+                exchange.sendResponseHeaders(SC_OK, bytes.length);
+                exchange.getResponseBody().write(bytes);
+            }
+            exchange.close();
+        });
+        server.start();
+        return URI.create("http://localhost:" + server.getAddress().getPort() + path);
+    }
 }
@@ -0,0 +1,109 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.services;
+
+import static java.util.Arrays.asList;
+import static javax.jcr.observation.Event.NODE_ADDED;
+import static javax.jcr.observation.Event.NODE_REMOVED;
+import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_CONTAINER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+import java.util.Iterator;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.nodetype.NodeType;
+import javax.jcr.observation.EventIterator;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.modeshape.jcr.api.observation.Event;
+
+/**
+ * <p>RepositoryCountersTest class.</p>
+ *
+ * @author agent
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class RepositoryCountersTest {
+
+    private RepositoryCounters testObj;
+
+    @Mock
+    private NodeType mockContainerType;
+
+    @Mock
+    private NodeType mockOtherType;
+
+    @Before
+    public void setUp() {
+        testObj = new RepositoryCounters();
+        setField(testObj, "containerCount", 5L);
+        when(mockContainerType.isNodeType(FEDORA_CONTAINER)).thenReturn(true);
+    }
+
+    @Test
+    public void testCountContainers() throws RepositoryException {
+        assertFalse(testObj.isReady());
+        send(event(NODE_ADDED, "/a", mockContainerType), event(NODE_ADDED, "/a/b", mockContainerType),
+                event(NODE_ADDED, "/a/jcr:content", mockOtherType), event(NODE_REMOVED, "/c", mockContainerType));
+        assertEquals(6L, testObj.getContainerCount());
+    }
+
+    @Test
+    public void testRemoveNestedContainers() throws RepositoryException {
+        send(event(NODE_REMOVED, "/d", mockContainerType), event(NODE_REMOVED, "/d/e", mockContainerType),
+                event(NODE_REMOVED, "/d/e/f", mockContainerType), event(NODE_REMOVED, "/d/e/f/jcr:content",
+                        mockOtherType));
+        assertEquals("Each container of a removed subtree should be uncounted", 2L, testObj.getContainerCount());
+    }
+
+    @Test
+    public void testMoveNestedContainers() throws RepositoryException {
+        send(event(NODE_ADDED, "/g", mockContainerType), event(NODE_REMOVED, "/d", mockContainerType));
+        assertEquals("A moved container should be counted once", 5L, testObj.getContainerCount());
+    }
+
+    @Test
+    public void testIgnoreSystemNodes() throws RepositoryException {
+        send(event(NODE_ADDED, "/jcr:system/jcr:versionStorage/a", mockContainerType));
+        assertEquals(5L, testObj.getContainerCount());
+    }
+
+    private static Event event(final int type, final String path, final NodeType mixin) throws RepositoryException {
+        final Event event = mock(Event.class);
+        when(event.getType()).thenReturn(type);
+        when(event.getPath()).thenReturn(path);
+        when(event.getMixinNodeTypes()).thenReturn(new NodeType[]{mixin});
+        return event;
+    }
+
+    private void send(final Event... events) {
+        final Iterator<Event> iterator = asList(events).iterator();
+        final EventIterator mockEvents = mock(EventIterator.class);
+        when(mockEvents.hasNext()).thenAnswer(i -> iterator.hasNext());
+        when(mockEvents.nextEvent()).thenAnswer(i -> iterator.next());
+        testObj.onEvent(mockEvents);
+    }
+}
@@ -18,6 +18,7 @@
 package org.fcrepo.kernel.modeshape.services;
 
 import static javax.jcr.query.Query.JCR_SQL2;
+import static java.util.Collections.singletonMap;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.anyString;
@@ -29,6 +30,7 @@ import static org.mockito.MockitoAnnotations.initMocks;
 import static org.modeshape.jcr.api.JcrConstants.JCR_PATH;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
 
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -52,6 +54,7 @@ import javax.jcr.query.qom.QueryObjectModelFactory;
 import org.fcrepo.kernel.api.FedoraRepository;
 import org.fcrepo.kernel.api.FedoraTypes;
 import org.fcrepo.kernel.api.services.RepositoryService;
+import org.fcrepo.kernel.api.utils.BinaryStatistics;
 import org.fcrepo.kernel.modeshape.FedoraRepositoryImpl;
 import org.junit.Before;
 import org.junit.Test;
@@ -133,6 +136,12 @@ public class RepositoryServiceImplTest implements FedoraTypes {
     @Mock
     private NamespaceRegistry mockNamespaceRegistry;
 
+    @Mock
+    private BinaryStatisticsTracker mockTracker;
+
+    @Mock
+    private RepositoryCounters mockCounters;
+
     private Map<String, String> expectedNS;
 
 
@@ -152,6 +161,8 @@ public class RepositoryServiceImplTest implements FedoraTypes {
 
             testObj = new RepositoryServiceImpl();
             setField(testObj, "repository", testRepo);
+            setField(testObj, "binaryStatistics", mockTracker);
+            setField(testObj, "counters", mockCounters);
 
             when(mockSession.getNode("/objects")).thenReturn(mockRootNode);
             when(mockRootNode.getNodes()).thenReturn(mockNI);
@@ -236,4 +247,39 @@ public class RepositoryServiceImplTest implements FedoraTypes {
         verify(mockSession, never()).save();
     }
 
+    @Test
+    public void testGetTrackedRepositorySize() throws RepositoryException {
+        when(mockTracker.isReady()).thenReturn(true);
+        when(mockTracker.getStatistics()).thenReturn(new BinaryStatistics(Instant.now(), 3L, 2L, 15L, 10L));
+        assertEquals(15L, testObj.getRepositorySize().longValue());
+        verify(mockRepo, never()).login();
+    }
+
+    @Test
+    public void testGetTrackedRepositoryObjectCount() throws RepositoryException {
+        when(mockCounters.isReady()).thenReturn(true);
+        when(mockCounters.getContainerCount()).thenReturn(7L);
+        assertEquals(7L, testObj.getRepositoryObjectCount().longValue());
+        verify(mockRepo, never()).login();
+    }
+
+    @Test
+    public void testGetRepositorySizeByMimeType() {
+        when(mockTracker.getSizeByMimeType()).thenReturn(singletonMap("text/plain", 15L));
+        assertEquals(singletonMap("text/plain", 15L), testObj.getRepositorySizeByMimeType());
+    }
+
+    @Test
+    public void testGetBinaryStatistics() {
+        final BinaryStatistics statistics = new BinaryStatistics(Instant.now(), 3L, 2L, 15L, 10L);
+        when(mockTracker.getStatistics()).thenReturn(statistics);
+        when(mockTracker.getReferenceCount("abc")).thenReturn(2L);
+        when(mockTracker.getMostReferenced(1)).thenReturn(singletonMap("abc", 2L));
+
+        assertEquals(statistics, testObj.getBinaryStatistics());
+        assertEquals(5L, testObj.getBinaryStatistics().getSharedSize());
+        assertEquals(2L, testObj.getBinaryReferenceCount("abc"));
+        assertEquals(singletonMap("abc", 2L), testObj.getMostReferencedBinaries(1));
+    }
+
 }
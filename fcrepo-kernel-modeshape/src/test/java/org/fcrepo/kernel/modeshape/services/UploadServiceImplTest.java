@@ -0,0 +1,172 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.services;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static org.apache.commons.io.IOUtils.toInputStream;
+import static org.fcrepo.kernel.api.utils.ContentDigest.DIGEST_ALGORITHM.SHA1;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.util.SortedMap;
+
+import org.apache.commons.io.IOUtils;
+import org.fcrepo.kernel.api.exception.InvalidChecksumException;
+import org.fcrepo.kernel.api.exception.SessionMissingException;
+import org.fcrepo.kernel.api.utils.ContentDigest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * <p>UploadServiceImplTest class.</p>
+ *
+ * @author agent
+ */
+public class UploadServiceImplTest {
+
+    private static final String USER = "someUser";
+
+    @Rule
+    public TemporaryFolder tmpDir = new TemporaryFolder();
+
+    private File directory;
+
+    private UploadServiceImpl testObj;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = tmpDir.newFolder();
+        testObj = new UploadServiceImpl();
+        testObj.setDirectory(directory.toPath());
+    }
+
+    @Test
+    public void testPutChunks() throws Exception {
+        final String id = testObj.create(USER);
+        assertTrue(testObj.exists(id, USER));
+        assertTrue(testObj.getChunks(id, USER).isEmpty());
+
+        assertEquals(3, testObj.putChunk(id, USER, 1, toInputStream("def", UTF_8), emptySet()));
+        assertEquals(4, testObj.putChunk(id, USER, 0, toInputStream("abc-", UTF_8), emptySet()));
+        assertEquals(2, testObj.putChunk(id, USER, 2, toInputStream("gh", UTF_8), emptySet()));
+
+        final SortedMap<Integer, Long> chunks = testObj.getChunks(id, USER);
+        assertEquals(3, chunks.size());
+        assertEquals(0, (int) chunks.firstKey());
+        assertEquals(4L, (long) chunks.get(0));
+
+        try (final InputStream content = testObj.getContent(id, USER)) {
+            assertEquals("abc-defgh", IOUtils.toString(content, UTF_8));
+        }
+    }
+
+    @Test
+    public void testReplaceChunk() throws Exception {
+        final String id = testObj.create(USER);
+        testObj.putChunk(id, USER, 0, toInputStream("partial", UTF_8), emptySet());
+        testObj.putChunk(id, USER, 0, toInputStream("complete", UTF_8), emptySet());
+
+        assertEquals(8L, (long) testObj.getChunks(id, USER).get(0));
+        try (final InputStream content = testObj.getContent(id, USER)) {
+            assertEquals("complete", IOUtils.toString(content, UTF_8));
+        }
+    }
+
+    @Test
+    public void testPutChunkWithChecksum() throws Exception {
+        final String id = testObj.create(USER);
+        testObj.putChunk(id, USER, 0, toInputStream("abc", UTF_8), singleton(sha1("abc")));
+        assertEquals(3L, (long) testObj.getChunks(id, USER).get(0));
+    }
+
+    @Test
+    public void testPutChunkWithBadChecksum() throws Exception {
+        final String id = testObj.create(USER);
+        try {
+            testObj.putChunk(id, USER, 0, toInputStream("abc", UTF_8), singleton(sha1("abd")));
+            fail("Expected the chunk to be rejected");
+        } catch (final InvalidChecksumException e) {
+            assertTrue(testObj.getChunks(id, USER).isEmpty());
+        }
+    }
+
+    @Test
+    public void testDelete() throws Exception {
+        final String id = testObj.create(USER);
+        testObj.putChunk(id, USER, 0, toInputStream("abc", UTF_8), emptySet());
+        testObj.delete(id, USER);
+
+        assertFalse(testObj.exists(id, USER));
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test(expected = SessionMissingException.class)
+    public void testOtherUser() {
+        final String id = testObj.create(USER);
+        assertFalse(testObj.exists(id, "otherUser"));
+        testObj.getChunks(id, "otherUser");
+    }
+
+    @Test(expected = SessionMissingException.class)
+    public void testMissingUpload() {
+        testObj.getContent("no-such-upload", USER);
+    }
+
+    @Test
+    public void testRemoveExpired() throws Exception {
+        final String id = testObj.create(USER);
+        testObj.putChunk(id, USER, 0, toInputStream("abc", UTF_8), emptySet());
+
+        testObj.removeExpired();
+        assertTrue(testObj.exists(id, USER));
+
+        testObj.setTimeout(-1);
+        testObj.removeExpired();
+        assertFalse(testObj.exists(id, USER));
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test
+    public void testStagedUploadsClearedAtStart() throws IOException {
+        final File stale = new File(directory, "upload-stale");
+        assertTrue(stale.mkdir());
+        assertTrue(new File(stale, "chunk0").createNewFile());
+        final File unrelated = new File(directory, "unrelated");
+        assertTrue(unrelated.createNewFile());
+
+        testObj.create(USER);
+        assertFalse(stale.exists());
+        assertTrue(unrelated.exists());
+    }
+
+    private static URI sha1(final String content) throws Exception {
+        return ContentDigest.asURI(SHA1.algorithm,
+                MessageDigest.getInstance(SHA1.algorithm).digest(content.getBytes(UTF_8)));
+    }
+}
@@ -17,6 +17,8 @@
  */
 package org.fcrepo.kernel.modeshape.utils;
 
+import org.fcrepo.kernel.api.utils.ContentDigest;
+import org.fcrepo.kernel.api.utils.FixityResult;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
@@ -25,9 +27,19 @@ import javax.jcr.Binary;
 import javax.jcr.Property;
 import javax.jcr.RepositoryException;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Random;
 
+import static java.util.Arrays.asList;
+import static org.fcrepo.kernel.api.utils.ContentDigest.DIGEST_ALGORITHM.MD5;
+import static org.fcrepo.kernel.api.utils.ContentDigest.DIGEST_ALGORITHM.SHA1;
+import static org.fcrepo.kernel.api.utils.ContentDigest.DIGEST_ALGORITHM.SHA256;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -75,4 +87,43 @@ public class BinaryCacheEntryTest {
     public void testGetExternalIdentifier() {
         assertEquals("/some/path", testObj.getExternalIdentifier());
     }
+
+    @Test
+    public void testCheckFixity() throws RepositoryException {
+        when(mockBinary.getStream()).thenReturn(new ByteArrayInputStream("0123456789".getBytes()));
+        final Collection<FixityResult> results = testObj.checkFixity(SHA1.algorithm);
+        assertEquals(1, results.size());
+        final FixityResult result = results.iterator().next();
+        assertEquals(10, result.getComputedSize());
+        assertEquals(URI.create("urn:sha1:87acec17cd9dcd20a716cc2cf67417b71c8a7016"), result.getComputedChecksum());
+    }
+
+    @Test
+    public void testCheckFixityWithSeveralAlgorithms() throws RepositoryException, IOException {
+        // more than one buffer's worth, so that reading and digesting overlap
+        final byte[] content = new byte[3 * 1024 * 1024 + 17];
+        new Random(1).nextBytes(content);
+        when(mockBinary.getStream()).thenReturn(new ByteArrayInputStream(content));
+
+        final Collection<FixityResult> results =
+                testObj.checkFixity(asList(MD5.algorithm, SHA1.algorithm, SHA256.algorithm));
+        assertEquals(3, results.size());
+        verify(mockBinary).getStream();
+
+        for (final FixityResult result : results) {
+            assertEquals(content.length, result.getComputedSize());
+            assertEquals("/some/path", result.getStoreIdentifier());
+            final URI expected = ContentDigest.asURI(result.getUsedAlgorithm(),
+                    digest(result.getUsedAlgorithm(), content));
+            assertEquals(expected, result.getComputedChecksum());
+        }
+    }
+
+    private static byte[] digest(final String algorithm, final byte[] content) {
+        try {
+            return MessageDigest.getInstance(algorithm).digest(content);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
 }
@@ -0,0 +1,87 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.utils;
+
+import static java.util.Arrays.asList;
+import static org.apache.commons.io.output.NullOutputStream.NULL_OUTPUT_STREAM;
+import static org.apache.tika.io.IOUtils.copy;
+import static org.fcrepo.kernel.api.utils.ContentDigest.DIGEST_ALGORITHM.MD5;
+import static org.fcrepo.kernel.api.utils.ContentDigest.DIGEST_ALGORITHM.SHA1;
+import static org.fcrepo.kernel.api.utils.ContentDigest.DIGEST_ALGORITHM.SHA256;
+import static org.fcrepo.kernel.api.utils.ContentDigest.DIGEST_ALGORITHM.SHA512;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class MultiDigestInputStreamTest {
+
+    @Test
+    public void testDigests() throws IOException {
+        try (final MultiDigestInputStream is = new MultiDigestInputStream(
+                new ByteArrayInputStream("0123456789".getBytes()),
+                asList(MD5.algorithm, SHA1.algorithm, SHA256.algorithm, SHA512.algorithm))) {
+            copy(is, NULL_OUTPUT_STREAM);
+            assertTrue(is.isExhausted());
+            assertEquals(10, is.getByteCount());
+
+            final Map<String, URI> digests = is.getDigests();
+            assertEquals(4, digests.size());
+            assertEquals(URI.create("urn:md5:781e5e245d69b566979b86e28d23f2c7"), digests.get(MD5.algorithm));
+            assertEquals(URI.create("urn:sha1:87acec17cd9dcd20a716cc2cf67417b71c8a7016"),
+                    digests.get(SHA1.algorithm));
+            assertEquals(URI.create("urn:sha256:84d89877f0d4041efb6bf91a16f0248f2fd573e6af05c19f96bedb9f882f7882"),
+                    digests.get(SHA256.algorithm));
+            assertEquals(URI.create("urn:sha512:bb96c2fc40d2d54617d6f276febe571f623a8dadf0b734855299b0e107fda32c" +
+                    "f6b69f2da32b36445d73690b93cbd0f7bfc20e0f7f28553d2a4428f23b716e90"), digests.get(SHA512.algorithm));
+
+            // the digests are complete, and so not recomputed
+            assertEquals(digests, is.getDigests());
+        }
+    }
+
+    @Test
+    public void testSkippedBytesAreDigested() throws IOException {
+        try (final MultiDigestInputStream is = new MultiDigestInputStream(
+                new ByteArrayInputStream("0123456789".getBytes()), asList(SHA1.algorithm))) {
+            assertEquals(4, is.skip(4));
+            copy(is, NULL_OUTPUT_STREAM);
+            assertEquals(10, is.getByteCount());
+            assertEquals(URI.create("urn:sha1:87acec17cd9dcd20a716cc2cf67417b71c8a7016"),
+                    is.getDigests().get(SHA1.algorithm));
+        }
+    }
+
+    @Test
+    public void testPartiallyRead() throws IOException {
+        try (final MultiDigestInputStream is = new MultiDigestInputStream(
+                new ByteArrayInputStream("0123456789".getBytes()), asList(SHA1.algorithm))) {
+            assertEquals('0', is.read());
+            assertFalse(is.isExhausted());
+        }
+    }
+}